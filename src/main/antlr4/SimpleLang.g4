@@ -13,7 +13,9 @@ varDeclaration
 methodsSection
               : METHODS LBRACE methodDeclaration* RBRACE ;
 methodDeclaration
-              : IDENTIFIER LPAREN parameterList? RPAREN COLON type block ;
+              : memoModifier? IDENTIFIER LPAREN parameterList? RPAREN COLON type block ;
+// Guarda os resultados do método em um cache por instância, com até INT resultados (ex: memo(1000) fib(int n): int)
+memoModifier  : MEMO (LPAREN INT RPAREN)? ;
 
 parameterList : parameter (COMMA parameter)* ;
 parameter     : type IDENTIFIER ;
@@ -24,26 +26,60 @@ block         : LBRACE statement* RBRACE ;
 
 statement     : varDeclaration
               | methodCall SEMICOLON
+              | mapCall SEMICOLON
               | assignment SEMICOLON
               | ifStatement
               | whileStatement
+              | switchStatement
               | returnStatement
               | printStatement
-              | readStatement ;
+              | readStatement
+              | concurrentStatement
+              | parallelStatement
+              | fileLoopStatement
+              | writeStatement ;
 
 printStatement: PRINT LPAREN expression RPAREN SEMICOLON ;
 
 readStatement : READ LPAREN IDENTIFIER RPAREN SEMICOLON ;
 
+// Laço sobre as linhas de um arquivo, ou sobre os campos separados pelo delimitador (padrão ","), lidos sob demanda
+// e convertidos para o tipo da variável (ex: lines (string linha : "dados.txt") { ... })
+fileLoopStatement
+              : (LINES | FIELDS) LPAREN type IDENTIFIER COLON expression (COMMA expression)? RPAREN block ;
+
+// Os prints executados dentro do bloco são escritos no arquivo, criado ou truncado
+writeStatement: WRITE LPAREN expression RPAREN block ;
+
+// Bloco de tarefas concorrentes: cada spawn executa o método em uma virtual thread
+// e o bloco só termina após todas as tarefas terminarem
+concurrentStatement
+              : CONCURRENT LBRACE spawnStatement+ RBRACE ;
+spawnStatement: SPAWN (IDENTIFIER ASSIGN)? methodCall SEMICOLON ;
+
+// Laço paralelo sobre o intervalo [início, fim), com variáveis de redução (sum, min ou max)
+parallelStatement
+              : PARALLEL LPAREN IDENTIFIER ASSIGN operand DOTDOT operand RPAREN
+                (REDUCE LPAREN reduction (COMMA reduction)* RPAREN)? block ;
+reduction     : IDENTIFIER IDENTIFIER ;
+
 ifStatement   : IF LPAREN expression RPAREN block (ELSE block)? ;
 whileStatement
               : WHILE LPAREN expression RPAREN block ;
 
+// Escolha entre vários casos pelo valor de uma expressão int ou string, sem fallthrough entre os casos
+switchStatement
+              : SWITCH LPAREN expression RPAREN LBRACE switchCase+ (DEFAULT block)? RBRACE ;
+switchCase    : CASE caseLabel (COMMA caseLabel)* block ;
+caseLabel     : INT | STRING ;
+
 returnStatement
               : RETURN expression SEMICOLON ;
 
 assignment    : IDENTIFIER ASSIGN expression ;
 methodCall    : IDENTIFIER LPAREN argumentList? RPAREN ;
+// Operação sobre uma variável map: m.get(chave), m.put(chave, valor), m.contains(chave), m.remove(chave) ou m.size()
+mapCall       : IDENTIFIER DOT IDENTIFIER LPAREN argumentList? RPAREN ;
 argumentList  : expression (COMMA expression)* ;
 
 // Alteração importante para diferenciar tipos:
@@ -55,6 +91,7 @@ expression
               | booleanExpression
               | involvedExpression
               | methodCall
+              | mapCall
               | IDENTIFIER
               | literal
               ;
@@ -63,7 +100,7 @@ booleanExpression
               : (comparisonStringExpression | comparisonExpression) ((AND | OR) (comparisonStringExpression | comparisonExpression))+;
 
 stringConcatenation
-              : STRING (PLUS (literal | IDENTIFIER | involvedNumericExpression | methodCall))+ ;
+              : STRING (PLUS (literal | IDENTIFIER | involvedNumericExpression | methodCall | mapCall))+ ;
 
 numericExpression
               : (operand | involvedNumericExpression) ((PLUS | MINUS | MULT | DIV) (operand | involvedNumericExpression))+ ;
@@ -87,9 +124,13 @@ literal       : STRING
 type          : STRING_TYPE
               | INT_TYPE
               | FLOAT_TYPE
-              | VOID_TYPE ;
+              | VOID_TYPE
+              | mapType ;
+
+// Tabela com chaves int ou string e valores int, float ou string (ex: map<string,int>)
+mapType       : MAP LT type COMMA type GT ;
 
-operand       : INT | FLOAT | IDENTIFIER | methodCall ;
+operand       : INT | FLOAT | IDENTIFIER | methodCall | mapCall ;
 
 // Lexer Rules
 
@@ -104,10 +145,22 @@ READ          : 'read' ;
 IF            : 'if' ;
 ELSE          : 'else' ;
 WHILE         : 'while' ;
+SWITCH        : 'switch' ;
+CASE          : 'case' ;
+DEFAULT       : 'default' ;
+CONCURRENT    : 'concurrent' ;
+SPAWN         : 'spawn' ;
+PARALLEL      : 'parallel' ;
+REDUCE        : 'reduce' ;
+MEMO          : 'memo' ;
+LINES         : 'lines' ;
+FIELDS        : 'fields' ;
+WRITE         : 'write' ;
 STRING_TYPE   : 'string' ;
 INT_TYPE      : 'int' ;
 FLOAT_TYPE    : 'float' ;
 VOID_TYPE     : 'void' ;
+MAP           : 'map' ;
 
 // Símbolos e operadores
 LBRACE        : '{' ;
@@ -117,6 +170,8 @@ RPAREN        : ')' ;
 COLON         : ':' ;
 SEMICOLON     : ';' ;
 COMMA         : ',' ;
+DOTDOT        : '..' ;
+DOT           : '.' ;
 ASSIGN        : '=' ;
 PLUS          : '+' ;
 MINUS         : '-' ;
@@ -2,38 +2,123 @@ package org.dimer;
 
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.dimer.compiler.SimpleLangBytecodeVisitor;
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.CompilerWarmup;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.compiler.pass.Optimization;
+import org.dimer.compiler.pass.PassReport;
+import org.dimer.interpreter.SimpleLangInterpreter;
+import org.dimer.watch.WatchMode;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class Main {
     private static final String BASE_TARGET_PATH = "./target/classes/";
     private static final File BASE_SOURCE_PATH = new File("./src/main/java/");
 
     public static void main(String[] args) throws Exception {
-        if (args.length != 1) {
-            System.err.println("Uso: java Main <caminho_do_arquivo>");
-            System.exit(1);
+        CompilerOptions options = CompilerOptions.defaults();
+        String filePath = null;
+        boolean watch = false;
+        // Com um único núcleo o aquecimento só disputa a CPU com a compilação do arquivo e a deixa mais lenta
+        boolean warmup = Runtime.getRuntime().availableProcessors() > 1;
+        boolean timePasses = false;
+        boolean interpret = false;
+        int hotThreshold = SimpleLangInterpreter.DEFAULT_HOT_THRESHOLD;
+        // -f<nome> e -fno-<nome> valem sobre o nível, mesmo quando aparecem antes do -O
+        Map<Optimization, Boolean> overrides = new LinkedHashMap<>();
+
+        try {
+            for (String arg : args) {
+                if (arg.equals("--watch")) {
+                    watch = true;
+                } else if (arg.equals("--warmup")) {
+                    warmup = true;
+                } else if (arg.equals("--no-warmup")) {
+                    warmup = false;
+                } else if (arg.equals("--profile")) {
+                    options = options.withProfile(true);
+                } else if (arg.equals("--no-tail-calls")) {
+                    overrides.put(Optimization.TAIL_CALLS, false);
+                } else if (arg.equals("--no-pure-calls")) {
+                    overrides.put(Optimization.PURE_CALLS, false);
+                } else if (arg.equals("--no-debug-info")) {
+                    options = options.withDebugInfo(false);
+                } else if (arg.equals("--time-passes")) {
+                    timePasses = true;
+                } else if (arg.equals("--interpret")) {
+                    interpret = true;
+                } else if (arg.startsWith("--hot-threshold=")) {
+                    hotThreshold = Integer.parseInt(arg.substring("--hot-threshold=".length()));
+                } else if (arg.matches("-O[0-9]+")) {
+                    options = options.withOptimizationLevel(Integer.parseInt(arg.substring(2)));
+                } else if (arg.startsWith("-fno-")) {
+                    overrides.put(Optimization.fromFlag(arg.substring("-fno-".length())), false);
+                } else if (arg.startsWith("-f")) {
+                    overrides.put(Optimization.fromFlag(arg.substring("-f".length())), true);
+                } else if (arg.startsWith("--jobs=")) {
+                    options = options.withParallelism(Integer.parseInt(arg.substring("--jobs=".length())));
+                } else if (arg.startsWith("--max-method-size=")) {
+                    options = options.withMaxMethodSize(Integer.parseInt(arg.substring("--max-method-size=".length())));
+                } else if (arg.startsWith("-") || filePath != null) {
+                    printUsageAndExit();
+                } else {
+                    filePath = arg;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Nível de otimização inválido, otimização desconhecida ou número inválido
+            System.err.println(e.getMessage());
+            printUsageAndExit();
+        }
+
+        if (filePath == null) {
+            printUsageAndExit();
+        }
+
+        for (var override : overrides.entrySet()) {
+            options = options.withOptimization(override.getKey(), override.getValue());
+        }
+
+        if (interpret) {
+            // Roda o programa direto, sem gerar o .class; o aquecimento do gerador só disputaria CPU com ele
+            SimpleLangCompiler compiler = new SimpleLangCompiler(options);
+            SimpleLangParser.ProgramContext tree = compiler.parse(CharStreams.fromFileName(filePath));
+            String className = SimpleLangCompiler.qualifiedClassName(tree, determinePackage(filePath));
+
+            new SimpleLangInterpreter(className, options, hotThreshold).run(tree);
+            return;
+        }
+
+        if (warmup) {
+            // Aquece o lexer, o parser e o gerador em outra thread enquanto o arquivo é lido
+            CompilerWarmup.start();
+        }
+
+        if (watch) {
+            new WatchMode(Path.of(filePath), options).run();
+            return;
         }
-        String filePath = args[0];
-        CharStream input = CharStreams.fromFileName(filePath);
 
-        SimpleLangLexer lexer = new SimpleLangLexer(input);
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        SimpleLangParser parser = new SimpleLangParser(tokens);
+        CharStream input = CharStreams.fromFileName(filePath);
 
-        SimpleLangParser.ProgramContext tree = parser.program();
+        SimpleLangCompiler compiler = new SimpleLangCompiler(options);
+        SimpleLangParser.ProgramContext tree = compiler.parse(input);
 
-        System.out.println(tree.toStringTree(parser));
+        System.out.println(tree.toStringTree(Arrays.asList(SimpleLangParser.ruleNames)));
 
         String className = tree.classDeclaration().getFirst().IDENTIFIER().getText();
         String pack = determinePackage(filePath);
 
-        // Visitor para geração de bytecode
-        SimpleLangBytecodeVisitor visitor = new SimpleLangBytecodeVisitor(determineClassName(pack, className));
-        visitor.visit(tree);
+        // Geração de bytecode
+        PassReport report = timePasses ? new PassReport() : null;
+        CompiledClass compiledClass = compiler.generate(tree, SimpleLangCompiler.qualifiedClassName(tree, pack), report);
 
         String outputPath = BASE_TARGET_PATH + pack + "/" + className + ".class";
 
@@ -44,25 +129,41 @@ public class Main {
             parentDir.mkdirs();
         }
 
-        byte[] bytecode = visitor.getBytecode();
-
         try (FileOutputStream fos = new FileOutputStream(outputFile)) {
-            fos.write(bytecode);
+            fos.write(compiledClass.bytecode());
         }
 
         System.out.println("Bytecode gerado e salvo em " + outputFile.getPath());
+
+        if (report != null) {
+            report.print(System.out);
+        }
+    }
+
+    private static void printUsageAndExit() {
+        System.err.println("Uso: java Main [--profile] [--jobs=N] [-O0|-O1|-O2] [-f<otimização>] [-fno-<otimização>] [--time-passes] [--warmup|--no-warmup] [--no-debug-info] [--max-method-size=N] <caminho_do_arquivo>");
+        System.err.println("     java Main --interpret [--hot-threshold=N] [opções] <caminho_do_arquivo>");
+        System.err.println("     java Main --watch [opções] <diretório>");
+        System.err.println("  --watch    recompila e executa na mesma JVM cada arquivo .sl alterado dentro do diretório");
+        System.err.println("  --interpret  executa o programa interpretado, sem gerar o .class; os métodos mais executados são compilados em segundo plano");
+        System.err.println("  --hot-threshold=N  chamadas mais voltas de laços para um método interpretado ser compilado (padrão: 1000, 0 = nunca)");
+        System.err.println("  --profile  injeta contadores de execução no bytecode e imprime os pontos mais executados ao final do programa");
+        System.err.println("  --jobs=N   quantidade de threads usadas para gerar os métodos de classes grandes (padrão: núcleos disponíveis)");
+        System.err.println("  -O0, -O1, -O2    nível de otimização (padrão: -O2)");
+        System.err.println("                   -O1: tail-calls, constants, jumps; -O2: -O1 mais pure-calls e inline-getters");
+        System.err.println("  -f<nome>, -fno-<nome>  liga ou desliga uma otimização, independente do nível");
+        System.err.println("  --time-passes    exibe o tempo e a variação do tamanho do bytecode em cada passe");
+        System.err.println("  --no-tail-calls  o mesmo que -fno-tail-calls");
+        System.err.println("  --no-pure-calls  o mesmo que -fno-pure-calls");
+        System.err.println("  --no-debug-info  não inclui no .class o nome do arquivo, as linhas e os nomes das variáveis locais");
+        System.err.println("  --warmup         aquece o compilador em segundo plano na inicialização (padrão com mais de um núcleo)");
+        System.err.println("  --no-warmup      não aquece o compilador, mesmo com mais de um núcleo");
+        System.err.println("  --max-method-size=N  divide métodos com mais de N bytes de bytecode em métodos auxiliares (padrão: 8000, 0 = nunca)");
+        System.exit(1);
     }
 
     private static String determinePackage(String filePath) {
         String path = new File(filePath).getParentFile().getPath();
         return path.replace(BASE_SOURCE_PATH.getPath(), "").replace("\\", "/");
     }
-
-    private static String determineClassName(String packageName, String className) {
-        if (packageName.startsWith("/")) {
-            packageName = packageName.substring(1);
-        }
-
-        return packageName + "/" + className;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package org.dimer.benchmark;
+
+import java.nio.file.Path;
+
+/**
+ * Um programa do corpus de benchmarks: o código SimpleLang, sua versão escrita à mão em Java e a entrada
+ * fornecida via System.in a cada execução.
+ *
+ * @param source     caminho do arquivo .sl, relativo à raiz do projeto
+ * @param pack       pacote usado ao compilar o .sl (formato da JVM)
+ * @param javaClass  equivalente em Java, executado pelo construtor sem argumentos
+ * @param input      entrada simulada do console
+ */
+public record BenchmarkCase(String name, Path source, String pack, Class<?> javaClass, String input) {
+}
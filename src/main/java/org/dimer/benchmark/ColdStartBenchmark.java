@@ -0,0 +1,101 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.CompilerWarmup;
+import org.dimer.compiler.SimpleLangCompiler;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mede a latência da compilação do primeiro arquivo em uma JVM nova, com e sem o {@link CompilerWarmup}.
+ * Cada medição roda em um processo filho, já que o custo medido (carregamento de classes e montagem dos DFAs do
+ * ANTLR) só existe uma vez por JVM. Também é exibida a segunda compilação do mesmo arquivo, como referência de
+ * compilação já aquecida. Deve ser executado a partir da raiz do projeto. Argumento opcional: {@code --execucoes=10}
+ */
+public class ColdStartBenchmark {
+
+    private static final Path PROGRAMA = Path.of("./src/main/java/org/dimer/code/Hello.sl");
+    private static final String PACOTE = "org/dimer/code";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            medirNoFilho(args.length > 1 && args[1].equals("--aquecer"));
+            return;
+        }
+
+        int execucoes = 10;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (!parts[0].equals("--execucoes")) {
+                throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+            execucoes = Integer.parseInt(parts[1]);
+        }
+
+        List<double[]> frio = new ArrayList<>();
+        List<double[]> aquecido = new ArrayList<>();
+
+        // Alterna os modos para que variações da máquina afetem os dois igualmente
+        for (int i = 0; i < execucoes; i++) {
+            frio.add(executarFilho(false));
+            aquecido.add(executarFilho(true));
+        }
+
+        System.out.printf("%-22s %16s %16s%n", "", "1ª compilação", "2ª compilação");
+        System.out.printf("%-22s %13.2f ms %13.2f ms%n", "sem aquecimento", mediana(frio, 0), mediana(frio, 1));
+        System.out.printf("%-22s %13.2f ms %13.2f ms%n", "com aquecimento", mediana(aquecido, 0), mediana(aquecido, 1));
+        System.out.println("Núcleos disponíveis: " + Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Executado no processo filho: imprime o tempo, em ms, da primeira e da segunda compilação do programa,
+     * contando a partir do início do main (incluindo a leitura do arquivo).
+     */
+    private static void medirNoFilho(boolean aquecer) throws Exception {
+        long inicio = System.nanoTime();
+
+        if (aquecer) {
+            CompilerWarmup.start();
+        }
+
+        String source = Files.readString(PROGRAMA);
+        new SimpleLangCompiler().compile(source, PACOTE);
+        long primeira = System.nanoTime();
+
+        new SimpleLangCompiler().compile(source, PACOTE);
+        long segunda = System.nanoTime();
+
+        System.out.println((primeira - inicio) / 1e6 + " " + (segunda - primeira) / 1e6);
+    }
+
+    private static double[] executarFilho(boolean aquecer) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                ColdStartBenchmark.class.getName(), "--filho"));
+        if (aquecer) {
+            command.add("--aquecer");
+        }
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            output = reader.readLine();
+        }
+
+        if (process.waitFor() != 0 || output == null) {
+            throw new IllegalStateException("Processo filho falhou: " + output);
+        }
+
+        return Arrays.stream(output.trim().split(" ")).mapToDouble(Double::parseDouble).toArray();
+    }
+
+    private static double mediana(List<double[]> amostras, int coluna) {
+        double[] valores = amostras.stream().mapToDouble(amostra -> amostra[coluna]).sorted().toArray();
+        return valores[valores.length / 2];
+    }
+}
@@ -0,0 +1,134 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.runtime.ProgramRunner;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executa milhares de instâncias do programa {@code benchmark/corpus/Saudacoes.sl}, cada uma com uma entrada
+ * diferente, de três formas: uma por vez trocando System.in e System.out (a única forma possível quando o código
+ * gerado usava o console diretamente), uma por vez com um IoContext em memória, e todas ao mesmo tempo em virtual
+ * threads com o {@link ProgramRunner}. Confere se a saída de cada instância corresponde à sua entrada, o que falharia
+ * se as instâncias concorrentes misturassem suas leituras ou escritas.
+ * Deve ser executado a partir da raiz do projeto. Argumentos opcionais: {@code --instancias=10000 --nomes=20}
+ */
+public class ConcurrentProgramsBenchmark {
+
+    private static final Path PROGRAMA = Path.of("./src/main/java/org/dimer/benchmark/corpus/Saudacoes.sl");
+
+    public static void main(String[] args) throws Exception {
+        int instancias = 10000;
+        int nomes = 20;
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--instancias" -> instancias = Integer.parseInt(parts[1]);
+                case "--nomes" -> nomes = Integer.parseInt(parts[1]);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        Class<?> programa = new SimpleLangClassLoader().define(
+                new SimpleLangCompiler().compile(Files.readString(PROGRAMA), "org/dimer/benchmark/corpus"));
+        ProgramRunner runner = new ProgramRunner(programa);
+
+        List<String> entradas = new ArrayList<>();
+        List<String> esperadas = new ArrayList<>();
+        for (int i = 0; i < instancias; i++) {
+            StringBuilder entrada = new StringBuilder().append(nomes).append('\n');
+            StringBuilder esperada = new StringBuilder();
+            for (int j = 0; j < nomes; j++) {
+                String nome = "Pessoa " + i + "." + j;
+                entrada.append(nome).append('\n');
+                esperada.append("Olá, ").append(nome).append("!").append(System.lineSeparator());
+            }
+            entradas.add(entrada.toString());
+            esperadas.add(esperada.toString());
+        }
+
+        // Aquece as três formas antes de medir
+        for (int i = 0; i < 3; i++) {
+            viaConsole(programa, entradas);
+            sequencial(runner, entradas);
+            runner.runAll(entradas);
+        }
+
+        long inicio = System.nanoTime();
+        List<String> console = viaConsole(programa, entradas);
+        double tempoConsole = (System.nanoTime() - inicio) / 1e6;
+
+        inicio = System.nanoTime();
+        List<ProgramRunner.Result> sequenciais = sequencial(runner, entradas);
+        double tempoSequencial = (System.nanoTime() - inicio) / 1e6;
+
+        inicio = System.nanoTime();
+        List<ProgramRunner.Result> concorrentes = runner.runAll(entradas);
+        double tempoConcorrente = (System.nanoTime() - inicio) / 1e6;
+
+        System.out.printf("%d instâncias de %s, %d leituras cada (%d processadores)%n", instancias,
+                PROGRAMA.getFileName(), nomes + 1, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-36s %12s %14s %10s%n", "", "tempo", "instâncias/s", "corretas");
+        imprimir("uma por vez, System.setIn/setOut", tempoConsole, corretas(console, esperadas), instancias);
+        imprimir("uma por vez, IoContext", tempoSequencial, corretas(saidas(sequenciais), esperadas), instancias);
+        imprimir("virtual threads, ProgramRunner", tempoConcorrente, corretas(saidas(concorrentes), esperadas), instancias);
+    }
+
+    private static void imprimir(String nome, double tempoMs, int corretas, int instancias) {
+        System.out.printf("%-36s %9.1f ms %14.0f %10s%n", nome, tempoMs, instancias / (tempoMs / 1000), corretas + "/" + instancias);
+    }
+
+    private static List<String> viaConsole(Class<?> programa, List<String> entradas) throws Exception {
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        List<String> saidas = new ArrayList<>();
+
+        try {
+            for (String entrada : entradas) {
+                ByteArrayOutputStream saida = new ByteArrayOutputStream();
+                System.setIn(new ByteArrayInputStream(entrada.getBytes(StandardCharsets.UTF_8)));
+                System.setOut(new PrintStream(saida, false, StandardCharsets.UTF_8));
+                programa.getConstructor().newInstance();
+                System.out.flush();
+                saidas.add(saida.toString(StandardCharsets.UTF_8));
+            }
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+
+        return saidas;
+    }
+
+    private static List<ProgramRunner.Result> sequencial(ProgramRunner runner, List<String> entradas) {
+        List<ProgramRunner.Result> resultados = new ArrayList<>();
+        for (String entrada : entradas) {
+            resultados.add(runner.run(entrada));
+        }
+        return resultados;
+    }
+
+    private static List<String> saidas(List<ProgramRunner.Result> resultados) {
+        return resultados.stream().map(resultado -> resultado.error() == null ? resultado.output() : null).toList();
+    }
+
+    private static int corretas(List<String> saidas, List<String> esperadas) {
+        int corretas = 0;
+        for (int i = 0; i < saidas.size(); i++) {
+            if (esperadas.get(i).equals(saidas.get(i))) {
+                corretas++;
+            }
+        }
+        return corretas;
+    }
+}
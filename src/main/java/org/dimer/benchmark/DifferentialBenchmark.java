@@ -0,0 +1,208 @@
+package org.dimer.benchmark;
+
+import org.dimer.benchmark.corpus.FibonacciJava;
+import org.dimer.benchmark.corpus.PrimosJava;
+import org.dimer.benchmark.corpus.SaudacoesJava;
+import org.dimer.benchmark.corpus.SomaRecursivaJava;
+import org.dimer.code.HelloJava;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.compiler.util.BytecodeSize;
+import org.dimer.runtime.SimpleLangClassLoader;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Benchmark diferencial: compila cada programa do corpus e compara o código gerado com o equivalente escrito
+ * à mão em Java, medindo vazão, alocação por execução, tamanho de bytecode e quantidade de instruções por método.
+ * <p>
+ * Cada medição roda em janelas de tempo fixas, com iterações de aquecimento descartadas antes, para que as duas
+ * versões sejam comparadas já compiladas pelo JIT. O processo termina com código 1 caso algum programa gerado
+ * fique mais lento que o Java além do limite (padrão 1.5x), para ser usado como verificação de regressão.
+ * <p>
+ * Deve ser executado a partir da raiz do projeto. Argumentos opcionais:
+ * {@code --limite=1.5 --aquecimento=3 --iteracoes=5 --janela-ms=1000}
+ */
+public class DifferentialBenchmark {
+
+    private static final List<BenchmarkCase> CORPUS = List.of(
+            new BenchmarkCase("Hello", Path.of("./src/main/java/org/dimer/code/Hello.sl"), "org/dimer/code",
+                    HelloJava.class, "\n\nMatheus\n140\n0\n17\n"),
+            new BenchmarkCase("Primos", Path.of("./src/main/java/org/dimer/benchmark/corpus/Primos.sl"), "org/dimer/benchmark/corpus",
+                    PrimosJava.class, ""),
+            new BenchmarkCase("Fibonacci", Path.of("./src/main/java/org/dimer/benchmark/corpus/Fibonacci.sl"), "org/dimer/benchmark/corpus",
+                    FibonacciJava.class, ""),
+            new BenchmarkCase("SomaRecursiva", Path.of("./src/main/java/org/dimer/benchmark/corpus/SomaRecursiva.sl"), "org/dimer/benchmark/corpus",
+                    SomaRecursivaJava.class, ""),
+            new BenchmarkCase("Saudacoes", Path.of("./src/main/java/org/dimer/benchmark/corpus/Saudacoes.sl"), "org/dimer/benchmark/corpus",
+                    SaudacoesJava.class, saudacoesInput())
+    );
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private record Measurement(double opsPerSecond, long bytesPerOp) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        double limite = 1.5;
+        int aquecimento = 3;
+        int iteracoes = 5;
+        long janelaMs = 1000;
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--limite" -> limite = Double.parseDouble(parts[1]);
+                case "--aquecimento" -> aquecimento = Integer.parseInt(parts[1]);
+                case "--iteracoes" -> iteracoes = Integer.parseInt(parts[1]);
+                case "--janela-ms" -> janelaMs = Long.parseLong(parts[1]);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        List<String> regressoes = new ArrayList<>();
+
+        for (BenchmarkCase benchmarkCase : CORPUS) {
+            CompiledClass compiledClass = new SimpleLangCompiler().compile(Files.readString(benchmarkCase.source()), benchmarkCase.pack());
+
+            Constructor<?> simpleLang = new SimpleLangClassLoader().define(compiledClass).getConstructor();
+            Constructor<?> java = benchmarkCase.javaClass().getConstructor();
+            byte[] input = benchmarkCase.input().getBytes(StandardCharsets.UTF_8);
+
+            // Aquece as duas versões antes de medir, já que ambas compartilham código da biblioteca (Scanner, println...)
+            measure(simpleLang, input, aquecimento, janelaMs);
+            measure(java, input, aquecimento, janelaMs);
+            Measurement simpleLangResult = measure(simpleLang, input, iteracoes, janelaMs);
+            Measurement javaResult = measure(java, input, iteracoes, janelaMs);
+
+            double ratio = javaResult.opsPerSecond() / simpleLangResult.opsPerSecond();
+
+            System.out.println("==================== " + benchmarkCase.name() + " ====================");
+            System.out.printf("%-12s %14s %14s%n", "", "ops/s", "bytes/op");
+            System.out.printf("%-12s %14.1f %14d%n", "SimpleLang", simpleLangResult.opsPerSecond(), simpleLangResult.bytesPerOp());
+            System.out.printf("%-12s %14.1f %14d%n", "Java", javaResult.opsPerSecond(), javaResult.bytesPerOp());
+            System.out.printf("Java / SimpleLang: %.2fx%n", ratio);
+
+            printMethods(compiledClass.bytecode(), readClassBytes(benchmarkCase.javaClass()));
+
+            if (ratio > limite) {
+                regressoes.add(String.format("%s (%.2fx, limite %.2fx)", benchmarkCase.name(), ratio, limite));
+            }
+        }
+
+        if (!regressoes.isEmpty()) {
+            System.err.println("Código gerado mais lento que o Java além do limite: " + String.join(", ", regressoes));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Executa o programa repetidamente durante 'iteracoes' janelas de tempo, trocando System.in pela entrada
+     * simulada e descartando a saída a cada execução.
+     */
+    private static Measurement measure(Constructor<?> program, byte[] input, int iteracoes, long janelaMs) throws Exception {
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long operations = 0;
+        long elapsed = 0;
+        long allocated = 0;
+
+        try {
+            for (int i = 0; i < iteracoes; i++) {
+                long allocatedStart = THREADS.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                long deadline = start + janelaMs * 1_000_000;
+                long now;
+
+                do {
+                    System.setIn(new ByteArrayInputStream(input));
+                    program.newInstance();
+                    operations++;
+                    now = System.nanoTime();
+                } while (now < deadline);
+
+                elapsed += now - start;
+                allocated += THREADS.getCurrentThreadAllocatedBytes() - allocatedStart;
+            }
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+
+        return new Measurement(operations / (elapsed / 1e9), allocated / operations);
+    }
+
+    private static void printMethods(byte[] simpleLang, byte[] java) {
+        Map<String, MethodNode> simpleLangMethods = methodsByName(simpleLang);
+        Map<String, MethodNode> javaMethods = methodsByName(java);
+
+        System.out.printf("%-28s %22s %22s%n", "método", "SimpleLang bytes/insn", "Java bytes/insn");
+
+        for (var entry : simpleLangMethods.entrySet()) {
+            MethodNode javaMethod = javaMethods.get(entry.getKey());
+            System.out.printf("%-28s %22s %22s%n", entry.getKey(), sizes(entry.getValue()), javaMethod == null ? "-" : sizes(javaMethod));
+        }
+    }
+
+    private static String sizes(MethodNode method) {
+        return BytecodeSize.codeLength(method) + " / " + BytecodeSize.instructionCount(method);
+    }
+
+    private static Map<String, MethodNode> methodsByName(byte[] bytecode) {
+        ClassNode classNode = new ClassNode();
+        new ClassReader(withSupportedVersion(bytecode)).accept(classNode, 0);
+
+        Map<String, MethodNode> methods = new TreeMap<>();
+        for (MethodNode method : classNode.methods) {
+            if ((method.access & Opcodes.ACC_ABSTRACT) == 0) {
+                methods.put(method.name + method.desc, method);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * O ASM 9.4 lê classes apenas até a versão 64 (Java 20), enquanto as classes Java do projeto são compiladas
+     * para o Java 21. Como aqui só são lidas as instruções, a versão é rebaixada em uma cópia do array.
+     */
+    private static byte[] withSupportedVersion(byte[] bytecode) {
+        byte[] copy = bytecode.clone();
+        if (copy[7] > Opcodes.V20) {
+            copy[7] = (byte) Opcodes.V20;
+        }
+        return copy;
+    }
+
+    private static byte[] readClassBytes(Class<?> type) throws Exception {
+        try (InputStream in = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String saudacoesInput() {
+        StringBuilder input = new StringBuilder("50\n");
+        for (int i = 0; i < 50; i++) {
+            input.append("Pessoa ").append(i).append('\n');
+        }
+        return input.toString();
+    }
+}
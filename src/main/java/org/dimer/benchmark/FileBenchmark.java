@@ -0,0 +1,249 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.runtime.FileInput;
+import org.dimer.runtime.ProgramRunner;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compara os comandos lines, fields e write com o mesmo processamento escrito à mão em Java, com BufferedReader,
+ * String.split, Integer.parseInt e BufferedWriter: soma dos números de um arquivo com um número por linha, soma dos
+ * campos de um CSV e cópia de um arquivo linha a linha. Os arquivos são gerados em um diretório temporário com o
+ * tamanho pedido; a partir de {@link FileInput#MAPPED_THRESHOLD} eles são lidos com mapeamento em memória.
+ * <p>
+ * Para cada caso mostra o tempo (menor de algumas repetições), a vazão e os bytes alocados na thread durante a
+ * leitura: com o fields (int ...) os valores são convertidos direto dos bytes, sem uma String por campo. Os
+ * resultados das duas versões são comparados, assim como os arquivos copiados: qualquer diferença termina o processo
+ * com código 1.
+ * Argumentos opcionais: {@code --mb=100 --repeticoes=5}
+ */
+public class FileBenchmark {
+
+    private static final String PACOTE = "org/dimer/benchmark";
+    private static final long SEMENTE = 7;
+    private static final int CAMPOS_POR_LINHA = 8;
+
+    private interface Caso {
+        String executar() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int megabytes = 100;
+        int repeticoes = 5;
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--mb" -> megabytes = Integer.parseInt(parts[1]);
+                case "--repeticoes" -> repeticoes = Integer.parseInt(parts[1]);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        Path diretorio = Files.createTempDirectory("simplelang-arquivos");
+        Path numeros = diretorio.resolve("numeros.txt");
+        Path csv = diretorio.resolve("dados.csv");
+        Path copiaSimpleLang = diretorio.resolve("copia-simplelang.csv");
+        Path copiaJava = diretorio.resolve("copia-java.csv");
+
+        try {
+            gerar(numeros, megabytes, 1);
+            gerar(csv, megabytes, CAMPOS_POR_LINHA);
+
+            System.out.printf("Arquivos de %d MB, menor tempo de %d execuções%n", megabytes, repeticoes);
+            System.out.printf("%-10s %-12s %10s %10s %14s%n", "caso", "versão", "tempo", "MB/s", "alocado");
+
+            ProgramRunner somaLinhas = carregar(programa("SomaLinhas", """
+                    int soma = 0;
+                    lines (int n : "%s") {
+                        soma = soma + n;
+                    }
+                    return soma;
+                    """.formatted(caminho(numeros))));
+            comparar("lines", numeros, repeticoes,
+                    () -> executar(somaLinhas),
+                    () -> somarLinhas(numeros));
+
+            ProgramRunner somaCampos = carregar(programa("SomaCampos", """
+                    int soma = 0;
+                    fields (int n : "%s") {
+                        soma = soma + n;
+                    }
+                    return soma;
+                    """.formatted(caminho(csv))));
+            comparar("fields", csv, repeticoes,
+                    () -> executar(somaCampos),
+                    () -> somarCampos(csv));
+
+            ProgramRunner copia = carregar(programa("Copia", """
+                    write ("%s") {
+                        lines (string linha : "%s") {
+                            print(linha);
+                        }
+                    }
+                    return 0;
+                    """.formatted(caminho(copiaSimpleLang), caminho(csv))));
+            comparar("write", csv, repeticoes,
+                    () -> executar(copia),
+                    () -> copiar(csv, copiaJava));
+
+            if (Files.mismatch(copiaSimpleLang, copiaJava) != -1) {
+                System.err.println("Cópias diferentes: " + copiaSimpleLang + " e " + copiaJava);
+                System.exit(1);
+            }
+        } finally {
+            try (var arquivos = Files.list(diretorio)) {
+                for (Path arquivo : arquivos.toList()) {
+                    Files.delete(arquivo);
+                }
+            }
+            Files.delete(diretorio);
+        }
+    }
+
+    /**
+     * Programa com um método que executa o corpo e devolve um int, impresso pelo init.
+     */
+    static String programa(String nome, String corpo) {
+        return """
+                class %s {
+                    var {
+                    }
+
+                    methods {
+                        executar(): int {
+                %s        }
+                    }
+
+                    init {
+                        print(executar());
+                    }
+                }
+                """.formatted(nome, corpo.indent(12));
+    }
+
+    private static void comparar(String nome, Path arquivo, int repeticoes, Caso simpleLang, Caso java) throws Exception {
+        double tamanho = Files.size(arquivo) / (1024.0 * 1024.0);
+
+        String resultadoSimpleLang = medir(nome, "SimpleLang", tamanho, repeticoes, simpleLang);
+        String resultadoJava = medir("", "Java", tamanho, repeticoes, java);
+
+        if (!resultadoSimpleLang.equals(resultadoJava)) {
+            System.err.println("Resultados diferentes no caso " + nome + ": " + resultadoSimpleLang + " e " + resultadoJava);
+            System.exit(1);
+        }
+    }
+
+    private static String medir(String nome, String versao, double tamanho, int repeticoes, Caso caso) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String resultado = caso.executar(); // Aquecimento
+        long menorTempo = Long.MAX_VALUE;
+        long alocado = 0;
+
+        for (int i = 0; i < repeticoes; i++) {
+            long alocadoAntes = threads.getCurrentThreadAllocatedBytes();
+            long inicio = System.nanoTime();
+            caso.executar();
+            long tempo = System.nanoTime() - inicio;
+
+            if (tempo < menorTempo) {
+                menorTempo = tempo;
+                alocado = threads.getCurrentThreadAllocatedBytes() - alocadoAntes;
+            }
+        }
+
+        double ms = menorTempo / 1e6;
+        System.out.printf("%-10s %-12s %7.1f ms %10.1f %11.1f MB%n", nome, versao, ms, tamanho / (ms / 1000),
+                alocado / (1024.0 * 1024.0));
+        return resultado;
+    }
+
+    private static ProgramRunner carregar(String source) throws Exception {
+        return new ProgramRunner(new SimpleLangClassLoader().define(new SimpleLangCompiler().compile(source, PACOTE)));
+    }
+
+    private static String executar(ProgramRunner runner) {
+        ProgramRunner.Result resultado = runner.run("");
+        if (resultado.error() != null) {
+            throw new IllegalStateException(resultado.error());
+        }
+        return resultado.output().strip();
+    }
+
+    private static String somarLinhas(Path arquivo) throws IOException {
+        int soma = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(arquivo)) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                soma += Integer.parseInt(linha);
+            }
+        }
+
+        return String.valueOf(soma);
+    }
+
+    private static String somarCampos(Path arquivo) throws IOException {
+        int soma = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(arquivo)) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                for (String campo : linha.split(",")) {
+                    soma += Integer.parseInt(campo);
+                }
+            }
+        }
+
+        return String.valueOf(soma);
+    }
+
+    private static String copiar(Path origem, Path destino) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(origem);
+             BufferedWriter writer = Files.newBufferedWriter(destino)) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                writer.write(linha);
+                writer.newLine();
+            }
+        }
+
+        return "0";
+    }
+
+    /**
+     * Gera um arquivo de números aleatórios, com a quantidade de campos por linha separados por vírgula.
+     */
+    private static void gerar(Path arquivo, int megabytes, int campos) throws IOException {
+        Random random = new Random(SEMENTE);
+        long tamanho = (long) megabytes * 1024 * 1024;
+        long escrito = 0;
+        int[] valores = new int[campos];
+
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo)) {
+            while (escrito < tamanho) {
+                Arrays.setAll(valores, i -> random.nextInt(2_000_000) - 1_000_000);
+                String linha = String.join(",", Arrays.stream(valores).mapToObj(String::valueOf).toList());
+                writer.write(linha);
+                writer.write('\n');
+                escrito += linha.length() + 1;
+            }
+        }
+    }
+
+    /**
+     * Caminho para um literal string do programa: as barras invertidas do Windows também são aceitas como '/'.
+     */
+    private static String caminho(Path arquivo) {
+        return arquivo.toAbsolutePath().toString().replace('\\', '/');
+    }
+}
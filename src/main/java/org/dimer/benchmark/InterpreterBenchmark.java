@@ -0,0 +1,146 @@
+package org.dimer.benchmark;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.dimer.SimpleLangParser;
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.interpreter.SimpleLangInterpreter;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara, em JVMs novas, o tempo total (do início do main até o fim do programa) de três formas de executar um
+ * programa: compilando tudo antes ({@link SimpleLangCompiler}), só interpretando ({@link SimpleLangInterpreter} sem
+ * compilação) e interpretando com os métodos quentes compilados em segundo plano. Os programas curtos mostram o
+ * ganho de começar a executar sem gerar bytecode; os longos, o custo do interpretador e quanto a compilação dos
+ * métodos quentes recupera. Também confere se as três formas imprimem a mesma saída.
+ * Deve ser executado a partir da raiz do projeto. Argumento opcional: {@code --execucoes=5}
+ */
+public class InterpreterBenchmark {
+
+    private static final Path CORPUS = Path.of("./src/main/java/org/dimer/benchmark/corpus");
+    private static final String PACOTE = "org/dimer/benchmark";
+    private static final String[] MODOS = {"compilado", "interpretado", "misto"};
+
+    /**
+     * Programa do corpus, com um trecho do código trocado para aumentar o trabalho (ou null para usar como está).
+     */
+    private record Programa(String nome, String arquivo, String original, String substituto) {
+
+        String codigo() throws Exception {
+            String source = Files.readString(CORPUS.resolve(arquivo));
+            return original != null ? source.replace(original, substituto) : source;
+        }
+    }
+
+    private static final List<Programa> PROGRAMAS = List.of(
+            new Programa("Mdc (curto)", "Mdc.sl", null, null),
+            new Programa("Fibonacci (curto)", "Fibonacci.sl", null, null),
+            new Programa("Primos (curto)", "Primos.sl", null, null),
+            new Programa("Fibonacci n=30", "Fibonacci.sl", "int n = 22", "int n = 30"),
+            new Programa("Primos até 2000000", "Primos.sl", "limite = 20000", "limite = 2000000"));
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            medirNoFilho(Integer.parseInt(args[1]), args[2]);
+            return;
+        }
+
+        int execucoes = 5;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (!parts[0].equals("--execucoes")) {
+                throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+            execucoes = Integer.parseInt(parts[1]);
+        }
+
+        System.out.printf("%-22s %14s %14s %14s %8s%n", "", MODOS[0], MODOS[1], MODOS[2], "saídas");
+
+        for (int p = 0; p < PROGRAMAS.size(); p++) {
+            List<List<Double>> tempos = new ArrayList<>();
+            List<String> saidas = new ArrayList<>();
+            for (int i = 0; i < MODOS.length; i++) {
+                tempos.add(new ArrayList<>());
+            }
+
+            // Alterna os modos para que variações da máquina afetem todos igualmente
+            for (int execucao = 0; execucao < execucoes; execucao++) {
+                for (String modo : MODOS) {
+                    String[] resultado = executarFilho(p, modo);
+                    tempos.get(List.of(MODOS).indexOf(modo)).add(Double.parseDouble(resultado[0]));
+                    saidas.add(resultado[1]);
+                }
+            }
+
+            boolean iguais = saidas.stream().distinct().count() == 1;
+            System.out.printf("%-22s %11.1f ms %11.1f ms %11.1f ms %8s%n", PROGRAMAS.get(p).nome(),
+                    mediana(tempos.get(0)), mediana(tempos.get(1)), mediana(tempos.get(2)), iguais ? "iguais" : "DIFERENTES");
+        }
+
+        System.out.println("misto: métodos compilados em segundo plano após " + SimpleLangInterpreter.DEFAULT_HOT_THRESHOLD
+                + " chamadas/voltas de laço");
+    }
+
+    /**
+     * Executado no processo filho: imprime o tempo em ms desde o início do main e o hash da saída do programa.
+     */
+    private static void medirNoFilho(int programa, String modo) throws Exception {
+        long inicio = System.nanoTime();
+        Programa escolhido = PROGRAMAS.get(programa);
+        String source = escolhido.codigo();
+
+        PrintStream saidaOriginal = System.out;
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(saida, true));
+
+        try {
+            SimpleLangCompiler compiler = new SimpleLangCompiler();
+
+            if (modo.equals("compilado")) {
+                new SimpleLangClassLoader().define(compiler.compile(source, PACOTE)).getConstructor().newInstance();
+            } else {
+                SimpleLangParser.ProgramContext tree = compiler.parse(CharStreams.fromString(source));
+                int limite = modo.equals("misto") ? SimpleLangInterpreter.DEFAULT_HOT_THRESHOLD : 0;
+                new SimpleLangInterpreter(SimpleLangCompiler.qualifiedClassName(tree, PACOTE),
+                        CompilerOptions.defaults(), limite).run(tree);
+            }
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+
+        long fim = System.nanoTime();
+        System.out.println((fim - inicio) / 1e6 + " " + saida.toString().hashCode());
+    }
+
+    private static String[] executarFilho(int programa, String modo) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = List.of(java, "-cp", System.getProperty("java.class.path"),
+                InterpreterBenchmark.class.getName(), "--filho", String.valueOf(programa), modo);
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            output = reader.readLine();
+        }
+
+        if (process.waitFor() != 0 || output == null) {
+            throw new IllegalStateException("Processo filho falhou: " + output);
+        }
+
+        return output.trim().split(" ");
+    }
+
+    private static double mediana(List<Double> amostras) {
+        double[] valores = amostras.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        return valores[valores.length / 2];
+    }
+}
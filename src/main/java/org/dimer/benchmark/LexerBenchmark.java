@@ -0,0 +1,91 @@
+package org.dimer.benchmark;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.dimer.SimpleLangLexer;
+import org.dimer.compiler.lexer.SimpleLangTokenSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara a vazão e a alocação por token do {@link SimpleLangTokenSource} e do lexer gerado pelo ANTLR em um
+ * programa grande do {@link ProgramGenerator}. A equivalência entre os dois é verificada pelo
+ * SimpleLangTokenSourceTest.
+ */
+public class LexerBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private interface LexerFactory {
+        TokenSource create(CharStream input, List<String> errors);
+    }
+
+    public static void main(String[] args) {
+        String programa = ProgramGenerator.generate("Grande", ProgramGenerator.Config.defaults().withMethods(2000));
+        LexerFactory antlr = (input, errors) -> antlrLexer(input, errors);
+        LexerFactory manual = (input, errors) -> manualLexer(input, errors);
+
+        // Aquece os dois antes de medir
+        measure(antlr, programa, 5);
+        measure(manual, programa, 5);
+
+        System.out.printf("Programa de %.1f KB%n", programa.length() / 1024.0);
+        System.out.printf("%-16s %12s %14s%n", "", "MB/s", "bytes/token");
+        print("ANTLR", measure(antlr, programa, 20), programa);
+        print("Escrito à mão", measure(manual, programa, 20), programa);
+    }
+
+    private static void print(String name, double[] result, String programa) {
+        System.out.printf("%-16s %12.1f %14.1f%n", name, programa.length() / result[0] / (1024 * 1024), result[1]);
+    }
+
+    /**
+     * @return tempo médio em segundos para ler todos os tokens e bytes alocados por token
+     */
+    private static double[] measure(LexerFactory factory, String source, int repeticoes) {
+        long tokens = 0;
+        long allocatedStart = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < repeticoes; i++) {
+            TokenSource lexer = factory.create(CharStreams.fromString(source), new ArrayList<>());
+            while (lexer.nextToken().getType() != Token.EOF) {
+                tokens++;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9 / repeticoes;
+        return new double[]{seconds, (double) (THREADS.getCurrentThreadAllocatedBytes() - allocatedStart) / tokens};
+    }
+
+    private static TokenSource antlrLexer(CharStream input, List<String> errors) {
+        SimpleLangLexer lexer = new SimpleLangLexer(input);
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(collector(errors));
+        return lexer;
+    }
+
+    private static TokenSource manualLexer(CharStream input, List<String> errors) {
+        SimpleLangTokenSource lexer = new SimpleLangTokenSource(input);
+        lexer.setErrorListener(collector(errors));
+        return lexer;
+    }
+
+    private static BaseErrorListener collector(List<String> errors) {
+        return new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                                    String msg, RecognitionException e) {
+                errors.add(line + ":" + charPositionInLine + " " + msg);
+            }
+        };
+    }
+}
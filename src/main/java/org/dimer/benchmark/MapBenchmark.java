@@ -0,0 +1,293 @@
+package org.dimer.benchmark;
+
+import org.dimer.runtime.IntKeyMap;
+import org.dimer.runtime.StringKeyMap;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compara os maps usados pelas variáveis 'map&lt;K,V&gt;' ({@link IntKeyMap} e {@link StringKeyMap}) com o
+ * {@link HashMap} equivalente (Integer ou String para Integer): tempo de put, get, busca de chaves ausentes e remove,
+ * e memória ocupada por entrada depois de um GC. Cada map é medido em um processo filho próprio, para que a
+ * compilação do JIT e o heap de um não afetem o outro. Também confere se os dois maps de cada par devolvem os
+ * mesmos valores.
+ * Argumentos opcionais: {@code --chaves=1000000 --execucoes=7}
+ */
+public class MapBenchmark {
+
+    private static final String[] CASOS =
+            {"IntKeyMap", "HashMap<Integer,Integer>", "StringKeyMap", "HashMap<String,Integer>"};
+    private static final String[] OPERACOES = {"put", "get", "ausente", "remove"};
+    private static final long SEMENTE = 7;
+
+    /**
+     * Operações sobre a chave de índice i, criadas para um único tipo de map em cada processo filho.
+     */
+    private interface Tabela {
+        void put(int i, int valor);
+
+        int get(int i);
+
+        boolean containsMissing(int i);
+
+        void remove(int i);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            medirNoFilho(CASOS[Integer.parseInt(args[1])], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+
+        int chaves = 1_000_000;
+        int execucoes = 7;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--chaves" -> chaves = Integer.parseInt(parts[1]);
+                case "--execucoes" -> execucoes = Integer.parseInt(parts[1]);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        System.out.printf("%d chaves, mediana de %d execuções (ns por operação)%n", chaves, execucoes);
+        System.out.printf("%-26s %9s %9s %9s %9s %15s %9s%n", "", OPERACOES[0], OPERACOES[1], OPERACOES[2],
+                OPERACOES[3], "bytes/entrada", "valores");
+
+        String[] verificacoes = new String[CASOS.length];
+        for (int caso = 0; caso < CASOS.length; caso++) {
+            String[] resultado = executarFilho(caso, chaves, execucoes);
+            verificacoes[caso] = resultado[5];
+
+            // O segundo map de cada par é comparado com o primeiro
+            String valores = caso % 2 == 0 ? "" : resultado[5].equals(verificacoes[caso - 1]) ? "iguais" : "DIFERENTES";
+            System.out.printf("%-26s %9s %9s %9s %9s %15s %9s%n", CASOS[caso], resultado[0], resultado[1], resultado[2],
+                    resultado[3], resultado[4], valores);
+        }
+    }
+
+    /**
+     * Executado no processo filho: imprime a mediana de cada operação em ns, os bytes por entrada e a soma dos
+     * valores lidos.
+     */
+    private static void medirNoFilho(String caso, int chaves, int execucoes) {
+        Random random = new Random(SEMENTE);
+        int[] intKeys = new int[chaves];
+        int[] missingIntKeys = new int[chaves];
+        for (int i = 0; i < chaves; i++) {
+            intKeys[i] = random.nextInt();
+            missingIntKeys[i] = random.nextInt();
+        }
+
+        String[] stringKeys = new String[chaves];
+        String[] missingStringKeys = new String[chaves];
+        for (int i = 0; i < chaves; i++) {
+            stringKeys[i] = "chave" + intKeys[i];
+            missingStringKeys[i] = "ausente" + missingIntKeys[i];
+        }
+
+        List<List<Double>> tempos = new ArrayList<>();
+        for (int i = 0; i < OPERACOES.length; i++) {
+            tempos.add(new ArrayList<>());
+        }
+        long soma = 0;
+
+        // As duas primeiras execuções só aquecem o JIT
+        for (int execucao = 0; execucao < execucoes + 2; execucao++) {
+            Tabela tabela = criar(caso, intKeys, missingIntKeys, stringKeys, missingStringKeys);
+            long[] marcas = new long[OPERACOES.length + 1];
+            soma = 0;
+
+            marcas[0] = System.nanoTime();
+            for (int i = 0; i < chaves; i++) {
+                tabela.put(i, i);
+            }
+            marcas[1] = System.nanoTime();
+            for (int i = 0; i < chaves; i++) {
+                soma += tabela.get(i);
+            }
+            marcas[2] = System.nanoTime();
+            for (int i = 0; i < chaves; i++) {
+                if (tabela.containsMissing(i)) {
+                    soma++;
+                }
+            }
+            marcas[3] = System.nanoTime();
+            for (int i = 0; i < chaves; i++) {
+                tabela.remove(i);
+            }
+            marcas[4] = System.nanoTime();
+
+            if (execucao >= 2) {
+                for (int i = 0; i < OPERACOES.length; i++) {
+                    tempos.get(i).add((double) (marcas[i + 1] - marcas[i]) / chaves);
+                }
+            }
+        }
+
+        double bytesPorEntrada = medirMemoria(criar(caso, intKeys, missingIntKeys, stringKeys, missingStringKeys), chaves);
+
+        StringBuilder linha = new StringBuilder();
+        for (List<Double> amostras : tempos) {
+            linha.append(String.format("%.1f ", mediana(amostras)));
+        }
+        System.out.println(linha.append(String.format("%.1f %d", bytesPorEntrada, soma)));
+    }
+
+    /**
+     * As chaves já existem antes de medir, então só as estruturas do map (e os Integer do HashMap) são contadas.
+     */
+    private static double medirMemoria(Tabela tabela, int chaves) {
+        long antes = heapUsado();
+        for (int i = 0; i < chaves; i++) {
+            tabela.put(i, i);
+        }
+        double bytesPorEntrada = (double) (heapUsado() - antes) / chaves;
+
+        // Mantém o map alcançável até a segunda medição
+        if (tabela.get(chaves - 1) != chaves - 1) {
+            throw new IllegalStateException("Valor incorreto no map");
+        }
+        return bytesPorEntrada;
+    }
+
+    private static Tabela criar(String caso, int[] intKeys, int[] missingIntKeys, String[] stringKeys,
+                                String[] missingStringKeys) {
+        return switch (caso) {
+            case "IntKeyMap" -> {
+                IntKeyMap map = new IntKeyMap(IntKeyMap.INT_VALUES);
+                yield new Tabela() {
+                    @Override
+                    public void put(int i, int valor) {
+                        map.putInt(intKeys[i], valor);
+                    }
+
+                    @Override
+                    public int get(int i) {
+                        return map.getInt(intKeys[i]);
+                    }
+
+                    @Override
+                    public boolean containsMissing(int i) {
+                        return map.contains(missingIntKeys[i]);
+                    }
+
+                    @Override
+                    public void remove(int i) {
+                        map.remove(intKeys[i]);
+                    }
+                };
+            }
+            case "HashMap<Integer,Integer>" -> {
+                HashMap<Integer, Integer> map = new HashMap<>();
+                yield new Tabela() {
+                    @Override
+                    public void put(int i, int valor) {
+                        map.put(intKeys[i], valor);
+                    }
+
+                    @Override
+                    public int get(int i) {
+                        return map.getOrDefault(intKeys[i], 0);
+                    }
+
+                    @Override
+                    public boolean containsMissing(int i) {
+                        return map.containsKey(missingIntKeys[i]);
+                    }
+
+                    @Override
+                    public void remove(int i) {
+                        map.remove(intKeys[i]);
+                    }
+                };
+            }
+            case "StringKeyMap" -> {
+                StringKeyMap map = new StringKeyMap(IntKeyMap.INT_VALUES);
+                yield new Tabela() {
+                    @Override
+                    public void put(int i, int valor) {
+                        map.putInt(stringKeys[i], valor);
+                    }
+
+                    @Override
+                    public int get(int i) {
+                        return map.getInt(stringKeys[i]);
+                    }
+
+                    @Override
+                    public boolean containsMissing(int i) {
+                        return map.contains(missingStringKeys[i]);
+                    }
+
+                    @Override
+                    public void remove(int i) {
+                        map.remove(stringKeys[i]);
+                    }
+                };
+            }
+            default -> {
+                HashMap<String, Integer> map = new HashMap<>();
+                yield new Tabela() {
+                    @Override
+                    public void put(int i, int valor) {
+                        map.put(stringKeys[i], valor);
+                    }
+
+                    @Override
+                    public int get(int i) {
+                        return map.getOrDefault(stringKeys[i], 0);
+                    }
+
+                    @Override
+                    public boolean containsMissing(int i) {
+                        return map.containsKey(missingStringKeys[i]);
+                    }
+
+                    @Override
+                    public void remove(int i) {
+                        map.remove(stringKeys[i]);
+                    }
+                };
+            }
+        };
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String[] executarFilho(int caso, int chaves, int execucoes) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = List.of(java, "-cp", System.getProperty("java.class.path"), MapBenchmark.class.getName(),
+                "--filho", String.valueOf(caso), String.valueOf(chaves), String.valueOf(execucoes));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            output = reader.readLine();
+        }
+
+        if (process.waitFor() != 0 || output == null) {
+            throw new IllegalStateException("Processo filho falhou: " + output);
+        }
+
+        return output.trim().split(" ");
+    }
+
+    private static double mediana(List<Double> amostras) {
+        double[] valores = amostras.stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(valores);
+        return valores[valores.length / 2];
+    }
+}
@@ -0,0 +1,142 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.runtime.IoContext;
+import org.dimer.runtime.Memoized;
+import org.dimer.runtime.ProgramRunner;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+/**
+ * Compara um método recursivo marcado como {@code memo} com o mesmo método sem cache. O programa conta os caminhos
+ * em uma grade de n x n: sem cache, a quantidade de chamadas cresce exponencialmente com n; com cache, cada ponto
+ * da grade é calculado uma única vez. Em seguida, com n fixo, varia o tamanho máximo do cache para mostrar o efeito
+ * dos descartes quando ele é menor que a quantidade de resultados diferentes. As saídas com e sem cache também são
+ * comparadas: qualquer diferença termina o processo com código 1.
+ * Argumentos opcionais: {@code --tamanho=14 --repeticoes=10}
+ */
+public class MemoBenchmark {
+
+    private static final String PACOTE = "org/dimer/benchmark";
+
+    public static void main(String[] args) throws Exception {
+        int maxTamanho = 14;
+        int repeticoes = 10;
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--tamanho" -> maxTamanho = Integer.parseInt(parts[1]);
+                case "--repeticoes" -> repeticoes = Integer.parseInt(parts[1]);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        System.out.printf("Caminhos em uma grade n x n, com e sem memo (média de %d execuções)%n", repeticoes);
+        System.out.printf("%6s %14s %14s %10s  %s%n", "n", "memo", "sem memo", "ganho", "cache");
+
+        for (int tamanho = 2; tamanho <= maxTamanho; tamanho += 2) {
+            Class<?> comMemo = carregar(programa(tamanho, "memo"));
+            Class<?> semMemo = carregar(programa(tamanho, ""));
+
+            comparar(comMemo, semMemo, tamanho);
+            double tempoMemo = medir(comMemo, repeticoes);
+            double tempoSemMemo = medir(semMemo, repeticoes);
+
+            System.out.printf("%6d %11.3f ms %11.3f ms %9.1fx  %s%n", tamanho, tempoMemo, tempoSemMemo,
+                    tempoSemMemo / tempoMemo, estatisticas(comMemo));
+        }
+
+        // Com o cache pequeno demais, os resultados descartados são calculados de novo. Como a recursão percorre a grade
+        // linha a linha, o cache só precisa guardar cerca de uma linha para que os descartes não causem faltas
+        int pontos = (maxTamanho + 1) * (maxTamanho + 1);
+        System.out.printf("%nTamanho máximo do cache com n = %d (%d pontos na grade)%n", maxTamanho, pontos);
+        System.out.printf("%10s %14s  %s%n", "cache", "tempo", "cache");
+
+        for (int tamanhoCache = 2; tamanhoCache < pontos * 2; tamanhoCache *= 2) {
+            Class<?> programa = carregar(programa(maxTamanho, "memo(" + tamanhoCache + ")"));
+            System.out.printf("%10d %11.3f ms  %s%n", tamanhoCache, medir(programa, repeticoes), estatisticas(programa));
+        }
+    }
+
+    /**
+     * Gera o programa que conta os caminhos da grade, com o modificador informado no método recursivo.
+     */
+    static String programa(int tamanho, String modificador) {
+        return """
+                class Caminhos {
+                    var {
+                    }
+
+                    methods {
+                        %s caminhos(int x, int y): int {
+                            if (x == 0) {
+                                return 1;
+                            }
+                            if (y == 0) {
+                                return 1;
+                            }
+                            return caminhos(x - 1, y) + caminhos(x, y - 1);
+                        }
+                    }
+
+                    init {
+                        print(caminhos(%d, %d));
+                    }
+                }
+                """.formatted(modificador, tamanho, tamanho);
+    }
+
+    private static Class<?> carregar(String source) throws Exception {
+        return new SimpleLangClassLoader().define(new SimpleLangCompiler().compile(source, PACOTE));
+    }
+
+    private static void comparar(Class<?> comMemo, Class<?> semMemo, int tamanho) {
+        String saidaMemo = executar(new ProgramRunner(comMemo));
+        String saidaSemMemo = executar(new ProgramRunner(semMemo));
+
+        if (!saidaMemo.equals(saidaSemMemo)) {
+            System.err.println("Saídas diferentes com e sem memo (n = " + tamanho + "):\n" + saidaMemo + "\n" + saidaSemMemo);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Estatísticas do cache de uma execução, lidas da instância pela interface {@link Memoized}.
+     */
+    private static String estatisticas(Class<?> programa) throws Exception {
+        Object instancia = programa.getConstructor(IoContext.class)
+                .newInstance(new IoContext(new StringReader(""), new PrintStream(OutputStream.nullOutputStream())));
+
+        if (instancia instanceof Memoized memoized) {
+            return memoized.memoCaches().getFirst().toString();
+        }
+        return "-";
+    }
+
+    private static String executar(ProgramRunner runner) {
+        ProgramRunner.Result resultado = runner.run("");
+        if (resultado.error() != null) {
+            throw new IllegalStateException(resultado.error());
+        }
+        return resultado.output();
+    }
+
+    private static double medir(Class<?> programa, int repeticoes) {
+        ProgramRunner runner = new ProgramRunner(programa);
+
+        // Aquece a versão antes de medir
+        for (int i = 0; i < 3; i++) {
+            executar(runner);
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            executar(runner);
+        }
+        return (System.nanoTime() - inicio) / 1e6 / repeticoes;
+    }
+}
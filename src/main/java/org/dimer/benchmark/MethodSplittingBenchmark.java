@@ -0,0 +1,103 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.compiler.util.BytecodeSize;
+import org.dimer.runtime.SimpleLangClassLoader;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+
+/**
+ * Compara programas gerados com métodos grandes compilados com e sem a divisão automática de métodos.
+ * Sem a divisão, métodos com mais de 8000 bytes nunca são compilados pelo JIT, e métodos com mais de 64KB
+ * nem chegam a ser gerados. Para cada programa são exibidos o maior método, a quantidade de métodos e o
+ * tempo médio de uma execução; a saída das duas versões também é comparada.
+ * Argumentos opcionais: {@code --repeticoes=200}
+ */
+public class MethodSplittingBenchmark {
+
+    // Comandos por bloco: o init gerado fica com ~15KB, ~40KB e mais de 64KB de bytecode
+    private static final int[] TAMANHOS = {150, 400, 800};
+    private static final String PACOTE = "org/dimer/benchmark/generated";
+    private static final int AQUECIMENTO = 50;
+
+    public static void main(String[] args) throws Exception {
+        int repeticoes = 200;
+
+        for (String arg : args) {
+            if (arg.startsWith("--repeticoes=")) {
+                repeticoes = Integer.parseInt(arg.substring("--repeticoes=".length()));
+            } else {
+                throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        System.out.printf("%-10s %-12s %10s %10s %16s%n", "comandos", "divisão", "métodos", "maior", "tempo médio");
+
+        for (int tamanho : TAMANHOS) {
+            String source = ProgramGenerator.generate("Grande", ProgramGenerator.Config.defaults()
+                    .withMethods(0)
+                    .withStatementsPerBlock(tamanho)
+                    .withLoopNesting(2));
+
+            String saidaSem = medir(tamanho, "desativada", source, CompilerOptions.defaults().withMaxMethodSize(0), repeticoes);
+            String saidaCom = medir(tamanho, "ativada", source, CompilerOptions.defaults(), repeticoes);
+
+            if (saidaSem != null && !saidaSem.equals(saidaCom)) {
+                System.err.println("Saídas diferentes com e sem divisão para " + tamanho + " comandos");
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * @return a saída da primeira execução do programa, ou null se ele não pôde ser compilado
+     */
+    private static String medir(int tamanho, String divisao, String source, CompilerOptions options, int repeticoes) throws Exception {
+        CompiledClass compiledClass;
+
+        try {
+            compiledClass = new SimpleLangCompiler(options).compile(source, PACOTE);
+        } catch (RuntimeException e) {
+            // Ex: MethodTooLargeException do ASM para métodos com mais de 64KB
+            System.out.printf("%-10d %-12s falha: %s%n", tamanho, divisao, e.getClass().getSimpleName());
+            return null;
+        }
+
+        ClassNode classNode = new ClassNode();
+        new ClassReader(compiledClass.bytecode()).accept(classNode, 0);
+        int maior = 0;
+        for (MethodNode method : classNode.methods) {
+            maior = Math.max(maior, BytecodeSize.codeLength(method));
+        }
+
+        Constructor<?> programa = new SimpleLangClassLoader().define(compiledClass).getConstructor();
+        PrintStream out = System.out;
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(saida));
+        programa.newInstance();
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            programa.newInstance();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            programa.newInstance();
+        }
+        long media = (System.nanoTime() - start) / repeticoes;
+        System.setOut(out);
+
+        System.out.printf("%-10d %-12s %10d %10d %13d ns%n", tamanho, divisao, classNode.methods.size(), maior, media);
+        return saida.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compara a contagem de primos com while (Primos.sl) e com o laço parallel (PrimosParalelo.sl).
+ * O ganho esperado é próximo da quantidade de threads do ForkJoinPool comum, que pode ser alterada com
+ * {@code -Djava.util.concurrent.ForkJoinPool.common.parallelism=N}. Deve ser executado a partir da raiz do projeto.
+ */
+public class ParallelLoopBenchmark {
+
+    private static final String PACOTE = "org/dimer/benchmark/corpus";
+    private static final int AQUECIMENTO = 20;
+    private static final int REPETICOES = 50;
+
+    public static void main(String[] args) throws Exception {
+        Constructor<?> sequencial = carregar(Path.of("./src/main/java/org/dimer/benchmark/corpus/Primos.sl"));
+        Constructor<?> paralelo = carregar(Path.of("./src/main/java/org/dimer/benchmark/corpus/PrimosParalelo.sl"));
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        executar(sequencial, AQUECIMENTO);
+        executar(paralelo, AQUECIMENTO);
+        double tempoSequencial = executar(sequencial, REPETICOES);
+        double tempoParalelo = executar(paralelo, REPETICOES);
+        System.setOut(out);
+
+        System.out.println("Threads do ForkJoinPool: " + ForkJoinPool.getCommonPoolParallelism());
+        System.out.printf("while (média):    %.3f ms%n", tempoSequencial);
+        System.out.printf("parallel (média): %.3f ms%n", tempoParalelo);
+        System.out.printf("Ganho: %.2fx%n", tempoSequencial / tempoParalelo);
+    }
+
+    private static Constructor<?> carregar(Path programa) throws Exception {
+        CompiledClass compiledClass = new SimpleLangCompiler().compile(Files.readString(programa), PACOTE);
+        return new SimpleLangClassLoader().define(compiledClass).getConstructor();
+    }
+
+    private static double executar(Constructor<?> programa, int repeticoes) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            programa.newInstance();
+        }
+        return (System.nanoTime() - start) / 1e6 / repeticoes;
+    }
+}
@@ -0,0 +1,68 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Mede o custo dos contadores injetados com --profile, comparando o mesmo programa compilado com e sem a opção.
+ * Deve ser executado a partir da raiz do projeto.
+ */
+public class ProfilerOverheadBenchmark {
+
+    private static final Path PROGRAMA = Path.of("./src/main/java/org/dimer/benchmark/corpus/Primos.sl");
+    private static final String PACOTE = "org/dimer/benchmark/corpus";
+    private static final int AQUECIMENTO = 50;
+    private static final int REPETICOES = 200;
+
+    public static void main(String[] args) throws Exception {
+        String source = Files.readString(PROGRAMA);
+
+        Constructor<?> semProfile = carregar(source, CompilerOptions.defaults());
+        Constructor<?> comProfile = carregar(source, CompilerOptions.defaults().withProfile(true));
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        // Intercala as execuções para que as duas versões passem pelo JIT nas mesmas condições
+        executar(semProfile, AQUECIMENTO);
+        executar(comProfile, AQUECIMENTO);
+        long mediaSemProfile = executar(semProfile, REPETICOES);
+        long mediaComProfile = executar(comProfile, REPETICOES);
+
+        System.setOut(out);
+
+        double overhead = ((double) (mediaComProfile - mediaSemProfile) / mediaSemProfile) * 100;
+
+        System.out.println("------------------------------------------");
+        System.out.println("Sem --profile (média): " + mediaSemProfile + " ns");
+        System.out.println("Com --profile (média): " + mediaComProfile + " ns");
+        System.out.printf("Overhead do profiler: %.1f%%\n", overhead);
+        System.out.println("------------------------------------------");
+    }
+
+    private static Constructor<?> carregar(String source, CompilerOptions options) throws Exception {
+        CompiledClass compiledClass = new SimpleLangCompiler(options).compile(source, PACOTE);
+        return new SimpleLangClassLoader().define(compiledClass).getConstructor();
+    }
+
+    private static long executar(Constructor<?> programa, int repeticoes) throws Exception {
+        long soma = 0;
+
+        for (int i = 0; i < repeticoes; i++) {
+            long start = System.nanoTime();
+            programa.newInstance();
+            long end = System.nanoTime();
+            soma += (end - start);
+        }
+
+        return soma / repeticoes;
+    }
+}
@@ -0,0 +1,215 @@
+package org.dimer.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera programas SimpleLang sintaticamente e semanticamente válidos, de tamanho configurável, para testar como
+ * o compilador escala. A mesma semente sempre gera o mesmo programa.
+ * <p>
+ * Os programas usam apenas inteiros nas expressões (para não depender das regras de conversão para float),
+ * divisões apenas por literais diferentes de zero e loops sempre limitados por um contador. Variáveis locais só
+ * são referenciadas dentro do bloco em que foram declaradas, para que o bytecode gerado passe pelo verificador.
+ */
+public class ProgramGenerator {
+
+    /**
+     * @param fields             quantidade de variáveis de classe (bloco var)
+     * @param methods            quantidade de métodos
+     * @param statementsPerBlock quantidade de comandos em cada bloco
+     * @param statementDepth     profundidade máxima de ifs aninhados
+     * @param expressionLength   quantidade de operandos em cada expressão numérica
+     * @param loopNesting        quantidade de whiles aninhados em cada método
+     */
+    public record Config(long seed, int fields, int methods, int statementsPerBlock, int statementDepth,
+                         int expressionLength, int loopNesting) {
+
+        public static Config defaults() {
+            return new Config(42, 10, 10, 4, 2, 4, 1);
+        }
+
+        public Config withFields(int fields) {
+            return new Config(seed, fields, methods, statementsPerBlock, statementDepth, expressionLength, loopNesting);
+        }
+
+        public Config withMethods(int methods) {
+            return new Config(seed, fields, methods, statementsPerBlock, statementDepth, expressionLength, loopNesting);
+        }
+
+        public Config withStatementsPerBlock(int statementsPerBlock) {
+            return new Config(seed, fields, methods, statementsPerBlock, statementDepth, expressionLength, loopNesting);
+        }
+
+        public Config withStatementDepth(int statementDepth) {
+            return new Config(seed, fields, methods, statementsPerBlock, statementDepth, expressionLength, loopNesting);
+        }
+
+        public Config withExpressionLength(int expressionLength) {
+            return new Config(seed, fields, methods, statementsPerBlock, statementDepth, expressionLength, loopNesting);
+        }
+
+        public Config withLoopNesting(int loopNesting) {
+            return new Config(seed, fields, methods, statementsPerBlock, statementDepth, expressionLength, loopNesting);
+        }
+    }
+
+    private static final int MAX_INDENTATION = 8;
+    private static final String[] OPERATORS = {"+", "-", "*"};
+    private static final String[] COMPARISONS = {">", "<", ">=", "<=", "==", "!="};
+
+    private final Config config;
+    private final Random random;
+    private final StringBuilder out = new StringBuilder();
+    private final List<String> visibleLocals = new ArrayList<>();
+    private int indentation = 0;
+    private int localCounter = 0;
+    // Métodos só podem chamar métodos já declarados antes deles
+    private int declaredMethods = 0;
+
+    private ProgramGenerator(Config config) {
+        if (config.fields() < 1) {
+            throw new IllegalArgumentException("O programa gerado precisa de ao menos uma variável de classe");
+        }
+        this.config = config;
+        this.random = new Random(config.seed());
+    }
+
+    public static String generate(String className, Config config) {
+        return new ProgramGenerator(config).generateClass(className);
+    }
+
+    private String generateClass(String className) {
+        line("class " + className + " {");
+        indentation++;
+
+        line("var {");
+        indentation++;
+        for (int i = 0; i < config.fields(); i++) {
+            line("int f" + i + " = " + random.nextInt(100) + ";");
+        }
+        line("string texto = \"gerado\";");
+        indentation--;
+        line("}");
+
+        line("methods {");
+        indentation++;
+        for (declaredMethods = 0; declaredMethods < config.methods(); declaredMethods++) {
+            generateMethod();
+        }
+        indentation--;
+        line("}");
+
+        line("init {");
+        indentation++;
+        visibleLocals.clear();
+        generateBlock(0, 0);
+        line("print(\"Fim: \" + texto);");
+        indentation--;
+        line("}");
+
+        indentation--;
+        line("}");
+        return out.toString();
+    }
+
+    private void generateMethod() {
+        visibleLocals.clear();
+        visibleLocals.add("a");
+        visibleLocals.add("b");
+
+        line("m" + declaredMethods + "(int a, int b): int {");
+        indentation++;
+        generateBlock(0, 0);
+        line("return " + numericExpression() + ";");
+        indentation--;
+        line("}");
+    }
+
+    /**
+     * Gera um bloco com comandos simples, seguido de um if (enquanto não atingir a profundidade máxima) e de um
+     * while (enquanto não atingir o aninhamento máximo de loops). Apenas o ramo then do if e o corpo do while
+     * aprofundam, de forma que o tamanho do programa cresça linearmente com cada dimensão.
+     */
+    private void generateBlock(int depth, int loops) {
+        int scope = visibleLocals.size();
+
+        for (int i = 0; i < config.statementsPerBlock(); i++) {
+            simpleStatement();
+        }
+
+        if (depth < config.statementDepth()) {
+            line("if (" + operand() + " " + COMPARISONS[random.nextInt(COMPARISONS.length)] + " " + operand() + ") {");
+            indentation++;
+            generateBlock(depth + 1, config.loopNesting());
+            indentation--;
+            line("} else {");
+            indentation++;
+            int elseScope = visibleLocals.size();
+            simpleStatement();
+            visibleLocals.subList(elseScope, visibleLocals.size()).clear();
+            indentation--;
+            line("}");
+        }
+
+        if (loops < config.loopNesting()) {
+            String counter = "i" + (localCounter++);
+            line("int " + counter + " = 0;");
+            visibleLocals.add(counter);
+
+            line("while (" + counter + " < 3) {");
+            indentation++;
+            generateBlock(config.statementDepth(), loops + 1);
+            line(counter + " = " + counter + " + 1;");
+            indentation--;
+            line("}");
+        }
+
+        // Variáveis declaradas dentro do bloco podem não ter sido inicializadas fora dele
+        visibleLocals.subList(scope, visibleLocals.size()).clear();
+    }
+
+    private void simpleStatement() {
+        if (random.nextBoolean()) {
+            String local = "v" + (localCounter++);
+            line("int " + local + " = " + numericExpression() + ";");
+            visibleLocals.add(local);
+        } else {
+            line(fieldName() + " = " + numericExpression() + ";");
+        }
+    }
+
+    private String numericExpression() {
+        StringBuilder expression = new StringBuilder(operand());
+
+        for (int i = 1; i < Math.max(2, config.expressionLength()); i++) {
+            if (random.nextInt(8) == 0) {
+                expression.append(" / ").append(1 + random.nextInt(9));
+            } else {
+                expression.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ').append(operand());
+            }
+        }
+
+        return expression.toString();
+    }
+
+    private String operand() {
+        int kind = random.nextInt(declaredMethods > 0 ? 4 : 3);
+
+        return switch (kind) {
+            case 0 -> String.valueOf(random.nextInt(1000));
+            case 1 -> fieldName();
+            case 2 -> visibleLocals.isEmpty() ? fieldName() : visibleLocals.get(random.nextInt(visibleLocals.size()));
+            default -> "m" + random.nextInt(declaredMethods) + "(" + random.nextInt(10) + ", " + fieldName() + ")";
+        };
+    }
+
+    private String fieldName() {
+        return "f" + random.nextInt(config.fields());
+    }
+
+    private void line(String text) {
+        // A indentação é limitada para que o tamanho do código-fonte cresça linearmente com o aninhamento
+        out.append("    ".repeat(Math.min(indentation, MAX_INDENTATION))).append(text).append('\n');
+    }
+}
@@ -0,0 +1,91 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compara o programa {@code benchmark/corpus/ChamadasPuras.sl} compilado com e sem o reaproveitamento de chamadas
+ * a métodos puros (e a retirada das chamadas invariantes de dentro dos laços). A saída das duas versões também é
+ * comparada: qualquer diferença termina o processo com código 1.
+ * Deve ser executado a partir da raiz do projeto. Argumentos opcionais: {@code --repeticoes=200}
+ */
+public class PureCallBenchmark {
+
+    private static final Path PROGRAMA = Path.of("./src/main/java/org/dimer/benchmark/corpus/ChamadasPuras.sl");
+    private static final String PACOTE = "org/dimer/benchmark/corpus";
+    private static final int AQUECIMENTO = 50;
+
+    public static void main(String[] args) throws Exception {
+        int repeticoes = 200;
+
+        for (String arg : args) {
+            if (arg.startsWith("--repeticoes=")) {
+                repeticoes = Integer.parseInt(arg.substring("--repeticoes=".length()));
+            } else {
+                throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        String source = Files.readString(PROGRAMA);
+        Constructor<?> comOtimizacao = carregar(source, CompilerOptions.defaults());
+        Constructor<?> semOtimizacao = carregar(source, CompilerOptions.defaults().withPureCalls(false));
+
+        PrintStream out = System.out;
+        String saidaCom = saida(comOtimizacao);
+        String saidaSem = saida(semOtimizacao);
+
+        if (!saidaCom.equals(saidaSem)) {
+            System.err.println("Saídas diferentes com e sem o reaproveitamento de chamadas:\n" + saidaCom + "\n" + saidaSem);
+            System.exit(1);
+        }
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        executar(comOtimizacao, AQUECIMENTO);
+        executar(semOtimizacao, AQUECIMENTO);
+        long com = executar(comOtimizacao, repeticoes);
+        long sem = executar(semOtimizacao, repeticoes);
+        System.setOut(out);
+
+        System.out.println(PROGRAMA.getFileName());
+        System.out.println("Com reaproveitamento de chamadas puras (média): " + com + " ns");
+        System.out.println("Sem reaproveitamento de chamadas puras (média): " + sem + " ns");
+    }
+
+    private static Constructor<?> carregar(String source, CompilerOptions options) throws Exception {
+        CompiledClass compiledClass = new SimpleLangCompiler(options).compile(source, PACOTE);
+        return new SimpleLangClassLoader().define(compiledClass).getConstructor();
+    }
+
+    private static String saida(Constructor<?> programa) throws Exception {
+        PrintStream out = System.out;
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        System.setOut(new PrintStream(saida));
+        try {
+            programa.newInstance();
+        } finally {
+            System.setOut(out);
+        }
+
+        return saida.toString();
+    }
+
+    private static long executar(Constructor<?> programa, int repeticoes) throws Exception {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < repeticoes; i++) {
+            programa.newInstance();
+        }
+
+        return (System.nanoTime() - start) / repeticoes;
+    }
+}
@@ -0,0 +1,174 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.SimpleLangCompiler;
+
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Mede como o tempo e a memória de compilação crescem com o tamanho do programa, variando uma dimensão por vez
+ * (variáveis de classe, métodos, profundidade de ifs, tamanho de expressão e aninhamento de loops) nos programas
+ * gerados pelo {@link ProgramGenerator}.
+ * <p>
+ * Para cada dimensão é exibido um gráfico em texto do tempo de compilação e é estimado o expoente de crescimento
+ * (inclinação em escala log-log entre o menor e o maior tamanho). Um expoente acima de {@link #LIMITE_EXPOENTE}
+ * indica comportamento superlinear, e nesse caso o processo termina com código 1. Argumentos opcionais:
+ * {@code --csv=arquivo.csv --repeticoes=5}
+ */
+public class ScalabilityBenchmark {
+
+    private static final double LIMITE_EXPOENTE = 1.3;
+    private static final int LARGURA_GRAFICO = 50;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private record Dimension(String name, int[] sizes, IntFunction<ProgramGenerator.Config> config) {
+    }
+
+    private record Sample(String dimension, int size, int sourceLength, double millis, long allocatedBytes, String error) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path csv = null;
+        int repeticoes = 5;
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--csv" -> csv = Path.of(parts[1]);
+                case "--repeticoes" -> repeticoes = Integer.parseInt(parts[1]);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        ProgramGenerator.Config base = ProgramGenerator.Config.defaults();
+
+        List<Dimension> dimensions = List.of(
+                new Dimension("campos", new int[]{100, 200, 400, 800, 1600, 3200}, base::withFields),
+                new Dimension("métodos", new int[]{100, 200, 400, 800, 1600, 3200}, base::withMethods),
+                new Dimension("profundidade", new int[]{8, 16, 32, 64, 128, 256}, base::withStatementDepth),
+                new Dimension("expressão", new int[]{50, 100, 200, 400, 800, 1600}, base::withExpressionLength),
+                new Dimension("loops", new int[]{8, 16, 32, 64, 128, 256}, base::withLoopNesting)
+        );
+
+        // Aquece o parser e o gerador de bytecode para que a primeira medição não inclua o carregamento de classes
+        for (int i = 0; i < 20; i++) {
+            compile(ProgramGenerator.generate("Aquecimento", base));
+        }
+
+        List<Sample> samples = new ArrayList<>();
+        List<String> superlineares = new ArrayList<>();
+
+        for (Dimension dimension : dimensions) {
+            List<Sample> dimensionSamples = new ArrayList<>();
+
+            for (int size : dimension.sizes()) {
+                String source = ProgramGenerator.generate("Escala", dimension.config().apply(size));
+                dimensionSamples.add(measure(dimension.name(), size, source, repeticoes));
+            }
+
+            samples.addAll(dimensionSamples);
+            double exponent = printChart(dimension.name(), dimensionSamples);
+
+            if (exponent > LIMITE_EXPOENTE) {
+                superlineares.add(String.format("%s (expoente %.2f)", dimension.name(), exponent));
+            }
+        }
+
+        if (csv != null) {
+            writeCsv(csv, samples);
+            System.out.println("Resultados salvos em " + csv);
+        }
+
+        if (!superlineares.isEmpty()) {
+            System.err.println("Crescimento superlinear detectado: " + String.join(", ", superlineares));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compila o programa 'repeticoes' vezes e guarda a mediana do tempo e da memória alocada.
+     * Erros de compilação (incluindo StackOverflowError em programas muito aninhados) são registrados na amostra.
+     */
+    private static Sample measure(String dimension, int size, String source, int repeticoes) {
+        double[] millis = new double[repeticoes];
+        long[] allocated = new long[repeticoes];
+
+        for (int i = 0; i < repeticoes; i++) {
+            long allocatedStart = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+
+            try {
+                compile(source);
+            } catch (RuntimeException | StackOverflowError e) {
+                return new Sample(dimension, size, source.length(), Double.NaN, 0, e.getClass().getSimpleName());
+            }
+
+            millis[i] = (System.nanoTime() - start) / 1e6;
+            allocated[i] = THREADS.getCurrentThreadAllocatedBytes() - allocatedStart;
+        }
+
+        Arrays.sort(millis);
+        Arrays.sort(allocated);
+        return new Sample(dimension, size, source.length(), millis[repeticoes / 2], allocated[repeticoes / 2], null);
+    }
+
+    private static void compile(String source) {
+        new SimpleLangCompiler().compile(source, "org/dimer/benchmark/gerado");
+    }
+
+    /**
+     * Imprime o gráfico do tempo de compilação por tamanho e retorna o expoente de crescimento estimado
+     * (tempo proporcional a tamanho^expoente). O tempo é normalizado pelo tamanho do código-fonte gerado,
+     * já que nem toda dimensão cresce o código-fonte na mesma proporção do seu valor.
+     */
+    private static double printChart(String dimension, List<Sample> samples) {
+        double max = samples.stream().mapToDouble(Sample::millis).filter(m -> !Double.isNaN(m)).max().orElse(1);
+
+        System.out.println("==================== " + dimension + " ====================");
+        System.out.printf("%8s %10s %10s %12s%n", "tamanho", "fonte (KB)", "tempo (ms)", "alocado (MB)");
+
+        for (Sample sample : samples) {
+            if (sample.error() != null) {
+                System.out.printf("%8d %10.1f %10s %12s  falhou: %s%n", sample.size(), sample.sourceLength() / 1024.0, "-", "-", sample.error());
+                continue;
+            }
+
+            int bar = (int) Math.round(sample.millis() / max * LARGURA_GRAFICO);
+            System.out.printf("%8d %10.1f %10.2f %12.2f  %s%n", sample.size(), sample.sourceLength() / 1024.0,
+                    sample.millis(), sample.allocatedBytes() / (1024.0 * 1024.0), "#".repeat(Math.max(bar, 1)));
+        }
+
+        List<Sample> valid = samples.stream().filter(sample -> sample.error() == null).toList();
+        if (valid.size() < 2) {
+            System.out.println("Amostras insuficientes para estimar o crescimento");
+            return 0;
+        }
+
+        Sample first = valid.getFirst();
+        Sample last = valid.getLast();
+        double exponent = Math.log(last.millis() / first.millis()) / Math.log((double) last.sourceLength() / first.sourceLength());
+
+        System.out.printf("Expoente de crescimento (tempo x tamanho do fonte): %.2f%s%n", exponent,
+                exponent > LIMITE_EXPOENTE ? "  <-- superlinear" : "");
+        return exponent;
+    }
+
+    private static void writeCsv(Path csv, List<Sample> samples) throws Exception {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csv))) {
+            writer.println("dimensao,tamanho,fonte_bytes,tempo_ms,alocado_bytes,erro");
+            for (Sample sample : samples) {
+                writer.printf("%s,%d,%d,%s,%d,%s%n", sample.dimension(), sample.size(), sample.sourceLength(),
+                        sample.error() == null ? String.valueOf(sample.millis()) : "", sample.allocatedBytes(),
+                        sample.error() == null ? "" : sample.error());
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.dimer.benchmark;
+
+import org.dimer.script.CacheStats;
+import org.dimer.script.SimpleLangScriptEngineFactory;
+
+import javax.script.Compilable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Mede o ScriptEngine da SimpleLang: tempo de eval com o script já no cache contra compilar a cada vez, e o uso
+ * do Metaspace ao avaliar muitos scripts diferentes com um cache pequeno, para verificar que as classes
+ * removidas do cache são descarregadas.
+ */
+public class ScriptEngineBenchmark {
+
+    private static final int REPETICOES = 2000;
+    private static final int SCRIPTS_DISTINTOS = 5000;
+    private static final int TAMANHO_CACHE = 64;
+
+    public static void main(String[] args) throws Exception {
+        ScriptEngine registered = new ScriptEngineManager().getEngineByName("simplelang");
+        if (registered == null) {
+            throw new IllegalStateException("SimpleLangScriptEngineFactory não encontrada via META-INF/services");
+        }
+
+        SimpleLangScriptEngineFactory factory = new SimpleLangScriptEngineFactory(TAMANHO_CACHE, Long.MAX_VALUE);
+        ScriptEngine engine = factory.getScriptEngine();
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        String script = programa(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETICOES; i++) {
+            engine.eval(script);
+        }
+        double comCache = (System.nanoTime() - start) / 1e3 / REPETICOES;
+
+        start = System.nanoTime();
+        for (int i = 0; i < REPETICOES; i++) {
+            // Um cache novo a cada iteração força a compilação
+            new SimpleLangScriptEngineFactory(TAMANHO_CACHE, Long.MAX_VALUE).getScriptEngine().eval(script);
+        }
+        double semCache = (System.nanoTime() - start) / 1e3 / REPETICOES;
+
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        long metaspaceAntes = metaspaceUsed();
+        long descarregadasAntes = classLoading.getUnloadedClassCount();
+
+        for (int i = 0; i < SCRIPTS_DISTINTOS; i++) {
+            ((Compilable) engine).compile(programa(i)).eval();
+        }
+
+        System.gc();
+        System.setOut(out);
+
+        CacheStats stats = factory.cache().stats();
+        System.out.printf("eval com cache: %.1f us, compilando a cada vez: %.1f us%n", comCache, semCache);
+        System.out.printf("cache: %d acertos, %d faltas, %d remoções, %d classes (%d bytes)%n",
+                stats.hits(), stats.misses(), stats.evictions(), stats.entries(), stats.bytes());
+        System.out.printf("%d scripts distintos: Metaspace %+.1f MB, %d classes descarregadas%n", SCRIPTS_DISTINTOS,
+                (metaspaceUsed() - metaspaceAntes) / (1024.0 * 1024.0), classLoading.getUnloadedClassCount() - descarregadasAntes);
+    }
+
+    private static String programa(int i) {
+        return "class Script" + i + " {\n    var {\n        int n = " + i + ";\n    }\n\n    methods {\n    }\n\n"
+                + "    init {\n        print(\"Valor: \" + n);\n    }\n}\n";
+    }
+
+    private static long metaspaceUsed() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getName().equals("Metaspace"))
+                .mapToLong(pool -> pool.getUsage().getUsed())
+                .findFirst().orElse(0);
+    }
+}
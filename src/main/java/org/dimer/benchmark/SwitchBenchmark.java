@@ -0,0 +1,141 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.runtime.ProgramRunner;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+/**
+ * Compara o despacho por {@code switch} com o mesmo despacho escrito como uma sequência de ifs, em programas gerados
+ * com cada vez mais casos, sobre int e sobre string. Cada programa chama um método que escolhe entre os casos,
+ * passando por todos eles igualmente: com ifs, o custo médio cresce com a quantidade de casos (são feitas em média
+ * metade das comparações), enquanto o switch salta direto para o caso. A saída das duas versões também é comparada:
+ * qualquer diferença termina o processo com código 1.
+ * Argumentos opcionais: {@code --casos=64 --chamadas=2000000 --repeticoes=5}
+ */
+public class SwitchBenchmark {
+
+    private static final String PACOTE = "org/dimer/benchmark";
+
+    public static void main(String[] args) throws Exception {
+        int maxCasos = 64;
+        int chamadas = 2_000_000;
+        int repeticoes = 5;
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--casos" -> maxCasos = Integer.parseInt(parts[1]);
+                case "--chamadas" -> chamadas = Integer.parseInt(parts[1]);
+                case "--repeticoes" -> repeticoes = Integer.parseInt(parts[1]);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        System.out.printf("%d chamadas do método de despacho por execução (média de %d execuções)%n", chamadas, repeticoes);
+        System.out.printf("%-8s %6s %14s %14s %10s%n", "tipo", "casos", "switch", "ifs", "ganho");
+
+        for (boolean string : new boolean[]{false, true}) {
+            for (int casos = 2; casos <= maxCasos; casos *= 2) {
+                ProgramRunner comSwitch = carregar(programa(casos, chamadas, string, true));
+                ProgramRunner comIfs = carregar(programa(casos, chamadas, string, false));
+
+                String saidaSwitch = executar(comSwitch);
+                String saidaIfs = executar(comIfs);
+                if (!saidaSwitch.equals(saidaIfs)) {
+                    System.err.println("Saídas diferentes com switch e com ifs (" + casos + " casos):\n" + saidaSwitch + "\n" + saidaIfs);
+                    System.exit(1);
+                }
+
+                // Aquece as duas versões antes de medir
+                for (int i = 0; i < 3; i++) {
+                    executar(comSwitch);
+                    executar(comIfs);
+                }
+
+                double tempoSwitch = medir(comSwitch, repeticoes);
+                double tempoIfs = medir(comIfs, repeticoes);
+                System.out.printf("%-8s %6d %11.1f ms %11.1f ms %9.2fx%n", string ? "string" : "int", casos,
+                        tempoSwitch, tempoIfs, tempoIfs / tempoSwitch);
+            }
+        }
+    }
+
+    /**
+     * Gera o programa com o método {@code despacho}, que soma ao acumulador um valor diferente para cada caso.
+     * A versão sobre string busca o nome do caso em um map preenchido no início, nas duas versões.
+     */
+    static String programa(int casos, int chamadas, boolean string, boolean comSwitch) {
+        StringBuilder source = new StringBuilder();
+        String tipo = string ? "string" : "int";
+
+        source.append("class Despacho {\n");
+        source.append("    var {\n        map<int,string> nomes;\n    }\n\n");
+        source.append("    methods {\n");
+        source.append("        despacho(").append(tipo).append(" op, int acumulador): int {\n");
+
+        if (comSwitch) {
+            source.append("            switch (op) {\n");
+            for (int i = 0; i < casos; i++) {
+                source.append("                case ").append(rotulo(i, string))
+                        .append(" { return acumulador + ").append(i + 1).append("; }\n");
+            }
+            source.append("            }\n");
+        } else {
+            for (int i = 0; i < casos; i++) {
+                source.append("            if (op == ").append(rotulo(i, string)).append(") {\n")
+                        .append("                return acumulador + ").append(i + 1).append(";\n")
+                        .append("            }\n");
+            }
+        }
+
+        source.append("            return acumulador;\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+        source.append("    init {\n");
+        source.append("        int i = 0;\n");
+        source.append("        while (i < ").append(casos).append(") {\n");
+        source.append("            nomes.put(i, \"op\" + i);\n");
+        source.append("            i = i + 1;\n");
+        source.append("        }\n");
+        source.append("        int op = 0;\n");
+        source.append("        int total = 0;\n");
+        source.append("        i = 0;\n");
+        source.append("        while (i < ").append(chamadas).append(") {\n");
+        source.append("            total = despacho(").append(string ? "nomes.get(op)" : "op").append(", total);\n");
+        source.append("            op = op + 1;\n");
+        source.append("            if (op == ").append(casos).append(") {\n");
+        source.append("                op = 0;\n");
+        source.append("            }\n");
+        source.append("            i = i + 1;\n");
+        source.append("        }\n");
+        source.append("        print(total);\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        return source.toString();
+    }
+
+    private static String rotulo(int caso, boolean string) {
+        return string ? "\"op" + caso + "\"" : String.valueOf(caso);
+    }
+
+    private static ProgramRunner carregar(String source) throws Exception {
+        return new ProgramRunner(new SimpleLangClassLoader().define(new SimpleLangCompiler().compile(source, PACOTE)));
+    }
+
+    private static String executar(ProgramRunner runner) {
+        ProgramRunner.Result resultado = runner.run("");
+        if (resultado.error() != null) {
+            throw new IllegalStateException(resultado.error());
+        }
+        return resultado.output();
+    }
+
+    private static double medir(ProgramRunner runner, int repeticoes) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            executar(runner);
+        }
+        return (System.nanoTime() - inicio) / 1e6 / repeticoes;
+    }
+}
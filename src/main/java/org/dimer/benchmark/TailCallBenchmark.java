@@ -0,0 +1,82 @@
+package org.dimer.benchmark;
+
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Compara programas com muita recursão compilados com e sem a eliminação de chamadas recursivas em cauda.
+ * Programas cuja recursão estoura a pilha sem a otimização aparecem como StackOverflowError.
+ * Deve ser executado a partir da raiz do projeto.
+ */
+public class TailCallBenchmark {
+
+    private static final List<Path> PROGRAMAS = List.of(
+            Path.of("./src/main/java/org/dimer/benchmark/corpus/SomaRecursiva.sl"),
+            Path.of("./src/main/java/org/dimer/benchmark/corpus/Mdc.sl")
+    );
+    private static final String PACOTE = "org/dimer/benchmark/corpus";
+    private static final int AQUECIMENTO = 50;
+    private static final int REPETICOES = 200;
+
+    public static void main(String[] args) throws Exception {
+        PrintStream out = System.out;
+
+        for (Path programa : PROGRAMAS) {
+            String source = Files.readString(programa);
+
+            Constructor<?> comOtimizacao = carregar(source, CompilerOptions.defaults());
+            Constructor<?> semOtimizacao = carregar(source, CompilerOptions.defaults().withTailCalls(false));
+
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            String resultadoCom = medir(comOtimizacao);
+            String resultadoSem = medir(semOtimizacao);
+            System.setOut(out);
+
+            System.out.println("------------------------------------------");
+            System.out.println(programa.getFileName());
+            System.out.println("Com eliminação de cauda (média): " + resultadoCom);
+            System.out.println("Sem eliminação de cauda (média): " + resultadoSem);
+        }
+        System.out.println("------------------------------------------");
+    }
+
+    private static Constructor<?> carregar(String source, CompilerOptions options) throws Exception {
+        CompiledClass compiledClass = new SimpleLangCompiler(options).compile(source, PACOTE);
+        return new SimpleLangClassLoader().define(compiledClass).getConstructor();
+    }
+
+    private static String medir(Constructor<?> programa) throws Exception {
+        try {
+            executar(programa, AQUECIMENTO);
+            return executar(programa, REPETICOES) + " ns";
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof StackOverflowError) {
+                return "StackOverflowError";
+            }
+            throw e;
+        }
+    }
+
+    private static long executar(Constructor<?> programa, int repeticoes) throws Exception {
+        long soma = 0;
+
+        for (int i = 0; i < repeticoes; i++) {
+            long start = System.nanoTime();
+            programa.newInstance();
+            long end = System.nanoTime();
+            soma += (end - start);
+        }
+
+        return soma / repeticoes;
+    }
+}
@@ -0,0 +1,20 @@
+package org.dimer.benchmark.corpus;
+
+public class FibonacciJava {
+    private int n = 22;
+
+    public int fib(int x) {
+        if (x < 2) {
+            return x;
+        }
+        return this.fib(x - 1) + this.fib(x - 2);
+    }
+
+    public FibonacciJava() {
+        System.out.println("fib(" + this.n + ") = " + this.fib(this.n));
+    }
+
+    public static void main(String[] args) {
+        new FibonacciJava();
+    }
+}
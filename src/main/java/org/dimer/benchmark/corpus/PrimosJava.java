@@ -0,0 +1,33 @@
+package org.dimer.benchmark.corpus;
+
+public class PrimosJava {
+    private int limite = 20000;
+    private int total;
+
+    public int ehPrimo(int n) {
+        int divisor = 2;
+        int quadrado = 4;
+        while (quadrado <= n) {
+            int resto = n - ((n / divisor) * divisor);
+            if (resto == 0) {
+                return 0;
+            }
+            divisor = divisor + 1;
+            quadrado = divisor * divisor;
+        }
+        return 1;
+    }
+
+    public PrimosJava() {
+        int n = 2;
+        while (n <= this.limite) {
+            this.total = this.total + this.ehPrimo(n);
+            n = n + 1;
+        }
+        System.out.println("Primos encontrados: " + this.total);
+    }
+
+    public static void main(String[] args) {
+        new PrimosJava();
+    }
+}
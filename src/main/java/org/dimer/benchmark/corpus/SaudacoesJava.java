@@ -0,0 +1,27 @@
+package org.dimer.benchmark.corpus;
+
+import java.util.Scanner;
+
+public class SaudacoesJava {
+    private int quantidade;
+    private String nome;
+
+    public String saudar(String pessoa) {
+        return "Olá, " + pessoa + "!";
+    }
+
+    public SaudacoesJava() {
+        Scanner scanner = new Scanner(System.in);
+        this.quantidade = Integer.parseInt(scanner.nextLine());
+        int i = 0;
+        while (i < this.quantidade) {
+            this.nome = scanner.nextLine();
+            System.out.println(this.saudar(this.nome));
+            i = i + 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        new SaudacoesJava();
+    }
+}
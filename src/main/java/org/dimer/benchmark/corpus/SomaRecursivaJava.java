@@ -0,0 +1,26 @@
+package org.dimer.benchmark.corpus;
+
+public class SomaRecursivaJava {
+    private int limite = 5000;
+    private int total;
+
+    public int soma(int n, int acumulado) {
+        if (n == 0) {
+            return acumulado;
+        }
+        return this.soma(n - 1, acumulado + n);
+    }
+
+    public SomaRecursivaJava() {
+        int i = 0;
+        while (i < 20) {
+            this.total = this.soma(this.limite, i);
+            i = i + 1;
+        }
+        System.out.println("Soma: " + this.total);
+    }
+
+    public static void main(String[] args) {
+        new SomaRecursivaJava();
+    }
+}
@@ -0,0 +1,98 @@
+package org.dimer.compiler;
+
+import org.dimer.compiler.pass.Optimization;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Opções de compilação repassadas do {@link org.dimer.Main} (ou de outro ponto de entrada) para o gerador de bytecode.
+ *
+ * @param profile       quando ativo, injeta contadores de execução nas entradas de métodos, voltas de loops e ramos de if
+ * @param parallelism   quantidade máxima de threads usadas para gerar os métodos de uma classe (1 = sequencial)
+ * @param maxMethodSize tamanho máximo em bytes do código de um método; acima dele, trechos do método são movidos para
+ *                      métodos auxiliares (0 = nunca dividir)
+ * @param optimizations otimizações ativas, definidas pelo nível ({@code -O0} a {@code -O2}) e pelas opções
+ *                      {@code -f<nome>} / {@code -fno-<nome>}
+ * @param debugInfo     quando ativo, a classe leva o nome do arquivo .sl (SourceFile), a linha de cada comando
+ *                      (LineNumberTable) e o nome das variáveis locais (LocalVariableTable), usados em stack traces,
+ *                      profilers e debuggers
+ */
+public record CompilerOptions(boolean profile, int parallelism, int maxMethodSize, Set<Optimization> optimizations,
+                              boolean debugInfo) {
+
+    // Mesmo valor do HugeMethodLimit do HotSpot: métodos maiores nunca são compilados pelo JIT
+    public static final int DEFAULT_MAX_METHOD_SIZE = 8000;
+
+    public CompilerOptions {
+        optimizations = Set.copyOf(optimizations);
+    }
+
+    public static CompilerOptions defaults() {
+        return new CompilerOptions(false, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_METHOD_SIZE,
+                Optimization.forLevel(Optimization.MAX_LEVEL), true);
+    }
+
+    public boolean enabled(Optimization optimization) {
+        return optimizations.contains(optimization);
+    }
+
+    /**
+     * Transforma chamadas recursivas em cauda ('return metodo(...)' dentro do próprio método) em saltos.
+     */
+    public boolean tailCalls() {
+        return enabled(Optimization.TAIL_CALLS);
+    }
+
+    /**
+     * Reaproveita o resultado de chamadas repetidas a métodos puros e move para fora dos laços as chamadas puras
+     * que não mudam de valor entre as voltas.
+     */
+    public boolean pureCalls() {
+        return enabled(Optimization.PURE_CALLS);
+    }
+
+    public CompilerOptions withProfile(boolean profile) {
+        return new CompilerOptions(profile, parallelism, maxMethodSize, optimizations, debugInfo);
+    }
+
+    public CompilerOptions withParallelism(int parallelism) {
+        return new CompilerOptions(profile, parallelism, maxMethodSize, optimizations, debugInfo);
+    }
+
+    public CompilerOptions withMaxMethodSize(int maxMethodSize) {
+        return new CompilerOptions(profile, parallelism, maxMethodSize, optimizations, debugInfo);
+    }
+
+    public CompilerOptions withDebugInfo(boolean debugInfo) {
+        return new CompilerOptions(profile, parallelism, maxMethodSize, optimizations, debugInfo);
+    }
+
+    /**
+     * Substitui as otimizações ativas pelas do nível (0 a {@link Optimization#MAX_LEVEL}).
+     */
+    public CompilerOptions withOptimizationLevel(int level) {
+        return new CompilerOptions(profile, parallelism, maxMethodSize, Optimization.forLevel(level), debugInfo);
+    }
+
+    public CompilerOptions withOptimization(Optimization optimization, boolean enabled) {
+        Set<Optimization> changed = EnumSet.noneOf(Optimization.class);
+        changed.addAll(optimizations);
+
+        if (enabled) {
+            changed.add(optimization);
+        } else {
+            changed.remove(optimization);
+        }
+
+        return new CompilerOptions(profile, parallelism, maxMethodSize, changed, debugInfo);
+    }
+
+    public CompilerOptions withTailCalls(boolean tailCalls) {
+        return withOptimization(Optimization.TAIL_CALLS, tailCalls);
+    }
+
+    public CompilerOptions withPureCalls(boolean pureCalls) {
+        return withOptimization(Optimization.PURE_CALLS, pureCalls);
+    }
+}
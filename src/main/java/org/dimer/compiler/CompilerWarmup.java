@@ -0,0 +1,64 @@
+package org.dimer.compiler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Aquece o compilador em uma thread de fundo, compilando um programa que usa todas as construções da linguagem.
+ * <p>
+ * O parser do ANTLR monta seus DFAs de predição sob demanda a partir do ATN, e esse cache é estático e compartilhado
+ * entre instâncias. Na primeira compilação de cada JVM esse custo se soma ao carregamento das classes do runtime do
+ * ANTLR, do ASM, do lexer ({@link org.dimer.compiler.lexer.SimpleLangTokenSource}, que por ser escrito à mão não tem
+ * DFA para montar) e do gerador de bytecode, e à execução interpretada desse código antes do JIT. Iniciando o
+ * aquecimento antes de ler o arquivo do usuário, esse trabalho acontece em paralelo com o I/O e em outro núcleo.
+ * <p>
+ * Os DFAs do parser não são serializáveis (os estados apontam para o ATN e para contextos de predição), por isso não
+ * é possível salvar um snapshot durante o build. O aquecimento é sempre refeito na inicialização.
+ */
+public final class CompilerWarmup {
+
+    private static final String CORPUS = "/org/dimer/compiler/warmup.sl";
+
+    private static CompletableFuture<Void> warmup;
+
+    private CompilerWarmup() {
+    }
+
+    /**
+     * Inicia o aquecimento, apenas na primeira chamada. O resultado pode ser ignorado: uma falha no aquecimento
+     * não afeta as compilações seguintes, que apenas continuam frias.
+     */
+    public static synchronized CompletableFuture<Void> start() {
+        if (warmup == null) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            warmup = future;
+
+            Thread.ofPlatform().daemon().name("simplelang-warmup").start(() -> {
+                try {
+                    run();
+                    future.complete(null);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+
+        return warmup;
+    }
+
+    private static void run() throws IOException {
+        String source;
+
+        try (InputStream in = CompilerWarmup.class.getResourceAsStream(CORPUS)) {
+            if (in == null) {
+                throw new IOException("Programa de aquecimento não encontrado: " + CORPUS);
+            }
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // Sem paralelismo: o objetivo é carregar as classes e preencher os DFAs, não competir com a thread principal
+        new SimpleLangCompiler(CompilerOptions.defaults().withParallelism(1)).compile(source, "org/dimer/compiler/warmup");
+    }
+}
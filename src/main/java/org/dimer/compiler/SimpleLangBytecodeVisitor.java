@@ -1,73 +1,382 @@
 package org.dimer.compiler;
 
+import org.antlr.v4.runtime.IntStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.dimer.SimpleLangBaseVisitor;
 import org.dimer.SimpleLangParser;
+import org.dimer.compiler.analysis.AssignedNamesCollector;
+import org.dimer.compiler.analysis.ConcurrentBlockChecker;
+import org.dimer.compiler.analysis.FieldWritesAnalysis;
+import org.dimer.compiler.analysis.MemoAnalysis;
+import org.dimer.compiler.analysis.OutliningAnalysis;
+import org.dimer.compiler.analysis.ParallelBodyChecker;
+import org.dimer.compiler.analysis.PurityAnalysis;
 import org.dimer.compiler.data.Method;
 import org.dimer.compiler.data.Variable;
+import org.dimer.compiler.util.AvailableCalls;
+import org.dimer.compiler.util.BytecodeSize;
 import org.dimer.compiler.util.LocalVariableManager;
-import org.objectweb.asm.ClassWriter;
+import org.dimer.runtime.MemoCache;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
-import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
-
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.dimer.compiler.util.CompilerConstants.*;
 import static org.objectweb.asm.Opcodes.*;
 
 public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
 
-    private static final String RESERVED_SCANNER_VARIABLE = "SimpleLangReservedScanner";
-
-    private final ClassWriter classWriter;
+    private static final String PROFILER_CLASS = "org/dimer/runtime/Profiler";
+    private static final String PROFILE_COUNTERS_FIELD = "SimpleLangProfileCounters";
+    private static final String PROFILE_COUNTERS_DESCRIPTOR = "[J";
+    private static final String TASK_SCOPE_CLASS = "org/dimer/runtime/TaskScope";
+    private static final String PARALLEL_RANGE_CLASS = "org/dimer/runtime/ParallelRange";
+    private static final String RANGE_BODY_CLASS = "org/dimer/runtime/RangeBody";
+    private static final String REDUCTION_CLASS = "org/dimer/runtime/Reduction";
+    private static final String REDUCTION_DESCRIPTOR = "L" + REDUCTION_CLASS + ";";
+    private static final String RESERVED_RANGE_END_VARIABLE = "SimpleLangReservedRangeEnd";
+    private static final String RESERVED_ACCUMULATOR_VARIABLE = "SimpleLangReservedAccumulator";
+    private static final String RESERVED_CALL_RESULT_VARIABLE = "SimpleLangReservedCallResult";
+    private static final String RESERVED_IO_VARIABLE = "SimpleLangReservedIo";
+    private static final String RESERVED_SWITCH_VALUE_VARIABLE = "SimpleLangReservedSwitchValue";
+    private static final String RESERVED_MEMO_RESULT_VARIABLE = "SimpleLangReservedMemoResult";
+    private static final String RESERVED_FILE_VARIABLE = "SimpleLangReservedFile";
+    private static final String FILE_INPUT_CLASS = "org/dimer/runtime/FileInput";
+    private static final String FILE_INPUT_DESCRIPTOR = "L" + FILE_INPUT_CLASS + ";";
+    private static final String DEFAULT_FIELD_DELIMITER = ",";
+    private static final String MEMOIZED_INTERFACE = "org/dimer/runtime/Memoized";
+    // Corpo de um método memo ("memo$fib"), chamado pelo método público quando o resultado não está no cache
+    private static final String MEMO_BODY_PREFIX = "memo$";
+    private static final String MEMO_CACHES_METHOD = "memo$caches";
+    private static final String INIT_DESCRIPTOR = "(" + IO_CONTEXT_DESCRIPTOR + ")V";
+    // Prefixo das variáveis locais criadas pelo compilador, que ficam fora da LocalVariableTable
+    private static final String RESERVED_VARIABLE_PREFIX = "SimpleLangReserved";
+    private static final Handle LAMBDA_METAFACTORY = new Handle(H_INVOKESTATIC, "java/lang/invoke/LambdaMetafactory", "metafactory",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/invoke/MethodType;"
+                    + "Ljava/lang/invoke/MethodHandle;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/CallSite;", false);
+
+    // Abaixo dessa quantidade de métodos não compensa o custo de distribuir a geração entre threads
+    private static final int PARALLEL_METHODS_THRESHOLD = 8;
+    // Mesmo tamanho de pilha da thread principal, para que classes muito aninhadas não falhem apenas em paralelo
+    private static final long WORKER_STACK_SIZE = 8L * 1024 * 1024;
+    // Trechos menores que isso (em bytes de bytecode) não compensam a chamada a um método auxiliar
+    private static final int MIN_OUTLINED_SIZE = 64;
+    // Máximo de parâmetros de um método auxiliar: o C2 desiste de compilar métodos com parâmetros demais
+    // ("unsupported incoming calling sequence"), e trechos que precisam de mais variáveis são divididos ao meio
+    private static final int MAX_OUTLINED_PARAMETERS = 40;
+
+    private final ClassNode classNode;
     private final String className;
-    private MethodVisitor currentMethod;
-    private final Map<String, Variable> classVariables = new HashMap<>();
-    private final Map<String, Method> methods = new HashMap<>();
-    private boolean isFloatOperation = false;
-    private final Stack<Integer> numericExpressionStack = new Stack<>();
+    private final CompilerOptions options;
+    private MethodNode currentMethod;
+    private String currentMethodName;
+    // Parâmetros e início do corpo do método atual, usados para transformar chamadas recursivas em cauda em saltos
+    private List<Variable> currentParameters = List.of();
+    private Label currentMethodStart;
+    private final Map<String, Variable> classVariables;
+    // Campos inicializados com literal e nunca atribuídos: viram constantes static final e são inlinados nos usos
+    private final Set<String> constantFields;
+    private final Map<String, Method> methods;
+    private Set<String> assignedNames = Set.of();
+    // Métodos que alteram campos, direta ou indiretamente: não podem ser chamados dentro de laços parallel
+    private Set<String> fieldWritingMethods = Set.of();
+    // Métodos que alteram maps que não criaram: não podem ser executados junto com outros spawns
+    private Set<String> mapChangingMethods = Set.of();
+    // Métodos que usam write: não podem ser chamados dentro de laços parallel nem executados junto com outros spawns
+    private Set<String> writeMethods = Set.of();
+    // Métodos puros e os campos lidos por cada um
+    private Map<String, Set<String>> pureMethods = Map.of();
+    // Métodos memo e o tamanho máximo do cache de cada um
+    private Map<String, Integer> memoMethods = Map.of();
+    // Chamadas puras que aparecem mais de uma vez no método atual, as únicas guardadas em variáveis
+    private Set<String> repeatedCalls = Set.of();
+    private AvailableCalls availableCalls = new AvailableCalls();
+    private int callResults = 0;
+    private int switchValues = 0;
+    private int files = 0;
+    // Arquivos abertos pelos laços lines e fields e pelos blocos write em volta do comando atual, do mais interno
+    // para o mais externo: um return fecha todos antes de sair do método
+    private final Deque<OpenResource> openResources = new ArrayDeque<>();
+    private int parallelBodies = 0;
     private final Stack<LocalVariableManager> localVariablesStack = new Stack<>();
+    private final TypeResolver types;
+    private final List<String> profileProbes = new ArrayList<>();
+    // Instruções que carregam o índice de cada ponto de medição, ajustadas ao juntar os métodos na classe
+    private final List<LdcInsnNode> profileProbeIndexes = new ArrayList<>();
+    private final List<MethodNode> generatedMethods = new ArrayList<>();
+    // Início e fim do código gerado por cada comando (e pelas inicializações de campos), para medir o tamanho de cada um
+    private final Map<ParserRuleContext, LabelNode[]> codeBounds = new IdentityHashMap<>();
+    // Tamanhos medidos na primeira geração: preenchido apenas ao gerar de novo um corpo com métodos grandes demais
+    private Map<ParserRuleContext, Integer> codeSizes;
+    // Trecho sendo gerado como método auxiliar e os nomes usados depois dele
+    private List<SimpleLangParser.StatementContext> currentRange;
+    private Set<String> currentRangeLive = Set.of();
+    private int splitMethods = 0;
 
     public SimpleLangBytecodeVisitor(String className) {
+        this(className, CompilerOptions.defaults());
+    }
+
+    public SimpleLangBytecodeVisitor(String className, CompilerOptions options) {
         this.className = className;
-        this.classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        this.options = options;
+        this.classNode = new ClassNode();
+        this.classVariables = new LinkedHashMap<>(); // Mantém a ordem de declaração na inicialização dos campos
+        this.constantFields = new HashSet<>();
+        this.methods = new HashMap<>();
+        this.types = newTypeResolver();
+    }
+
+    /**
+     * Visitor usado para gerar o corpo de um único método. Compartilha (apenas para leitura) as declarações de
+     * campos e métodos coletadas pela classe, mas tem seu próprio estado de geração, podendo rodar em paralelo
+     * com os demais. Não adiciona nada à classe: os métodos gerados ficam em {@link #generatedMethods}.
+     */
+    private SimpleLangBytecodeVisitor(SimpleLangBytecodeVisitor classVisitor) {
+        this.className = classVisitor.className;
+        this.options = classVisitor.options;
+        this.classNode = null;
+        this.classVariables = classVisitor.classVariables;
+        this.constantFields = classVisitor.constantFields;
+        this.methods = classVisitor.methods;
+        this.fieldWritingMethods = classVisitor.fieldWritingMethods;
+        this.mapChangingMethods = classVisitor.mapChangingMethods;
+        this.writeMethods = classVisitor.writeMethods;
+        this.pureMethods = classVisitor.pureMethods;
+        this.memoMethods = classVisitor.memoMethods;
+        this.types = newTypeResolver();
     }
 
-    public byte[] getBytecode() {
-        return classWriter.toByteArray();
+    private TypeResolver newTypeResolver() {
+        return new TypeResolver(classVariables, methods, name -> localVariablesStack.isEmpty() ? null : localVariablesStack.peek().load(name));
+    }
+
+    /**
+     * A classe gerada, ainda sem os passes de otimização e sem frames, que são calculados ao escrevê-la
+     * ({@link SimpleLangCompiler#generate}).
+     */
+    public ClassNode getClassNode() {
+        return classNode;
     }
 
     @Override
     public Void visitClassDeclaration(SimpleLangParser.ClassDeclarationContext ctx) {
-        // Criação da classe com ASM
-        classWriter.visit(V1_8, ACC_PUBLIC, className, null, "java/lang/Object", null);
+        // Classes com métodos memo expõem as estatísticas dos caches
+        memoMethods = MemoAnalysis.memoMethods(ctx);
+        String[] interfaces = memoMethods.isEmpty() ? null : new String[]{MEMOIZED_INTERFACE};
 
+        // Criação da classe com ASM. A classe é final: nenhum método dela pode ser sobrescrito, o que permite ao
+        // InlineGettersPass trocar chamadas pelo corpo do método chamado
+        classNode.visit(V1_8, ACC_PUBLIC | ACC_FINAL, className, null, "java/lang/Object", interfaces);
+
+        if (options.debugInfo()) {
+            classNode.visitSource(sourceFileName(ctx), null);
+        }
+
+        // Primeira passada: declara todos os campos e assinaturas de métodos antes de gerar qualquer corpo,
+        // permitindo chamar métodos declarados depois do método atual
+        assignedNames = AssignedNamesCollector.collect(ctx);
+        fieldWritingMethods = FieldWritesAnalysis.methodsWritingFields(ctx);
+        mapChangingMethods = FieldWritesAnalysis.methodsChangingMaps(ctx);
+        writeMethods = FieldWritesAnalysis.methodsUsingWrite(ctx);
+        if (options.pureCalls()) {
+            pureMethods = PurityAnalysis.pureMethods(ctx);
+        }
         visit(ctx.varSection()); // Bloco var
-        visit(ctx.methodsSection()); // Bloco methods
-        visit(ctx.initSection()); // Método init
+        classNode.visitField(ACC_PRIVATE | ACC_FINAL | ACC_SYNTHETIC, IO_CONTEXT_FIELD, IO_CONTEXT_DESCRIPTOR, null, null).visitEnd();
+        // Sem final: o interpretador coloca os próprios caches na instância compilada por ele
+        memoMethods.keySet().forEach(methodName -> classNode.visitField(ACC_PRIVATE | ACC_SYNTHETIC,
+                MEMO_CACHE_FIELD_PREFIX + methodName, MEMO_CACHE_DESCRIPTOR, null, null).visitEnd());
+        ctx.methodsSection().methodDeclaration().forEach(method -> TypeResolver.declareMethod(methods, method));
+
+        // Segunda passada: cada método (e o init) é gerado de forma independente
+        List<ParserRuleContext> bodies = new ArrayList<>(ctx.methodsSection().methodDeclaration());
+        bodies.add(ctx.initSection());
+
+        for (SimpleLangBytecodeVisitor generated : generateBodies(bodies)) {
+            // Os índices dos pontos de medição são locais a cada método até aqui
+            for (LdcInsnNode probeIndex : generated.profileProbeIndexes) {
+                probeIndex.cst = profileProbes.size() + (Integer) probeIndex.cst;
+            }
+            profileProbes.addAll(generated.profileProbes);
+
+            generated.generatedMethods.forEach(method -> method.accept(classNode));
+        }
+
+        if (!memoMethods.isEmpty()) {
+            addMemoCaches();
+        }
 
+        addConsoleConstructor();
         addMainMethod();
 
-        classWriter.visitEnd();
+        if (options.profile()) {
+            addProfileCounters();
+        }
+
+        classNode.visitEnd();
         return null;
     }
 
+    /**
+     * Gera os corpos dos métodos, cada um em seu próprio visitor. Classes grandes são geradas em paralelo;
+     * o resultado mantém a ordem de declaração para que o bytecode final seja sempre o mesmo.
+     */
+    private List<SimpleLangBytecodeVisitor> generateBodies(List<ParserRuleContext> bodies) {
+        List<SimpleLangBytecodeVisitor> generated = new ArrayList<>();
+
+        if (options.parallelism() <= 1 || bodies.size() < PARALLEL_METHODS_THRESHOLD) {
+            for (ParserRuleContext body : bodies) {
+                generated.add(generateBody(body));
+            }
+            return generated;
+        }
+
+        int threads = Math.min(options.parallelism(), bodies.size());
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads,
+                task -> new Thread(null, task, "simplelang-codegen", WORKER_STACK_SIZE))) {
+            List<Future<SimpleLangBytecodeVisitor>> futures = new ArrayList<>();
+
+            for (ParserRuleContext body : bodies) {
+                futures.add(pool.submit(() -> generateBody(body)));
+            }
+
+            for (Future<SimpleLangBytecodeVisitor> future : futures) {
+                generated.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Geração de bytecode interrompida", e);
+        } catch (ExecutionException e) {
+            // Repassa o erro de compilação original (ex: variável não encontrada na linha X)
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        return generated;
+    }
+
+    private SimpleLangBytecodeVisitor generateBody(ParserRuleContext body) {
+        SimpleLangBytecodeVisitor methodVisitor = new SimpleLangBytecodeVisitor(this);
+        methodVisitor.visit(body);
+
+        Map<ParserRuleContext, Integer> sizes = methodVisitor.measureOversizedCode();
+
+        if (sizes != null) {
+            // Gera o corpo de novo, agora movendo para métodos auxiliares os trechos medidos na primeira geração
+            SimpleLangBytecodeVisitor splitVisitor = new SimpleLangBytecodeVisitor(this);
+            splitVisitor.codeSizes = sizes;
+            splitVisitor.visit(body);
+            return splitVisitor;
+        }
+
+        return methodVisitor;
+    }
+
+    /**
+     * Verifica se algum método gerado passou do tamanho máximo. O HotSpot não compila com o JIT métodos com mais
+     * de 8000 bytes de bytecode (HugeMethodLimit), e o formato de classe não aceita métodos com mais de 64KB.
+     *
+     * @return o tamanho do código gerado por cada comando, ou null caso todos os métodos estejam dentro do limite
+     */
+    private Map<ParserRuleContext, Integer> measureOversizedCode() {
+        if (options.maxMethodSize() <= 0) {
+            return null;
+        }
+
+        boolean oversized = false;
+
+        for (MethodNode method : generatedMethods) {
+            // Além de medir o método, resolve os offsets dos labels que delimitam cada comando
+            oversized |= BytecodeSize.codeLength(method) > options.maxMethodSize();
+        }
+
+        if (!oversized) {
+            return null;
+        }
+
+        Map<ParserRuleContext, Integer> sizes = new IdentityHashMap<>();
+        codeBounds.forEach((ctx, bounds) -> sizes.put(ctx, bounds[1].getLabel().getOffset() - bounds[0].getLabel().getOffset()));
+        return sizes;
+    }
+
+    /**
+     * Gera o código de um comando registrando onde ele começa e termina, para que seu tamanho possa ser medido.
+     * Só registra na primeira geração e quando a divisão de métodos grandes está ativa.
+     */
+    private void generateMeasured(ParserRuleContext ctx, Runnable generator) {
+        if (codeSizes != null || options.maxMethodSize() <= 0) {
+            generator.run();
+            return;
+        }
+
+        LabelNode start = new LabelNode();
+        currentMethod.instructions.add(start);
+        generator.run();
+        LabelNode end = new LabelNode();
+        currentMethod.instructions.add(end);
+
+        codeBounds.put(ctx, new LabelNode[]{start, end});
+    }
+
     @Override
     public Void visitVarDeclaration(SimpleLangParser.VarDeclarationContext ctx) {
         String varName = ctx.IDENTIFIER().getText();
         String varType = ctx.type().getText();
-        String descriptor = typeToDescriptor(varType);
+        String descriptor = TypeResolver.typeToDescriptor(varType);
 
         if (currentMethod == null) { // Significa que é variável da classe
-            classWriter.visitField(ACC_PRIVATE, varName, descriptor, null, null).visitEnd();
+            TypeResolver.checkField(ctx);
+            var literal = ctx.expression() != null ? ctx.expression().literal() : null;
+            var value = TypeResolver.literalValue(literal);
+
+            if (value != null && !assignedNames.contains(varName) && varType.equals(TypeResolver.literalType(literal))) {
+                // Nunca é atribuída: vira uma constante com atributo ConstantValue, tratada pelo JIT como valor fixo
+                classNode.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, varName, descriptor, null, value).visitEnd();
+                constantFields.add(varName);
+            } else {
+                classNode.visitField(ACC_PRIVATE, varName, descriptor, null, null).visitEnd();
+            }
 
             // Adiciona a lista de variáveis de classe para ter seu valor preenchido no bloco do construtor
-            var value  = ctx.expression() != null ? getLiteralValue(ctx.expression().literal()) : null;
             classVariables.put(varName, new Variable(varName, varType, value));
         } else {
             if (localVariablesStack.isEmpty()) {
@@ -76,17 +385,21 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
 
             LocalVariableManager manager = localVariablesStack.peek();
             int varIndex = manager.allocate(new Variable(varName, varType));
+            availableCalls.kill(varName);
 
             if (ctx.expression() != null) {
                 visit(ctx.expression());
-
-                String type = determineTypeOfExpression(ctx.expression());
-                if (!varType.equals(type)) {
-                    throw new IllegalArgumentException(String.format("Linha %d: tipo de retorno %s da expressão %s não compatível com tipo %s da variável %s",
-                            ctx.start.getLine(), type, ctx.expression().getText(), varType, varName));
-                }
-
-                currentMethod.visitVarInsn(determineStoreCommand(type), varIndex);
+                types.checkInitializer(ctx);
+
+                currentMethod.visitVarInsn(determineStoreCommand(varType), varIndex);
+            } else if (TypeResolver.isMap(varType)) {
+                // Cada execução da declaração cria um map vazio
+                emitNewMap(varType);
+                currentMethod.visitVarInsn(ASTORE, varIndex);
+            } else if (codeSizes != null) {
+                // Em métodos divididos a variável pode ser passada para um método auxiliar antes de receber valor
+                emitDefaultValue(varType);
+                currentMethod.visitVarInsn(determineStoreCommand(varType), varIndex);
             }
         }
 
@@ -95,13 +408,7 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
 
     @Override
     public Void visitAssignment(SimpleLangParser.AssignmentContext ctx) {
-        Variable variable = getVariable(ctx, ctx.IDENTIFIER().getText());
-        String type = determineTypeOfExpression(ctx.expression());
-
-        if (!variable.type().equals(type)) {
-            throw new IllegalArgumentException(String.format("Linha %d: variável %s do tipo %s não compatível com atribuição de %s",
-                    ctx.start.getLine(), variable.name(), variable.type(), type));
-        }
+        Variable variable = types.checkAssignment(ctx);
 
         visit(ctx.expression());
         storeVariable(ctx, variable.name());
@@ -109,38 +416,109 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
     }
 
     /**
-     * Cria o construtor da classe a partir do bloco 'init' do programa.
+     * Cria o construtor da classe a partir do bloco 'init' do programa, recebendo o {@link org.dimer.runtime.IoContext}
+     * usado pelos comandos print e read da instância.
      * Nesse bloco também são imputados os valores das variáveis da classe (do bloco var)
      */
     @Override
     public Void visitInitSection(SimpleLangParser.InitSectionContext ctx) {
-        currentMethod = classWriter.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        currentMethod = new MethodNode(ACC_PUBLIC, "<init>", INIT_DESCRIPTOR, null, null);
+        currentMethodName = "init";
         currentMethod.visitCode();
+        emitLineNumber(ctx);
+
+        // O parâmetro ocupa o slot 1, antes de qualquer variável local do init
+        LocalVariableManager scope = new LocalVariableManager();
+        scope.allocate(new Variable(RESERVED_IO_VARIABLE, null));
+        localVariablesStack.push(scope);
 
         currentMethod.visitVarInsn(ALOAD, 0);
         currentMethod.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        currentMethod.visitVarInsn(ALOAD, 0);
+        currentMethod.visitVarInsn(ALOAD, 1);
+        currentMethod.visitFieldInsn(PUTFIELD, className, IO_CONTEXT_FIELD, IO_CONTEXT_DESCRIPTOR);
 
-        // Inicializa os valores das variáveis de classe caso existam
+        // Os caches são criados antes de qualquer comando do init, que pode chamar os métodos memo
+        if (!memoMethods.isEmpty()) {
+            currentMethod.visitVarInsn(ALOAD, 0);
+            currentMethod.visitMethodInsn(INVOKESPECIAL, className, MEMO_CACHES_METHOD, "()V", false);
+        }
+
+        emitProfileProbe(currentMethodName);
+        repeatedCalls = repeatedCalls(ctx);
+
+        // Inicializa os valores das variáveis de classe caso existam, e cria os maps
+        List<Variable> initializedFields = new ArrayList<>();
         for (Variable classVariable : classVariables.values()) {
-            if (classVariable.value() == null) {
-                continue;
+            if ((classVariable.value() != null || TypeResolver.isMap(classVariable.type())) && !constantFields.contains(classVariable.name())) {
+                initializedFields.add(classVariable);
             }
-
-            currentMethod.visitVarInsn(ALOAD, 0); // Carrega o this
-            currentMethod.visitLdcInsn(classVariable.value()); // Load do valor
-            currentMethod.visitFieldInsn(PUTFIELD, className, classVariable.name(), typeToDescriptor(classVariable.type()));
         }
 
+        var varSection = ((SimpleLangParser.ClassDeclarationContext) ctx.getParent()).varSection();
+        generateMeasured(varSection, () -> initializeFields(varSection, initializedFields));
+
         // Passa por todos os comandos do bloco init
-        for (SimpleLangParser.StatementContext statementContext : ctx.statement()) {
-            visit(statementContext);
-        }
+        visitStatements(ctx.statement());
 
         currentMethod.visitInsn(RETURN);
+        addLocalVariableTable(localVariablesStack.peek());
         currentMethod.visitMaxs(0, 0); // Será calculado automaticamente pelo ASM
         currentMethod.visitEnd();
+        generatedMethods.add(currentMethod);
         currentMethod = null;
+        currentMethodName = null;
+
+        return null;
+    }
+
+    private void initializeFields(SimpleLangParser.VarSectionContext varSection, List<Variable> fields) {
+        int limit = options.maxMethodSize() / 2;
+        Integer size = codeSizes != null ? codeSizes.get(varSection) : null;
+
+        if (size == null || size <= limit) {
+            emitFieldInitializers(fields);
+            return;
+        }
+
+        // Classes com muitos campos: as inicializações são divididas em métodos auxiliares, com a quantidade de
+        // campos de cada um calculada pelo tamanho medido de cada inicialização
+        int fieldsPerMethod = Math.max(1, (int) ((long) fields.size() * limit / size));
+
+        for (int i = 0; i < fields.size(); i += fieldsPerMethod) {
+            String helperName = nextSplitMethodName();
+            MethodNode outerMethod = currentMethod;
+
+            currentMethod = new MethodNode(ACC_PRIVATE | ACC_SYNTHETIC, helperName, "()V", null, null);
+            currentMethod.visitCode();
+            emitFieldInitializers(fields.subList(i, Math.min(fields.size(), i + fieldsPerMethod)));
+            currentMethod.visitInsn(RETURN);
+            addLocalVariableTable(null);
+            currentMethod.visitMaxs(0, 0);
+            currentMethod.visitEnd();
+            generatedMethods.add(currentMethod);
+            currentMethod = outerMethod;
+
+            currentMethod.visitVarInsn(ALOAD, 0);
+            currentMethod.visitMethodInsn(INVOKESPECIAL, className, helperName, "()V", false);
+        }
+    }
+
+    private void emitFieldInitializers(List<Variable> fields) {
+        for (Variable field : fields) {
+            currentMethod.visitVarInsn(ALOAD, 0); // Carrega o this
+            if (TypeResolver.isMap(field.type())) {
+                emitNewMap(field.type());
+            } else {
+                currentMethod.visitLdcInsn(field.value()); // Load do valor
+            }
+            currentMethod.visitFieldInsn(PUTFIELD, className, field.name(), TypeResolver.typeToDescriptor(field.type()));
+        }
+    }
 
+    @Override
+    public Void visitBlock(SimpleLangParser.BlockContext ctx) {
+        visitStatements(ctx.statement());
         return null;
     }
 
@@ -149,16 +527,266 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
         if (currentMethod == null) {
             throw new IllegalStateException(String.format("Erro ao processar uma declaração na linha %d: Statement %s sem estar dentro de um método", ctx.start.getLine(), ctx.getText()));
         }
-        return super.visitStatement(ctx);
+        emitLineNumber(ctx);
+        generateMeasured(ctx, () -> super.visitStatement(ctx));
+        return null;
+    }
+
+    /**
+     * Gera uma sequência de comandos. Ao gerar de novo um corpo com métodos grandes demais, sequências maiores que
+     * metade do tamanho máximo são divididas em trechos de até metade do tamanho máximo, e cada trecho é movido
+     * para um método auxiliar. Comandos com return continuam no método (o return precisa sair dele), mas os blocos
+     * dentro deles também são divididos. Um único comando maior que o trecho (ex: um while enorme) vai sozinho para
+     * um método auxiliar, onde o seu bloco é dividido da mesma forma.
+     */
+    private void visitStatements(List<SimpleLangParser.StatementContext> statements) {
+        int limit = options.maxMethodSize() / 2;
+
+        if (codeSizes == null || statements.stream().mapToInt(this::measuredSize).sum() <= limit) {
+            statements.forEach(this::visit);
+            return;
+        }
+
+        List<SimpleLangParser.StatementContext> range = new ArrayList<>();
+        int rangeSize = 0;
+
+        for (var statement : statements) {
+            int size = measuredSize(statement);
+            boolean hasReturn = OutliningAnalysis.containsReturn(statement);
+
+            if (!range.isEmpty() && (hasReturn || rangeSize + size > limit)) {
+                outlineStatements(range, rangeSize);
+                range = new ArrayList<>();
+                rangeSize = 0;
+            }
+
+            if (hasReturn) {
+                visit(statement);
+            } else {
+                range.add(statement);
+                rangeSize += size;
+            }
+        }
+
+        if (!range.isEmpty()) {
+            outlineStatements(range, rangeSize);
+        }
+    }
+
+    private int measuredSize(SimpleLangParser.StatementContext statement) {
+        return codeSizes.getOrDefault(statement, 0);
+    }
+
+    /**
+     * Move um trecho de comandos para um método auxiliar privado, chamado no lugar dos comandos. As variáveis locais
+     * usadas pelo trecho são passadas como parâmetros, e as alteradas que continuam sendo usadas depois dele voltam
+     * como retorno: o próprio valor, quando é só uma, ou um Object[] com os valores, quando são várias.
+     * <pre>
+     *     int total = 0;
+     *     ...            # trecho movido: altera total e declara media
+     *     print("Total: " + total + media);
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     ALOAD 0
+     *     ILOAD 1        # total
+     *     INVOKESPECIAL Classe.split$init$0 (I)[Ljava/lang/Object;
+     *     DUP
+     *     LDC 0
+     *     AALOAD
+     *     CHECKCAST java/lang/Integer
+     *     INVOKEVIRTUAL java/lang/Integer.intValue ()I
+     *     ISTORE 1       # total
+     *     LDC 1
+     *     AALOAD
+     *     CHECKCAST java/lang/Integer
+     *     INVOKEVIRTUAL java/lang/Integer.intValue ()I
+     *     ISTORE 2       # media
+     * </pre>
+     */
+    private void outlineStatements(List<SimpleLangParser.StatementContext> range, int size) {
+        if (localVariablesStack.isEmpty()) {
+            localVariablesStack.push(new LocalVariableManager());
+        }
+
+        LocalVariableManager outerScope = localVariablesStack.peek();
+
+        List<Variable> inputs = new ArrayList<>();
+        for (String name : OutliningAnalysis.referencedNames(range)) {
+            Variable variable = outerScope.load(name);
+            if (variable != null && variable.type() != null) {
+                inputs.add(variable);
+            }
+        }
+
+        if (inputs.size() > MAX_OUTLINED_PARAMETERS && range.size() > 1) {
+            List<SimpleLangParser.StatementContext> first = range.subList(0, range.size() / 2);
+            List<SimpleLangParser.StatementContext> second = range.subList(range.size() / 2, range.size());
+            outlineStatements(first, first.stream().mapToInt(this::measuredSize).sum());
+            outlineStatements(second, second.stream().mapToInt(this::measuredSize).sum());
+            return;
+        }
+
+        if (size < MIN_OUTLINED_SIZE || inputs.size() > MAX_OUTLINED_PARAMETERS) {
+            range.forEach(this::visit);
+            return;
+        }
+
+        Set<String> live = OutliningAnalysis.liveAfter(range, currentRange, currentRangeLive);
+        Set<String> topLevelDeclarations = OutliningAnalysis.topLevelDeclarations(range);
+        Set<String> declarations = OutliningAnalysis.declaredNames(range);
+        List<String> returnedNames = new ArrayList<>();
+        // Declaradas apenas em blocos aninhados: continuam existindo depois do trecho, mas sem valor garantido
+        List<String> declaredOnlyNames = new ArrayList<>();
+
+        for (String name : OutliningAnalysis.writtenNames(range)) {
+            if (!live.contains(name)) {
+                continue;
+            }
+
+            if (outerScope.load(name) != null || topLevelDeclarations.contains(name)) {
+                returnedNames.add(name);
+            } else if (declarations.contains(name)) {
+                declaredOnlyNames.add(name);
+            }
+        }
+
+        String helperName = nextSplitMethodName();
+        MethodNode outerMethod = currentMethod;
+        List<Variable> outerParameters = currentParameters;
+        Label outerMethodStart = currentMethodStart;
+        List<SimpleLangParser.StatementContext> outerRange = currentRange;
+        Set<String> outerRangeLive = currentRangeLive;
+        AvailableCalls outerCalls = availableCalls;
+
+        currentMethod = new MethodNode(ACC_PRIVATE | ACC_SYNTHETIC, helperName, null, null, null);
+        // O trecho não tem return, então também não tem chamadas em cauda
+        currentParameters = List.of();
+        currentMethodStart = null;
+        currentRange = range;
+        currentRangeLive = live;
+        // Os resultados guardados em variáveis do método que chama não existem no método auxiliar
+        availableCalls = new AvailableCalls();
+        currentMethod.visitCode();
+
+        LocalVariableManager scope = new LocalVariableManager();
+        localVariablesStack.push(scope);
+
+        StringBuilder descriptor = new StringBuilder("(");
+        for (Variable input : inputs) {
+            scope.allocate(new Variable(input.name(), input.type()));
+            descriptor.append(TypeResolver.typeToDescriptor(input.type()));
+        }
+        descriptor.append(")");
+
+        range.forEach(this::visit);
+
+        List<Variable> results = returnedNames.stream().map(scope::load).toList();
+        List<Variable> declaredOnly = declaredOnlyNames.stream().map(scope::load).toList();
+
+        if (results.isEmpty()) {
+            currentMethod.visitInsn(RETURN);
+            descriptor.append("V");
+        } else if (results.size() == 1) {
+            Type type = Type.getType(TypeResolver.typeToDescriptor(results.getFirst().type()));
+            currentMethod.visitVarInsn(type.getOpcode(ILOAD), results.getFirst().index());
+            currentMethod.visitInsn(type.getOpcode(IRETURN));
+            descriptor.append(type.getDescriptor());
+        } else {
+            currentMethod.visitLdcInsn(results.size());
+            currentMethod.visitTypeInsn(ANEWARRAY, "java/lang/Object");
+
+            for (int i = 0; i < results.size(); i++) {
+                Variable result = results.get(i);
+                currentMethod.visitInsn(DUP);
+                currentMethod.visitLdcInsn(i);
+                currentMethod.visitVarInsn(determineLoadCommand(result.type()), result.index());
+                boxValue(result.type());
+                currentMethod.visitInsn(AASTORE);
+            }
+
+            currentMethod.visitInsn(ARETURN);
+            descriptor.append("[Ljava/lang/Object;");
+        }
+
+        currentMethod.desc = descriptor.toString();
+        addLocalVariableTable(scope);
+        currentMethod.visitMaxs(0, 0);
+        currentMethod.visitEnd();
+        generatedMethods.add(currentMethod);
+
+        localVariablesStack.pop();
+        currentMethod = outerMethod;
+        currentParameters = outerParameters;
+        currentMethodStart = outerMethodStart;
+        currentRange = outerRange;
+        currentRangeLive = outerRangeLive;
+        availableCalls = outerCalls;
+        availableCalls.killAll(writtenNames(range));
+
+        emitLineNumber(range.getFirst());
+        currentMethod.visitVarInsn(ALOAD, 0);
+        for (Variable input : inputs) {
+            currentMethod.visitVarInsn(determineLoadCommand(input.type()), input.index());
+        }
+        currentMethod.visitMethodInsn(INVOKESPECIAL, className, helperName, descriptor.toString(), false);
+
+        for (int i = 0; i < results.size(); i++) {
+            Variable result = results.get(i);
+
+            if (results.size() > 1) {
+                if (i < results.size() - 1) {
+                    currentMethod.visitInsn(DUP);
+                }
+                currentMethod.visitLdcInsn(i);
+                currentMethod.visitInsn(AALOAD);
+                unboxObject(result.type());
+            }
+
+            // Declarações do trecho também são declarações no método que o chama
+            int index = topLevelDeclarations.contains(result.name())
+                    ? outerScope.allocate(new Variable(result.name(), result.type()))
+                    : outerScope.load(result.name()).index();
+            currentMethod.visitVarInsn(determineStoreCommand(result.type()), index);
+        }
+
+        declaredOnly.forEach(variable -> outerScope.allocate(new Variable(variable.name(), variable.type())));
+    }
+
+    private String nextSplitMethodName() {
+        return "split$" + currentMethodName + "$" + splitMethods++;
+    }
+
+    private void emitDefaultValue(String type) {
+        switch (type) {
+            case TYPE_INT -> currentMethod.visitInsn(ICONST_0);
+            case TYPE_FLOAT -> currentMethod.visitInsn(FCONST_0);
+            case TYPE_STRING -> currentMethod.visitInsn(ACONST_NULL);
+            case String map when TypeResolver.isMap(map) -> currentMethod.visitInsn(ACONST_NULL);
+            default -> throw new IllegalArgumentException("Tipo desconhecido: " + type);
+        }
+    }
+
+    /**
+     * Cria um map vazio (ex: NEW org/dimer/runtime/IntKeyMap, com o tipo dos valores no construtor).
+     */
+    private void emitNewMap(String type) {
+        String mapClass = TypeResolver.mapClass(type);
+
+        currentMethod.visitTypeInsn(NEW, mapClass);
+        currentMethod.visitInsn(DUP);
+        currentMethod.visitLdcInsn(TypeResolver.mapValueKind(type));
+        currentMethod.visitMethodInsn(INVOKESPECIAL, mapClass, "<init>", "(I)V", false);
     }
 
     @Override
     public Void visitPrintStatement(SimpleLangParser.PrintStatementContext ctx) {
-        currentMethod.visitFieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        loadIoContext();
+        currentMethod.visitMethodInsn(INVOKEVIRTUAL, IO_CONTEXT_CLASS, "out", "()Ljava/io/PrintStream;", false);
         visit(ctx.expression());
 
-        String type = determineTypeOfExpression(ctx.expression());
-        String descriptor = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(typeToDescriptor(type)));
+        String type = types.expressionType(ctx.expression());
+        String descriptor = "(" + appendDescriptor(type) + ")V";
 
         currentMethod.visitMethodInsn(INVOKEVIRTUAL, "java/io/PrintStream", "println", descriptor, false);
         return null;
@@ -167,9 +795,9 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
     @Override
     public Void visitReadStatement(SimpleLangParser.ReadStatementContext ctx) {
         String varName = ctx.IDENTIFIER().getText();
-        Variable variable = getVariable(ctx, varName);
+        Variable variable = types.variable(ctx, varName);
 
-        loadScanner();
+        loadIoContext();
 
         switch (variable.type()) {
             case TYPE_STRING -> executeReadLine();
@@ -189,83 +817,531 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
         return null;
     }
 
-    private void loadScanner() {
+    /**
+     * Carrega o IoContext da instância. Todos os métodos gerados (inclusive os auxiliares e os corpos de laços
+     * parallel) são de instância, então o this está sempre no slot 0.
+     */
+    private void loadIoContext() {
+        currentMethod.visitVarInsn(ALOAD, 0);
+        currentMethod.visitFieldInsn(GETFIELD, className, IO_CONTEXT_FIELD, IO_CONTEXT_DESCRIPTOR);
+    }
+
+    private void executeReadLine() {
+        currentMethod.visitMethodInsn(INVOKEVIRTUAL, IO_CONTEXT_CLASS, "readLine", "()Ljava/lang/String;", false);
+    }
+
+    /**
+     * Laço sobre as linhas ou campos de um arquivo, lidos sob demanda pelo {@link org.dimer.runtime.FileInput}. Assim
+     * como no try-with-resources do Java, o arquivo é fechado ao fim do laço, ao sair por um return e quando o corpo
+     * lança uma exceção.
+     * <pre>
+     *     fields (int valor : "dados.csv") {
+     *         soma = soma + valor;
+     *     }
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     LDC "dados.csv"
+     *     LDC ","
+     *     INVOKESTATIC org/dimer/runtime/FileInput.fields (Ljava/lang/String;Ljava/lang/String;)Lorg/dimer/runtime/FileInput;
+     *     ASTORE 2
+     *     ICONST_0
+     *     ISTORE 3   # valor
+     *    L0
+     *     ALOAD 2
+     *     INVOKEVIRTUAL org/dimer/runtime/FileInput.next ()Z
+     *     IFEQ L1
+     *     ALOAD 2
+     *     INVOKEVIRTUAL org/dimer/runtime/FileInput.intValue ()I
+     *     ISTORE 3
+     *     ...        # corpo
+     *     GOTO L0
+     *    L1
+     *     ALOAD 2
+     *     INVOKEVIRTUAL org/dimer/runtime/FileInput.close ()V
+     *     GOTO L3
+     *    L2 # handler de qualquer exceção entre o ASTORE 2 e o L1
+     *     ALOAD 2
+     *     INVOKEVIRTUAL org/dimer/runtime/FileInput.close ()V
+     *     ATHROW
+     *    L3
+     * </pre>
+     */
+    @Override
+    public Void visitFileLoopStatement(SimpleLangParser.FileLoopStatementContext ctx) {
+        boolean fields = ctx.FIELDS() != null;
+
+        visit(ctx.expression(0));
+        if (fields) {
+            if (ctx.expression().size() > 1) {
+                visit(ctx.expression(1));
+            } else {
+                currentMethod.visitLdcInsn(DEFAULT_FIELD_DELIMITER);
+            }
+        }
+
+        String varType = types.checkFileLoop(ctx);
+        currentMethod.visitMethodInsn(INVOKESTATIC, FILE_INPUT_CLASS, fields ? "fields" : "lines",
+                fields ? "(Ljava/lang/String;Ljava/lang/String;)" + FILE_INPUT_DESCRIPTOR : "(Ljava/lang/String;)" + FILE_INPUT_DESCRIPTOR, false);
+
         if (localVariablesStack.isEmpty()) {
             localVariablesStack.push(new LocalVariableManager());
         }
 
         LocalVariableManager manager = localVariablesStack.peek();
+        int fileIndex = manager.allocate(new Variable(RESERVED_FILE_VARIABLE + files++, null));
+        currentMethod.visitVarInsn(ASTORE, fileIndex);
+        OpenResource file = openResource(false, fileIndex);
 
-        Variable variable = manager.load(RESERVED_SCANNER_VARIABLE);
+        // Assim como as demais variáveis locais, a do laço continua declarada depois dele, então sempre tem um valor
+        int varIndex = manager.allocate(new Variable(ctx.IDENTIFIER().getText(), varType));
+        emitDefaultValue(varType);
+        currentMethod.visitVarInsn(determineStoreCommand(varType), varIndex);
 
-        if (variable == null) {
-            int index = manager.allocate(new Variable(RESERVED_SCANNER_VARIABLE, null));
-            // Gere instruções para capturar entrada do console
-            currentMethod.visitTypeInsn(NEW, "java/util/Scanner");
-            currentMethod.visitInsn(DUP);
-            currentMethod.visitFieldInsn(GETSTATIC, "java/lang/System", "in", "Ljava/io/InputStream;");
-            currentMethod.visitMethodInsn(INVOKESPECIAL, "java/util/Scanner", "<init>", "(Ljava/io/InputStream;)V", false);
+        availableCalls.killAll(writtenNames(List.of(ctx)));
+        AvailableCalls loopEntry = availableCalls.copy();
+
+        Label nextLabel = new Label();
+        Label endLabel = new Label();
+
+        currentMethod.visitLabel(nextLabel);
+        currentMethod.visitVarInsn(ALOAD, fileIndex);
+        currentMethod.visitMethodInsn(INVOKEVIRTUAL, FILE_INPUT_CLASS, "next", "()Z", false);
+        currentMethod.visitJumpInsn(IFEQ, endLabel);
+
+        currentMethod.visitVarInsn(ALOAD, fileIndex);
+        switch (varType) {
+            case TYPE_INT -> currentMethod.visitMethodInsn(INVOKEVIRTUAL, FILE_INPUT_CLASS, "intValue", "()I", false);
+            case TYPE_FLOAT -> currentMethod.visitMethodInsn(INVOKEVIRTUAL, FILE_INPUT_CLASS, "floatValue", "()F", false);
+            default -> currentMethod.visitMethodInsn(INVOKEVIRTUAL, FILE_INPUT_CLASS, "text", "()Ljava/lang/String;", false);
+        }
+        currentMethod.visitVarInsn(determineStoreCommand(varType), varIndex);
+
+        visit(ctx.block());
+
+        emitProfileProbe(currentMethodName + ":" + (fields ? "fields" : "lines") + "@" + ctx.start.getLine());
+        availableCalls = loopEntry;
+
+        currentMethod.visitJumpInsn(GOTO, nextLabel);
+        currentMethod.visitLabel(endLabel);
+
+        closeResource(file);
+        return null;
+    }
+
+    /**
+     * Bloco cujos prints são escritos em um arquivo: o {@link org.dimer.runtime.IoContext} troca a saída pelo arquivo
+     * no início e volta para a anterior (guardada em uma variável local) no fim, ao sair por um return ou quando o
+     * bloco lança uma exceção, da mesma forma que os laços lines e fields fecham o arquivo.
+     */
+    @Override
+    public Void visitWriteStatement(SimpleLangParser.WriteStatementContext ctx) {
+        loadIoContext();
+        visit(ctx.expression());
+        types.checkWrite(ctx);
+        currentMethod.visitMethodInsn(INVOKEVIRTUAL, IO_CONTEXT_CLASS, "openOutput", "(Ljava/lang/String;)Ljava/io/PrintStream;", false);
 
-            currentMethod.visitVarInsn(ASTORE, index);
-            currentMethod.visitVarInsn(ALOAD, index);
+        if (localVariablesStack.isEmpty()) {
+            localVariablesStack.push(new LocalVariableManager());
+        }
+
+        int previousIndex = localVariablesStack.peek().allocate(new Variable(RESERVED_FILE_VARIABLE + files++, null));
+        currentMethod.visitVarInsn(ASTORE, previousIndex);
+        OpenResource output = openResource(true, previousIndex);
+
+        visit(ctx.block());
+
+        closeResource(output);
+        return null;
+    }
+
+    private OpenResource openResource(boolean output, int index) {
+        OpenResource resource = new OpenResource(output, index);
+        resource.rangeStart = addLabel();
+        openResources.push(resource);
+        return resource;
+    }
+
+    /**
+     * Fecha o arquivo ao fim do comando e gera o handler que o fecha quando uma exceção sai do comando. Os trechos
+     * protegidos pelo handler não incluem os fechamentos feitos antes dos returns, para não fechar o arquivo duas
+     * vezes.
+     */
+    private void closeResource(OpenResource resource) {
+        openResources.pop();
+        resource.ranges.add(new LabelNode[]{resource.rangeStart, addLabel()});
+        emitClose(resource);
+
+        List<LabelNode[]> ranges = resource.ranges.stream().filter(SimpleLangBytecodeVisitor::hasInstructions).toList();
+        if (ranges.isEmpty()) {
+            return;
+        }
+
+        Label afterLabel = new Label();
+        currentMethod.visitJumpInsn(GOTO, afterLabel);
+
+        LabelNode handler = addLabel();
+        // Os handlers dos comandos internos são adicionados antes, então têm prioridade sobre os dos externos
+        ranges.forEach(range -> currentMethod.tryCatchBlocks.add(new TryCatchBlockNode(range[0], range[1], handler, null)));
+        emitClose(resource);
+        currentMethod.visitInsn(ATHROW);
+
+        currentMethod.visitLabel(afterLabel);
+    }
+
+    private void emitClose(OpenResource resource) {
+        if (resource.output) {
+            loadIoContext();
+            currentMethod.visitVarInsn(ALOAD, resource.index);
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, IO_CONTEXT_CLASS, "closeOutput", "(Ljava/io/PrintStream;)V", false);
         } else {
-            currentMethod.visitVarInsn(ALOAD, variable.index());
+            currentMethod.visitVarInsn(ALOAD, resource.index);
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, FILE_INPUT_CLASS, "close", "()V", false);
         }
     }
 
-    private void executeReadLine() {
-        currentMethod.visitMethodInsn(INVOKEVIRTUAL, "java/util/Scanner", "nextLine", "()Ljava/lang/String;", false);
+    private LabelNode addLabel() {
+        LabelNode label = new LabelNode();
+        currentMethod.instructions.add(label);
+        return label;
+    }
+
+    /**
+     * Um trecho protegido sem instruções não é válido na tabela de exceções.
+     */
+    private static boolean hasInstructions(LabelNode[] range) {
+        for (AbstractInsnNode instruction = range[0]; instruction != range[1]; instruction = instruction.getNext()) {
+            if (instruction.getOpcode() >= 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public Void visitMethodDeclaration(SimpleLangParser.MethodDeclarationContext ctx) {
         String methodName = ctx.IDENTIFIER().getText();
-        String methodReturnType = ctx.type().getText();
-        String methodDescriptor = buildMethodDescriptor(ctx.parameterList(), methodReturnType);
-        
-        methods.put(methodName, new Method(methodName, methodReturnType, methodDescriptor));
-        
-        currentMethod = classWriter.visitMethod(ACC_PUBLIC, methodName, methodDescriptor, null, null);
+        Method method = types.method(ctx, methodName); // Já declarado na primeira passada
+        boolean memo = memoMethods.containsKey(methodName);
+
+        // O corpo de um método memo fica em um método privado, e o público consulta o cache antes de chamá-lo
+        currentMethod = memo
+                ? new MethodNode(ACC_PRIVATE | ACC_SYNTHETIC, MEMO_BODY_PREFIX + methodName, method.descriptor(), null, null)
+                : new MethodNode(ACC_PUBLIC, methodName, method.descriptor(), null, null);
+        currentMethodName = methodName;
         currentMethod.visitCode();
+        emitLineNumber(ctx);
+
+        emitProfileProbe(methodName);
+        repeatedCalls = repeatedCalls(ctx);
 
         var localVariableManager = new LocalVariableManager();
         localVariablesStack.push(localVariableManager);
 
+        List<Variable> parameters = new ArrayList<>();
+
         if (ctx.parameterList() != null) {
             for (var paramContext : ctx.parameterList().parameter()) {
                 String paramName = paramContext.IDENTIFIER().getText();
                 String paramType = paramContext.type().getText();
 
                 localVariableManager.allocate(new Variable(paramName, paramType));
+                parameters.add(localVariableManager.load(paramName));
             }
         }
 
+        // Ponto de retorno das chamadas recursivas em cauda (após o contador do profiler, que conta apenas a entrada real)
+        currentParameters = parameters;
+        currentMethodStart = new Label();
+        currentMethod.visitLabel(currentMethodStart);
+
         visit(ctx.block());
 
+        // Métodos void não têm return obrigatório, então o retorno é adicionado ao final do corpo
+        if (TYPE_VOID.equals(method.returnType())) {
+            currentMethod.visitInsn(RETURN);
+        }
+
+        addLocalVariableTable(localVariableManager);
         currentMethod.visitMaxs(0, 0); // Computado automaticamente pelo ASM
         currentMethod.visitEnd();
+        generatedMethods.add(currentMethod);
         currentMethod = null;
+        currentMethodName = null;
+        currentParameters = List.of();
+        currentMethodStart = null;
 
         localVariablesStack.pop(); // Remove as variáveis locais do método da pilha após a compilação do método
 
+        if (memo) {
+            addMemoWrapper(ctx, method);
+        }
+
         return null;
     }
 
+    /**
+     * Gera o método público de um método memo, que procura os argumentos no cache e só executa o corpo quando eles
+     * não estão lá, guardando o resultado. Os argumentos int e float vão juntos em um long (float pelos bits) e os
+     * string em seguida, com null no lugar dos que faltam.
+     * <pre>
+     *     memo fib(int n): int { ... }
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     ALOAD 0
+     *     GETFIELD Fib.SimpleLangMemo$fib
+     *     ILOAD 1
+     *     I2L
+     *     ACONST_NULL
+     *     ACONST_NULL
+     *     INVOKEVIRTUAL MemoCache.getNumber (JLString;LString;)J
+     *     DUP2
+     *     LDC -9223372036854775808   # MemoCache.MISS
+     *     LCMP
+     *     IFEQ L0
+     *     L2I
+     *     IRETURN
+     *    L0
+     *     POP2
+     *     ALOAD 0
+     *     ILOAD 1
+     *     INVOKESPECIAL Fib.memo$fib (I)I
+     *     ISTORE 2
+     *     ...        # mesma chave, seguida do resultado em long
+     *     INVOKEVIRTUAL MemoCache.putNumber (JLString;LString;J)V
+     *     ILOAD 2
+     *     IRETURN
+     * </pre>
+     */
+    private void addMemoWrapper(SimpleLangParser.MethodDeclarationContext ctx, Method method) {
+        String methodName = ctx.IDENTIFIER().getText();
+        String returnType = method.returnType();
+        String cacheField = MEMO_CACHE_FIELD_PREFIX + methodName;
+        boolean string = TYPE_STRING.equals(returnType);
+
+        currentMethod = new MethodNode(ACC_PUBLIC, methodName, method.descriptor(), null, null);
+        currentMethod.visitCode();
+        emitLineNumber(ctx);
+
+        LocalVariableManager scope = new LocalVariableManager();
+        List<Variable> parameters = new ArrayList<>();
+        if (ctx.parameterList() != null) {
+            for (var paramContext : ctx.parameterList().parameter()) {
+                String paramName = paramContext.IDENTIFIER().getText();
+                scope.allocate(new Variable(paramName, paramContext.type().getText()));
+                parameters.add(scope.load(paramName));
+            }
+        }
+
+        Label miss = new Label();
+        currentMethod.visitVarInsn(ALOAD, 0);
+        currentMethod.visitFieldInsn(GETFIELD, className, cacheField, MEMO_CACHE_DESCRIPTOR);
+        emitMemoKey(parameters);
+
+        if (string) {
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, MEMO_CACHE_CLASS, "getString",
+                    "(JLjava/lang/String;Ljava/lang/String;)Ljava/lang/String;", false);
+            currentMethod.visitInsn(DUP);
+            currentMethod.visitJumpInsn(IFNULL, miss);
+            currentMethod.visitInsn(ARETURN);
+            currentMethod.visitLabel(miss);
+            currentMethod.visitInsn(POP);
+        } else {
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, MEMO_CACHE_CLASS, "getNumber",
+                    "(JLjava/lang/String;Ljava/lang/String;)J", false);
+            currentMethod.visitInsn(DUP2);
+            currentMethod.visitLdcInsn(MemoCache.MISS);
+            currentMethod.visitInsn(LCMP);
+            currentMethod.visitJumpInsn(IFEQ, miss);
+            currentMethod.visitInsn(L2I);
+            if (TYPE_FLOAT.equals(returnType)) {
+                currentMethod.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "intBitsToFloat", "(I)F", false);
+            }
+            executeReturnBasedOnType(returnType, methodName);
+            currentMethod.visitLabel(miss);
+            currentMethod.visitInsn(POP2);
+        }
+
+        currentMethod.visitVarInsn(ALOAD, 0);
+        parameters.forEach(parameter -> currentMethod.visitVarInsn(determineLoadCommand(parameter.type()), parameter.index()));
+        currentMethod.visitMethodInsn(INVOKESPECIAL, className, MEMO_BODY_PREFIX + methodName, method.descriptor(), false);
+
+        int result = scope.allocate(new Variable(RESERVED_MEMO_RESULT_VARIABLE, returnType));
+        currentMethod.visitVarInsn(determineStoreCommand(returnType), result);
+
+        currentMethod.visitVarInsn(ALOAD, 0);
+        currentMethod.visitFieldInsn(GETFIELD, className, cacheField, MEMO_CACHE_DESCRIPTOR);
+        emitMemoKey(parameters);
+        currentMethod.visitVarInsn(determineLoadCommand(returnType), result);
+
+        if (string) {
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, MEMO_CACHE_CLASS, "putString",
+                    "(JLjava/lang/String;Ljava/lang/String;Ljava/lang/String;)V", false);
+        } else {
+            emitNumberBits(returnType);
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, MEMO_CACHE_CLASS, "putNumber",
+                    "(JLjava/lang/String;Ljava/lang/String;J)V", false);
+        }
+
+        currentMethod.visitVarInsn(determineLoadCommand(returnType), result);
+        executeReturnBasedOnType(returnType, methodName);
+
+        addLocalVariableTable(scope);
+        currentMethod.visitMaxs(0, 0);
+        currentMethod.visitEnd();
+        generatedMethods.add(currentMethod);
+        currentMethod = null;
+    }
+
+    /**
+     * Empilha a chave do cache: um long com os argumentos int e float (o primeiro nos 32 bits altos quando há dois),
+     * seguido dos dois argumentos string.
+     */
+    private void emitMemoKey(List<Variable> parameters) {
+        List<Variable> numbers = parameters.stream().filter(parameter -> !TYPE_STRING.equals(parameter.type())).toList();
+        List<Variable> strings = parameters.stream().filter(parameter -> TYPE_STRING.equals(parameter.type())).toList();
+
+        if (numbers.isEmpty()) {
+            currentMethod.visitInsn(LCONST_0);
+        }
+
+        for (int i = 0; i < numbers.size(); i++) {
+            Variable number = numbers.get(i);
+            currentMethod.visitVarInsn(determineLoadCommand(number.type()), number.index());
+            emitNumberBits(number.type());
+
+            if (i == 0 && numbers.size() > 1) {
+                currentMethod.visitIntInsn(BIPUSH, 32);
+                currentMethod.visitInsn(LSHL);
+            } else if (i == 1) {
+                currentMethod.visitLdcInsn(0xFFFFFFFFL);
+                currentMethod.visitInsn(LAND);
+                currentMethod.visitInsn(LOR);
+            }
+        }
+
+        for (int i = 0; i < 2; i++) {
+            if (i < strings.size()) {
+                currentMethod.visitVarInsn(ALOAD, strings.get(i).index());
+            } else {
+                currentMethod.visitInsn(ACONST_NULL);
+            }
+        }
+    }
+
+    /**
+     * Converte o int ou float do topo da pilha em long, o float pelos bits.
+     */
+    private void emitNumberBits(String type) {
+        if (TYPE_FLOAT.equals(type)) {
+            currentMethod.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "floatToRawIntBits", "(F)I", false);
+        }
+        currentMethod.visitInsn(I2L);
+    }
+
+    /**
+     * Cria o cache de cada método memo ao construir a instância, e implementa {@link org.dimer.runtime.Memoized}.
+     */
+    private void addMemoCaches() {
+        var methodVisitor = classNode.visitMethod(ACC_PRIVATE | ACC_SYNTHETIC, MEMO_CACHES_METHOD, "()V", null, null);
+        methodVisitor.visitCode();
+
+        memoMethods.forEach((methodName, maxSize) -> {
+            methodVisitor.visitVarInsn(ALOAD, 0);
+            methodVisitor.visitTypeInsn(NEW, MEMO_CACHE_CLASS);
+            methodVisitor.visitInsn(DUP);
+            methodVisitor.visitLdcInsn(methodName);
+            methodVisitor.visitLdcInsn(maxSize);
+            methodVisitor.visitMethodInsn(INVOKESPECIAL, MEMO_CACHE_CLASS, "<init>", "(Ljava/lang/String;I)V", false);
+            methodVisitor.visitFieldInsn(PUTFIELD, className, MEMO_CACHE_FIELD_PREFIX + methodName, MEMO_CACHE_DESCRIPTOR);
+        });
+
+        methodVisitor.visitInsn(RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        var cachesVisitor = classNode.visitMethod(ACC_PUBLIC, "memoCaches", "()Ljava/util/List;",
+                "()Ljava/util/List<" + MEMO_CACHE_DESCRIPTOR + ">;", null);
+        cachesVisitor.visitCode();
+
+        cachesVisitor.visitLdcInsn(memoMethods.size());
+        cachesVisitor.visitTypeInsn(ANEWARRAY, MEMO_CACHE_CLASS);
+
+        int i = 0;
+        for (String methodName : memoMethods.keySet()) {
+            cachesVisitor.visitInsn(DUP);
+            cachesVisitor.visitLdcInsn(i++);
+            cachesVisitor.visitVarInsn(ALOAD, 0);
+            cachesVisitor.visitFieldInsn(GETFIELD, className, MEMO_CACHE_FIELD_PREFIX + methodName, MEMO_CACHE_DESCRIPTOR);
+            cachesVisitor.visitInsn(AASTORE);
+        }
+
+        cachesVisitor.visitMethodInsn(INVOKESTATIC, "java/util/List", "of", "([Ljava/lang/Object;)Ljava/util/List;", true);
+        cachesVisitor.visitInsn(ARETURN);
+        cachesVisitor.visitMaxs(0, 0);
+        cachesVisitor.visitEnd();
+    }
+
     private void executeReturnBasedOnType(String methodReturnType, String methodName) {
         switch (methodReturnType) {
             case TYPE_INT: currentMethod.visitInsn(IRETURN); break;
             case TYPE_FLOAT: currentMethod.visitInsn(FRETURN); break;
             case TYPE_STRING: currentMethod.visitInsn(ARETURN); break;
             case TYPE_VOID: currentMethod.visitInsn(RETURN); break;
+            case String map when TypeResolver.isMap(map): currentMethod.visitInsn(ARETURN); break;
             default: throw new IllegalArgumentException("Tipo de retorno desconhecido: " + methodReturnType + " para o método " + methodName);
         }
     }
 
+    /**
+     * Chamadas a métodos puros que se repetem no método têm o resultado guardado em uma variável local na primeira
+     * execução, e as seguintes apenas carregam essa variável enquanto nenhum dos argumentos, nem os campos lidos
+     * pelo método, recebem outro valor.
+     * <pre>
+     *     if (getIdade() > idadeAposentadoria) {
+     *         resultado = 0;
+     *     } else {
+     *         resultado = idadeAposentadoria - getIdade();
+     *     }
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     ALOAD 0
+     *     INVOKEVIRTUAL Hello.getIdade ()I
+     *     DUP
+     *     ISTORE 2   # resultado guardado
+     *     ...
+     *    L1 # else
+     *     LDC 60     # idadeAposentadoria
+     *     ILOAD 2    # no lugar da segunda chamada
+     *     ISUB
+     * </pre>
+     */
     @Override
     public Void visitMethodCall(SimpleLangParser.MethodCallContext ctx) {
+        String key = callKey(ctx);
+        Variable result = key != null ? availableCalls.lookup(key) : null;
+
+        if (result != null) {
+            currentMethod.visitVarInsn(determineLoadCommand(result.type()), result.index());
+            return null;
+        }
+
+        emitMethodCall(ctx);
+
+        if (key != null && repeatedCalls.contains(key)) {
+            currentMethod.visitInsn(DUP);
+            rememberCall(key, ctx);
+        }
+
+        return null;
+    }
+
+    private void emitMethodCall(SimpleLangParser.MethodCallContext ctx) {
         String methodName = ctx.IDENTIFIER().getText();
 
-        String methodDescriptor = getMethod(ctx, methodName).descriptor();
+        String methodDescriptor = types.method(ctx, methodName).descriptor();
 
         // Primeiro parâmetro de uma chamada de método deve sempre ser o this
         currentMethod.visitVarInsn(ALOAD, 0);
@@ -278,13 +1354,151 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
         // Por fim a chamada do método
         currentMethod.visitMethodInsn(INVOKEVIRTUAL, className, methodName, methodDescriptor, false);
 
-        return null;
+        if (fieldWritingMethods.contains(methodName)) {
+            availableCalls.killAll(classVariables.keySet());
+        }
+    }
+
+    /**
+     * Guarda em uma nova variável local o resultado da chamada que está no topo da pilha.
+     */
+    private void rememberCall(String key, SimpleLangParser.MethodCallContext ctx) {
+        if (localVariablesStack.isEmpty()) {
+            localVariablesStack.push(new LocalVariableManager());
+        }
+
+        String type = types.method(ctx, ctx.IDENTIFIER().getText()).returnType();
+        int index = localVariablesStack.peek().allocate(new Variable(RESERVED_CALL_RESULT_VARIABLE + callResults++, type));
+
+        currentMethod.visitVarInsn(determineStoreCommand(type), index);
+        availableCalls.add(key, new Variable(key, type, null, index), callDependencies(ctx));
+    }
+
+    /**
+     * Identifica uma chamada cujo resultado pode ser reaproveitado: método puro com retorno e argumentos que são
+     * literais, variáveis ou outras chamadas reaproveitáveis. Duas chamadas com o mesmo texto (ex: "dobro(x,1)")
+     * têm o mesmo resultado enquanto os nomes de {@link #callDependencies} não mudarem.
+     *
+     * @return o texto da chamada, ou null se ela não pode ser reaproveitada
+     */
+    private String callKey(SimpleLangParser.MethodCallContext ctx) {
+        String methodName = ctx.IDENTIFIER().getText();
+
+        if (!pureMethods.containsKey(methodName) || TYPE_VOID.equals(methods.get(methodName).returnType())) {
+            return null;
+        }
+
+        if (ctx.argumentList() != null) {
+            for (var argument : ctx.argumentList().expression()) {
+                boolean reusable = argument.literal() != null || argument.IDENTIFIER() != null
+                        || (argument.methodCall() != null && callKey(argument.methodCall()) != null);
+
+                if (!reusable) {
+                    return null;
+                }
+            }
+        }
+
+        return ctx.getText();
+    }
+
+    /**
+     * Nomes dos quais o resultado de uma chamada reaproveitável depende: as variáveis usadas nos argumentos e os
+     * campos lidos pelos métodos chamados.
+     */
+    private Set<String> callDependencies(SimpleLangParser.MethodCallContext ctx) {
+        Set<String> dependencies = new HashSet<>(pureMethods.get(ctx.IDENTIFIER().getText()));
+
+        if (ctx.argumentList() != null) {
+            for (var argument : ctx.argumentList().expression()) {
+                if (argument.IDENTIFIER() != null) {
+                    dependencies.add(argument.IDENTIFIER().getText());
+                } else if (argument.methodCall() != null) {
+                    dependencies.addAll(callDependencies(argument.methodCall()));
+                }
+            }
+        }
+
+        return dependencies;
+    }
+
+    /**
+     * Chamadas reaproveitáveis que aparecem mais de uma vez no corpo. As demais são geradas normalmente, sem
+     * guardar o resultado.
+     */
+    private Set<String> repeatedCalls(ParseTree body) {
+        if (pureMethods.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<String> seen = new HashSet<>();
+        Set<String> repeated = new HashSet<>();
+        collectReusableCalls(body, call -> {
+            String key = callKey(call);
+            if (!seen.add(key)) {
+                repeated.add(key);
+            }
+        });
+        return repeated;
+    }
+
+    /**
+     * Percorre as chamadas reaproveitáveis da árvore, as internas antes das externas (na ordem em que são
+     * executadas). As chamadas dos spawns não contam, já que são executadas em outras threads.
+     */
+    private void collectReusableCalls(ParseTree tree, Consumer<SimpleLangParser.MethodCallContext> consumer) {
+        if (tree instanceof SimpleLangParser.SpawnStatementContext spawn) {
+            if (spawn.methodCall().argumentList() != null) {
+                collectReusableCalls(spawn.methodCall().argumentList(), consumer);
+            }
+            return;
+        }
+
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectReusableCalls(tree.getChild(i), consumer);
+        }
+
+        if (tree instanceof SimpleLangParser.MethodCallContext call && callKey(call) != null) {
+            consumer.accept(call);
+        }
+    }
+
+    /**
+     * Nomes que podem receber outro valor durante a execução das árvores: atribuições, reads, declarações e, caso
+     * algum método chamado altere variáveis de classe, todos os campos.
+     */
+    private Set<String> writtenNames(List<? extends ParseTree> trees) {
+        Set<String> names = new HashSet<>(OutliningAnalysis.declaredNames(trees));
+
+        for (ParseTree tree : trees) {
+            names.addAll(AssignedNamesCollector.collect(tree));
+
+            if (callsFieldWritingMethod(tree)) {
+                names.addAll(classVariables.keySet());
+            }
+        }
+
+        return names;
+    }
+
+    private boolean callsFieldWritingMethod(ParseTree tree) {
+        if (tree instanceof SimpleLangParser.MethodCallContext call && fieldWritingMethods.contains(call.IDENTIFIER().getText())) {
+            return true;
+        }
+
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            if (callsFieldWritingMethod(tree.getChild(i))) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     @Override
     public Void visitExpression(SimpleLangParser.ExpressionContext ctx) {
         if (ctx.literal() != null) {
-            currentMethod.visitLdcInsn(getLiteralValue(ctx.literal()));
+            currentMethod.visitLdcInsn(TypeResolver.literalValue(ctx.literal()));
         } else if (ctx.IDENTIFIER() != null) { // Aponta para uma variável
             loadVariable(ctx, ctx.IDENTIFIER().getText());
         } else {
@@ -295,12 +1509,7 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
 
     @Override
     public Void visitNumericExpression(SimpleLangParser.NumericExpressionContext ctx) {
-        // Gambiarra para caso alguma expressão pai tiver float, não sobrescrever o valor
-        if (numericExpressionStack.isEmpty() || !isFloatOperation) {
-            isFloatOperation = isFloatOperation(ctx);
-        }
-
-        numericExpressionStack.push(0);
+        types.enterNumericExpression(ctx);
 
         visit(ctx.getChild(0));
 
@@ -309,16 +1518,16 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
             String operator = ctx.getChild(i).getText();
             switch (operator) {
                 case "+":
-                    currentMethod.visitInsn(isFloatOperation ? FADD : IADD);
+                    currentMethod.visitInsn(types.isFloatOperation() ? FADD : IADD);
                     break;
                 case "-":
-                    currentMethod.visitInsn(isFloatOperation ? FSUB : ISUB);
+                    currentMethod.visitInsn(types.isFloatOperation() ? FSUB : ISUB);
                     break;
                 case "*":
-                    currentMethod.visitInsn(isFloatOperation ? FMUL : IMUL);
+                    currentMethod.visitInsn(types.isFloatOperation() ? FMUL : IMUL);
                     break;
                 case "/":
-                    currentMethod.visitInsn(isFloatOperation ? FDIV : IDIV);
+                    currentMethod.visitInsn(types.isFloatOperation() ? FDIV : IDIV);
                     break;
                 default:
                     throw new IllegalArgumentException("Operador não suportado: " + operator);
@@ -337,35 +1546,27 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
     @Override
     public Void visitOperand(SimpleLangParser.OperandContext ctx) {
         if (ctx.IDENTIFIER() != null) {
-            String varName = ctx.IDENTIFIER().getText();
-            Variable variable = getVariable(ctx, varName);
-
-            if (TYPE_STRING.equals(variable.type())) {
-                throw new IllegalArgumentException(String.format("Linha %d: variável %s do tipo string não pode ser usada em operação aritmética", ctx.start.getLine(), varName));
-            }
+            String type = types.operandType(ctx);
 
-            loadVariable(ctx, varName);
+            loadVariable(ctx, ctx.IDENTIFIER().getText());
 
             // Caso a operação atual esteja lidando com floats, deve ser feita a conversão de todos os inteiros para float
-            if (isFloatOperation && TYPE_INT.equals(variable.type())) {
+            if (types.isFloatOperation() && TYPE_INT.equals(type)) {
                 currentMethod.visitInsn(I2F);
             }
-        } else if (ctx.methodCall() != null) {
-            String type = determineReturnTypeMethodCall(ctx.methodCall());
+        } else if (ctx.methodCall() != null || ctx.mapCall() != null) {
+            String type = types.operandType(ctx);
+            boolean floatOperation = types.isFloatOperation();
 
-            if (TYPE_STRING.equals(type)) {
-                throw new IllegalArgumentException(String.format("Linha %d: método %s com retorno tipo string não pode ser usada em operação aritmética",
-                        ctx.start.getLine(), ctx.methodCall().IDENTIFIER().getText()));
-            }
-
-            visit(ctx.methodCall());
+            visit(ctx.getChild(0));
+            types.restoreFloatOperation(floatOperation);
 
-            if (isFloatOperation && TYPE_INT.equals(type)) {
+            if (types.isFloatOperation() && TYPE_INT.equals(type)) {
                 currentMethod.visitInsn(I2F); // Converte int pra float
             }
         } else {
-            currentMethod.visitLdcInsn(getLiteralValue(ctx));
-            if (isFloatOperation && ctx.INT() != null) {
+            currentMethod.visitLdcInsn(TypeResolver.literalValue(ctx));
+            if (types.isFloatOperation() && ctx.INT() != null) {
                 currentMethod.visitInsn(I2F); // Converte int pra float
             }
         }
@@ -384,7 +1585,7 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
         currentMethod.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "()V", false);
 
         // Toda concatenação começa com uma string literal, então será adicionada na pilha automaticamente
-        currentMethod.visitLdcInsn(getStringValue(ctx.STRING().getText()));
+        currentMethod.visitLdcInsn(TypeResolver.stringValue(ctx.STRING().getText()));
         currentMethod.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
 
         for (int i = 1; i < ctx.getChildCount(); i++) {
@@ -396,17 +1597,21 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
             }
 
             if (child instanceof SimpleLangParser.LiteralContext literalContext) {
-                currentMethod.visitLdcInsn(getLiteralValue(literalContext));
+                currentMethod.visitLdcInsn(TypeResolver.literalValue(literalContext));
                 descriptor = determineDescriptor(literalContext);
             } else if (isAnIdentifier(child)) {
                 loadVariable(ctx, child.getText());
-                descriptor = determineDescriptor(ctx, child.getText());
+                descriptor = appendDescriptor(types.variable(ctx, child.getText()).type());
             } else if (child instanceof SimpleLangParser.InvolvedNumericExpressionContext involvedNumericExpressionContext) {
                 visit(involvedNumericExpressionContext);
-                descriptor = isFloatOperation ? Type.FLOAT_TYPE.getDescriptor() : Type.INT_TYPE.getDescriptor();
+                descriptor = types.isFloatOperation() ? Type.FLOAT_TYPE.getDescriptor() : Type.INT_TYPE.getDescriptor();
             } else if (child instanceof SimpleLangParser.MethodCallContext methodCallContext) {
                 visit(methodCallContext);
-                descriptor = typeToDescriptor(getMethod(methodCallContext, methodCallContext.IDENTIFIER().getText()).returnType());
+                descriptor = appendDescriptor(types.method(methodCallContext, methodCallContext.IDENTIFIER().getText()).returnType());
+            } else if (child instanceof SimpleLangParser.MapCallContext mapCallContext) {
+                String type = types.mapCallType(mapCallContext);
+                visit(mapCallContext);
+                descriptor = appendDescriptor(type);
             }
 
             currentMethod.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(" + descriptor + ")Ljava/lang/StringBuilder;", false);
@@ -416,6 +1621,81 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
         return null;
     }
 
+    /**
+     * Tipo do parâmetro do StringBuilder.append e do println para um valor: maps são impressos como Object,
+     * pelo toString (ex: {1=10, 2=20}).
+     */
+    private static String appendDescriptor(String type) {
+        return TypeResolver.isMap(type) ? "Ljava/lang/Object;" : TypeResolver.typeToDescriptor(type);
+    }
+
+    /**
+     * Operação sobre map, compilada para uma chamada ao {@link org.dimer.runtime.IntKeyMap} ou
+     * {@link org.dimer.runtime.StringKeyMap} com os tipos primitivos da chave e do valor, sem boxing:
+     * <pre>
+     *     contagem.put(palavra, contagem.get(palavra) + 1);
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     ALOAD 1    # contagem
+     *     ALOAD 2    # palavra
+     *     ALOAD 1
+     *     ALOAD 2
+     *     INVOKEVIRTUAL org/dimer/runtime/StringKeyMap.getInt (Ljava/lang/String;)I
+     *     LDC 1
+     *     IADD
+     *     INVOKEVIRTUAL org/dimer/runtime/StringKeyMap.putInt (Ljava/lang/String;I)V
+     * </pre>
+     */
+    @Override
+    public Void visitMapCall(SimpleLangParser.MapCallContext ctx) {
+        String type = types.mapCallType(ctx);
+        Variable map = types.mapVariable(ctx);
+        String operation = ctx.IDENTIFIER(1).getText();
+
+        loadVariable(ctx, map.name());
+
+        if (ctx.argumentList() != null) {
+            for (int i = 0; i < ctx.argumentList().expression().size(); i++) {
+                SimpleLangParser.ExpressionContext argument = ctx.argumentList().expression(i);
+                visit(argument);
+                types.checkMapArgument(ctx, i);
+
+                // Uma chave string nula não é aceita pelo StringKeyMap: o erro indica a linha e o map
+                if (i == 0 && TYPE_STRING.equals(TypeResolver.mapKeyType(map.type())) && argument.literal() == null) {
+                    currentMethod.visitLdcInsn(TypeResolver.nullKeyMessage(ctx));
+                    currentMethod.visitMethodInsn(INVOKESTATIC, "java/util/Objects", "requireNonNull",
+                            "(Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;", false);
+                    currentMethod.visitTypeInsn(CHECKCAST, "java/lang/String");
+                }
+            }
+        }
+
+        String keyDescriptor = TypeResolver.typeToDescriptor(TypeResolver.mapKeyType(map.type()));
+        String valueType = TypeResolver.mapValueType(map.type());
+        String valueDescriptor = TypeResolver.typeToDescriptor(valueType);
+        // Só o get e o put dependem do tipo dos valores: getInt, putFloat, getString...
+        String methodName = operation.equals("get") || operation.equals("put")
+                ? operation + Character.toUpperCase(valueType.charAt(0)) + valueType.substring(1)
+                : operation;
+        String descriptor = switch (operation) {
+            case "get" -> "(" + keyDescriptor + ")" + valueDescriptor;
+            case "put" -> "(" + keyDescriptor + valueDescriptor + ")V";
+            case "contains" -> "(" + keyDescriptor + ")Z";
+            case "remove" -> "(" + keyDescriptor + ")V";
+            default -> "()I";
+        };
+
+        currentMethod.visitMethodInsn(INVOKEVIRTUAL, TypeResolver.mapClass(map.type()), methodName, descriptor, false);
+
+        // Como comando (ex: m.get(1);), o resultado é descartado
+        if (ctx.getParent() instanceof SimpleLangParser.StatementContext && !TYPE_VOID.equals(type)) {
+            currentMethod.visitInsn(POP);
+        }
+
+        return null;
+    }
+
 
     /**
      * Exemplo prático:
@@ -456,9 +1736,7 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
      */
     @Override
     public Void visitIfStatement(SimpleLangParser.IfStatementContext ctx) {
-        if (!TYPE_BOOL.equals(determineTypeOfExpression(ctx.expression()))) {
-            throw new IllegalArgumentException(String.format("Linha %d: expressão dentro do if %s não retorna boolean", ctx.start.getLine(), ctx.expression().getText()));
-        }
+        types.checkCondition(ctx);
 
         Label thenLabel = new Label(); // Marcação para o bloco de código caso o if dê true
         Label endLabel = new Label(); // Marcação para o final do bloco do if
@@ -472,11 +1750,9 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
             // Faz o load dos valores contidos na expressão para a pilha
             visit(ctx.expression());
 
-            int instruction = determineComparisonInstruction(ctx.expression());
-
             // Exemplo: Instrução de comparação de int GT (greater than), se retornar true (1),
             // faz o jump para o label do bloco then
-            currentMethod.visitJumpInsn(instruction, thenLabel);
+            emitConditionJump(ctx.expression(), thenLabel);
 
             if (ctx.ELSE() != null) {
                 // Caso tenha else da jump para o bloco else
@@ -487,31 +1763,282 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
             }
         }
 
+        String probeName = currentMethodName + ":if@" + ctx.start.getLine();
+        AvailableCalls afterCondition = availableCalls.copy();
+
         // Marca de fato o início do bloco then
         currentMethod.visitLabel(thenLabel);
+        emitProfileProbe(probeName + ":then");
         visit(ctx.block(0)); // Compila o código dentro do bloco then
+        AvailableCalls afterThen = availableCalls;
+        availableCalls = afterCondition;
 
         if (ctx.ELSE() != null) {
             currentMethod.visitJumpInsn(GOTO, endLabel);
 
             currentMethod.visitLabel(elseLabel);
+            emitProfileProbe(probeName + ":else");
             visit(ctx.block(1)); // Compila o bloco else
 
             currentMethod.visitJumpInsn(GOTO, endLabel);
         }
 
+        // Após o if só valem os resultados guardados nos dois caminhos (um bloco que termina em return não chega aqui)
+        boolean thenReturns = endsWithReturn(ctx.block(0));
+        boolean elseReturns = ctx.ELSE() != null && endsWithReturn(ctx.block(1));
+        if (elseReturns && !thenReturns) {
+            availableCalls = afterThen;
+        } else if (!thenReturns) {
+            availableCalls.retainAll(afterThen);
+        }
+
         // Acabado o bloco then, marca o ponto de fim para continuar o método
         currentMethod.visitLabel(endLabel);
 
         return null;
     }
 
-    private int determineComparisonInstruction(SimpleLangParser.ExpressionContext ctx) {
+    private static boolean endsWithReturn(SimpleLangParser.BlockContext block) {
+        return !block.statement().isEmpty() && block.statement().getLast().returnStatement() != null;
+    }
+
+    /**
+     * Gera o switch com um único salto para o caso escolhido, em vez da sequência de comparações de um if/else
+     * encadeado. Sobre int, o valor vai direto para um TABLESWITCH (casos próximos, salto por índice) ou um
+     * LOOKUPSWITCH (casos esparsos, busca binária), escolhido pela mesma regra de custo do javac. Sobre string,
+     * assim como no javac, o switch é feito sobre o hashCode e cada caso do hash confirmado com equals.
+     * <pre>
+     *     switch (opcao) {
+     *         case 1 { print("um"); }
+     *         case 2, 3 { print("dois ou três"); }
+     *         default { print("outro"); }
+     *     }
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     ILOAD 1
+     *     TABLESWITCH
+     *       1: L0
+     *       2: L1
+     *       3: L1
+     *       default: L2
+     *    L0
+     *     ... # print("um")
+     *     GOTO L3
+     *    L1
+     *     ... # print("dois ou três")
+     *     GOTO L3
+     *    L2
+     *     ... # print("outro")
+     *    L3
+     * </pre>
+     * Sobre string:
+     * <pre>
+     *     ALOAD 1
+     *     ASTORE 2       # valor guardado para o equals
+     *     ALOAD 2
+     *     INVOKESTATIC java/util/Objects.hashCode (Ljava/lang/Object;)I
+     *     LOOKUPSWITCH
+     *       2142: L4     # "Aa" e "BB" têm o mesmo hash
+     *       default: L2
+     *    L4
+     *     LDC "Aa"
+     *     ALOAD 2
+     *     INVOKEVIRTUAL java/lang/String.equals (Ljava/lang/Object;)Z
+     *     IFNE L0
+     *     LDC "BB"
+     *     ALOAD 2
+     *     INVOKEVIRTUAL java/lang/String.equals (Ljava/lang/Object;)Z
+     *     IFNE L1
+     *     GOTO L2
+     * </pre>
+     */
+    @Override
+    public Void visitSwitchStatement(SimpleLangParser.SwitchStatementContext ctx) {
+        visit(ctx.expression());
+        String type = types.checkSwitch(ctx);
+
+        List<SimpleLangParser.SwitchCaseContext> cases = ctx.switchCase();
+        Label[] caseLabels = new Label[cases.size()];
+        Label defaultLabel = new Label();
+        Label endLabel = new Label();
+        Map<Object, Label> targets = new LinkedHashMap<>();
+
+        for (int i = 0; i < cases.size(); i++) {
+            caseLabels[i] = new Label();
+            for (var label : cases.get(i).caseLabel()) {
+                targets.put(TypeResolver.caseValue(label), caseLabels[i]);
+            }
+        }
+
+        if (TYPE_INT.equals(type)) {
+            Map<Integer, Label> intTargets = new HashMap<>();
+            targets.forEach((value, label) -> intTargets.put((Integer) value, label));
+            emitIntSwitch(intTargets, defaultLabel);
+        } else {
+            emitStringSwitch(targets, defaultLabel);
+        }
+
+        String probeName = currentMethodName + ":switch@" + ctx.start.getLine();
+        AvailableCalls afterDispatch = availableCalls;
+        // Após o switch só valem os resultados guardados em todos os caminhos que chegam ao fim dele
+        AvailableCalls atEnd = null;
+
+        for (int i = 0; i < cases.size(); i++) {
+            availableCalls = afterDispatch.copy();
+
+            currentMethod.visitLabel(caseLabels[i]);
+            emitProfileProbe(probeName + ":case " + cases.get(i).caseLabel().stream().map(ParseTree::getText).collect(Collectors.joining(",")));
+            visit(cases.get(i).block());
+            currentMethod.visitJumpInsn(GOTO, endLabel);
+
+            if (!endsWithReturn(cases.get(i).block())) {
+                atEnd = merge(atEnd, availableCalls);
+            }
+        }
+
+        // Sem default, um valor sem caso vai direto para o fim
+        availableCalls = afterDispatch.copy();
+        currentMethod.visitLabel(defaultLabel);
+        if (ctx.DEFAULT() != null) {
+            emitProfileProbe(probeName + ":default");
+            visit(ctx.block());
+        }
+
+        if (ctx.DEFAULT() == null || !endsWithReturn(ctx.block())) {
+            atEnd = merge(atEnd, availableCalls);
+        }
+
+        availableCalls = atEnd != null ? atEnd : afterDispatch;
+        currentMethod.visitLabel(endLabel);
+
+        return null;
+    }
+
+    private static AvailableCalls merge(AvailableCalls merged, AvailableCalls path) {
+        if (merged == null) {
+            return path;
+        }
+
+        merged.retainAll(path);
+        return merged;
+    }
+
+    /**
+     * Salta para o label do valor int no topo da pilha, ou para o default se nenhum caso tiver esse valor.
+     * <p>
+     * Assim como o javac, compara o custo estimado das duas instruções, em espaço (palavras da tabela) mais três
+     * vezes o tempo (comparações): o TABLESWITCH ocupa uma posição para cada valor entre o menor e o maior caso,
+     * mas encontra o destino com uma única comparação de limites, e o LOOKUPSWITCH ocupa apenas dois valores por
+     * caso, mas faz uma busca entre eles.
+     */
+    private void emitIntSwitch(Map<Integer, Label> targets, Label defaultLabel) {
+        int[] keys = targets.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        Label[] labels = Arrays.stream(keys).mapToObj(targets::get).toArray(Label[]::new);
+
+        int low = keys[0];
+        int high = keys[keys.length - 1];
+        long tableSpaceCost = 4 + ((long) high - low + 1);
+        long tableTimeCost = 3;
+        long lookupSpaceCost = 3 + 2 * (long) keys.length;
+        long lookupTimeCost = keys.length;
+
+        if (tableSpaceCost + 3 * tableTimeCost <= lookupSpaceCost + 3 * lookupTimeCost) {
+            // Valores sem caso entre o menor e o maior vão para o default
+            Label[] table = new Label[high - low + 1];
+            Arrays.fill(table, defaultLabel);
+            for (int i = 0; i < keys.length; i++) {
+                table[keys[i] - low] = labels[i];
+            }
+            currentMethod.visitTableSwitchInsn(low, high, defaultLabel, table);
+        } else {
+            currentMethod.visitLookupSwitchInsn(defaultLabel, keys, labels);
+        }
+    }
+
+    /**
+     * Salta para o label da string no topo da pilha: o switch int sobre o hashCode leva às comparações com equals
+     * apenas dos casos com o mesmo hash. O hash é calculado com Objects.hashCode, então uma string null vai para o
+     * default (nenhum caso é igual a null) em vez de lançar NullPointerException.
+     */
+    private void emitStringSwitch(Map<Object, Label> targets, Label defaultLabel) {
+        if (localVariablesStack.isEmpty()) {
+            localVariablesStack.push(new LocalVariableManager());
+        }
+
+        int index = localVariablesStack.peek().allocate(new Variable(RESERVED_SWITCH_VALUE_VARIABLE + switchValues++, TYPE_STRING));
+        currentMethod.visitVarInsn(ASTORE, index);
+        currentMethod.visitVarInsn(ALOAD, index);
+        currentMethod.visitMethodInsn(INVOKESTATIC, "java/util/Objects", "hashCode", "(Ljava/lang/Object;)I", false);
+
+        Map<Integer, List<String>> buckets = new LinkedHashMap<>();
+        targets.keySet().forEach(value -> buckets.computeIfAbsent(value.hashCode(), hash -> new ArrayList<>()).add((String) value));
+
+        Map<Integer, Label> bucketLabels = new HashMap<>();
+        buckets.keySet().forEach(hash -> bucketLabels.put(hash, new Label()));
+        emitIntSwitch(bucketLabels, defaultLabel);
+
+        buckets.forEach((hash, values) -> {
+            currentMethod.visitLabel(bucketLabels.get(hash));
+            for (String value : values) {
+                currentMethod.visitLdcInsn(value);
+                currentMethod.visitVarInsn(ALOAD, index);
+                currentMethod.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+                currentMethod.visitJumpInsn(IFNE, targets.get(value));
+            }
+            currentMethod.visitJumpInsn(GOTO, defaultLabel);
+        });
+    }
+
+    /**
+     * Salta para o label quando a condição, já carregada na pilha, é verdadeira.
+     */
+    private void emitConditionJump(SimpleLangParser.ExpressionContext ctx, Label label) {
         if (ctx.comparisonExpression() != null) {
-            return determineComparisonInstruction(ctx.comparisonExpression());
+            emitComparisonJump(ctx.comparisonExpression(), false, label);
+        } else {
+            currentMethod.visitJumpInsn(IFNE, label);
+        }
+    }
+
+    /**
+     * Compara os dois operandos do topo da pilha e salta para o label quando a comparação é verdadeira (ou falsa,
+     * com {@code inverted}). Entre floats, o FCMPL/FCMPG deixa -1, 0 ou 1 na pilha e o salto é feito pelo IFxx
+     * correspondente. O NaN vira -1 ou 1 conforme o salto, para que a comparação com NaN seja falsa (exceto !=),
+     * como no Java e no interpretador:
+     * <pre>
+     *     if (a < limite) { ... }
+     *
+     *     FLOAD 1
+     *     FLOAD 2
+     *     FCMPG      # NaN vira 1
+     *     IFLT L0
+     * </pre>
+     */
+    private void emitComparisonJump(SimpleLangParser.ComparisonExpressionContext ctx, boolean inverted, Label label) {
+        int instruction = determineComparisonInstruction(ctx);
+        if (inverted) {
+            instruction = invertComparisonInstruction(instruction);
         }
 
-        return IFNE;
+        if (!types.isFloatComparison(ctx)) {
+            currentMethod.visitJumpInsn(instruction, label);
+            return;
+        }
+
+        int jump = switch (instruction) {
+            case IF_ICMPGT -> IFGT;
+            case IF_ICMPLT -> IFLT;
+            case IF_ICMPEQ -> IFEQ;
+            case IF_ICMPNE -> IFNE;
+            case IF_ICMPLE -> IFLE;
+            default -> IFGE;
+        };
+
+        // Um salto para o caso verdadeiro não pode ser feito com NaN, e um salto para o caso falso sempre é
+        boolean jumpOnGreater = jump == IFGT || jump == IFGE;
+        currentMethod.visitInsn(jumpOnGreater == inverted ? FCMPG : FCMPL);
+        currentMethod.visitJumpInsn(jump, label);
     }
 
     private int determineComparisonInstruction(SimpleLangParser.ComparisonExpressionContext ctx) {
@@ -521,115 +2048,697 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
             throw new IllegalArgumentException(String.format("Linha %d: operador %s não compatível", ctx.start.getLine(), ctx.getText()));
         }
 
-        return instruction;
+        return instruction;
+    }
+
+    private int invertComparisonInstruction(int instruction) {
+        return switch (instruction) {
+            case IF_ICMPGT -> IF_ICMPLE;
+            case IF_ICMPLT -> IF_ICMPGE;
+            case IF_ICMPEQ -> IF_ICMPNE;
+            case IF_ICMPNE -> IF_ICMPEQ;
+            case IF_ICMPLE -> IF_ICMPGT;
+            case IF_ICMPGE -> IF_ICMPLT;
+            default -> throw new IllegalStateException("Unexpected value: " + instruction);
+        };
+    }
+
+    /**
+     * Entra na expressão e faz apenas o load dos dois operandos
+     * (exemplo: em 'a > b' faz apenas o load de a e de b, sem executar a comparação). Se um dos dois for float, o
+     * outro é convertido.
+     */
+    @Override
+    public Void visitComparisonExpression(SimpleLangParser.ComparisonExpressionContext ctx) {
+        types.enterComparison(ctx);
+        visit(ctx.operand(0));
+        visit(ctx.operand(1));
+        return null;
+    }
+
+    @Override
+    public Void visitComparisonStringExpression(SimpleLangParser.ComparisonStringExpressionContext ctx) {
+        String string1 = ctx.getChild(0).getText();
+        String string2 = ctx.getChild(2).getText();
+
+        loadString(ctx, string1);
+        loadString(ctx, string2);
+
+        currentMethod.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+
+        return null;
+    }
+
+
+    public void visitBooleanExpression(SimpleLangParser.BooleanExpressionContext ctx,
+                                       Label thenLabel, Label labelIfFalse) {
+        boolean isAnd = TypeResolver.isAnd(ctx);
+        int count = Math.max(ctx.AND().size(), ctx.OR().size()) * 2;
+        AvailableCalls afterFirst = null;
+
+        for (int i = 0; i < count; i++) {
+            if (i == 1) {
+                afterFirst = availableCalls.copy();
+            }
+
+            var child = ctx.getChild(i * 2);
+            Label target = isAnd ? labelIfFalse : thenLabel;
+
+            if (child instanceof SimpleLangParser.ComparisonStringExpressionContext comparisonStringExpressionContext) {
+                visit(comparisonStringExpressionContext);
+                currentMethod.visitJumpInsn(isAnd ? IFEQ : IFNE, target);
+            } else if (child instanceof SimpleLangParser.ComparisonExpressionContext comparisonExpressionContext) {
+                types.enterComparison(comparisonExpressionContext);
+                visit(comparisonExpressionContext.operand(isAnd ? 1 : 0));
+                visit(comparisonExpressionContext.operand(isAnd ? 0 : 1));
+                emitComparisonJump(comparisonExpressionContext, isAnd, target);
+            } else {
+                throw new IllegalArgumentException(String.format("Linha %d: operação não suportada: %s", ctx.start.getLine(), ctx.getText()));
+            }
+        }
+        currentMethod.visitJumpInsn(GOTO, isAnd ? thenLabel : labelIfFalse);
+
+        // As demais comparações podem não ser avaliadas: só valem os resultados guardados pela primeira
+        if (afterFirst != null) {
+            afterFirst.retainAll(availableCalls);
+            availableCalls = afterFirst;
+        }
+    }
+
+    /**
+     * Chamadas puras do laço cujo resultado é o mesmo em todas as voltas são executadas uma única vez antes dele.
+     * As da condição são calculadas antes da primeira avaliação da condição. As do corpo só podem ser calculadas
+     * depois dela, já que o corpo pode nunca ser executado; nesse caso o laço é gerado invertido, com uma cópia
+     * da condição antes do corpo e outra no fim:
+     * <pre>
+     *     while (i < n) {
+     *         total = total + quadrado(base);
+     *         i = i + 1;
+     *     }
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     ILOAD 1
+     *     ILOAD 2
+     *     IF_ICMPLT L0   # primeira avaliação da condição
+     *     GOTO L2
+     *    L0
+     *     ALOAD 0
+     *     ILOAD 3
+     *     INVOKEVIRTUAL Classe.quadrado (I)I
+     *     ISTORE 5       # calculado uma única vez
+     *    L1              # corpo, que usa ILOAD 5 no lugar da chamada
+     *     ...
+     *     ILOAD 1
+     *     ILOAD 2
+     *     IF_ICMPLT L1
+     *     GOTO L2
+     *    L2
+     * </pre>
+     */
+    @Override
+    public Void visitWhileStatement(SimpleLangParser.WhileStatementContext ctx) {
+        Label conditionLabel = new Label();
+        Label blockLabel = new Label();
+        Label endLabel = new Label();
+
+        // Resultados guardados antes do laço só continuam valendo se o laço não alterar nenhuma das dependências
+        Set<String> loopWrites = writtenNames(List.of(ctx));
+        availableCalls.killAll(loopWrites);
+
+        List<SimpleLangParser.MethodCallContext> conditionCalls = new ArrayList<>();
+        List<SimpleLangParser.MethodCallContext> bodyCalls = new ArrayList<>();
+        collectInvariantCalls(ctx, loopWrites, conditionCalls, bodyCalls);
+
+        conditionCalls.forEach(this::hoistCall);
+        AvailableCalls beforeLoop = availableCalls.copy();
+
+        if (bodyCalls.isEmpty()) {
+            // Marca o início do bloco da condição
+            currentMethod.visitLabel(conditionLabel);
+            emitLoopCondition(ctx, blockLabel, endLabel);
+        } else {
+            Label preheaderLabel = new Label();
+            emitLoopCondition(ctx, preheaderLabel, endLabel);
+
+            currentMethod.visitLabel(preheaderLabel);
+            availableCalls = beforeLoop.copy();
+            bodyCalls.forEach(this::hoistCall);
+        }
+
+        AvailableCalls loopEntry = availableCalls.copy();
+
+        currentMethod.visitLabel(blockLabel); // Início do bloco do while
+        visit(ctx.block());
+
+        // Conta cada volta do loop logo antes do salto de volta para a condição
+        emitProfileProbe(currentMethodName + ":while@" + ctx.start.getLine());
+
+        availableCalls = loopEntry;
+
+        if (bodyCalls.isEmpty()) {
+            // Ao acabar o bloco do while, jump de volta para o bloco da condição do while e executa dnv
+            currentMethod.visitJumpInsn(GOTO, conditionLabel);
+        } else {
+            emitLineNumber(ctx);
+            emitLoopCondition(ctx, blockLabel, endLabel);
+            // O laço termina por uma das duas cópias da condição, então só valem os resultados de antes dele
+            availableCalls = beforeLoop;
+        }
+
+        currentMethod.visitLabel(endLabel);
+
+        return null;
+    }
+
+    private void emitLoopCondition(SimpleLangParser.WhileStatementContext ctx, Label blockLabel, Label endLabel) {
+        if (ctx.expression().booleanExpression() != null) {
+            visitBooleanExpression(ctx.expression().booleanExpression(), blockLabel, endLabel);
+        } else {
+            visit(ctx.expression()); // Compila a expressão do while
+            // Instrução de jump condicional baseado no retorno da expressão
+            emitConditionJump(ctx.expression(), blockLabel); // Caso true, executa o bloco dentro do while
+            currentMethod.visitJumpInsn(GOTO, endLabel); // Caso false, vai pro final do while
+        }
+    }
+
+    /**
+     * Separa as chamadas reaproveitáveis do laço que não dependem de nada alterado nele e que seriam executadas na
+     * primeira volta antes de qualquer efeito visível (print, read, return, chamada impura...). Assim, executá-las
+     * antes do laço não muda a saída do programa nem mesmo quando elas lançam uma exceção.
+     *
+     * @param conditionCalls chamadas da parte da condição que sempre é avaliada
+     * @param bodyCalls      chamadas do corpo
+     */
+    private void collectInvariantCalls(SimpleLangParser.WhileStatementContext ctx, Set<String> loopWrites,
+                                       List<SimpleLangParser.MethodCallContext> conditionCalls,
+                                       List<SimpleLangParser.MethodCallContext> bodyCalls) {
+        if (pureMethods.isEmpty()) {
+            return;
+        }
+
+        Set<String> keys = new HashSet<>();
+        ParseTree condition = alwaysEvaluated(ctx.expression());
+
+        if (isFreeOfEffects(condition)) {
+            collectInvariantCalls(condition, loopWrites, keys, conditionCalls);
+        }
+
+        for (var statement : ctx.block().statement()) {
+            List<ParseTree> evaluated = alwaysEvaluated(statement);
+
+            if (!evaluated.stream().allMatch(this::isFreeOfEffects)) {
+                break;
+            }
+
+            evaluated.forEach(tree -> collectInvariantCalls(tree, loopWrites, keys, bodyCalls));
+
+            // Um laço aninhado pode nunca terminar, então o que vem depois dele pode nunca ser executado
+            if (!isFreeOfEffects(statement) || containsLoop(statement)) {
+                break;
+            }
+        }
+    }
+
+    private void collectInvariantCalls(ParseTree tree, Set<String> loopWrites, Set<String> keys,
+                                       List<SimpleLangParser.MethodCallContext> calls) {
+        collectReusableCalls(tree, call -> {
+            String key = callKey(call);
+
+            if (availableCalls.lookup(key) == null && callDependencies(call).stream().noneMatch(loopWrites::contains) && keys.add(key)) {
+                calls.add(call);
+            }
+        });
+    }
+
+    /**
+     * Executa a chamada antes do laço e guarda o resultado para ser usado dentro dele.
+     */
+    private void hoistCall(SimpleLangParser.MethodCallContext call) {
+        String key = callKey(call);
+
+        if (availableCalls.lookup(key) == null) {
+            emitMethodCall(call);
+            rememberCall(key, call);
+        }
+    }
+
+    /**
+     * Partes do comando que sempre são avaliadas quando ele é executado, antes de qualquer outro efeito dele.
+     */
+    private List<ParseTree> alwaysEvaluated(SimpleLangParser.StatementContext statement) {
+        if (statement.varDeclaration() != null && statement.varDeclaration().expression() != null) {
+            return List.of(alwaysEvaluated(statement.varDeclaration().expression()));
+        } else if (statement.assignment() != null) {
+            return List.of(alwaysEvaluated(statement.assignment().expression()));
+        } else if (statement.methodCall() != null && statement.methodCall().argumentList() != null) {
+            return statement.methodCall().argumentList().expression().stream().map(this::alwaysEvaluated).toList();
+        } else if (statement.printStatement() != null) {
+            return List.of(alwaysEvaluated(statement.printStatement().expression()));
+        } else if (statement.returnStatement() != null) {
+            return List.of(alwaysEvaluated(statement.returnStatement().expression()));
+        } else if (statement.ifStatement() != null) {
+            return List.of(alwaysEvaluated(statement.ifStatement().expression()));
+        } else if (statement.whileStatement() != null) {
+            return List.of(alwaysEvaluated(statement.whileStatement().expression()));
+        } else if (statement.switchStatement() != null) {
+            return List.of(alwaysEvaluated(statement.switchStatement().expression()));
+        }
+
+        return List.of();
+    }
+
+    /**
+     * Em expressões com and/or, apenas a primeira comparação é sempre avaliada.
+     */
+    private ParseTree alwaysEvaluated(SimpleLangParser.ExpressionContext expression) {
+        return expression.booleanExpression() != null ? expression.booleanExpression().getChild(0) : expression;
+    }
+
+    private static boolean containsLoop(ParseTree tree) {
+        if (tree instanceof SimpleLangParser.WhileStatementContext) {
+            return true;
+        }
+
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            if (containsLoop(tree.getChild(i))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isFreeOfEffects(ParseTree tree) {
+        if (tree instanceof SimpleLangParser.PrintStatementContext
+                || tree instanceof SimpleLangParser.ReadStatementContext
+                || tree instanceof SimpleLangParser.ReturnStatementContext
+                || tree instanceof SimpleLangParser.ConcurrentStatementContext
+                || tree instanceof SimpleLangParser.ParallelStatementContext
+                || (tree instanceof SimpleLangParser.MethodCallContext call && !pureMethods.containsKey(call.IDENTIFIER().getText()))) {
+            return false;
+        }
+
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            if (!isFreeOfEffects(tree.getChild(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Bloco concurrent: os argumentos de todos os spawns são avaliados na thread atual, cada chamada vira um
+     * Callable (ou Runnable, para métodos void) criado via invokedynamic/LambdaMetafactory e o
+     * {@link org.dimer.runtime.TaskScope} executa todos em virtual threads, aguardando o término de todos.
+     * Só então os resultados são atribuídos às variáveis, na ordem dos spawns.
+     * <pre>
+     *     concurrent {
+     *         spawn a = buscar(1);
+     *         spawn registrar();
+     *     }
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     LDC 2
+     *     ANEWARRAY java/lang/Object
+     *     DUP
+     *     LDC 0
+     *     ALOAD 0
+     *     LDC 1
+     *     INVOKEDYNAMIC call(LClasse;I)Ljava/util/concurrent/Callable;  # captura this e os argumentos
+     *     AASTORE
+     *     DUP
+     *     LDC 1
+     *     ALOAD 0
+     *     INVOKEDYNAMIC run(LClasse;)Ljava/lang/Runnable;
+     *     AASTORE
+     *     INVOKESTATIC org/dimer/runtime/TaskScope.runAll ([Ljava/lang/Object;)[Ljava/lang/Object;
+     *     LDC 0
+     *     AALOAD
+     *     CHECKCAST java/lang/Integer
+     *     INVOKEVIRTUAL java/lang/Integer.intValue ()I
+     *     ISTORE 1   # a
+     * </pre>
+     */
+    @Override
+    public Void visitConcurrentStatement(SimpleLangParser.ConcurrentStatementContext ctx) {
+        List<SimpleLangParser.SpawnStatementContext> spawns = ctx.spawnStatement();
+        ConcurrentBlockChecker.check(ctx, mapChangingMethods, writeMethods);
+
+        currentMethod.visitLdcInsn(spawns.size());
+        currentMethod.visitTypeInsn(ANEWARRAY, "java/lang/Object");
+
+        for (int i = 0; i < spawns.size(); i++) {
+            currentMethod.visitInsn(DUP);
+            currentMethod.visitLdcInsn(i);
+            emitTask(spawns.get(i));
+            currentMethod.visitInsn(AASTORE);
+        }
+
+        currentMethod.visitMethodInsn(INVOKESTATIC, TASK_SCOPE_CLASS, "runAll", "([Ljava/lang/Object;)[Ljava/lang/Object;", false);
+        availableCalls.killAll(writtenNames(List.of(ctx)));
+
+        int lastAssignment = -1;
+        for (int i = 0; i < spawns.size(); i++) {
+            if (spawns.get(i).IDENTIFIER() != null) {
+                lastAssignment = i;
+            }
+        }
+
+        if (lastAssignment < 0) {
+            currentMethod.visitInsn(POP); // Nenhum spawn com atribuição, descarta os resultados
+            return null;
+        }
+
+        for (int i = 0; i <= lastAssignment; i++) {
+            SimpleLangParser.SpawnStatementContext spawn = spawns.get(i);
+
+            if (spawn.IDENTIFIER() == null) {
+                continue;
+            }
+
+            if (i < lastAssignment) {
+                currentMethod.visitInsn(DUP); // Mantém o array de resultados para as próximas atribuições
+            }
+
+            currentMethod.visitLdcInsn(i);
+            currentMethod.visitInsn(AALOAD);
+            unboxObject(types.method(spawn, spawn.methodCall().IDENTIFIER().getText()).returnType());
+            storeVariable(spawn, spawn.IDENTIFIER().getText());
+        }
+
+        return null;
+    }
+
+    /**
+     * Avalia os argumentos da chamada e deixa na pilha a tarefa que executará o método com eles.
+     */
+    private void emitTask(SimpleLangParser.SpawnStatementContext ctx) {
+        SimpleLangParser.MethodCallContext call = ctx.methodCall();
+        String methodName = call.IDENTIFIER().getText();
+        Method method = types.method(call, methodName);
+        Type methodType = Type.getMethodType(method.descriptor());
+        Type[] parameterTypes = methodType.getArgumentTypes();
+        List<SimpleLangParser.ExpressionContext> arguments = call.argumentList() != null ? call.argumentList().expression() : List.of();
+
+        types.checkSpawn(ctx);
+
+        currentMethod.visitVarInsn(ALOAD, 0);
+
+        for (int i = 0; i < arguments.size(); i++) {
+            visit(arguments.get(i));
+            types.checkSpawnArgument(ctx, i);
+        }
+
+        boolean isVoid = TYPE_VOID.equals(method.returnType());
+        Type ownerType = Type.getObjectType(className);
+        Type capturedTypes = Type.getMethodType(isVoid ? Type.getType(Runnable.class) : Type.getType(Callable.class),
+                prepend(ownerType, parameterTypes));
+        Handle implementation = new Handle(H_INVOKEVIRTUAL, className, methodName, method.descriptor(), false);
+
+        if (isVoid) {
+            currentMethod.visitInvokeDynamicInsn("run", capturedTypes.getDescriptor(), LAMBDA_METAFACTORY,
+                    Type.getMethodType("()V"), implementation, Type.getMethodType("()V"));
+        } else {
+            Type boxedType = boxedType(methodType.getReturnType());
+            currentMethod.visitInvokeDynamicInsn("call", capturedTypes.getDescriptor(), LAMBDA_METAFACTORY,
+                    Type.getMethodType("()Ljava/lang/Object;"), implementation, Type.getMethodType(boxedType));
+        }
+    }
+
+    private void boxValue(String type) {
+        switch (type) {
+            case TYPE_INT -> currentMethod.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+            case TYPE_FLOAT -> currentMethod.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "valueOf", "(F)Ljava/lang/Float;", false);
+            case TYPE_STRING -> {
+            }
+            case String map when TypeResolver.isMap(map) -> {
+            }
+            default -> throw new IllegalArgumentException("Tipo desconhecido: " + type);
+        }
+    }
+
+    private void unboxObject(String type) {
+        switch (type) {
+            case TYPE_INT -> {
+                currentMethod.visitTypeInsn(CHECKCAST, "java/lang/Integer");
+                currentMethod.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+            }
+            case TYPE_FLOAT -> {
+                currentMethod.visitTypeInsn(CHECKCAST, "java/lang/Float");
+                currentMethod.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Float", "floatValue", "()F", false);
+            }
+            case TYPE_STRING -> currentMethod.visitTypeInsn(CHECKCAST, "java/lang/String");
+            case String map when TypeResolver.isMap(map) -> currentMethod.visitTypeInsn(CHECKCAST, TypeResolver.mapClass(map));
+            default -> throw new IllegalArgumentException("Tipo desconhecido: " + type);
+        }
     }
 
-    private int invertComparisonInstruction(int instruction) {
-        return switch (instruction) {
-            case IF_ICMPGT -> IF_ICMPLE;
-            case IF_ICMPLT -> IF_ICMPGE;
-            case IF_ICMPEQ -> IF_ICMPNE;
-            case IF_ICMPNE -> IF_ICMPEQ;
-            case IF_ICMPLE -> IF_ICMPGT;
-            case IF_ICMPGE -> IF_ICMPLT;
-            default -> throw new IllegalStateException("Unexpected value: " + instruction);
+    private static Type boxedType(Type type) {
+        return switch (type.getSort()) {
+            case Type.INT -> Type.getType(Integer.class);
+            case Type.FLOAT -> Type.getType(Float.class);
+            default -> type;
         };
     }
 
+    private static Type[] prepend(Type first, Type[] rest) {
+        Type[] types = new Type[rest.length + 1];
+        types[0] = first;
+        System.arraycopy(rest, 0, types, 1, rest.length);
+        return types;
+    }
+
     /**
-     * Entra na expressão e faz apenas o load dos dois operandos
-     * (exemplo: em 'a > b' faz apenas o load de a e de b, sem executar a comparação)
+     * Laço parallel: o corpo vira um método sintético privado que executa as iterações de um trecho [from, to)
+     * do intervalo, e o {@link org.dimer.runtime.ParallelRange} divide o intervalo entre as threads do ForkJoinPool.
+     * Cada trecho acumula as reduções em variáveis locais, iniciadas com o elemento neutro da operação. Ao final,
+     * os acumuladores são combinados com o valor que as variáveis tinham antes do laço.
+     * <pre>
+     *     parallel (i = 0 .. n) reduce (sum total) {
+     *         total = total + i * i;
+     *     }
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     NEW org/dimer/runtime/Reduction
+     *     DUP
+     *     LDC "+"   # operações dos slots int
+     *     LDC ""    # operações dos slots float
+     *     INVOKESPECIAL org/dimer/runtime/Reduction.&lt;init&gt; (Ljava/lang/String;Ljava/lang/String;)V
+     *     DUP
+     *     LDC 0
+     *     ILOAD 1   # valor de total antes do laço
+     *     INVOKEVIRTUAL org/dimer/runtime/Reduction.setInt (II)V
+     *     LDC 0
+     *     ILOAD 2   # n
+     *     ALOAD 0
+     *     INVOKEDYNAMIC run(LClasse;)Lorg/dimer/runtime/RangeBody;  # Classe.parallel$init$0
+     *     INVOKESTATIC org/dimer/runtime/ParallelRange.forRange (...)Lorg/dimer/runtime/Reduction;
+     *     LDC 0
+     *     INVOKEVIRTUAL org/dimer/runtime/Reduction.getInt (I)I
+     *     ISTORE 1
+     * </pre>
      */
     @Override
-    public Void visitComparisonExpression(SimpleLangParser.ComparisonExpressionContext ctx) {
-        visit(ctx.operand(0));
-        visit(ctx.operand(1));
-        return null;
-    }
+    public Void visitParallelStatement(SimpleLangParser.ParallelStatementContext ctx) {
+        String loopVariable = ctx.IDENTIFIER().getText();
+        List<Variable> reductions = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder intOperations = new StringBuilder();
+        StringBuilder floatOperations = new StringBuilder();
+
+        types.reductions(ctx).forEach((variable, operation) -> {
+            if (TYPE_INT.equals(variable.type())) {
+                slots.add(intOperations.length());
+                intOperations.append(operation);
+            } else {
+                slots.add(floatOperations.length());
+                floatOperations.append(operation);
+            }
 
-    @Override
-    public Void visitComparisonStringExpression(SimpleLangParser.ComparisonStringExpressionContext ctx) {
-        String string1 = ctx.getChild(0).getText();
-        String string2 = ctx.getChild(2).getText();
+            reductions.add(variable);
+        });
 
-        loadString(ctx, string1);
-        loadString(ctx, string2);
+        Set<String> reductionNames = new HashSet<>();
+        reductions.forEach(variable -> reductionNames.add(variable.name()));
 
-        currentMethod.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+        LocalVariableManager outerScope = localVariablesStack.isEmpty() ? null : localVariablesStack.peek();
+        ParallelBodyChecker.check(ctx, reductionNames, name -> outerScope != null && outerScope.load(name) != null, fieldWritingMethods,
+                writeMethods);
 
-        return null;
-    }
+        // Variáveis locais de fora do laço lidas pelo corpo são passadas por valor para o método sintético
+        List<Variable> captured = new ArrayList<>();
+        if (outerScope != null) {
+            Set<String> identifiers = new LinkedHashSet<>();
+            collectIdentifiers(ctx.block(), identifiers);
+
+            for (String name : identifiers) {
+                Variable variable = outerScope.load(name);
+                if (variable != null && variable.type() != null && !name.equals(loopVariable) && !reductionNames.contains(name)) {
+                    captured.add(variable);
+                }
+            }
+        }
 
+        StringBuilder capturedDescriptor = new StringBuilder();
+        captured.forEach(variable -> capturedDescriptor.append(TypeResolver.typeToDescriptor(variable.type())));
 
-    public void visitBooleanExpression(SimpleLangParser.BooleanExpressionContext ctx,
-                                       Label thenLabel, Label labelIfFalse) {
-        int andCount = ctx.AND().size();
-        int orCount = ctx.OR().size();
-        boolean isAnd = andCount > 0;
+        String bodyName = "parallel$" + currentMethodName + "$" + parallelBodies++;
+        String bodyDescriptor = "(" + capturedDescriptor + "II" + REDUCTION_DESCRIPTOR + ")V";
+
+        generateParallelBody(ctx, bodyName, bodyDescriptor, captured, reductions, slots);
 
-        if (andCount > 0 && orCount > 0) {
-            throw new IllegalArgumentException(String.format("Linha %d: só é permitido expressões apenas com ANDs ou ORs, sem misturá-los: %s", ctx.start.getLine(), ctx.getText()));
+        currentMethod.visitTypeInsn(NEW, REDUCTION_CLASS);
+        currentMethod.visitInsn(DUP);
+        currentMethod.visitLdcInsn(intOperations.toString());
+        currentMethod.visitLdcInsn(floatOperations.toString());
+        currentMethod.visitMethodInsn(INVOKESPECIAL, REDUCTION_CLASS, "<init>", "(Ljava/lang/String;Ljava/lang/String;)V", false);
+
+        for (int i = 0; i < reductions.size(); i++) {
+            Variable variable = reductions.get(i);
+            currentMethod.visitInsn(DUP);
+            currentMethod.visitLdcInsn(slots.get(i));
+            loadVariable(ctx, variable.name());
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, REDUCTION_CLASS, TYPE_INT.equals(variable.type()) ? "setInt" : "setFloat",
+                    "(I" + TypeResolver.typeToDescriptor(variable.type()) + ")V", false);
         }
 
-        int count = Math.max(andCount, orCount) * 2;
+        visitRangeLimit(ctx.operand(0));
+        visitRangeLimit(ctx.operand(1));
 
-        for (int i = 0; i < count; i++) {
-            var child = ctx.getChild(i * 2);
-            int instruction;
+        currentMethod.visitVarInsn(ALOAD, 0);
+        captured.forEach(variable -> loadVariable(ctx, variable.name()));
 
-            if (child instanceof SimpleLangParser.ComparisonStringExpressionContext comparisonStringExpressionContext) {
-                visit(comparisonStringExpressionContext);
-                instruction = isAnd ? IFEQ : IFNE;
-            } else if (child instanceof SimpleLangParser.ComparisonExpressionContext comparisonExpressionContext) {
-                visit(comparisonExpressionContext.operand(isAnd ? 1 : 0));
-                visit(comparisonExpressionContext.operand(isAnd ? 0 : 1));
-                instruction = determineComparisonInstruction(comparisonExpressionContext);
+        Type bodyType = Type.getMethodType("(II" + REDUCTION_DESCRIPTOR + ")V");
+        currentMethod.visitInvokeDynamicInsn("run", "(L" + className + ";" + capturedDescriptor + ")L" + RANGE_BODY_CLASS + ";",
+                LAMBDA_METAFACTORY, bodyType, new Handle(H_INVOKESPECIAL, className, bodyName, bodyDescriptor, false), bodyType);
 
-                if (isAnd) {
-                    instruction = invertComparisonInstruction(instruction);
-                }
-            } else {
-                throw new IllegalArgumentException(String.format("Linha %d: operação não suportada: %s", ctx.start.getLine(), ctx.getText()));
+        currentMethod.visitMethodInsn(INVOKESTATIC, PARALLEL_RANGE_CLASS, "forRange",
+                "(" + REDUCTION_DESCRIPTOR + "IIL" + RANGE_BODY_CLASS + ";)" + REDUCTION_DESCRIPTOR, false);
+        availableCalls.killAll(writtenNames(List.of(ctx)));
+
+        if (reductions.isEmpty()) {
+            currentMethod.visitInsn(POP);
+            return null;
+        }
+
+        for (int i = 0; i < reductions.size(); i++) {
+            Variable variable = reductions.get(i);
+
+            if (i < reductions.size() - 1) {
+                currentMethod.visitInsn(DUP);
             }
 
-            currentMethod.visitJumpInsn(instruction, isAnd ? labelIfFalse : thenLabel);
+            currentMethod.visitLdcInsn(slots.get(i));
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, REDUCTION_CLASS, TYPE_INT.equals(variable.type()) ? "getInt" : "getFloat",
+                    "(I)" + TypeResolver.typeToDescriptor(variable.type()), false);
+            storeVariable(ctx, variable.name());
         }
-        currentMethod.visitJumpInsn(GOTO, isAnd ? thenLabel : labelIfFalse);
+
+        return null;
     }
 
-    @Override
-    public Void visitWhileStatement(SimpleLangParser.WhileStatementContext ctx) {
+    /**
+     * Gera o método sintético com o corpo do laço parallel. Os parâmetros são as variáveis capturadas, o início
+     * do trecho (que já é a própria variável do laço), o fim do trecho e o acumulador das reduções.
+     */
+    private void generateParallelBody(SimpleLangParser.ParallelStatementContext ctx, String bodyName, String bodyDescriptor,
+                                      List<Variable> captured, List<Variable> reductions, List<Integer> slots) {
+        MethodNode outerMethod = currentMethod;
+        List<Variable> outerParameters = currentParameters;
+        Label outerMethodStart = currentMethodStart;
+        AvailableCalls outerCalls = availableCalls;
+
+        currentMethod = new MethodNode(ACC_PRIVATE | ACC_SYNTHETIC, bodyName, bodyDescriptor, null, null);
+        // O corpo não é o método atual: chamadas recursivas dentro dele não podem virar saltos
+        currentParameters = List.of();
+        currentMethodStart = null;
+        availableCalls = new AvailableCalls();
+        currentMethod.visitCode();
+        emitLineNumber(ctx);
+
+        LocalVariableManager scope = new LocalVariableManager();
+        localVariablesStack.push(scope);
+
+        captured.forEach(variable -> scope.allocate(new Variable(variable.name(), variable.type())));
+        int loopIndex = scope.allocate(new Variable(ctx.IDENTIFIER().getText(), TYPE_INT));
+        int endIndex = scope.allocate(new Variable(RESERVED_RANGE_END_VARIABLE, TYPE_INT));
+        int accumulatorIndex = scope.allocate(new Variable(RESERVED_ACCUMULATOR_VARIABLE, null));
+
+        List<Integer> reductionIndexes = new ArrayList<>();
+        for (int i = 0; i < reductions.size(); i++) {
+            Variable variable = reductions.get(i);
+            int index = scope.allocate(new Variable(variable.name(), variable.type()));
+            reductionIndexes.add(index);
+
+            currentMethod.visitVarInsn(ALOAD, accumulatorIndex);
+            currentMethod.visitLdcInsn(slots.get(i));
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, REDUCTION_CLASS, TYPE_INT.equals(variable.type()) ? "getInt" : "getFloat",
+                    "(I)" + TypeResolver.typeToDescriptor(variable.type()), false);
+            currentMethod.visitVarInsn(determineStoreCommand(variable.type()), index);
+        }
+
         Label conditionLabel = new Label();
-        Label blockLabel = new Label();
         Label endLabel = new Label();
 
-        int instruction = determineComparisonInstruction(ctx.expression());
-
-        // Marca o início do bloco da condição
         currentMethod.visitLabel(conditionLabel);
+        currentMethod.visitVarInsn(ILOAD, loopIndex);
+        currentMethod.visitVarInsn(ILOAD, endIndex);
+        currentMethod.visitJumpInsn(IF_ICMPGE, endLabel);
 
-        if (ctx.expression().booleanExpression() != null) {
-            visitBooleanExpression(ctx.expression().booleanExpression(), blockLabel, endLabel);
-        } else {
-            visit(ctx.expression()); // Compila a expressão do while
-            // Instrução de jump condicional baseado no retorno da expressão
-            currentMethod.visitJumpInsn(instruction, blockLabel); // Caso true, executa o bloco dentro do while
-            currentMethod.visitJumpInsn(GOTO, endLabel); // Caso false, vai pro final do while
-        }
-
-        currentMethod.visitLabel(blockLabel); // Início do bloco do while
         visit(ctx.block());
 
-        // Ao acabar o bloco do while, jump de volta para o bloco da condição do while e executa dnv
+        // O incremento e o salto de volta pertencem à linha do próprio laço
+        emitLineNumber(ctx);
+        emitProfileProbe(currentMethodName + ":parallel@" + ctx.start.getLine());
+
+        currentMethod.visitIincInsn(loopIndex, 1);
         currentMethod.visitJumpInsn(GOTO, conditionLabel);
         currentMethod.visitLabel(endLabel);
 
-        return null;
+        for (int i = 0; i < reductions.size(); i++) {
+            Variable variable = reductions.get(i);
+            currentMethod.visitVarInsn(ALOAD, accumulatorIndex);
+            currentMethod.visitLdcInsn(slots.get(i));
+            currentMethod.visitVarInsn(determineLoadCommand(variable.type()), reductionIndexes.get(i));
+            currentMethod.visitMethodInsn(INVOKEVIRTUAL, REDUCTION_CLASS, TYPE_INT.equals(variable.type()) ? "setInt" : "setFloat",
+                    "(I" + TypeResolver.typeToDescriptor(variable.type()) + ")V", false);
+        }
+
+        currentMethod.visitInsn(RETURN);
+        addLocalVariableTable(scope);
+        currentMethod.visitMaxs(0, 0);
+        currentMethod.visitEnd();
+        generatedMethods.add(currentMethod);
+
+        localVariablesStack.pop();
+        currentMethod = outerMethod;
+        currentParameters = outerParameters;
+        currentMethodStart = outerMethodStart;
+        availableCalls = outerCalls;
+    }
+
+    private void visitRangeLimit(SimpleLangParser.OperandContext ctx) {
+        types.checkRangeLimit(ctx); // O limite é sempre int, sem conversão para float
+        visit(ctx);
+    }
+
+    private void collectIdentifiers(ParseTree tree, Set<String> identifiers) {
+        if (isAnIdentifier(tree)) {
+            identifiers.add(tree.getText());
+        }
+
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectIdentifiers(tree.getChild(i), identifiers);
+        }
     }
 
     private void loadString(SimpleLangParser.ComparisonStringExpressionContext ctx, String string) {
         if (string.startsWith("\"")) {
-            String stringValue = getStringValue(string);
+            String stringValue = TypeResolver.stringValue(string);
             currentMethod.visitLdcInsn(stringValue);
         } else {
             loadVariable(ctx, string);
@@ -638,13 +2747,81 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
 
     @Override
     public Void visitReturnStatement(SimpleLangParser.ReturnStatementContext ctx) {
+        if (isSelfTailCall(ctx.expression())) {
+            emitTailCall(ctx.expression().methodCall());
+            return null;
+        }
+
         visit(ctx.expression());
 
-        String type = determineTypeOfExpression(ctx.expression());
+        String type = types.expressionType(ctx.expression());
+
+        // Os arquivos abertos são fechados do mais interno para o mais externo, com o valor já na pilha. O fechamento
+        // de um arquivo ainda é protegido pelos handlers dos externos, mas não pelo do próprio arquivo
+        for (OpenResource resource : openResources) {
+            resource.ranges.add(new LabelNode[]{resource.rangeStart, addLabel()});
+            emitClose(resource);
+        }
+
         executeReturnBasedOnType(type, "N/A");
+
+        if (!openResources.isEmpty()) {
+            LabelNode afterReturn = addLabel();
+            openResources.forEach(resource -> resource.rangeStart = afterReturn);
+        }
         return null;
     }
 
+    /**
+     * Uma chamada está em posição de cauda quando é a expressão inteira do return: nada mais é executado
+     * com o seu resultado além de retorná-lo.
+     */
+    private boolean isSelfTailCall(SimpleLangParser.ExpressionContext ctx) {
+        return options.tailCalls()
+                && currentMethodStart != null
+                // Com um arquivo aberto, a chamada ainda precisa ser feita antes de fechá-lo
+                && openResources.isEmpty()
+                && ctx.methodCall() != null
+                && ctx.methodCall().IDENTIFIER().getText().equals(currentMethodName);
+    }
+
+    /**
+     * Eliminação de chamada recursiva em cauda: em vez de INVOKEVIRTUAL + return, os argumentos são avaliados,
+     * gravados nos slots dos parâmetros e a execução volta para o início do método. A recursão passa a usar
+     * um único frame, sem custo de chamada e sem risco de StackOverflowError.
+     * <pre>
+     *     return mdc(a - b, b);
+     * </pre>
+     * Compilado:
+     * <pre>
+     *     ILOAD 1
+     *     ILOAD 2
+     *     ISUB       # primeiro argumento
+     *     ILOAD 2    # segundo argumento
+     *     ISTORE 2   # os parâmetros só são sobrescritos após todos os argumentos serem avaliados,
+     *     ISTORE 1   # já que um argumento pode depender do valor antigo de outro parâmetro
+     *     GOTO L0    # início do método
+     * </pre>
+     */
+    private void emitTailCall(SimpleLangParser.MethodCallContext ctx) {
+        List<SimpleLangParser.ExpressionContext> arguments = ctx.argumentList() != null ? ctx.argumentList().expression() : List.of();
+
+        TypeResolver.checkArgumentCount(ctx, currentMethodName, currentParameters.size(), arguments.size());
+
+        for (int i = 0; i < arguments.size(); i++) {
+            visit(arguments.get(i));
+            types.checkParameterArgument(ctx, arguments.get(i), currentParameters.get(i));
+        }
+
+        // Os valores estão na pilha na ordem dos argumentos, então são gravados do último para o primeiro
+        for (int i = currentParameters.size() - 1; i >= 0; i--) {
+            Variable parameter = currentParameters.get(i);
+            currentMethod.visitVarInsn(determineStoreCommand(parameter.type()), parameter.index());
+        }
+
+        currentMethod.visitJumpInsn(GOTO, currentMethodStart);
+    }
+
     private void loadVariable(ParserRuleContext ctx, String varName) {
         if (!localVariablesStack.isEmpty()) {
             var manager = localVariablesStack.peek();
@@ -660,6 +2837,12 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
     }
 
     private void loadClassVariable(ParserRuleContext ctx, String varName) {
+        if (constantFields.contains(varName)) {
+            // Assim como o javac faz com constantes, o valor é inlinado no lugar do acesso ao campo
+            currentMethod.visitLdcInsn(types.variable(ctx, varName).value());
+            return;
+        }
+
         currentMethod.visitVarInsn(ALOAD, 0); // Carrega 'this'
         currentMethod.visitFieldInsn(GETFIELD, className, varName, determineDescriptor(ctx, varName)); // Pega o atributo
     }
@@ -671,11 +2854,13 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
 
             if (variable != null) {
                 currentMethod.visitVarInsn(determineStoreCommand(variable.type()), variable.index());
+                availableCalls.kill(varName);
                 return;
             }
         }
 
         storeClassVariable(ctx, varName);
+        availableCalls.kill(varName);
     }
 
     private void storeClassVariable(ParserRuleContext ctx, String varName) {
@@ -687,7 +2872,7 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
     }
 
     private String determineDescriptor(ParserRuleContext ctx, String varName) {
-        return typeToDescriptor(getVariable(ctx, varName).type());
+        return TypeResolver.typeToDescriptor(types.variable(ctx, varName).type());
     }
 
     private String determineDescriptor(SimpleLangParser.LiteralContext ctx) {
@@ -702,213 +2887,187 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
         }
     }
 
-    /**
-     * Converte a tipagem da linguagem para a tipagem da JVM
-     */
-    private String typeToDescriptor(String type) {
+
+    private boolean isAnIdentifier(ParseTree child) {
+        return child instanceof TerminalNode && SimpleLangParser.IDENTIFIER == ((TerminalNode) child).getSymbol().getType();
+    }
+
+    private int determineStoreCommand(String type) {
+        return switch (type) {
+            case TYPE_INT -> ISTORE;
+            case TYPE_FLOAT -> FSTORE;
+            case TYPE_STRING -> ASTORE;
+            case String map when TypeResolver.isMap(map) -> ASTORE;
+            default -> throw new IllegalArgumentException("Tipo desconhecido: " + type);
+        };
+    }
+
+    private int determineLoadCommand(String type) {
         return switch (type) {
-            case "int" -> "I";
-            case "float" -> "F";
-            case "string" -> "Ljava/lang/String;";
-            case "void" -> "V";
+            case TYPE_INT -> ILOAD;
+            case TYPE_FLOAT -> FLOAD;
+            case TYPE_STRING -> ALOAD;
+            case String map when TypeResolver.isMap(map) -> ALOAD;
             default -> throw new IllegalArgumentException("Tipo desconhecido: " + type);
         };
     }
 
     /**
-     * Retorna o valor convertido para Java de uma expressão literal.
-     * Ex: int valor = 25 -> retorna int 25
+     * Nome do arquivo .sl de onde veio o programa, exibido nos stack traces (ex: Hello.sl:12). Programas compilados
+     * a partir de uma string (ScriptEngine, benchmarks) usam o nome da classe.
      */
-    private Object getLiteralValue(SimpleLangParser.LiteralContext ctx) {
-        if (ctx == null) {
-            return null;
-        }
-
-        if (ctx.INT() != null) {
-            return Integer.parseInt(ctx.INT().getText());
-        } else if (ctx.FLOAT() != null) {
-            return Float.parseFloat(ctx.FLOAT().getText());
-        } else if (ctx.STRING() != null) {
-            return getStringValue(ctx.STRING().getText());
-        } else {
-            throw new IllegalArgumentException("Literal desconhecido: " + ctx.getText());
-        }
-    }
+    private static String sourceFileName(SimpleLangParser.ClassDeclarationContext ctx) {
+        String sourceName = ctx.start.getInputStream().getSourceName();
 
-    private Object getLiteralValue(SimpleLangParser.OperandContext ctx) {
-        if (ctx == null) {
-            return null;
+        if (sourceName == null || sourceName.isBlank() || sourceName.equals(IntStream.UNKNOWN_SOURCE_NAME)) {
+            return ctx.IDENTIFIER().getText() + ".sl";
         }
 
-        if (ctx.INT() != null) {
-            return Integer.parseInt(ctx.INT().getText());
-        } else if (ctx.FLOAT() != null) {
-            return Float.parseFloat(ctx.FLOAT().getText());
-        } else {
-            throw new IllegalArgumentException("Literal desconhecido: " + ctx.getText());
-        }
+        return Path.of(sourceName).getFileName().toString();
     }
 
+    /**
+     * Associa o código gerado a partir daqui à linha do comando no arquivo .sl (LineNumberTable), usada por stack
+     * traces e profilers como JFR e async-profiler.
+     */
+    private void emitLineNumber(ParserRuleContext ctx) {
+        if (!options.debugInfo()) {
+            return;
+        }
 
-    private String getStringValue(String text) {
-        return text.substring(1, text.length() - 1);
-    }
-
-    private boolean isAnIdentifier(ParseTree child) {
-        return child instanceof TerminalNode && SimpleLangParser.IDENTIFIER == ((TerminalNode) child).getSymbol().getType();
+        Label label = new Label();
+        currentMethod.visitLabel(label);
+        currentMethod.visitLineNumber(ctx.start.getLine(), label);
     }
 
-    private boolean isFloatOperation(SimpleLangParser.NumericExpressionContext ctx) {
-        // Verifica se algum dos operandos é um float
-        for (int i = 0; i < ctx.getChildCount(); i += 2) {
-            ParseTree operand = ctx.getChild(i);
-            if (isFloatOperand(operand)) {
-                return true;
-            }
+    /**
+     * Registra o nome e o tipo das variáveis locais do método atual (LocalVariableTable), já com todo o corpo
+     * gerado. Os parâmetros valem desde o início do método; as demais variáveis, a partir da primeira vez em que
+     * recebem valor até o fim dele, já que na linguagem uma variável declarada em um bloco continua visível depois
+     * dele. Variáveis declaradas sem valor e nunca atribuídas ficam de fora, assim como as reservadas do compilador.
+     *
+     * @param scope variáveis do método, ou null quando ele só usa o this
+     */
+    private void addLocalVariableTable(LocalVariableManager scope) {
+        if (!options.debugInfo()) {
+            return;
         }
-        return false;
-    }
 
-    private boolean isFloatOperand(ParseTree operand) {
-        if (operand instanceof SimpleLangParser.OperandContext ctx) {
-            if (ctx.FLOAT() != null) {
-                return true;
-            }
+        LabelNode start = new LabelNode();
+        LabelNode end = new LabelNode();
+        currentMethod.instructions.insert(start);
+        currentMethod.instructions.add(end);
 
-            if (ctx.IDENTIFIER() != null) {
-                Variable variable = getVariable(ctx, ctx.IDENTIFIER().getText());
-                return TYPE_FLOAT.equals(variable.type());
-            }
+        if (currentMethod.localVariables == null) {
+            currentMethod.localVariables = new ArrayList<>();
         }
+        currentMethod.localVariables.add(new LocalVariableNode("this", "L" + className + ";", null, start, end, 0));
 
-        if (operand instanceof SimpleLangParser.InvolvedNumericExpressionContext ctx) {
-            return isFloatOperand(ctx.numericExpression());
+        if (scope == null) {
+            return;
         }
 
-        return false;
-    }
-
-    private Variable getVariable(ParserRuleContext ctx, String varName) {
-        if (!localVariablesStack.isEmpty()) {
-            var variable = localVariablesStack.peek().load(varName);
+        // Os parâmetros ocupam os slots logo após o this (int, float e referências usam um slot cada)
+        int parameters = Type.getArgumentTypes(currentMethod.desc).length;
+        Map<Integer, AbstractInsnNode> firstStores = new HashMap<>();
 
-            if (variable != null) {
-                return variable;
+        for (AbstractInsnNode instruction : currentMethod.instructions) {
+            if (instruction instanceof VarInsnNode store && store.getOpcode() >= ISTORE && store.getOpcode() <= ASTORE) {
+                firstStores.putIfAbsent(store.var, store);
             }
         }
 
-        var variable = classVariables.get(varName);
-
-        if (variable == null) {
-            throw new IllegalArgumentException(String.format("Linha %d: Variável %s não encontrada", ctx.start.getLine(), varName));
-        }
+        for (Variable variable : scope.variables()) {
+            if (variable.type() == null || variable.name().startsWith(RESERVED_VARIABLE_PREFIX)) {
+                continue;
+            }
 
-        return variable;
-    }
+            LabelNode variableStart = start;
 
-    private String buildMethodDescriptor(SimpleLangParser.ParameterListContext parameterListCtx, String returnType) {
-        StringBuilder descriptor = new StringBuilder();
-        descriptor.append("("); // Início da lista de parâmetros
+            if (variable.index() > parameters) {
+                AbstractInsnNode firstStore = firstStores.get(variable.index());
+                if (firstStore == null) {
+                    continue;
+                }
 
-        if (parameterListCtx != null) {
-            for (var paramCtx : parameterListCtx.parameter()) {
-                String paramType = paramCtx.type().getText();
-                descriptor.append(typeToDescriptor(paramType)); // Converte o tipo para o descriptor ASM
+                variableStart = new LabelNode();
+                currentMethod.instructions.insert(firstStore, variableStart);
             }
-        }
-
-        descriptor.append(")");
-        descriptor.append(typeToDescriptor(returnType)); // Tipo de retorno
 
-        return descriptor.toString();
+            currentMethod.localVariables.add(new LocalVariableNode(variable.name(),
+                    TypeResolver.typeToDescriptor(variable.type()), null, variableStart, end, variable.index()));
+        }
     }
 
-    private Method getMethod(ParserRuleContext ctx, String methodName) {
-        var method = methods.get(methodName);
-
-        if (method == null) {
-            throw new IllegalArgumentException(String.format("Linha %d: Método %s não encontrado", ctx.start.getLine(), methodName));
+    /**
+     * Injeta um ponto de medição do profiler: incrementa o contador de índice fixo no array estático da classe
+     * (a chamada estática é pequena o suficiente para ser sempre inlinada pelo JIT).
+     * Não gera nada caso a compilação não tenha sido feita com --profile.
+     */
+    private void emitProfileProbe(String probeName) {
+        if (!options.profile()) {
+            return;
         }
 
-        return method;
-    }
-
-    private int determineStoreCommand(String type) {
-        return switch (type) {
-            case TYPE_INT -> ISTORE;
-            case TYPE_FLOAT -> FSTORE;
-            case TYPE_STRING -> ASTORE;
-            default -> throw new IllegalArgumentException("Tipo desconhecido: " + type);
-        };
-    }
+        // Índice local a este visitor; ajustado para o índice global ao montar a classe
+        LdcInsnNode index = new LdcInsnNode(profileProbes.size());
+        profileProbes.add(probeName);
+        profileProbeIndexes.add(index);
 
-    private int determineLoadCommand(String type) {
-        return switch (type) {
-            case TYPE_INT -> ILOAD;
-            case TYPE_FLOAT -> FLOAD;
-            case TYPE_STRING -> ALOAD;
-            default -> throw new IllegalArgumentException("Tipo desconhecido: " + type);
-        };
+        currentMethod.visitFieldInsn(GETSTATIC, className, PROFILE_COUNTERS_FIELD, PROFILE_COUNTERS_DESCRIPTOR);
+        currentMethod.instructions.add(index);
+        currentMethod.visitMethodInsn(INVOKESTATIC, PROFILER_CLASS, "increment", "(" + PROFILE_COUNTERS_DESCRIPTOR + "I)V", false);
     }
 
-    private String determineTypeOfExpression(SimpleLangParser.ExpressionContext ctx) {
-        if (ctx.stringConcatenation() != null) {
-            return TYPE_STRING;
-        }
-
-        if (ctx.numericExpression() != null) {
-            return isFloatOperation ? TYPE_FLOAT : TYPE_INT;
-        }
-
-        if (ctx.involvedExpression() != null) {
-            return determineTypeOfExpression(ctx.involvedExpression().expression());
-        }
+    /**
+     * Cria o campo estático com os contadores e o inicializador estático que registra os pontos de medição
+     * no {@link org.dimer.runtime.Profiler}. Deve ser chamado após todos os métodos terem sido gerados.
+     */
+    private void addProfileCounters() {
+        classNode.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, PROFILE_COUNTERS_FIELD, PROFILE_COUNTERS_DESCRIPTOR, null, null).visitEnd();
 
-        if (ctx.IDENTIFIER() != null) {
-            return getVariable(ctx, ctx.IDENTIFIER().getText()).type();
-        }
+        var methodVisitor = classNode.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        methodVisitor.visitCode();
 
-        if (ctx.methodCall() != null) {
-            return determineReturnTypeMethodCall(ctx.methodCall());
-        }
+        methodVisitor.visitLdcInsn(Type.getObjectType(className));
+        methodVisitor.visitLdcInsn(profileProbes.size());
+        methodVisitor.visitTypeInsn(ANEWARRAY, "java/lang/String");
 
-        if (ctx.literal() != null) {
-            return determineLiteralType(ctx.literal());
+        for (int i = 0; i < profileProbes.size(); i++) {
+            methodVisitor.visitInsn(DUP);
+            methodVisitor.visitLdcInsn(i);
+            methodVisitor.visitLdcInsn(profileProbes.get(i));
+            methodVisitor.visitInsn(AASTORE);
         }
 
-        if (ctx.comparisonExpression() != null || ctx.comparisonStringExpression() != null || ctx.booleanExpression() != null) {
-            return TYPE_BOOL;
-        }
+        methodVisitor.visitMethodInsn(INVOKESTATIC, PROFILER_CLASS, "register",
+                "(Ljava/lang/Class;[Ljava/lang/String;)" + PROFILE_COUNTERS_DESCRIPTOR, false);
+        methodVisitor.visitFieldInsn(PUTSTATIC, className, PROFILE_COUNTERS_FIELD, PROFILE_COUNTERS_DESCRIPTOR);
+        methodVisitor.visitInsn(RETURN);
 
-        throw new IllegalArgumentException(String.format("Linha %d: não foi possível determinar o tipo de retorno da expressão %s",
-                ctx.start.getLine(), ctx.getText()));
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
     }
 
-    private String determineReturnTypeMethodCall(SimpleLangParser.MethodCallContext ctx) {
-        String methodName = ctx.IDENTIFIER().getText();
-        Method method = getMethod(ctx, methodName);
-        return method.returnType();
-    }
+    /**
+     * Construtor sem argumentos, que executa o init com a entrada e a saída do console. É o construtor usado pelo
+     * main e por quem cria a instância sem escolher um contexto.
+     */
+    private void addConsoleConstructor() {
+        var methodVisitor = classNode.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        methodVisitor.visitCode();
 
-    private String determineLiteralType(SimpleLangParser.LiteralContext ctx) {
-        if (ctx == null) {
-            return null;
-        }
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitMethodInsn(INVOKESTATIC, IO_CONTEXT_CLASS, "console", "()" + IO_CONTEXT_DESCRIPTOR, false);
+        methodVisitor.visitMethodInsn(INVOKESPECIAL, className, "<init>", INIT_DESCRIPTOR, false);
+        methodVisitor.visitInsn(RETURN);
 
-        if (ctx.INT() != null) {
-            return TYPE_INT;
-        } else if (ctx.FLOAT() != null) {
-            return TYPE_FLOAT;
-        } else if (ctx.STRING() != null) {
-            return TYPE_STRING;
-        } else {
-            throw new IllegalArgumentException(String.format("Linha %d: não foi possível determinar o tipo de retorno da expressão %s",
-                    ctx.start.getLine(), ctx.getText()));
-        }
+        methodVisitor.visitMaxs(2, 1);
+        methodVisitor.visitEnd();
     }
 
     private void addMainMethod() {
-        var methodVisitor = classWriter.visitMethod(
+        var methodVisitor = classNode.visitMethod(
                 ACC_PUBLIC | ACC_STATIC,
                 "main",
                 "([Ljava/lang/String;)V",
@@ -928,4 +3087,20 @@ public class SimpleLangBytecodeVisitor extends SimpleLangBaseVisitor<Void> {
         methodVisitor.visitMaxs(2, 1); // Máximo de stack = 2, máximo de variáveis locais = 1 (args)
         methodVisitor.visitEnd();
     }
-}
\ No newline at end of file
+
+    /**
+     * Arquivo aberto por um laço lines ou fields (FileInput na variável) ou por um bloco write (saída anterior na
+     * variável), com os trechos do código em que uma exceção precisa fechá-lo.
+     */
+    private static final class OpenResource {
+        private final boolean output;
+        private final int index;
+        private final List<LabelNode[]> ranges = new ArrayList<>();
+        private LabelNode rangeStart;
+
+        private OpenResource(boolean output, int index) {
+            this.output = output;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.dimer.compiler;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.dimer.SimpleLangParser;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.compiler.lexer.SimpleLangTokenSource;
+import org.dimer.compiler.pass.Pass;
+import org.dimer.compiler.pass.PassManager;
+import org.dimer.compiler.pass.PassReport;
+import org.dimer.compiler.util.BytecodeSize;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ponto de entrada do compilador em memória: faz o parse do código-fonte e gera o bytecode da classe,
+ * sem escrever nada em disco. Usado pelo {@link org.dimer.Main} e pelos benchmarks.
+ */
+public class SimpleLangCompiler {
+
+    private final CompilerOptions options;
+    private final List<Pass> extraPasses = new ArrayList<>();
+
+    public SimpleLangCompiler() {
+        this(CompilerOptions.defaults());
+    }
+
+    public SimpleLangCompiler(CompilerOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Adiciona um passe executado em todas as classes geradas por este compilador, depois dos passes de otimização
+     * (ex: o construtor usado pelo {@link org.dimer.interpreter.SimpleLangInterpreter} para instanciar a classe
+     * compilada sem executar o init).
+     */
+    public SimpleLangCompiler addPass(Pass pass) {
+        extraPasses.add(pass);
+        return this;
+    }
+
+    public SimpleLangParser.ProgramContext parse(CharStream input) {
+        // Lexer escrito à mão, equivalente ao SimpleLangLexer gerado (verificado pelo SimpleLangTokenSourceTest)
+        CommonTokenStream tokens = new CommonTokenStream(new SimpleLangTokenSource(input));
+        SimpleLangParser parser = new SimpleLangParser(tokens);
+
+        return parser.program();
+    }
+
+    /**
+     * Gera o bytecode de uma árvore já processada pelo parser.
+     *
+     * @param internalClassName nome da classe no formato da JVM (ex: org/dimer/code/Hello)
+     */
+    public CompiledClass generate(SimpleLangParser.ProgramContext tree, String internalClassName) {
+        return generate(tree, internalClassName, null);
+    }
+
+    /**
+     * Gera o bytecode passando pelos passes de otimização ativos nas opções.
+     *
+     * @param report quando não é null, recebe o tempo e a variação do tamanho do código de cada etapa: a geração,
+     *               cada passe e a escrita da classe (onde os frames são calculados)
+     */
+    public CompiledClass generate(SimpleLangParser.ProgramContext tree, String internalClassName, PassReport report) {
+        long start = System.nanoTime();
+        SimpleLangBytecodeVisitor visitor = new SimpleLangBytecodeVisitor(internalClassName, options);
+        visitor.visit(tree);
+        ClassNode classNode = visitor.getClassNode();
+
+        if (report != null) {
+            report.add("geração", System.nanoTime() - start, 0, BytecodeSize.codeLength(classNode));
+        }
+
+        PassManager passManager = new PassManager(options.optimizations());
+        extraPasses.forEach(passManager::add);
+        passManager.run(classNode, report);
+
+        start = System.nanoTime();
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        classNode.accept(classWriter);
+        byte[] bytecode = classWriter.toByteArray();
+
+        if (report != null) {
+            int size = BytecodeSize.codeLength(classNode);
+            report.add("escrita", System.nanoTime() - start, size, size);
+        }
+
+        return new CompiledClass(internalClassName, bytecode);
+    }
+
+    /**
+     * Compila um código-fonte completo, usando o nome declarado em 'class' dentro do pacote informado.
+     *
+     * @param packageName pacote no formato da JVM (ex: org/dimer/code), ou vazio para o pacote padrão
+     */
+    public CompiledClass compile(String source, String packageName) {
+        SimpleLangParser.ProgramContext tree = parse(CharStreams.fromString(source));
+        return generate(tree, qualifiedClassName(tree, packageName));
+    }
+
+    public static String qualifiedClassName(SimpleLangParser.ProgramContext tree, String packageName) {
+        String className = tree.classDeclaration().getFirst().IDENTIFIER().getText();
+
+        if (packageName.startsWith("/")) {
+            packageName = packageName.substring(1);
+        }
+
+        return packageName.isEmpty() ? className : packageName + "/" + className;
+    }
+}
@@ -0,0 +1,736 @@
+package org.dimer.compiler;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.dimer.SimpleLangParser;
+import org.dimer.compiler.data.Method;
+import org.dimer.compiler.data.Variable;
+import org.dimer.runtime.IntKeyMap;
+import org.objectweb.asm.Type;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.dimer.compiler.util.CompilerConstants.*;
+
+/**
+ * Regras de tipos da linguagem, compartilhadas pelo gerador de bytecode e pelo interpretador
+ * ({@link org.dimer.interpreter.SimpleLangInterpreter}): busca de variáveis e métodos, tipo de cada expressão e as
+ * verificações que geram erros de compilação. Os dois precisam aceitar e recusar exatamente os mesmos programas.
+ * <p>
+ * Uma instância é usada para um único corpo de método, na mesma ordem em que o corpo é percorrido: uma expressão
+ * numérica com float faz com que as expressões numéricas seguintes do método também sejam tratadas como float
+ * (ver {@link #enterNumericExpression}).
+ */
+public class TypeResolver {
+
+    /**
+     * Variáveis locais visíveis no ponto atual do corpo.
+     */
+    @FunctionalInterface
+    public interface Scope {
+        Variable lookup(String name);
+    }
+
+    // Operações de redução e o caractere que as representa em org.dimer.runtime.Reduction
+    private static final Map<String, Character> REDUCTION_OPERATIONS = Map.of("sum", '+', "min", '<', "max", '>');
+    private static final String INT_KEY_MAP_CLASS = "org/dimer/runtime/IntKeyMap";
+    private static final String STRING_KEY_MAP_CLASS = "org/dimer/runtime/StringKeyMap";
+    // Operações sobre map e a quantidade de argumentos de cada uma
+    private static final Map<String, Integer> MAP_OPERATIONS = Map.of("get", 1, "put", 2, "contains", 1, "remove", 1, "size", 0);
+
+    private final Map<String, Variable> classVariables;
+    private final Map<String, Method> methods;
+    private final Scope locals;
+    private boolean floatOperation = false;
+
+    public TypeResolver(Map<String, Variable> classVariables, Map<String, Method> methods, Scope locals) {
+        this.classVariables = classVariables;
+        this.methods = methods;
+        this.locals = locals;
+    }
+
+    public static void declareMethod(Map<String, Method> methods, SimpleLangParser.MethodDeclarationContext ctx) {
+        String methodName = ctx.IDENTIFIER().getText();
+        String methodReturnType = ctx.type().getText();
+        String methodDescriptor = buildMethodDescriptor(ctx.parameterList(), methodReturnType);
+
+        if (methods.containsKey(methodName)) {
+            throw new IllegalArgumentException(String.format("Linha %d: método %s declarado mais de uma vez", ctx.start.getLine(), methodName));
+        }
+
+        methods.put(methodName, new Method(methodName, methodReturnType, methodDescriptor));
+    }
+
+    public Variable variable(ParserRuleContext ctx, String varName) {
+        var variable = locals.lookup(varName);
+
+        if (variable != null) {
+            return variable;
+        }
+
+        variable = classVariables.get(varName);
+
+        if (variable == null) {
+            throw new IllegalArgumentException(String.format("Linha %d: Variável %s não encontrada", ctx.start.getLine(), varName));
+        }
+
+        return variable;
+    }
+
+    public Method method(ParserRuleContext ctx, String methodName) {
+        var method = methods.get(methodName);
+
+        if (method == null) {
+            throw new IllegalArgumentException(String.format("Linha %d: Método %s não encontrado", ctx.start.getLine(), methodName));
+        }
+
+        return method;
+    }
+
+    /**
+     * Indica se a expressão numérica atual é calculada em float.
+     */
+    public boolean isFloatOperation() {
+        return floatOperation;
+    }
+
+    /**
+     * Chamado ao entrar em cada expressão numérica. Uma expressão de fora de outra (ou argumento de uma chamada) é
+     * calculada pelo tipo dos seus operandos diretos; uma expressão entre parênteses dentro de uma expressão float
+     * também é float.
+     */
+    public void enterNumericExpression(SimpleLangParser.NumericExpressionContext ctx) {
+        // Gambiarra para caso alguma expressão pai tiver float, não sobrescrever o valor
+        if (!floatOperation || !isNested(ctx)) {
+            floatOperation = isFloatOperation(ctx);
+        }
+    }
+
+    /**
+     * Os argumentos de uma chamada usada como operando são expressões independentes da expressão em volta (ex: o
+     * expoente - 1 em base * potencia(base, expoente - 1) continua int). Depois dos argumentos, o tipo da expressão
+     * em volta, guardado antes com {@link #isFloatOperation()}, é restaurado por aqui.
+     */
+    public void restoreFloatOperation(boolean floatOperation) {
+        this.floatOperation = floatOperation;
+    }
+
+    /**
+     * Se a expressão está dentro de outra expressão numérica sem passar por uma lista de argumentos.
+     */
+    private static boolean isNested(ParserRuleContext ctx) {
+        for (ParserRuleContext parent = ctx.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent instanceof SimpleLangParser.ArgumentListContext) {
+                return false;
+            }
+
+            if (parent instanceof SimpleLangParser.NumericExpressionContext) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Chamado ao entrar em cada comparação numérica: se um dos operandos for float, o outro é convertido e a
+     * comparação é feita entre floats.
+     */
+    public void enterComparison(SimpleLangParser.ComparisonExpressionContext ctx) {
+        floatOperation = isFloatComparison(ctx);
+    }
+
+    public boolean isFloatComparison(SimpleLangParser.ComparisonExpressionContext ctx) {
+        return TYPE_FLOAT.equals(operandType(ctx.operand(0))) || TYPE_FLOAT.equals(operandType(ctx.operand(1)));
+    }
+
+    /**
+     * Os limites de um laço parallel são sempre int, sem conversão para float.
+     */
+    public void checkRangeLimit(SimpleLangParser.OperandContext ctx) {
+        String type;
+
+        if (ctx.INT() != null) {
+            type = TYPE_INT;
+        } else if (ctx.FLOAT() != null) {
+            type = TYPE_FLOAT;
+        } else if (ctx.IDENTIFIER() != null) {
+            type = variable(ctx, ctx.IDENTIFIER().getText()).type();
+        } else if (ctx.methodCall() != null) {
+            type = methodCallType(ctx.methodCall());
+        } else {
+            type = mapCallType(ctx.mapCall());
+        }
+
+        if (!TYPE_INT.equals(type)) {
+            throw new IllegalArgumentException(String.format("Linha %d: limite %s do laço parallel deve ser int", ctx.start.getLine(), ctx.getText()));
+        }
+
+        floatOperation = false;
+    }
+
+    /**
+     * Tipo de um operando de expressão aritmética ou comparação (int ou float), antes da conversão para float.
+     */
+    public String operandType(SimpleLangParser.OperandContext ctx) {
+        if (ctx.IDENTIFIER() != null) {
+            String varName = ctx.IDENTIFIER().getText();
+            Variable variable = variable(ctx, varName);
+
+            if (TYPE_STRING.equals(variable.type()) || isMap(variable.type())) {
+                throw new IllegalArgumentException(String.format("Linha %d: variável %s do tipo %s não pode ser usada em operação aritmética",
+                        ctx.start.getLine(), varName, variable.type()));
+            }
+
+            return variable.type();
+        }
+
+        if (ctx.mapCall() != null) {
+            String type = mapCallType(ctx.mapCall());
+
+            if (!TYPE_INT.equals(type) && !TYPE_FLOAT.equals(type)) {
+                throw new IllegalArgumentException(String.format("Linha %d: %s com retorno tipo %s não pode ser usado em operação aritmética",
+                        ctx.start.getLine(), ctx.mapCall().getText(), type));
+            }
+
+            return type;
+        }
+
+        if (ctx.methodCall() != null) {
+            String type = methodCallType(ctx.methodCall());
+
+            if (TYPE_STRING.equals(type)) {
+                throw new IllegalArgumentException(String.format("Linha %d: método %s com retorno tipo string não pode ser usada em operação aritmética",
+                        ctx.start.getLine(), ctx.methodCall().IDENTIFIER().getText()));
+            }
+
+            return type;
+        }
+
+        return ctx.INT() != null ? TYPE_INT : TYPE_FLOAT;
+    }
+
+    public String expressionType(SimpleLangParser.ExpressionContext ctx) {
+        if (ctx.stringConcatenation() != null) {
+            return TYPE_STRING;
+        }
+
+        if (ctx.numericExpression() != null) {
+            return isFloatOperation(ctx.numericExpression()) ? TYPE_FLOAT : TYPE_INT;
+        }
+
+        if (ctx.involvedExpression() != null) {
+            return expressionType(ctx.involvedExpression().expression());
+        }
+
+        if (ctx.IDENTIFIER() != null) {
+            return variable(ctx, ctx.IDENTIFIER().getText()).type();
+        }
+
+        if (ctx.methodCall() != null) {
+            return methodCallType(ctx.methodCall());
+        }
+
+        if (ctx.mapCall() != null) {
+            return mapCallType(ctx.mapCall());
+        }
+
+        if (ctx.literal() != null) {
+            return literalType(ctx.literal());
+        }
+
+        if (ctx.comparisonExpression() != null || ctx.comparisonStringExpression() != null || ctx.booleanExpression() != null) {
+            return TYPE_BOOL;
+        }
+
+        throw new IllegalArgumentException(String.format("Linha %d: não foi possível determinar o tipo de retorno da expressão %s",
+                ctx.start.getLine(), ctx.getText()));
+    }
+
+    public String methodCallType(SimpleLangParser.MethodCallContext ctx) {
+        return method(ctx, ctx.IDENTIFIER().getText()).returnType();
+    }
+
+    /**
+     * Tipo do resultado de uma operação sobre map: o tipo dos valores no get, bool no contains, int no size e void
+     * no put e no remove. Também verifica a variável, a operação e a quantidade de argumentos; os tipos dos
+     * argumentos são verificados depois de eles serem percorridos ({@link #checkMapArgument}).
+     */
+    public String mapCallType(SimpleLangParser.MapCallContext ctx) {
+        Variable map = mapVariable(ctx);
+        String operation = ctx.IDENTIFIER(1).getText();
+        Integer parameters = MAP_OPERATIONS.get(operation);
+
+        if (parameters == null) {
+            throw new IllegalArgumentException(String.format("Linha %d: operação %s desconhecida para map, use get, put, contains, remove ou size",
+                    ctx.start.getLine(), operation));
+        }
+
+        int arguments = ctx.argumentList() != null ? ctx.argumentList().expression().size() : 0;
+        checkArgumentCount(ctx, map.name() + "." + operation, parameters, arguments);
+
+        return switch (operation) {
+            case "get" -> mapValueType(map.type());
+            case "contains" -> TYPE_BOOL;
+            case "size" -> TYPE_INT;
+            default -> TYPE_VOID;
+        };
+    }
+
+    /**
+     * Variável map de uma operação sobre map.
+     */
+    public Variable mapVariable(SimpleLangParser.MapCallContext ctx) {
+        Variable variable = variable(ctx, ctx.IDENTIFIER(0).getText());
+
+        if (!isMap(variable.type())) {
+            throw new IllegalArgumentException(String.format("Linha %d: variável %s do tipo %s não é um map",
+                    ctx.start.getLine(), variable.name(), variable.type()));
+        }
+
+        return variable;
+    }
+
+    /**
+     * Verifica um argumento de uma operação sobre map depois de ele ter sido percorrido: o primeiro é a chave e o
+     * segundo (no put) é o valor.
+     */
+    public void checkMapArgument(SimpleLangParser.MapCallContext ctx, int index) {
+        Variable map = mapVariable(ctx);
+        SimpleLangParser.ExpressionContext argument = ctx.argumentList().expression(index);
+        String expected = index == 0 ? mapKeyType(map.type()) : mapValueType(map.type());
+        String type = expressionType(argument);
+
+        if (!expected.equals(type)) {
+            throw new IllegalArgumentException(String.format("Linha %d: %s %s do tipo %s não compatível com o map %s do tipo %s",
+                    ctx.start.getLine(), index == 0 ? "chave" : "valor", argument.getText(), type, map.name(), map.type()));
+        }
+    }
+
+    /**
+     * Mensagem do erro de execução quando a chave string de uma operação sobre map é nula (ex: uma variável string
+     * que ainda não recebeu valor). Os literais nunca são nulos e não são verificados.
+     */
+    public static String nullKeyMessage(SimpleLangParser.MapCallContext ctx) {
+        return String.format("Linha %d: chave nula no map %s", ctx.start.getLine(), ctx.IDENTIFIER(0).getText());
+    }
+
+    /**
+     * Verifica o valor inicial de uma variável local, depois de a expressão ter sido percorrida.
+     */
+    public void checkInitializer(SimpleLangParser.VarDeclarationContext ctx) {
+        String varName = ctx.IDENTIFIER().getText();
+        String varType = ctx.type().getText();
+        String type = expressionType(ctx.expression());
+
+        if (!varType.equals(type)) {
+            throw new IllegalArgumentException(String.format("Linha %d: tipo de retorno %s da expressão %s não compatível com tipo %s da variável %s",
+                    ctx.start.getLine(), type, ctx.expression().getText(), varType, varName));
+        }
+    }
+
+    /**
+     * Verifica uma atribuição antes de a expressão ser percorrida.
+     *
+     * @return a variável que recebe o valor
+     */
+    public Variable checkAssignment(SimpleLangParser.AssignmentContext ctx) {
+        Variable variable = variable(ctx, ctx.IDENTIFIER().getText());
+        String type = expressionType(ctx.expression());
+
+        if (!variable.type().equals(type)) {
+            throw new IllegalArgumentException(String.format("Linha %d: variável %s do tipo %s não compatível com atribuição de %s",
+                    ctx.start.getLine(), variable.name(), variable.type(), type));
+        }
+
+        return variable;
+    }
+
+    public void checkCondition(SimpleLangParser.IfStatementContext ctx) {
+        if (!TYPE_BOOL.equals(expressionType(ctx.expression()))) {
+            throw new IllegalArgumentException(String.format("Linha %d: expressão dentro do if %s não retorna boolean", ctx.start.getLine(), ctx.expression().getText()));
+        }
+    }
+
+    /**
+     * Verifica o tipo da expressão e dos casos de um switch. Deve ser chamado após a expressão ser percorrida.
+     *
+     * @return o tipo da expressão (int ou string)
+     */
+    public String checkSwitch(SimpleLangParser.SwitchStatementContext ctx) {
+        String type = expressionType(ctx.expression());
+
+        if (!TYPE_INT.equals(type) && !TYPE_STRING.equals(type)) {
+            throw new IllegalArgumentException(String.format("Linha %d: switch sobre tipo %s não suportado, use int ou string",
+                    ctx.start.getLine(), type));
+        }
+
+        Set<Object> values = new HashSet<>();
+        for (var switchCase : ctx.switchCase()) {
+            for (var label : switchCase.caseLabel()) {
+                String labelType = label.INT() != null ? TYPE_INT : TYPE_STRING;
+                if (!labelType.equals(type)) {
+                    throw new IllegalArgumentException(String.format("Linha %d: caso %s do tipo %s não compatível com switch do tipo %s",
+                            label.start.getLine(), label.getText(), labelType, type));
+                }
+
+                if (!values.add(caseValue(label))) {
+                    throw new IllegalArgumentException(String.format("Linha %d: caso %s repetido no switch", label.start.getLine(), label.getText()));
+                }
+            }
+        }
+
+        return type;
+    }
+
+    /**
+     * Verifica um laço lines ou fields depois de o caminho e o delimitador terem sido percorridos.
+     *
+     * @return o tipo da variável do laço
+     */
+    public String checkFileLoop(SimpleLangParser.FileLoopStatementContext ctx) {
+        String varType = ctx.type().getText();
+        String command = ctx.LINES() != null ? "lines" : "fields";
+
+        if (!TYPE_INT.equals(varType) && !TYPE_FLOAT.equals(varType) && !TYPE_STRING.equals(varType)) {
+            throw new IllegalArgumentException(String.format("Linha %d: variável %s do tipo %s não suportada no %s, use int, float ou string",
+                    ctx.start.getLine(), ctx.IDENTIFIER().getText(), varType, command));
+        }
+
+        checkPath(ctx, command, ctx.expression(0));
+
+        if (ctx.expression().size() > 1) {
+            if (ctx.LINES() != null) {
+                throw new IllegalArgumentException(String.format("Linha %d: lines não recebe delimitador, use fields", ctx.start.getLine()));
+            }
+
+            String type = expressionType(ctx.expression(1));
+            if (!TYPE_STRING.equals(type)) {
+                throw new IllegalArgumentException(String.format("Linha %d: delimitador %s do tipo %s no fields deve ser string",
+                        ctx.start.getLine(), ctx.expression(1).getText(), type));
+            }
+        }
+
+        return varType;
+    }
+
+    /**
+     * Verifica o caminho de um bloco write depois de ele ter sido percorrido.
+     */
+    public void checkWrite(SimpleLangParser.WriteStatementContext ctx) {
+        checkPath(ctx, "write", ctx.expression());
+    }
+
+    private void checkPath(ParserRuleContext ctx, String command, SimpleLangParser.ExpressionContext path) {
+        String type = expressionType(path);
+
+        if (!TYPE_STRING.equals(type)) {
+            throw new IllegalArgumentException(String.format("Linha %d: caminho %s do tipo %s no %s deve ser string",
+                    ctx.start.getLine(), path.getText(), type, command));
+        }
+    }
+
+    /**
+     * Valor de um caso do switch: Integer para casos int e String (sem as aspas) para casos string.
+     */
+    public static Object caseValue(SimpleLangParser.CaseLabelContext ctx) {
+        return ctx.INT() != null ? Integer.parseInt(ctx.INT().getText()) : stringValue(ctx.STRING().getText());
+    }
+
+    /**
+     * @return true se a expressão usa apenas 'and', false se usa apenas 'or'
+     */
+    public static boolean isAnd(SimpleLangParser.BooleanExpressionContext ctx) {
+        int andCount = ctx.AND().size();
+        int orCount = ctx.OR().size();
+
+        if (andCount > 0 && orCount > 0) {
+            throw new IllegalArgumentException(String.format("Linha %d: só é permitido expressões apenas com ANDs ou ORs, sem misturá-los: %s", ctx.start.getLine(), ctx.getText()));
+        }
+
+        return andCount > 0;
+    }
+
+    public static void checkArgumentCount(ParserRuleContext ctx, String methodName, int expected, int received) {
+        if (received != expected) {
+            throw new IllegalArgumentException(String.format("Linha %d: método %s espera %d argumentos, mas recebeu %d",
+                    ctx.start.getLine(), methodName, expected, received));
+        }
+    }
+
+    /**
+     * Verifica a variável que recebe o resultado de um spawn, antes de os argumentos serem percorridos.
+     */
+    public void checkSpawn(SimpleLangParser.SpawnStatementContext ctx) {
+        SimpleLangParser.MethodCallContext call = ctx.methodCall();
+        String methodName = call.IDENTIFIER().getText();
+        Method method = method(call, methodName);
+        int parameters = parameterDescriptors(method).size();
+        int arguments = call.argumentList() != null ? call.argumentList().expression().size() : 0;
+
+        checkArgumentCount(ctx, methodName, parameters, arguments);
+
+        if (ctx.IDENTIFIER() != null) {
+            Variable variable = variable(ctx, ctx.IDENTIFIER().getText());
+
+            if (!variable.type().equals(method.returnType())) {
+                throw new IllegalArgumentException(String.format("Linha %d: variável %s do tipo %s não compatível com retorno %s do método %s",
+                        ctx.start.getLine(), variable.name(), variable.type(), method.returnType(), methodName));
+            }
+        }
+    }
+
+    /**
+     * Verifica um argumento de spawn depois de ele ter sido percorrido.
+     */
+    public void checkSpawnArgument(SimpleLangParser.SpawnStatementContext ctx, int index) {
+        SimpleLangParser.MethodCallContext call = ctx.methodCall();
+        String methodName = call.IDENTIFIER().getText();
+        SimpleLangParser.ExpressionContext argument = call.argumentList().expression(index);
+        String type = expressionType(argument);
+
+        if (!typeToDescriptor(type).equals(parameterDescriptors(method(call, methodName)).get(index))) {
+            throw new IllegalArgumentException(String.format("Linha %d: argumento %s do tipo %s não compatível com o método %s",
+                    ctx.start.getLine(), argument.getText(), type, methodName));
+        }
+    }
+
+    /**
+     * Verifica um argumento de chamada recursiva em cauda depois de ele ter sido percorrido.
+     */
+    public void checkParameterArgument(SimpleLangParser.MethodCallContext ctx, SimpleLangParser.ExpressionContext argument, Variable parameter) {
+        String type = expressionType(argument);
+
+        if (!parameter.type().equals(type)) {
+            throw new IllegalArgumentException(String.format("Linha %d: argumento %s do tipo %s não compatível com o parâmetro %s do tipo %s",
+                    ctx.start.getLine(), argument.getText(), type, parameter.name(), parameter.type()));
+        }
+    }
+
+    /**
+     * Variáveis de redução do laço parallel, na ordem declarada, com a operação de cada uma.
+     */
+    public Map<Variable, Character> reductions(SimpleLangParser.ParallelStatementContext ctx) {
+        Map<Variable, Character> reductions = new LinkedHashMap<>();
+
+        for (var reduction : ctx.reduction()) {
+            String operator = reduction.IDENTIFIER(0).getText();
+            Variable variable = variable(reduction, reduction.IDENTIFIER(1).getText());
+            Character operation = REDUCTION_OPERATIONS.get(operator);
+
+            if (operation == null) {
+                throw new IllegalArgumentException(String.format("Linha %d: redução %s desconhecida, use sum, min ou max", reduction.start.getLine(), operator));
+            }
+
+            if (reductions.keySet().stream().anyMatch(other -> other.name().equals(variable.name()))) {
+                throw new IllegalArgumentException(String.format("Linha %d: variável %s usada em mais de uma redução", reduction.start.getLine(), variable.name()));
+            }
+
+            if (!TYPE_INT.equals(variable.type()) && !TYPE_FLOAT.equals(variable.type())) {
+                throw new IllegalArgumentException(String.format("Linha %d: variável %s do tipo %s não pode ser usada em redução, apenas int ou float",
+                        reduction.start.getLine(), variable.name(), variable.type()));
+            }
+
+            reductions.put(variable, operation);
+        }
+
+        return reductions;
+    }
+
+    private boolean isFloatOperation(SimpleLangParser.NumericExpressionContext ctx) {
+        // Verifica se algum dos operandos é um float
+        for (int i = 0; i < ctx.getChildCount(); i += 2) {
+            ParseTree operand = ctx.getChild(i);
+            if (isFloatOperand(operand)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isFloatOperand(ParseTree operand) {
+        if (operand instanceof SimpleLangParser.OperandContext ctx) {
+            if (ctx.FLOAT() != null) {
+                return true;
+            }
+
+            if (ctx.IDENTIFIER() != null) {
+                Variable variable = variable(ctx, ctx.IDENTIFIER().getText());
+                return TYPE_FLOAT.equals(variable.type());
+            }
+
+            if (ctx.mapCall() != null) {
+                return TYPE_FLOAT.equals(mapCallType(ctx.mapCall()));
+            }
+
+            if (ctx.methodCall() != null) {
+                return TYPE_FLOAT.equals(methodCallType(ctx.methodCall()));
+            }
+        }
+
+        if (operand instanceof SimpleLangParser.InvolvedNumericExpressionContext ctx) {
+            return isFloatOperation(ctx.numericExpression());
+        }
+
+        return false;
+    }
+
+    public static String literalType(SimpleLangParser.LiteralContext ctx) {
+        if (ctx == null) {
+            return null;
+        }
+
+        if (ctx.INT() != null) {
+            return TYPE_INT;
+        } else if (ctx.FLOAT() != null) {
+            return TYPE_FLOAT;
+        } else if (ctx.STRING() != null) {
+            return TYPE_STRING;
+        } else {
+            throw new IllegalArgumentException(String.format("Linha %d: não foi possível determinar o tipo de retorno da expressão %s",
+                    ctx.start.getLine(), ctx.getText()));
+        }
+    }
+
+    /**
+     * Retorna o valor convertido para Java de uma expressão literal.
+     * Ex: int valor = 25 -> retorna int 25
+     */
+    public static Object literalValue(SimpleLangParser.LiteralContext ctx) {
+        if (ctx == null) {
+            return null;
+        }
+
+        if (ctx.INT() != null) {
+            return Integer.parseInt(ctx.INT().getText());
+        } else if (ctx.FLOAT() != null) {
+            return Float.parseFloat(ctx.FLOAT().getText());
+        } else if (ctx.STRING() != null) {
+            return stringValue(ctx.STRING().getText());
+        } else {
+            throw new IllegalArgumentException("Literal desconhecido: " + ctx.getText());
+        }
+    }
+
+    public static Object literalValue(SimpleLangParser.OperandContext ctx) {
+        if (ctx == null) {
+            return null;
+        }
+
+        if (ctx.INT() != null) {
+            return Integer.parseInt(ctx.INT().getText());
+        } else if (ctx.FLOAT() != null) {
+            return Float.parseFloat(ctx.FLOAT().getText());
+        } else {
+            throw new IllegalArgumentException("Literal desconhecido: " + ctx.getText());
+        }
+    }
+
+    /**
+     * Conteúdo de um literal string, sem as aspas.
+     */
+    public static String stringValue(String text) {
+        return text.substring(1, text.length() - 1);
+    }
+
+    /**
+     * Converte a tipagem da linguagem para a tipagem da JVM
+     */
+    public static String typeToDescriptor(String type) {
+        return switch (type) {
+            case "int" -> "I";
+            case "float" -> "F";
+            case "string" -> "Ljava/lang/String;";
+            case "void" -> "V";
+            default -> {
+                if (!isMap(type)) {
+                    throw new IllegalArgumentException("Tipo desconhecido: " + type);
+                }
+                yield "L" + mapClass(type) + ";";
+            }
+        };
+    }
+
+    /**
+     * Indica se o tipo é um map (ex: map&lt;string,int&gt;).
+     */
+    public static boolean isMap(String type) {
+        return type != null && type.startsWith("map<");
+    }
+
+    public static String mapKeyType(String type) {
+        return type.substring("map<".length(), type.indexOf(','));
+    }
+
+    public static String mapValueType(String type) {
+        return type.substring(type.indexOf(',') + 1, type.length() - 1);
+    }
+
+    /**
+     * Classe do runtime que implementa o map, no formato da JVM: as chaves int usam o IntKeyMap e as string o
+     * StringKeyMap. Os valores (int, float ou string) são escolhidos ao criar o map ({@link #mapValueKind}).
+     */
+    public static String mapClass(String type) {
+        String keyType = mapKeyType(type);
+        String valueType = mapValueType(type);
+
+        if (!TYPE_INT.equals(keyType) && !TYPE_STRING.equals(keyType)) {
+            throw new IllegalArgumentException("Tipo de chave não suportado em map, use int ou string: " + type);
+        }
+
+        if (!TYPE_INT.equals(valueType) && !TYPE_FLOAT.equals(valueType) && !TYPE_STRING.equals(valueType)) {
+            throw new IllegalArgumentException("Tipo de valor não suportado em map, use int, float ou string: " + type);
+        }
+
+        return TYPE_INT.equals(keyType) ? INT_KEY_MAP_CLASS : STRING_KEY_MAP_CLASS;
+    }
+
+    /**
+     * Argumento do construtor do map para o tipo dos valores (IntKeyMap.INT_VALUES, FLOAT_VALUES ou STRING_VALUES).
+     */
+    public static int mapValueKind(String type) {
+        return switch (mapValueType(type)) {
+            case TYPE_INT -> IntKeyMap.INT_VALUES;
+            case TYPE_FLOAT -> IntKeyMap.FLOAT_VALUES;
+            default -> IntKeyMap.STRING_VALUES;
+        };
+    }
+
+    /**
+     * Variáveis de classe do tipo map começam vazias, criadas no construtor; não há valor inicial.
+     */
+    public static void checkField(SimpleLangParser.VarDeclarationContext ctx) {
+        if (isMap(ctx.type().getText()) && ctx.expression() != null) {
+            throw new IllegalArgumentException(String.format("Linha %d: variável de classe %s do tipo map não pode ter valor inicial",
+                    ctx.start.getLine(), ctx.IDENTIFIER().getText()));
+        }
+    }
+
+    public static String buildMethodDescriptor(SimpleLangParser.ParameterListContext parameterListCtx, String returnType) {
+        StringBuilder descriptor = new StringBuilder();
+        descriptor.append("("); // Início da lista de parâmetros
+
+        if (parameterListCtx != null) {
+            for (var paramCtx : parameterListCtx.parameter()) {
+                String paramType = paramCtx.type().getText();
+                descriptor.append(typeToDescriptor(paramType)); // Converte o tipo para o descriptor ASM
+            }
+        }
+
+        descriptor.append(")");
+        descriptor.append(typeToDescriptor(returnType)); // Tipo de retorno
+
+        return descriptor.toString();
+    }
+
+    private static List<String> parameterDescriptors(Method method) {
+        return Arrays.stream(Type.getArgumentTypes(method.descriptor()))
+                .map(Type::getDescriptor)
+                .toList();
+    }
+}
@@ -0,0 +1,50 @@
+package org.dimer.compiler.analysis;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.dimer.SimpleLangBaseListener;
+import org.dimer.SimpleLangParser;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Coleta todos os nomes que recebem algum valor dentro de métodos ou do init, seja por atribuição, por read, pelo
+ * resultado de um spawn ou por uma redução de laço parallel.
+ * <p>
+ * A análise é apenas pelo nome, sem diferenciar variável local de variável de classe: um campo com o mesmo nome
+ * de uma variável local atribuída também é considerado atribuído. Isso é conservador, mas suficiente para decidir
+ * quais campos nunca mudam de valor.
+ */
+public class AssignedNamesCollector extends SimpleLangBaseListener {
+
+    private final Set<String> assignedNames = new HashSet<>();
+
+    public static Set<String> collect(ParseTree tree) {
+        AssignedNamesCollector collector = new AssignedNamesCollector();
+        ParseTreeWalker.DEFAULT.walk(collector, tree);
+        return collector.assignedNames;
+    }
+
+    @Override
+    public void enterAssignment(SimpleLangParser.AssignmentContext ctx) {
+        assignedNames.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterSpawnStatement(SimpleLangParser.SpawnStatementContext ctx) {
+        if (ctx.IDENTIFIER() != null) {
+            assignedNames.add(ctx.IDENTIFIER().getText());
+        }
+    }
+
+    @Override
+    public void enterReduction(SimpleLangParser.ReductionContext ctx) {
+        assignedNames.add(ctx.IDENTIFIER(1).getText());
+    }
+
+    @Override
+    public void enterReadStatement(SimpleLangParser.ReadStatementContext ctx) {
+        assignedNames.add(ctx.IDENTIFIER().getText());
+    }
+}
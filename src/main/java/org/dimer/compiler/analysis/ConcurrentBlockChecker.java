@@ -0,0 +1,42 @@
+package org.dimer.compiler.analysis;
+
+import org.dimer.SimpleLangParser;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Verifica se as tarefas de um bloco 'concurrent' podem ser executadas ao mesmo tempo. Os maps não são
+ * thread-safe, então, quando o bloco tem mais de um spawn, nenhum deles pode chamar um método que altera um map que
+ * não criou (ver {@link FieldWritesAnalysis#methodsChangingMaps}): outra tarefa poderia ler ou alterar o mesmo map
+ * durante um rehash. Pelo mesmo motivo, nenhum deles pode usar write ({@link FieldWritesAnalysis#methodsUsingWrite}):
+ * o write troca a saída da instância, e os prints das outras tarefas iriam para o arquivo. Um spawn sozinho pode,
+ * já que a thread do bloco apenas espera ele terminar.
+ */
+public final class ConcurrentBlockChecker {
+
+    private ConcurrentBlockChecker() {
+    }
+
+    public static void check(SimpleLangParser.ConcurrentStatementContext ctx, Set<String> mapChangingMethods,
+                             Set<String> writeMethods) {
+        List<SimpleLangParser.SpawnStatementContext> spawns = ctx.spawnStatement();
+        if (spawns.size() < 2) {
+            return;
+        }
+
+        for (var spawn : spawns) {
+            String methodName = spawn.methodCall().IDENTIFIER().getText();
+
+            if (mapChangingMethods.contains(methodName)) {
+                throw new IllegalArgumentException(String.format("Linha %d: método %s altera maps compartilhados e não pode ser executado junto com outros spawns",
+                        spawn.start.getLine(), methodName));
+            }
+
+            if (writeMethods.contains(methodName)) {
+                throw new IllegalArgumentException(String.format("Linha %d: método %s usa write e não pode ser executado junto com outros spawns",
+                        spawn.start.getLine(), methodName));
+            }
+        }
+    }
+}
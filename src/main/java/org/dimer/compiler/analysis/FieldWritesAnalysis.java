@@ -0,0 +1,157 @@
+package org.dimer.compiler.analysis;
+
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.dimer.SimpleLangBaseListener;
+import org.dimer.SimpleLangParser;
+import org.dimer.compiler.TypeResolver;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Descobre quais métodos alteram variáveis de classe, diretamente ou através dos métodos que chamam.
+ * <p>
+ * Assim como o {@link AssignedNamesCollector}, a análise é apenas pelo nome: qualquer nome que recebe valor
+ * dentro do método e não é parâmetro nem variável declarada em algum ponto do método é considerado um campo.
+ * Um put ou remove em map também conta como escrita em campo, a não ser que o map tenha sido criado vazio no
+ * próprio método: parâmetros e variáveis iniciadas com outro map podem apontar para um map de um campo.
+ */
+public class FieldWritesAnalysis extends SimpleLangBaseListener {
+
+    private final Set<String> locals = new HashSet<>();
+    private final Set<String> writes = new HashSet<>();
+    private final Set<String> calls = new HashSet<>();
+    private final Set<String> createdMaps = new HashSet<>();
+    private final Set<String> changedMaps = new HashSet<>();
+    private boolean usesWrite;
+
+    public static Set<String> methodsWritingFields(SimpleLangParser.ClassDeclarationContext ctx) {
+        return propagate(ctx, analysis -> !analysis.writes.isEmpty() || !analysis.changedMaps.isEmpty());
+    }
+
+    /**
+     * Métodos que alteram, diretamente ou através dos métodos que chamam, maps que não criaram: de campos ou
+     * recebidos como parâmetro.
+     */
+    public static Set<String> methodsChangingMaps(SimpleLangParser.ClassDeclarationContext ctx) {
+        return propagate(ctx, analysis -> !analysis.changedMaps.isEmpty());
+    }
+
+    /**
+     * Métodos que têm um bloco write, diretamente ou através dos métodos que chamam. O write troca a saída da
+     * instância inteira, usada também pelas outras threads.
+     */
+    public static Set<String> methodsUsingWrite(SimpleLangParser.ClassDeclarationContext ctx) {
+        return propagate(ctx, analysis -> analysis.usesWrite);
+    }
+
+    /**
+     * Métodos em que a condição vale, diretamente ou através dos métodos que chamam.
+     */
+    private static Set<String> propagate(SimpleLangParser.ClassDeclarationContext ctx, Predicate<FieldWritesAnalysis> condition) {
+        Map<String, Set<String>> callsByMethod = new HashMap<>();
+        Set<String> matching = new HashSet<>();
+
+        for (var method : ctx.methodsSection().methodDeclaration()) {
+            FieldWritesAnalysis analysis = new FieldWritesAnalysis();
+            ParseTreeWalker.DEFAULT.walk(analysis, method);
+
+            String name = method.IDENTIFIER().getText();
+            callsByMethod.put(name, analysis.calls);
+
+            analysis.writes.removeAll(analysis.locals);
+            analysis.changedMaps.removeAll(analysis.createdMaps);
+            if (condition.test(analysis)) {
+                matching.add(name);
+            }
+        }
+
+        // Propaga pelo grafo de chamadas até não haver mudanças
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (var entry : callsByMethod.entrySet()) {
+                if (!matching.contains(entry.getKey()) && entry.getValue().stream().anyMatch(matching::contains)) {
+                    matching.add(entry.getKey());
+                    changed = true;
+                }
+            }
+        }
+
+        return matching;
+    }
+
+    @Override
+    public void enterParameter(SimpleLangParser.ParameterContext ctx) {
+        locals.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterVarDeclaration(SimpleLangParser.VarDeclarationContext ctx) {
+        locals.add(ctx.IDENTIFIER().getText());
+
+        if (TypeResolver.isMap(ctx.type().getText()) && ctx.expression() == null) {
+            createdMaps.add(ctx.IDENTIFIER().getText());
+        }
+    }
+
+    @Override
+    public void enterParallelStatement(SimpleLangParser.ParallelStatementContext ctx) {
+        locals.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterFileLoopStatement(SimpleLangParser.FileLoopStatementContext ctx) {
+        locals.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterAssignment(SimpleLangParser.AssignmentContext ctx) {
+        writes.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterReadStatement(SimpleLangParser.ReadStatementContext ctx) {
+        writes.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterSpawnStatement(SimpleLangParser.SpawnStatementContext ctx) {
+        if (ctx.IDENTIFIER() != null) {
+            writes.add(ctx.IDENTIFIER().getText());
+        }
+    }
+
+    @Override
+    public void enterReduction(SimpleLangParser.ReductionContext ctx) {
+        writes.add(ctx.IDENTIFIER(1).getText());
+    }
+
+    @Override
+    public void enterWriteStatement(SimpleLangParser.WriteStatementContext ctx) {
+        usesWrite = true;
+    }
+
+    @Override
+    public void enterMethodCall(SimpleLangParser.MethodCallContext ctx) {
+        calls.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterMapCall(SimpleLangParser.MapCallContext ctx) {
+        if (changesMap(ctx)) {
+            changedMaps.add(ctx.IDENTIFIER(0).getText());
+        }
+    }
+
+    /**
+     * Indica se a operação altera o conteúdo do map (put ou remove).
+     */
+    public static boolean changesMap(SimpleLangParser.MapCallContext ctx) {
+        String operation = ctx.IDENTIFIER(1).getText();
+        return operation.equals("put") || operation.equals("remove");
+    }
+}
@@ -0,0 +1,128 @@
+package org.dimer.compiler.analysis;
+
+import org.dimer.SimpleLangParser;
+import org.dimer.runtime.MemoCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.dimer.compiler.util.CompilerConstants.*;
+
+/**
+ * Verifica os métodos marcados como 'memo'. Guardar o resultado só é correto quando a mesma chamada sempre devolve o
+ * mesmo valor: o método precisa ser puro ({@link PurityAnalysis}) e os campos que ele lê, direta ou indiretamente,
+ * não podem ser atribuídos em nenhum lugar da classe (depois do init eles nunca mudam). Os argumentos precisam
+ * caber na chave do {@link MemoCache}: até dois int ou float e até duas strings.
+ * <p>
+ * Usada pelo compilador e pelo interpretador, que rejeitam os mesmos programas com as mesmas mensagens.
+ */
+public class MemoAnalysis {
+
+    private static final int MAX_NUMBER_PARAMETERS = 2;
+    private static final int MAX_STRING_PARAMETERS = 2;
+
+    /**
+     * @return o tamanho máximo do cache de cada método memo, na ordem de declaração
+     */
+    public static Map<String, Integer> memoMethods(SimpleLangParser.ClassDeclarationContext ctx) {
+        Map<String, Integer> memoMethods = new LinkedHashMap<>();
+        Map<String, Set<String>> pureMethods = null;
+        Set<String> assignedNames = null;
+
+        for (var method : ctx.methodsSection().methodDeclaration()) {
+            if (method.memoModifier() == null) {
+                continue;
+            }
+
+            // As análises da classe só são feitas se houver algum método memo
+            if (pureMethods == null) {
+                pureMethods = PurityAnalysis.pureMethods(ctx);
+                assignedNames = AssignedNamesCollector.collect(ctx);
+            }
+
+            String methodName = method.IDENTIFIER().getText();
+            checkSignature(method, methodName);
+
+            if (!pureMethods.containsKey(methodName)) {
+                throw new IllegalArgumentException(String.format("Linha %d: método memo %s não é puro: não pode alterar "
+                        + "variáveis de classe, usar print, read, maps, concurrent ou parallel, nem chamar métodos que não são puros",
+                        method.start.getLine(), methodName));
+            }
+
+            for (var field : ctx.varSection().varDeclaration()) {
+                String fieldName = field.IDENTIFIER().getText();
+
+                if (pureMethods.get(methodName).contains(fieldName) && assignedNames.contains(fieldName)) {
+                    throw new IllegalArgumentException(String.format("Linha %d: método memo %s lê a variável de classe %s, "
+                            + "que é alterada pelo programa", method.start.getLine(), methodName, fieldName));
+                }
+            }
+
+            memoMethods.put(methodName, maxSize(method.memoModifier(), methodName));
+        }
+
+        return memoMethods;
+    }
+
+    private static void checkSignature(SimpleLangParser.MethodDeclarationContext method, String methodName) {
+        int line = method.start.getLine();
+        String returnType = method.type().getText();
+
+        if (!isKeyType(returnType)) {
+            throw new IllegalArgumentException(String.format("Linha %d: método memo %s deve retornar int, float ou string, não %s",
+                    line, methodName, returnType));
+        }
+
+        if (method.parameterList() == null) {
+            return;
+        }
+
+        int numbers = 0;
+        int strings = 0;
+
+        for (var parameter : method.parameterList().parameter()) {
+            String type = parameter.type().getText();
+
+            if (!isKeyType(type)) {
+                throw new IllegalArgumentException(String.format("Linha %d: parâmetro %s do tipo %s não suportado em método memo, "
+                        + "use int, float ou string", line, parameter.IDENTIFIER().getText(), type));
+            }
+
+            if (TYPE_STRING.equals(type)) {
+                strings++;
+            } else {
+                numbers++;
+            }
+        }
+
+        if (numbers > MAX_NUMBER_PARAMETERS || strings > MAX_STRING_PARAMETERS) {
+            throw new IllegalArgumentException(String.format("Linha %d: método memo %s aceita no máximo %d parâmetros int ou float "
+                    + "e %d parâmetros string", line, methodName, MAX_NUMBER_PARAMETERS, MAX_STRING_PARAMETERS));
+        }
+    }
+
+    private static int maxSize(SimpleLangParser.MemoModifierContext ctx, String methodName) {
+        if (ctx.INT() == null) {
+            return MemoCache.DEFAULT_MAX_SIZE;
+        }
+
+        int maxSize;
+        try {
+            maxSize = Integer.parseInt(ctx.INT().getText());
+        } catch (NumberFormatException e) {
+            maxSize = 0;
+        }
+
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(String.format("Linha %d: tamanho do cache do método memo %s deve estar entre 1 e %d",
+                    ctx.start.getLine(), methodName, Integer.MAX_VALUE));
+        }
+
+        return maxSize;
+    }
+
+    private static boolean isKeyType(String type) {
+        return TYPE_INT.equals(type) || TYPE_FLOAT.equals(type) || TYPE_STRING.equals(type);
+    }
+}
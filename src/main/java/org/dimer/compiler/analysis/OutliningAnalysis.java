@@ -0,0 +1,167 @@
+package org.dimer.compiler.analysis;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.dimer.SimpleLangParser;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Análises usadas para mover um trecho de comandos de um método para um método auxiliar: quais nomes o trecho
+ * usa, quais altera e quais continuam sendo usados depois dele.
+ * <p>
+ * Assim como o {@link AssignedNamesCollector}, as análises são apenas pelo nome: cabe a quem chama decidir quais
+ * nomes são variáveis locais. Os resultados são conservadores (um nome a mais só custa um parâmetro ou retorno
+ * a mais no método auxiliar).
+ */
+public class OutliningAnalysis {
+
+    private OutliningAnalysis() {
+    }
+
+    /**
+     * Todos os identificadores usados nos comandos, na ordem em que aparecem.
+     */
+    public static Set<String> referencedNames(List<? extends ParseTree> statements) {
+        Set<String> names = new LinkedHashSet<>();
+        statements.forEach(statement -> collectIdentifiers(statement, names));
+        return names;
+    }
+
+    /**
+     * Nomes que recebem algum valor nos comandos, incluindo as variáveis declaradas neles.
+     */
+    public static Set<String> writtenNames(List<SimpleLangParser.StatementContext> statements) {
+        Set<String> names = new LinkedHashSet<>();
+
+        for (var statement : statements) {
+            names.addAll(AssignedNamesCollector.collect(statement));
+            collectDeclarations(statement, names);
+        }
+
+        return names;
+    }
+
+    /**
+     * Variáveis declaradas nos comandos (inclusive as variáveis de laços lines e fields), inclusive dentro de blocos
+     * aninhados.
+     */
+    public static Set<String> declaredNames(List<? extends ParseTree> statements) {
+        Set<String> names = new HashSet<>();
+        statements.forEach(statement -> collectDeclarations(statement, names));
+        return names;
+    }
+
+    /**
+     * Variáveis declaradas diretamente nos comandos, fora de blocos aninhados. Após o trecho, só essas (e as que
+     * já existiam antes dele) têm valor garantido, já que um bloco aninhado pode não ter sido executado. A variável
+     * de um laço lines ou fields recebe um valor padrão antes do laço, e o bloco de um write sempre é executado,
+     * então as declarações diretas dele também contam.
+     */
+    public static Set<String> topLevelDeclarations(List<SimpleLangParser.StatementContext> statements) {
+        Set<String> names = new HashSet<>();
+
+        for (var statement : statements) {
+            if (statement.varDeclaration() != null) {
+                names.add(statement.varDeclaration().IDENTIFIER().getText());
+            } else if (statement.fileLoopStatement() != null) {
+                names.add(statement.fileLoopStatement().IDENTIFIER().getText());
+            } else if (statement.writeStatement() != null) {
+                names.addAll(topLevelDeclarations(statement.writeStatement().block().statement()));
+            }
+        }
+
+        return names;
+    }
+
+    /**
+     * Nomes que podem ser usados depois do último comando do trecho, dentro do mesmo método: os comandos seguintes
+     * de cada bloco que envolve o trecho e, quando o trecho está dentro de um laço, o laço inteiro (a próxima volta
+     * pode ler o que o trecho alterou). O corpo de um laço parallel é um método à parte, então a análise para nele.
+     *
+     * @param enclosingRange trecho que forma o corpo do método atual, quando ele próprio é um método auxiliar
+     *                       (null para métodos do programa)
+     * @param enclosingLive  nomes usados depois do {@code enclosingRange}
+     */
+    public static Set<String> liveAfter(List<SimpleLangParser.StatementContext> range,
+                                        List<SimpleLangParser.StatementContext> enclosingRange, Set<String> enclosingLive) {
+        Set<String> live = new HashSet<>();
+        ParserRuleContext node = range.getLast();
+
+        while (true) {
+            if (enclosingRange != null && enclosingRange.contains(node)) {
+                collectIdentifiersAfter(enclosingRange, node, live);
+                live.addAll(enclosingLive);
+                return live;
+            }
+
+            ParserRuleContext parent = node.getParent();
+            collectIdentifiersAfter(parent.children, node, live);
+
+            if (parent instanceof SimpleLangParser.WhileStatementContext || parent instanceof SimpleLangParser.FileLoopStatementContext) {
+                collectIdentifiers(parent, live);
+            }
+
+            if (parent instanceof SimpleLangParser.ParallelStatementContext) {
+                collectIdentifiers(parent, live);
+                return live;
+            }
+
+            if (parent instanceof SimpleLangParser.MethodDeclarationContext || parent instanceof SimpleLangParser.InitSectionContext) {
+                return live;
+            }
+
+            node = parent;
+        }
+    }
+
+    public static boolean containsReturn(ParseTree tree) {
+        return contains(tree, SimpleLangParser.ReturnStatementContext.class);
+    }
+
+    private static boolean contains(ParseTree tree, Class<? extends ParseTree> type) {
+        if (type.isInstance(tree)) {
+            return true;
+        }
+
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            if (contains(tree.getChild(i), type)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void collectIdentifiersAfter(List<? extends ParseTree> siblings, ParseTree node, Set<String> names) {
+        for (int i = siblings.indexOf(node) + 1; i < siblings.size(); i++) {
+            collectIdentifiers(siblings.get(i), names);
+        }
+    }
+
+    private static void collectIdentifiers(ParseTree tree, Set<String> names) {
+        if (tree instanceof TerminalNode terminal && terminal.getSymbol().getType() == SimpleLangParser.IDENTIFIER) {
+            names.add(terminal.getText());
+        }
+
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectIdentifiers(tree.getChild(i), names);
+        }
+    }
+
+    private static void collectDeclarations(ParseTree tree, Set<String> names) {
+        if (tree instanceof SimpleLangParser.VarDeclarationContext declaration) {
+            names.add(declaration.IDENTIFIER().getText());
+        } else if (tree instanceof SimpleLangParser.FileLoopStatementContext fileLoop) {
+            names.add(fileLoop.IDENTIFIER().getText());
+        }
+
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectDeclarations(tree.getChild(i), names);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.dimer.compiler.analysis;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.dimer.SimpleLangBaseListener;
+import org.dimer.SimpleLangParser;
+import org.dimer.compiler.TypeResolver;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Verifica se o corpo de um laço 'parallel' pode ser executado por várias threads ao mesmo tempo. O corpo só pode
+ * escrever em variáveis declaradas dentro dele e nas variáveis de redução (que em cada thread são um acumulador
+ * próprio). Escritas em campos da classe, na variável do laço ou em variáveis locais de fora do laço (que são
+ * copiadas para o corpo) são rejeitadas, assim como chamadas a métodos que alteram campos e returns. Os maps não
+ * são thread-safe, então só podem ser alterados os criados vazios dentro do corpo. Blocos write também são
+ * rejeitados, no corpo ou nos métodos chamados por ele, já que trocam a saída usada por todas as threads.
+ */
+public class ParallelBodyChecker extends SimpleLangBaseListener {
+
+    private final String loopVariable;
+    private final Set<String> reductions;
+    private final Predicate<String> isOuterLocal;
+    private final Set<String> fieldWritingMethods;
+    private final Set<String> writeMethods;
+    private final Set<String> declared = new HashSet<>();
+    private final Set<String> createdMaps = new HashSet<>();
+
+    private ParallelBodyChecker(String loopVariable, Set<String> reductions, Predicate<String> isOuterLocal,
+                                Set<String> fieldWritingMethods, Set<String> writeMethods) {
+        this.loopVariable = loopVariable;
+        this.reductions = reductions;
+        this.isOuterLocal = isOuterLocal;
+        this.fieldWritingMethods = fieldWritingMethods;
+        this.writeMethods = writeMethods;
+    }
+
+    /**
+     * @param isOuterLocal indica se o nome é uma variável local do método que contém o laço
+     * @param writeMethods métodos que usam write, ver {@link FieldWritesAnalysis#methodsUsingWrite}
+     */
+    public static void check(SimpleLangParser.ParallelStatementContext ctx, Set<String> reductions,
+                             Predicate<String> isOuterLocal, Set<String> fieldWritingMethods, Set<String> writeMethods) {
+        ParallelBodyChecker checker = new ParallelBodyChecker(ctx.IDENTIFIER().getText(), reductions, isOuterLocal,
+                fieldWritingMethods, writeMethods);
+        ParseTreeWalker.DEFAULT.walk(checker, ctx.block());
+    }
+
+    @Override
+    public void enterVarDeclaration(SimpleLangParser.VarDeclarationContext ctx) {
+        declared.add(ctx.IDENTIFIER().getText());
+
+        if (TypeResolver.isMap(ctx.type().getText()) && ctx.expression() == null) {
+            createdMaps.add(ctx.IDENTIFIER().getText());
+        }
+    }
+
+    @Override
+    public void enterParallelStatement(SimpleLangParser.ParallelStatementContext ctx) {
+        declared.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterFileLoopStatement(SimpleLangParser.FileLoopStatementContext ctx) {
+        declared.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterWriteStatement(SimpleLangParser.WriteStatementContext ctx) {
+        // O write troca a saída da instância inteira, que as outras threads do laço também usam
+        throw new IllegalArgumentException(String.format("Linha %d: write não é permitido dentro de um laço parallel", ctx.start.getLine()));
+    }
+
+    @Override
+    public void enterAssignment(SimpleLangParser.AssignmentContext ctx) {
+        checkWrite(ctx, ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterReadStatement(SimpleLangParser.ReadStatementContext ctx) {
+        checkWrite(ctx, ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterSpawnStatement(SimpleLangParser.SpawnStatementContext ctx) {
+        if (ctx.IDENTIFIER() != null) {
+            checkWrite(ctx, ctx.IDENTIFIER().getText());
+        }
+    }
+
+    @Override
+    public void enterReduction(SimpleLangParser.ReductionContext ctx) {
+        checkWrite(ctx, ctx.IDENTIFIER(1).getText());
+    }
+
+    @Override
+    public void enterMethodCall(SimpleLangParser.MethodCallContext ctx) {
+        String methodName = ctx.IDENTIFIER().getText();
+
+        if (fieldWritingMethods.contains(methodName)) {
+            throw new IllegalArgumentException(String.format("Linha %d: método %s altera variáveis de classe e não pode ser chamado dentro de um laço parallel",
+                    ctx.start.getLine(), methodName));
+        }
+
+        if (writeMethods.contains(methodName)) {
+            throw new IllegalArgumentException(String.format("Linha %d: método %s usa write e não pode ser chamado dentro de um laço parallel",
+                    ctx.start.getLine(), methodName));
+        }
+    }
+
+    @Override
+    public void enterMapCall(SimpleLangParser.MapCallContext ctx) {
+        String mapName = ctx.IDENTIFIER(0).getText();
+
+        if (FieldWritesAnalysis.changesMap(ctx) && !createdMaps.contains(mapName)) {
+            throw new IllegalArgumentException(String.format("Linha %d: map %s não pode ser alterado dentro de um laço parallel; apenas maps criados dentro do laço",
+                    ctx.start.getLine(), mapName));
+        }
+    }
+
+    @Override
+    public void enterReturnStatement(SimpleLangParser.ReturnStatementContext ctx) {
+        throw new IllegalArgumentException(String.format("Linha %d: return não é permitido dentro de um laço parallel", ctx.start.getLine()));
+    }
+
+    private void checkWrite(ParserRuleContext ctx, String name) {
+        if (name.equals(loopVariable)) {
+            throw new IllegalArgumentException(String.format("Linha %d: variável %s do laço parallel não pode ser alterada", ctx.start.getLine(), name));
+        }
+
+        if (declared.contains(name) || reductions.contains(name)) {
+            return;
+        }
+
+        if (isOuterLocal.test(name)) {
+            throw new IllegalArgumentException(String.format("Linha %d: variável local %s declarada fora do laço parallel não pode ser alterada dentro dele; use uma redução",
+                    ctx.start.getLine(), name));
+        }
+
+        throw new IllegalArgumentException(String.format("Linha %d: variável de classe %s não pode ser alterada dentro de um laço parallel",
+                ctx.start.getLine(), name));
+    }
+}
@@ -0,0 +1,147 @@
+package org.dimer.compiler.analysis;
+
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.dimer.SimpleLangBaseListener;
+import org.dimer.SimpleLangParser;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Descobre quais métodos são puros: não alteram variáveis de classe, não usam print, read nem arquivos, não têm blocos
+ * concurrent nem laços parallel, não usam maps e só chamam outros métodos puros. Uma chamada a um método puro com os mesmos
+ * argumentos sempre devolve o mesmo valor, enquanto os campos lidos por ele não mudarem.
+ * <p>
+ * Assim como o {@link FieldWritesAnalysis}, a análise é apenas pelo nome: qualquer nome usado dentro do método que
+ * não é parâmetro nem variável declarada no método é considerado um campo.
+ */
+public class PurityAnalysis extends SimpleLangBaseListener {
+
+    private final Set<String> locals = new HashSet<>();
+    private final Set<String> writes = new HashSet<>();
+    private final Set<String> reads = new HashSet<>();
+    private final Set<String> calls = new HashSet<>();
+    private boolean sideEffects = false;
+
+    /**
+     * @return para cada método puro, os campos que ele lê (inclusive através dos métodos que chama)
+     */
+    public static Map<String, Set<String>> pureMethods(SimpleLangParser.ClassDeclarationContext ctx) {
+        Map<String, PurityAnalysis> analyses = new HashMap<>();
+
+        for (var method : ctx.methodsSection().methodDeclaration()) {
+            PurityAnalysis analysis = new PurityAnalysis();
+            ParseTreeWalker.DEFAULT.walk(analysis, method);
+
+            analysis.writes.removeAll(analysis.locals);
+            analysis.reads.removeAll(analysis.locals);
+            analyses.put(method.IDENTIFIER().getText(), analysis);
+        }
+
+        Map<String, Set<String>> pure = new HashMap<>();
+        analyses.forEach((name, analysis) -> {
+            if (!analysis.sideEffects && analysis.writes.isEmpty()) {
+                pure.put(name, new HashSet<>(analysis.reads));
+            }
+        });
+
+        // Remove quem chama métodos impuros (ou inexistentes) e acumula os campos lidos pelos métodos chamados,
+        // até não haver mudanças. Métodos recursivos continuam puros se não fizerem mais nada.
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (var entry : analyses.entrySet()) {
+                Set<String> fieldsRead = pure.get(entry.getKey());
+                if (fieldsRead == null) {
+                    continue;
+                }
+
+                for (String callee : entry.getValue().calls) {
+                    Set<String> calleeFieldsRead = pure.get(callee);
+
+                    if (calleeFieldsRead == null) {
+                        pure.remove(entry.getKey());
+                        changed = true;
+                        break;
+                    }
+
+                    changed |= fieldsRead.addAll(calleeFieldsRead);
+                }
+            }
+        }
+
+        return pure;
+    }
+
+    @Override
+    public void enterParameter(SimpleLangParser.ParameterContext ctx) {
+        locals.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterVarDeclaration(SimpleLangParser.VarDeclarationContext ctx) {
+        locals.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterAssignment(SimpleLangParser.AssignmentContext ctx) {
+        writes.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterMethodCall(SimpleLangParser.MethodCallContext ctx) {
+        calls.add(ctx.IDENTIFIER().getText());
+    }
+
+    @Override
+    public void enterPrintStatement(SimpleLangParser.PrintStatementContext ctx) {
+        sideEffects = true;
+    }
+
+    @Override
+    public void enterReadStatement(SimpleLangParser.ReadStatementContext ctx) {
+        sideEffects = true;
+    }
+
+    @Override
+    public void enterFileLoopStatement(SimpleLangParser.FileLoopStatementContext ctx) {
+        locals.add(ctx.IDENTIFIER().getText());
+        // O conteúdo do arquivo pode mudar entre duas chamadas
+        sideEffects = true;
+    }
+
+    @Override
+    public void enterWriteStatement(SimpleLangParser.WriteStatementContext ctx) {
+        sideEffects = true;
+    }
+
+    @Override
+    public void enterConcurrentStatement(SimpleLangParser.ConcurrentStatementContext ctx) {
+        sideEffects = true;
+    }
+
+    @Override
+    public void enterParallelStatement(SimpleLangParser.ParallelStatementContext ctx) {
+        // Além de usar outras threads, somas de float podem mudar de uma execução para outra
+        sideEffects = true;
+    }
+
+    @Override
+    public void enterMapCall(SimpleLangParser.MapCallContext ctx) {
+        // O conteúdo de um map pode mudar por outra variável que aponta para ele, sem atribuição ao nome lido aqui
+        sideEffects = true;
+    }
+
+    @Override
+    public void visitTerminal(TerminalNode node) {
+        // Os nomes do próprio método e dos métodos chamados não são leituras
+        if (node.getSymbol().getType() == SimpleLangParser.IDENTIFIER
+                && !(node.getParent() instanceof SimpleLangParser.MethodCallContext)
+                && !(node.getParent() instanceof SimpleLangParser.MethodDeclarationContext)) {
+            reads.add(node.getText());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.dimer.compiler.data;
+
+public record CompiledClass(String internalName, byte[] bytecode) {
+
+    /**
+     * Nome da classe no formato usado pelo {@link ClassLoader} (ex: org.dimer.code.Hello)
+     */
+    public String binaryName() {
+        return internalName.replace('/', '.');
+    }
+}
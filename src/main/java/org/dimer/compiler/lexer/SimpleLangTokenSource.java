@@ -0,0 +1,336 @@
+package org.dimer.compiler.lexer;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+import org.dimer.SimpleLangLexer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.dimer.SimpleLangLexer.*;
+
+/**
+ * Lexer escrito à mão, equivalente ao {@link SimpleLangLexer} gerado pelo ANTLR: produz os mesmos tipos de token,
+ * com as mesmas posições (índice, linha e coluna) e as mesmas mensagens de erro, mas sem simular o ATN a cada
+ * caractere. Pode ser usado diretamente no lugar do lexer gerado:
+ * <pre>
+ *     new SimpleLangParser(new CommonTokenStream(new SimpleLangTokenSource(input)))
+ * </pre>
+ * Assim como no ANTLR, quando duas regras reconhecem o texto vence a que consome mais caracteres e, em caso de
+ * empate, a declarada primeiro na gramática. Isso importa nos comentários: '## a ## b' até o fim da linha é um
+ * COMMENT (mais longo que o BLOCK_COMMENT '## a ##'). Após um erro, a recuperação também segue a do ANTLR:
+ * o caractere em que o reconhecimento falhou é descartado junto com o que já tinha sido lido.
+ * <p>
+ * As palavras-chave são lidas do vocabulário do lexer gerado, então novas palavras-chave da gramática são
+ * reconhecidas sem alterar esta classe. Novos símbolos e regras precisam ser adicionados aqui.
+ */
+public class SimpleLangTokenSource implements TokenSource {
+
+    // Palavras-chave agrupadas pela primeira letra, comparadas direto com os code points da entrada sem criar Strings
+    private static final Keyword[][] KEYWORDS = buildKeywords();
+
+    private record Keyword(int[] text, int type) {
+    }
+
+    private final CharStream input;
+    private final int size;
+    private Pair<TokenSource, CharStream> source;
+    private TokenFactory<?> factory = CommonTokenFactory.DEFAULT;
+    private ANTLRErrorListener errorListener = ConsoleErrorListener.INSTANCE;
+
+    // Sempre igual a input.index(): os caracteres são lidos com LA relativo à posição atual, como no Lexer do ANTLR
+    private int index;
+    private int line = 1;
+    private int column = 0;
+
+    public SimpleLangTokenSource(CharStream input) {
+        this.input = input;
+        this.size = input.size();
+        this.index = input.index();
+    }
+
+    @Override
+    public Token nextToken() {
+        if (source == null) {
+            source = new Pair<>(this, input);
+        }
+
+        while (true) {
+            if (index >= size) {
+                return factory.create(source, Token.EOF, null, Token.DEFAULT_CHANNEL, index, index - 1, line, column);
+            }
+
+            int start = index;
+            int startLine = line;
+            int startColumn = column;
+            int c = charAt(index);
+            int type;
+
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                while (index < size && isWhitespace(charAt(index))) {
+                    consume();
+                }
+                continue;
+            }
+
+            if (c == '#') {
+                skipComment();
+                continue;
+            }
+
+            if (isLetter(c)) {
+                int end = index + 1;
+                while (end < size && (isLetter(charAt(end)) || isDigit(charAt(end)))) {
+                    end++;
+                }
+                type = keywordOrIdentifier(index, end);
+                consumeUntil(end);
+            } else if (isDigit(c)) {
+                int end = skipDigits(index);
+                type = INT;
+
+                if (end + 1 < size && charAt(end) == '.' && isDigit(charAt(end + 1))) {
+                    end = skipDigits(end + 1);
+                    type = FLOAT;
+                }
+                consumeUntil(end);
+            } else if (c == '"') {
+                int close = index + 1;
+                while (close < size && charAt(close) != '"') {
+                    close++;
+                }
+
+                if (close == size) {
+                    // String sem fechamento: o ANTLR lê até o fim do arquivo antes de desistir
+                    consumeUntil(close);
+                    recover(start, startLine, startColumn);
+                    continue;
+                }
+
+                type = STRING;
+                consumeUntil(close + 1);
+            } else {
+                type = operator(c, index + 1 < size ? charAt(index + 1) : -1);
+
+                if (type == Token.INVALID_TYPE) {
+                    // '!' inicia '!=': o ANTLR consome o primeiro caractere antes de falhar
+                    if (c == '!') {
+                        consume();
+                    }
+                    recover(start, startLine, startColumn);
+                    continue;
+                }
+
+                consumeUntil(index + operatorLength(type));
+            }
+
+            return factory.create(source, type, null, Token.DEFAULT_CHANNEL, start, index - 1, startLine, startColumn);
+        }
+    }
+
+    /**
+     * COMMENT vai até o fim da linha e BLOCK_COMMENT até o primeiro '##' após a abertura; vence o mais longo.
+     * Ambos são descartados, então só importa onde termina o maior.
+     */
+    private void skipComment() {
+        int lineEnd = index + 1;
+        while (lineEnd < size && charAt(lineEnd) != '\n' && charAt(lineEnd) != '\r') {
+            lineEnd++;
+        }
+
+        int end = lineEnd;
+
+        if (index + 1 < size && charAt(index + 1) == '#') {
+            for (int i = index + 2; i + 1 < size; i++) {
+                if (charAt(i) == '#' && charAt(i + 1) == '#') {
+                    end = Math.max(end, i + 2);
+                    break;
+                }
+            }
+        }
+
+        consumeUntil(end);
+    }
+
+    private static int operator(int c, int next) {
+        return switch (c) {
+            case '{' -> LBRACE;
+            case '}' -> RBRACE;
+            case '(' -> LPAREN;
+            case ')' -> RPAREN;
+            case ':' -> COLON;
+            case ';' -> SEMICOLON;
+            case ',' -> COMMA;
+            case '+' -> PLUS;
+            case '-' -> MINUS;
+            case '*' -> MULT;
+            case '/' -> DIV;
+            case '=' -> next == '=' ? EQUAL : ASSIGN;
+            case '>' -> next == '=' ? GTE : GT;
+            case '<' -> next == '=' ? LTE : LT;
+            case '!' -> next == '=' ? NOTEQUAL : Token.INVALID_TYPE;
+            case '.' -> next == '.' ? DOTDOT : DOT;
+            default -> Token.INVALID_TYPE;
+        };
+    }
+
+    private static int operatorLength(int type) {
+        return switch (type) {
+            case GTE, LTE, EQUAL, NOTEQUAL, DOTDOT -> 2;
+            default -> 1;
+        };
+    }
+
+    private int keywordOrIdentifier(int start, int end) {
+        int first = charAt(start);
+
+        if (first >= 'a' && first <= 'z') {
+            for (Keyword keyword : KEYWORDS[first - 'a']) {
+                if (matches(keyword.text(), start, end)) {
+                    return keyword.type();
+                }
+            }
+        }
+
+        return IDENTIFIER;
+    }
+
+    private boolean matches(int[] keyword, int start, int end) {
+        if (keyword.length != end - start) {
+            return false;
+        }
+
+        for (int i = 0; i < keyword.length; i++) {
+            if (keyword[i] != charAt(start + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reporta o erro com o texto lido desde o início do token até o caractere que causou a falha, que também é
+     * descartado (mesmo comportamento do Lexer.recover do ANTLR).
+     */
+    private void recover(int start, int startLine, int startColumn) {
+        String errorText = input.getText(Interval.of(start, Math.min(index, size - 1)));
+
+        errorListener.syntaxError(null, null, startLine, startColumn,
+                "token recognition error at: '" + escape(errorText) + "'", null);
+
+        if (index < size) {
+            consume();
+        }
+    }
+
+    private void consume() {
+        if (input.LA(1) == '\n') {
+            line++;
+            column = 0;
+        } else {
+            column++;
+        }
+        input.consume();
+        index++;
+    }
+
+    /**
+     * Caractere na posição, que nunca está antes da atual.
+     */
+    private int charAt(int position) {
+        return input.LA(position - index + 1);
+    }
+
+    private void consumeUntil(int end) {
+        while (index < end) {
+            consume();
+        }
+    }
+
+    private int skipDigits(int position) {
+        while (position < size && isDigit(charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static boolean isLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String escape(String text) {
+        return text.replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+    }
+
+    private static Keyword[][] buildKeywords() {
+        List<List<Keyword>> byFirstLetter = new ArrayList<>();
+        for (int i = 0; i < 26; i++) {
+            byFirstLetter.add(new ArrayList<>());
+        }
+
+        for (int type = 1; type <= SimpleLangLexer.VOCABULARY.getMaxTokenType(); type++) {
+            String literal = SimpleLangLexer.VOCABULARY.getLiteralName(type);
+
+            if (literal != null && literal.matches("'[a-z]+'")) {
+                String word = literal.substring(1, literal.length() - 1);
+                byFirstLetter.get(word.charAt(0) - 'a').add(new Keyword(word.codePoints().toArray(), type));
+            }
+        }
+
+        Keyword[][] keywords = new Keyword[26][];
+        for (int i = 0; i < 26; i++) {
+            keywords[i] = byFirstLetter.get(i).toArray(new Keyword[0]);
+        }
+        return keywords;
+    }
+
+    public void setErrorListener(ANTLRErrorListener errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        return column;
+    }
+
+    @Override
+    public CharStream getInputStream() {
+        return input;
+    }
+
+    @Override
+    public String getSourceName() {
+        return input.getSourceName();
+    }
+
+    @Override
+    public void setTokenFactory(TokenFactory<?> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+        return factory;
+    }
+}
@@ -0,0 +1,170 @@
+package org.dimer.compiler.pass;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Otimizações de constantes numéricas:
+ * <ul>
+ *     <li>operações entre duas constantes seguidas (ex: {@code (20 - 2)}) e conversões de constantes de int para
+ *     float são substituídas pelo resultado;</li>
+ *     <li>o gerador carrega todo literal com LDC, que ocupa 2 ou 3 bytes e uma entrada no pool de constantes.
+ *     Inteiros pequenos passam a usar ICONST (1 byte), BIPUSH (2) ou SIPUSH (3), e os floats 0, 1 e 2, FCONST.</li>
+ * </ul>
+ * As contas são feitas em Java, que segue as mesmas regras da JVM para int e float. Divisões e restos por zero
+ * ficam como estão, para continuar lançando a exceção em tempo de execução.
+ */
+public class ConstantsPass implements Pass {
+
+    @Override
+    public String name() {
+        return "constants";
+    }
+
+    @Override
+    public void run(ClassNode classNode) {
+        for (MethodNode method : classNode.methods) {
+            fold(method.instructions);
+            compact(method.instructions);
+        }
+    }
+
+    private static void fold(InsnList instructions) {
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            for (AbstractInsnNode instruction = instructions.getFirst(); instruction != null; instruction = instruction.getNext()) {
+                Number value = constantValue(instruction);
+                AbstractInsnNode next = instruction.getNext();
+                if (value == null || next == null) {
+                    continue;
+                }
+
+                Number result = null;
+                AbstractInsnNode last = next;
+
+                if (next.getOpcode() == I2F && value instanceof Integer intValue) {
+                    result = (float) intValue;
+                } else if (constantValue(next) != null && next.getNext() != null) {
+                    // Os três nós são vizinhos, sem labels entre eles, então nenhum salto cai no meio da sequência
+                    last = next.getNext();
+                    result = evaluate(value, constantValue(next), last.getOpcode());
+                }
+
+                if (result != null) {
+                    AbstractInsnNode replacement = new LdcInsnNode(result);
+                    instructions.insert(last, replacement);
+                    removeRange(instructions, instruction, last);
+                    instruction = replacement;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private static Number evaluate(Number left, Number right, int opcode) {
+        if (left instanceof Integer a && right instanceof Integer b) {
+            return switch (opcode) {
+                case IADD -> a + b;
+                case ISUB -> a - b;
+                case IMUL -> a * b;
+                case IDIV -> b != 0 ? a / b : null;
+                case IREM -> b != 0 ? a % b : null;
+                default -> null;
+            };
+        }
+
+        if (left instanceof Float a && right instanceof Float b) {
+            return switch (opcode) {
+                case FADD -> a + b;
+                case FSUB -> a - b;
+                case FMUL -> a * b;
+                case FDIV -> a / b;
+                case FREM -> a % b;
+                default -> null;
+            };
+        }
+
+        return null;
+    }
+
+    private static void compact(InsnList instructions) {
+        for (AbstractInsnNode instruction : instructions.toArray()) {
+            Number value = constantValue(instruction);
+
+            if (value != null && instruction.getOpcode() == LDC) {
+                instructions.set(instruction, push(value));
+            }
+        }
+    }
+
+    private static void removeRange(InsnList instructions, AbstractInsnNode first, AbstractInsnNode last) {
+        AbstractInsnNode instruction = first;
+
+        while (instruction != last) {
+            AbstractInsnNode next = instruction.getNext();
+            instructions.remove(instruction);
+            instruction = next;
+        }
+
+        instructions.remove(last);
+    }
+
+    /**
+     * @return o int ou float empilhado pela instrução, ou null se ela não empilha uma constante numérica
+     */
+    static Number constantValue(AbstractInsnNode instruction) {
+        int opcode = instruction.getOpcode();
+
+        if (opcode >= ICONST_M1 && opcode <= ICONST_5) {
+            return opcode - ICONST_0;
+        }
+        if (opcode >= FCONST_0 && opcode <= FCONST_2) {
+            return (float) (opcode - FCONST_0);
+        }
+        if (opcode == BIPUSH || opcode == SIPUSH) {
+            return ((IntInsnNode) instruction).operand;
+        }
+        if (opcode == LDC && (((LdcInsnNode) instruction).cst instanceof Integer || ((LdcInsnNode) instruction).cst instanceof Float)) {
+            return (Number) ((LdcInsnNode) instruction).cst;
+        }
+
+        return null;
+    }
+
+    /**
+     * A menor instrução que empilha a constante.
+     */
+    static AbstractInsnNode push(Number value) {
+        if (value instanceof Integer intValue) {
+            if (intValue >= -1 && intValue <= 5) {
+                return new InsnNode(ICONST_0 + intValue);
+            }
+            if (intValue >= Byte.MIN_VALUE && intValue <= Byte.MAX_VALUE) {
+                return new IntInsnNode(BIPUSH, intValue);
+            }
+            if (intValue >= Short.MIN_VALUE && intValue <= Short.MAX_VALUE) {
+                return new IntInsnNode(SIPUSH, intValue);
+            }
+        } else {
+            // Compara os bits para não trocar -0.0f por FCONST_0
+            int bits = Float.floatToRawIntBits(value.floatValue());
+            for (int i = 0; i <= 2; i++) {
+                if (bits == Float.floatToRawIntBits(i)) {
+                    return new InsnNode(FCONST_0 + i);
+                }
+            }
+        }
+
+        return new LdcInsnNode(value);
+    }
+}
@@ -0,0 +1,113 @@
+package org.dimer.compiler.pass;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Troca chamadas a métodos sem parâmetros que apenas devolvem um campo ({@code return idade;}) ou uma constante
+ * pelo próprio acesso ao campo ou pela constante, economizando a chamada enquanto o método ainda é interpretado
+ * ou compilado pelo C1.
+ * <p>
+ * Só são trocadas chamadas a métodos que não podem ser sobrescritos: o compilador gera as classes como final, e
+ * em uma classe que não é final apenas métodos private ou final são considerados. Assim o método executado é sempre
+ * o da própria classe. Com profiling os métodos começam pelo contador de entradas e não são considerados simples,
+ * mantendo as contagens corretas.
+ */
+public class InlineGettersPass implements Pass {
+
+    @Override
+    public String name() {
+        return "inline-getters";
+    }
+
+    @Override
+    public void run(ClassNode classNode) {
+        Map<String, List<AbstractInsnNode>> getters = new HashMap<>();
+
+        for (MethodNode method : classNode.methods) {
+            List<AbstractInsnNode> body = getterBody(classNode, method);
+            if (body != null) {
+                getters.put(method.name + method.desc, body);
+            }
+        }
+
+        if (getters.isEmpty()) {
+            return;
+        }
+
+        for (MethodNode method : classNode.methods) {
+            for (AbstractInsnNode instruction : method.instructions.toArray()) {
+                if (!(instruction instanceof MethodInsnNode call) || call.getOpcode() != INVOKEVIRTUAL
+                        || !call.owner.equals(classNode.name)) {
+                    continue;
+                }
+
+                List<AbstractInsnNode> body = getters.get(call.name + call.desc);
+                if (body == null) {
+                    continue;
+                }
+
+                AbstractInsnNode value = body.getLast().clone(Map.of());
+                if (body.size() == 2) {
+                    // GETFIELD usa o próprio objeto que receberia a chamada
+                    method.instructions.set(call, value);
+                } else if (call.getPrevious() instanceof VarInsnNode receiver && receiver.getOpcode() == ALOAD && receiver.var == 0) {
+                    method.instructions.remove(receiver);
+                    method.instructions.set(call, value);
+                } else {
+                    method.instructions.insertBefore(call, new InsnNode(POP));
+                    method.instructions.set(call, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return as instruções que produzem o valor devolvido ({@code ALOAD 0, GETFIELD} ou uma constante), ou null se
+     * o método não é um getter simples
+     */
+    private static List<AbstractInsnNode> getterBody(ClassNode classNode, MethodNode method) {
+        boolean overridable = (classNode.access & ACC_FINAL) == 0 && (method.access & (ACC_PRIVATE | ACC_FINAL)) == 0;
+
+        if (overridable || (method.access & ACC_STATIC) != 0 || method.name.startsWith("<") || !method.desc.startsWith("()")
+                || !method.tryCatchBlocks.isEmpty()) {
+            return null;
+        }
+
+        List<AbstractInsnNode> body = new ArrayList<>();
+        for (AbstractInsnNode instruction : method.instructions) {
+            if (instruction.getOpcode() >= 0) {
+                body.add(instruction);
+            }
+        }
+
+        if (body.size() < 2 || body.size() > 3 || body.getLast().getOpcode() < IRETURN || body.getLast().getOpcode() > ARETURN) {
+            return null;
+        }
+
+        body.removeLast();
+
+        if (body.size() == 2 && body.getFirst() instanceof VarInsnNode self && self.getOpcode() == ALOAD && self.var == 0
+                && body.getLast() instanceof FieldInsnNode field && field.getOpcode() == GETFIELD && field.owner.equals(classNode.name)) {
+            return body;
+        }
+
+        if (body.size() == 1 && (ConstantsPass.constantValue(body.getFirst()) != null || body.getFirst().getOpcode() == LDC)) {
+            return body;
+        }
+
+        return null;
+    }
+}
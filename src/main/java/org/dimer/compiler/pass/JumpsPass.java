@@ -0,0 +1,231 @@
+package org.dimer.compiler.pass;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Limpeza dos saltos gerados pelos ifs e laços, repetida até não haver mais mudanças:
+ * <ul>
+ *     <li>{@code IFxx L1; GOTO L2; L1:} vira {@code IF!xx L2}, como nas comparações do gerador, que saltam para o
+ *     'then' e usam um GOTO para o 'else';</li>
+ *     <li>saltos para um GOTO passam a saltar direto para o destino dele;</li>
+ *     <li>um GOTO para a instrução seguinte é removido;</li>
+ *     <li>instruções depois de um GOTO, return ou ATHROW que não são destino de nenhum salto nunca executam e
+ *     são removidas (ex: o GOTO para o fim do if gerado depois de um 'return' no 'then');</li>
+ *     <li>trechos protegidos por um handler que ficaram sem instruções (ex: o código depois de um 'return' dentro
+ *     de um laço lines) são removidos da tabela de exceções, que não aceita trechos vazios.</li>
+ * </ul>
+ * Os labels nunca são removidos, apenas as instruções. Os números de linha do código removido também são
+ * removidos, assim como as variáveis declaradas apenas no código removido do fim do método, que começariam
+ * depois da última instrução.
+ */
+public class JumpsPass implements Pass {
+
+    @Override
+    public String name() {
+        return "jumps";
+    }
+
+    @Override
+    public void run(ClassNode classNode) {
+        for (MethodNode method : classNode.methods) {
+            boolean changed = true;
+
+            while (changed) {
+                changed = invertConditions(method.instructions);
+                changed |= threadJumps(method.instructions);
+                changed |= removeJumpsToNext(method.instructions);
+                changed |= removeUnreachable(method);
+                changed |= removeEmptyTryCatchBlocks(method);
+            }
+
+            if (method.localVariables != null) {
+                method.localVariables.removeIf(variable -> nextInstruction(variable.start) == null);
+            }
+        }
+    }
+
+    private static boolean invertConditions(InsnList instructions) {
+        boolean changed = false;
+
+        for (AbstractInsnNode instruction : instructions.toArray()) {
+            if (!(instruction instanceof JumpInsnNode condition) || condition.getOpcode() == GOTO) {
+                continue;
+            }
+
+            AbstractInsnNode next = nextInstruction(condition.getNext());
+            if (next == null || next.getOpcode() != GOTO || !labelsBefore(next.getNext()).contains(condition.label)
+                    || !labelsBefore(condition.getNext()).isEmpty()) {
+                continue;
+            }
+
+            // Nenhum label entre o IF e o GOTO: nenhum salto cai no GOTO, que pode ser removido
+            condition.setOpcode(inverse(condition.getOpcode()));
+            condition.label = ((JumpInsnNode) next).label;
+            instructions.remove(next);
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    private static boolean threadJumps(InsnList instructions) {
+        boolean changed = false;
+
+        for (AbstractInsnNode instruction : instructions) {
+            if (!(instruction instanceof JumpInsnNode jump)) {
+                continue;
+            }
+
+            // GOTOs que formam um ciclo (ex: 'L1: GOTO L2; L2: GOTO L1') ficam como estão
+            Set<LabelNode> visited = new HashSet<>();
+            LabelNode target = jump.label;
+            boolean cycle = false;
+            while (true) {
+                if (!visited.add(target)) {
+                    cycle = true;
+                    break;
+                }
+
+                AbstractInsnNode destination = nextInstruction(target);
+                if (destination == null || destination.getOpcode() != GOTO) {
+                    break;
+                }
+                target = ((JumpInsnNode) destination).label;
+            }
+
+            if (target != jump.label && !cycle) {
+                jump.label = target;
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    private static boolean removeJumpsToNext(InsnList instructions) {
+        boolean changed = false;
+
+        for (AbstractInsnNode instruction : instructions.toArray()) {
+            if (instruction.getOpcode() == GOTO && labelsBefore(instruction.getNext()).contains(((JumpInsnNode) instruction).label)) {
+                instructions.remove(instruction);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    private static boolean removeUnreachable(MethodNode method) {
+        Set<LabelNode> targets = jumpTargets(method);
+        boolean changed = false;
+        boolean reachable = true;
+
+        for (AbstractInsnNode instruction : method.instructions.toArray()) {
+            if (instruction instanceof LabelNode label && targets.contains(label)) {
+                reachable = true;
+            } else if (!reachable && (instruction.getOpcode() >= 0 || instruction instanceof LineNumberNode)) {
+                method.instructions.remove(instruction);
+                changed = true;
+                continue;
+            }
+
+            if (endsFlow(instruction.getOpcode())) {
+                reachable = false;
+            }
+        }
+
+        return changed;
+    }
+
+    private static boolean removeEmptyTryCatchBlocks(MethodNode method) {
+        return method.tryCatchBlocks.removeIf(tryCatch -> labelsBefore(tryCatch.start).contains(tryCatch.end));
+    }
+
+    private static Set<LabelNode> jumpTargets(MethodNode method) {
+        Set<LabelNode> targets = new HashSet<>();
+
+        for (AbstractInsnNode instruction : method.instructions) {
+            if (instruction instanceof JumpInsnNode jump) {
+                targets.add(jump.label);
+            } else if (instruction instanceof TableSwitchInsnNode tableSwitch) {
+                targets.add(tableSwitch.dflt);
+                targets.addAll(tableSwitch.labels);
+            } else if (instruction instanceof LookupSwitchInsnNode lookupSwitch) {
+                targets.add(lookupSwitch.dflt);
+                targets.addAll(lookupSwitch.labels);
+            }
+        }
+
+        for (TryCatchBlockNode tryCatch : method.tryCatchBlocks) {
+            targets.add(tryCatch.handler);
+        }
+
+        return targets;
+    }
+
+    private static boolean endsFlow(int opcode) {
+        return opcode == GOTO || opcode == ATHROW || (opcode >= IRETURN && opcode <= RETURN);
+    }
+
+    /**
+     * Primeira instrução real a partir do nó (inclusive), pulando labels, frames e números de linha.
+     */
+    private static AbstractInsnNode nextInstruction(AbstractInsnNode node) {
+        while (node != null && node.getOpcode() < 0) {
+            node = node.getNext();
+        }
+        return node;
+    }
+
+    /**
+     * Labels entre o nó (inclusive) e a próxima instrução real: todos marcam a mesma posição do código.
+     */
+    private static Set<LabelNode> labelsBefore(AbstractInsnNode node) {
+        Set<LabelNode> labels = new HashSet<>();
+
+        while (node != null && node.getOpcode() < 0) {
+            if (node instanceof LabelNode label) {
+                labels.add(label);
+            }
+            node = node.getNext();
+        }
+
+        return labels;
+    }
+
+    private static int inverse(int opcode) {
+        return switch (opcode) {
+            case IFEQ -> IFNE;
+            case IFNE -> IFEQ;
+            case IFLT -> IFGE;
+            case IFGE -> IFLT;
+            case IFGT -> IFLE;
+            case IFLE -> IFGT;
+            case IF_ICMPEQ -> IF_ICMPNE;
+            case IF_ICMPNE -> IF_ICMPEQ;
+            case IF_ICMPLT -> IF_ICMPGE;
+            case IF_ICMPGE -> IF_ICMPLT;
+            case IF_ICMPGT -> IF_ICMPLE;
+            case IF_ICMPLE -> IF_ICMPGT;
+            case IF_ACMPEQ -> IF_ACMPNE;
+            case IF_ACMPNE -> IF_ACMPEQ;
+            case IFNULL -> IFNONNULL;
+            case IFNONNULL -> IFNULL;
+            default -> throw new IllegalArgumentException("Salto sem condição: " + opcode);
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package org.dimer.compiler.pass;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Otimizações que podem ser ligadas e desligadas individualmente ({@code -f<nome>} / {@code -fno-<nome>}) ou em
+ * grupo pelos níveis {@code -O0}, {@code -O1} e {@code -O2}.
+ * <p>
+ * As que dependem da árvore do programa (chamadas em cauda e chamadas puras) são feitas pelo próprio gerador de
+ * bytecode e não têm passe. As demais são passes sobre a classe gerada, executados na ordem em que aparecem aqui.
+ */
+public enum Optimization {
+
+    TAIL_CALLS("tail-calls", 1, null),
+    PURE_CALLS("pure-calls", 2, null),
+    CONSTANTS("constants", 1, ConstantsPass::new),
+    JUMPS("jumps", 1, JumpsPass::new),
+    INLINE_GETTERS("inline-getters", 2, InlineGettersPass::new);
+
+    public static final int MAX_LEVEL = 2;
+
+    private final String flag;
+    private final int level;
+    private final Supplier<Pass> pass;
+
+    Optimization(String flag, int level, Supplier<Pass> pass) {
+        this.flag = flag;
+        this.level = level;
+        this.pass = pass;
+    }
+
+    public String flag() {
+        return flag;
+    }
+
+    /**
+     * @return o passe que aplica a otimização, ou null se ela é feita durante a geração do bytecode
+     */
+    public Pass createPass() {
+        return pass != null ? pass.get() : null;
+    }
+
+    /**
+     * Otimizações ativas no nível informado (0 = nenhuma).
+     */
+    public static Set<Optimization> forLevel(int level) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("Nível de otimização inválido: " + level);
+        }
+
+        Set<Optimization> optimizations = EnumSet.noneOf(Optimization.class);
+        for (Optimization optimization : values()) {
+            if (optimization.level <= level) {
+                optimizations.add(optimization);
+            }
+        }
+
+        return optimizations;
+    }
+
+    public static Optimization fromFlag(String flag) {
+        for (Optimization optimization : values()) {
+            if (optimization.flag.equals(flag)) {
+                return optimization;
+            }
+        }
+
+        throw new IllegalArgumentException("Otimização desconhecida: " + flag);
+    }
+}
@@ -0,0 +1,17 @@
+package org.dimer.compiler.pass;
+
+import org.objectweb.asm.tree.ClassNode;
+
+/**
+ * Uma etapa de otimização aplicada sobre a classe já gerada, antes de ela ser escrita em bytes. Cada passe
+ * altera os métodos do {@link ClassNode} no lugar e não pode mudar o comportamento do programa.
+ */
+public interface Pass {
+
+    /**
+     * Nome exibido no relatório de tempo dos passes.
+     */
+    String name();
+
+    void run(ClassNode classNode);
+}
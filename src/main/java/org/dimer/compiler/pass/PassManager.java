@@ -0,0 +1,57 @@
+package org.dimer.compiler.pass;
+
+import org.dimer.compiler.util.BytecodeSize;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Executa, em ordem, os passes das otimizações ativas sobre a classe gerada. Quando recebe um {@link PassReport},
+ * registra o tempo de cada passe e o tamanho do código antes e depois dele.
+ */
+public class PassManager {
+
+    private final List<Pass> passes = new ArrayList<>();
+
+    public PassManager(Set<Optimization> optimizations) {
+        for (Optimization optimization : Optimization.values()) {
+            Pass pass = optimizations.contains(optimization) ? optimization.createPass() : null;
+            if (pass != null) {
+                passes.add(pass);
+            }
+        }
+    }
+
+    /**
+     * Adiciona um passe que roda depois dos passes de otimização.
+     */
+    public void add(Pass pass) {
+        passes.add(pass);
+    }
+
+    public List<Pass> passes() {
+        return passes;
+    }
+
+    /**
+     * @param report relatório onde o tempo de cada passe é registrado, ou null para não medir
+     */
+    public void run(ClassNode classNode, PassReport report) {
+        // Medir o tamanho escreve cada método em um ClassWriter, então só é feito quando há relatório
+        int size = report != null ? BytecodeSize.codeLength(classNode) : 0;
+
+        for (Pass pass : passes) {
+            long start = System.nanoTime();
+            pass.run(classNode);
+            long elapsed = System.nanoTime() - start;
+
+            if (report != null) {
+                int sizeAfter = BytecodeSize.codeLength(classNode);
+                report.add(pass.name(), elapsed, size, sizeAfter);
+                size = sizeAfter;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.dimer.compiler.pass;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tempo gasto em cada etapa da compilação de uma classe e o tamanho total do código dos métodos (em bytes,
+ * o mesmo medido por {@link org.dimer.compiler.util.BytecodeSize#codeLength}) antes e depois dela.
+ */
+public class PassReport {
+
+    public record Entry(String name, long nanos, int sizeBefore, int sizeAfter) {
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public void add(String name, long nanos, int sizeBefore, int sizeAfter) {
+        entries.add(new Entry(name, nanos, sizeBefore, sizeAfter));
+    }
+
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-16s %12s %12s %12s %8s%n", "etapa", "tempo (ms)", "bytes antes", "bytes depois", "delta");
+
+        long total = 0;
+        for (Entry entry : entries) {
+            out.printf("%-16s %12.3f %12d %12d %+8d%n", entry.name(), entry.nanos() / 1_000_000.0,
+                    entry.sizeBefore(), entry.sizeAfter(), entry.sizeAfter() - entry.sizeBefore());
+            total += entry.nanos();
+        }
+
+        out.printf("%-16s %12.3f%n", "total", total / 1_000_000.0);
+    }
+}
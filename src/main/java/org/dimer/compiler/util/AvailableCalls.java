@@ -0,0 +1,59 @@
+package org.dimer.compiler.util;
+
+import org.dimer.compiler.data.Variable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chamadas a métodos puros cujo resultado já está guardado em uma variável local no ponto atual da geração do
+ * método. Cada chamada é identificada pelo seu texto (ex: "dobro(x,1)") e deixa de estar disponível quando algum
+ * dos nomes dos quais ela depende (argumentos e campos lidos pelo método) recebe outro valor.
+ */
+public class AvailableCalls {
+
+    private record Entry(Variable result, Set<String> dependencies) {
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public Variable lookup(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.result() : null;
+    }
+
+    public void add(String key, Variable result, Set<String> dependencies) {
+        entries.put(key, new Entry(result, dependencies));
+    }
+
+    /**
+     * Descarta as chamadas que dependem do nome, que acabou de receber outro valor.
+     */
+    public void kill(String name) {
+        entries.values().removeIf(entry -> entry.dependencies().contains(name));
+    }
+
+    public void killAll(Collection<String> names) {
+        names.forEach(this::kill);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Mantém apenas as chamadas disponíveis nos dois caminhos, guardadas na mesma variável: usado onde dois
+     * caminhos se juntam, como no fim de um if/else.
+     */
+    public void retainAll(AvailableCalls other) {
+        entries.entrySet().removeIf(entry -> !entry.getValue().equals(other.entries.get(entry.getKey())));
+    }
+
+    public AvailableCalls copy() {
+        AvailableCalls copy = new AvailableCalls();
+        copy.entries.putAll(entries);
+        return copy;
+    }
+}
@@ -0,0 +1,73 @@
+package org.dimer.compiler.util;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import static org.objectweb.asm.Opcodes.ASM9;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+/**
+ * Medições de tamanho de bytecode de métodos já montados em um {@link MethodNode}.
+ */
+public class BytecodeSize {
+
+    private BytecodeSize() {
+    }
+
+    /**
+     * Tamanho em bytes do atributo Code do método, o mesmo valor comparado pela JVM com HugeMethodLimit (8000)
+     * e com o limite de 64KB do formato de classe.
+     * <p>
+     * O método é escrito em um ClassWriter descartável com um label extra no final: após a escrita, o offset
+     * desse label é exatamente o tamanho do código.
+     */
+    public static int codeLength(MethodNode method) {
+        ClassWriter classWriter = new ClassWriter(0);
+        classWriter.visit(V1_8, 0, "SimpleLangSizeProbe", null, "java/lang/Object", null);
+
+        MethodVisitor writer = classWriter.visitMethod(method.access, method.name, method.desc, method.signature, null);
+        Label end = new Label();
+
+        method.accept(new MethodVisitor(ASM9, writer) {
+            @Override
+            public void visitMaxs(int maxStack, int maxLocals) {
+                super.visitLabel(end);
+                super.visitMaxs(maxStack, maxLocals);
+            }
+        });
+
+        return end.getOffset();
+    }
+
+    /**
+     * Soma do tamanho do código de todos os métodos da classe.
+     */
+    public static int codeLength(ClassNode classNode) {
+        int length = 0;
+
+        for (MethodNode method : classNode.methods) {
+            length += codeLength(method);
+        }
+
+        return length;
+    }
+
+    /**
+     * Quantidade de instruções reais do método (desconsiderando labels, frames e números de linha).
+     */
+    public static int instructionCount(MethodNode method) {
+        int count = 0;
+
+        for (AbstractInsnNode instruction : method.instructions) {
+            if (instruction.getOpcode() >= 0) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
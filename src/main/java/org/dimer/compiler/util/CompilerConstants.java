@@ -13,6 +13,16 @@ public class CompilerConstants {
     public static final String TYPE_STRING = "string";
     public static final String TYPE_BOOL = "bool";
 
+    // Campo de cada classe gerada com a entrada e a saída da instância, recebido pelo construtor
+    public static final String IO_CONTEXT_CLASS = "org/dimer/runtime/IoContext";
+    public static final String IO_CONTEXT_DESCRIPTOR = "L" + IO_CONTEXT_CLASS + ";";
+    public static final String IO_CONTEXT_FIELD = "SimpleLangIo";
+
+    // Cache de resultados de cada método memo, em um campo com o prefixo seguido do nome do método
+    public static final String MEMO_CACHE_CLASS = "org/dimer/runtime/MemoCache";
+    public static final String MEMO_CACHE_DESCRIPTOR = "L" + MEMO_CACHE_CLASS + ";";
+    public static final String MEMO_CACHE_FIELD_PREFIX = "SimpleLangMemo$";
+
     public static final String OPERATOR_GT = ">";
     public static final String OPERATOR_LT = "<";
     public static final String OPERATOR_GTE = ">=";
@@ -2,11 +2,15 @@ package org.dimer.compiler.util;
 
 import org.dimer.compiler.data.Variable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class LocalVariableManager {
     private final Map<String, Variable> variablesByName = new HashMap<>();
+    // Todas as variáveis alocadas, inclusive as redeclaradas com o mesmo nome, na ordem dos slots
+    private final List<Variable> variables = new ArrayList<>();
 
     private int nextIndex = 1;
 
@@ -14,10 +18,22 @@ public class LocalVariableManager {
         int index = nextIndex++;
         variable = new Variable(variable.name(), variable.type(), null, index);
         variablesByName.put(variable.name(), variable);
+        variables.add(variable);
         return index;
     }
 
     public Variable load(String name) {
         return variablesByName.get(name);
     }
+
+    public List<Variable> variables() {
+        return variables;
+    }
+
+    /**
+     * Quantidade de slots usados até agora, contando o slot 0 (this).
+     */
+    public int size() {
+        return nextIndex;
+    }
 }
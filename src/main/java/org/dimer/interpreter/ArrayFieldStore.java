@@ -0,0 +1,46 @@
+package org.dimer.interpreter;
+
+/**
+ * Variáveis de classe enquanto nenhum método foi compilado: int e float em {@link #values} (float pelos bits) e
+ * strings em {@link #refs}, como no {@link Frame}.
+ */
+final class ArrayFieldStore implements FieldStore {
+
+    private final int[] values;
+    private final Object[] refs;
+
+    ArrayFieldStore(int fields) {
+        this.values = new int[fields];
+        this.refs = new Object[fields];
+    }
+
+    @Override
+    public int getInt(int field) {
+        return values[field];
+    }
+
+    @Override
+    public void setInt(int field, int value) {
+        values[field] = value;
+    }
+
+    @Override
+    public float getFloat(int field) {
+        return Float.intBitsToFloat(values[field]);
+    }
+
+    @Override
+    public void setFloat(int field, float value) {
+        values[field] = Float.floatToRawIntBits(value);
+    }
+
+    @Override
+    public Object getRef(int field) {
+        return refs[field];
+    }
+
+    @Override
+    public void setRef(int field, Object value) {
+        refs[field] = value;
+    }
+}
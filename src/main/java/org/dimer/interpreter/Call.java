@@ -0,0 +1,90 @@
+package org.dimer.interpreter;
+
+import java.lang.invoke.MethodHandle;
+
+import static org.dimer.compiler.util.CompilerConstants.*;
+
+/**
+ * Chamada a um método da classe. Os argumentos são gravados direto nos slots de parâmetro do frame do método
+ * chamado; quando o método já foi trocado pela versão compilada, vão em um Object[] para o MethodHandle.
+ */
+final class Call {
+
+    private final SimpleLangInterpreter interpreter;
+    private final InterpretedMethod method;
+    private final Argument[] arguments;
+
+    Call(SimpleLangInterpreter interpreter, InterpretedMethod method, Argument[] arguments) {
+        this.interpreter = interpreter;
+        this.method = method;
+        this.arguments = arguments;
+    }
+
+    /**
+     * @return o frame com o valor de retorno
+     */
+    Frame invoke(Frame caller) {
+        // Ponto seguro para trocar os campos interpretados pelos da classe compilada
+        interpreter.poll();
+
+        MethodHandle target = method.compiled;
+
+        if (target != null) {
+            Object[] values = new Object[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                values[i] = arguments[i].box(caller);
+            }
+            return method.resultFrame(method.invokeCompiled(target, values));
+        }
+
+        Frame frame = new Frame(method.frameSize);
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i].write(caller, frame, i + 1);
+        }
+
+        method.call(frame);
+        return frame;
+    }
+
+    /**
+     * Argumento convertido para o tipo do parâmetro que o recebe.
+     */
+    static final class Argument {
+
+        private static final int INT = 0;
+        private static final int FLOAT = 1;
+        private static final int REF = 2;
+
+        private final int kind;
+        private final IntNode intNode;
+        private final FloatNode floatNode;
+        private final Node node;
+
+        Argument(Node node, String parameterType) {
+            this.kind = switch (parameterType) {
+                case TYPE_INT -> INT;
+                case TYPE_FLOAT -> FLOAT;
+                default -> REF;
+            };
+            this.intNode = kind == INT ? Linker.asInt(node) : null;
+            this.floatNode = kind == FLOAT ? Linker.asFloat(node) : null;
+            this.node = node;
+        }
+
+        void write(Frame from, Frame to, int slot) {
+            switch (kind) {
+                case INT -> to.values[slot] = intNode.evalInt(from);
+                case FLOAT -> to.setFloat(slot, floatNode.evalFloat(from));
+                default -> to.refs[slot] = node.eval(from);
+            }
+        }
+
+        Object box(Frame from) {
+            return switch (kind) {
+                case INT -> intNode.evalInt(from);
+                case FLOAT -> floatNode.evalFloat(from);
+                default -> node.eval(from);
+            };
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.dimer.interpreter;
+
+/**
+ * Condição de if ou while.
+ */
+@FunctionalInterface
+interface Condition {
+
+    boolean test(Frame frame);
+}
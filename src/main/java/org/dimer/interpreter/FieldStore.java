@@ -0,0 +1,21 @@
+package org.dimer.interpreter;
+
+/**
+ * Onde ficam os valores das variáveis de classe. Enquanto tudo é interpretado, em arrays
+ * ({@link ArrayFieldStore}); depois que a classe compilada é instalada, nos campos da instância dela
+ * ({@link InstanceFieldStore}), para que métodos interpretados e compilados vejam os mesmos valores.
+ */
+interface FieldStore {
+
+    int getInt(int field);
+
+    void setInt(int field, int value);
+
+    float getFloat(int field);
+
+    void setFloat(int field, float value);
+
+    Object getRef(int field);
+
+    void setRef(int field, Object value);
+}
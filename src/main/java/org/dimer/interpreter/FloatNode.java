@@ -0,0 +1,12 @@
+package org.dimer.interpreter;
+
+@FunctionalInterface
+interface FloatNode extends Node {
+
+    float evalFloat(Frame frame);
+
+    @Override
+    default Object eval(Frame frame) {
+        return evalFloat(frame);
+    }
+}
@@ -0,0 +1,32 @@
+package org.dimer.interpreter;
+
+/**
+ * Variáveis locais de uma execução de método (ou de um trecho de laço parallel). Os índices são os mesmos que o
+ * gerador de bytecode usaria nos slots da JVM; int e float ficam em {@link #values} (float pelos bits) e strings em
+ * {@link #refs}.
+ */
+final class Frame {
+
+    private static final int[] NO_VALUES = new int[0];
+    private static final Object[] NO_REFS = new Object[0];
+
+    final int[] values;
+    final Object[] refs;
+    // Valor do return, no campo do tipo de retorno do método
+    int intResult;
+    float floatResult;
+    Object refResult;
+
+    Frame(int size) {
+        this.values = size > 0 ? new int[size] : NO_VALUES;
+        this.refs = size > 0 ? new Object[size] : NO_REFS;
+    }
+
+    float getFloat(int slot) {
+        return Float.intBitsToFloat(values[slot]);
+    }
+
+    void setFloat(int slot, float value) {
+        values[slot] = Float.floatToRawIntBits(value);
+    }
+}
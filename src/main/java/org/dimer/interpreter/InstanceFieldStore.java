@@ -0,0 +1,104 @@
+package org.dimer.interpreter;
+
+import org.dimer.compiler.TypeResolver;
+import org.dimer.compiler.data.Variable;
+import org.dimer.runtime.IntKeyMap;
+import org.dimer.runtime.StringKeyMap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+import static org.dimer.compiler.util.CompilerConstants.*;
+
+/**
+ * Variáveis de classe guardadas nos campos privados de uma instância da classe compilada, acessados por
+ * MethodHandles com o tipo já ajustado para chamadas com invokeExact.
+ */
+final class InstanceFieldStore implements FieldStore {
+
+    private final Object instance;
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+
+    /**
+     * @param fields campos na ordem dos índices usados pelo interpretador
+     */
+    InstanceFieldStore(MethodHandles.Lookup lookup, Object instance, List<Variable> fields) throws ReflectiveOperationException {
+        this.instance = instance;
+        this.getters = new MethodHandle[fields.size()];
+        this.setters = new MethodHandle[fields.size()];
+
+        for (int i = 0; i < fields.size(); i++) {
+            Variable field = fields.get(i);
+            Class<?> type = switch (field.type()) {
+                case TYPE_INT -> int.class;
+                case TYPE_FLOAT -> float.class;
+                case String map when TypeResolver.isMap(map) ->
+                        TYPE_INT.equals(TypeResolver.mapKeyType(map)) ? IntKeyMap.class : StringKeyMap.class;
+                default -> String.class;
+            };
+            Class<?> erased = type.isPrimitive() ? type : Object.class;
+
+            getters[i] = lookup.findGetter(instance.getClass(), field.name(), type)
+                    .asType(MethodType.methodType(erased, Object.class));
+            setters[i] = lookup.findSetter(instance.getClass(), field.name(), type)
+                    .asType(MethodType.methodType(void.class, Object.class, erased));
+        }
+    }
+
+    @Override
+    public int getInt(int field) {
+        try {
+            return (int) getters[field].invokeExact(instance);
+        } catch (Throwable e) {
+            throw SimpleLangInterpreter.rethrow(e);
+        }
+    }
+
+    @Override
+    public void setInt(int field, int value) {
+        try {
+            setters[field].invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw SimpleLangInterpreter.rethrow(e);
+        }
+    }
+
+    @Override
+    public float getFloat(int field) {
+        try {
+            return (float) getters[field].invokeExact(instance);
+        } catch (Throwable e) {
+            throw SimpleLangInterpreter.rethrow(e);
+        }
+    }
+
+    @Override
+    public void setFloat(int field, float value) {
+        try {
+            setters[field].invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw SimpleLangInterpreter.rethrow(e);
+        }
+    }
+
+    @Override
+    public Object getRef(int field) {
+        try {
+            return (Object) getters[field].invokeExact(instance);
+        } catch (Throwable e) {
+            throw SimpleLangInterpreter.rethrow(e);
+        }
+    }
+
+    @Override
+    public void setRef(int field, Object value) {
+        try {
+            setters[field].invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw SimpleLangInterpreter.rethrow(e);
+        }
+    }
+}
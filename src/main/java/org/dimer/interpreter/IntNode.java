@@ -0,0 +1,12 @@
+package org.dimer.interpreter;
+
+@FunctionalInterface
+interface IntNode extends Node {
+
+    int evalInt(Frame frame);
+
+    @Override
+    default Object eval(Frame frame) {
+        return evalInt(frame);
+    }
+}
@@ -0,0 +1,174 @@
+package org.dimer.interpreter;
+
+import org.dimer.compiler.TypeResolver;
+import org.dimer.runtime.MemoCache;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+import static org.dimer.compiler.util.CompilerConstants.*;
+
+/**
+ * Método da classe interpretada. Conta as próprias chamadas e voltas de laços; ao passar do limite, avisa o
+ * {@link SimpleLangInterpreter}, que compila a classe em segundo plano e depois passa a chamar a versão compilada
+ * no lugar do corpo interpretado.
+ */
+final class InterpretedMethod {
+
+    final String name;
+    final String returnType;
+    final String descriptor;
+    final List<String> parameterTypes;
+    private final SimpleLangInterpreter interpreter;
+    private final int hotThreshold;
+    // Preenchidos ao ligar o corpo, depois de todos os métodos terem sido declarados
+    Statement body;
+    int frameSize;
+    // Escritos apenas pelo interpretador, com o lock dele
+    boolean hot;
+    // Versão compilada com tipo (Object[])Object, já ligada à instância compilada. Quem ainda não a enxerga
+    // continua interpretando, o que também é correto: as duas versões usam os mesmos campos
+    MethodHandle compiled;
+    // Cache de resultados dos métodos memo, o mesmo usado pela instância compilada depois da troca
+    MemoCache memo;
+    private int counter;
+
+    InterpretedMethod(SimpleLangInterpreter interpreter, String name, String returnType, String descriptor, List<String> parameterTypes) {
+        this.interpreter = interpreter;
+        this.name = name;
+        this.returnType = returnType;
+        this.descriptor = descriptor;
+        this.parameterTypes = parameterTypes;
+        this.hotThreshold = interpreter.hotThreshold();
+    }
+
+    /**
+     * Executa o corpo interpretado com os parâmetros já gravados no frame. Chamadas recursivas em cauda voltam
+     * para o início do corpo sem criar outro frame, como o GOTO do bytecode gerado.
+     */
+    void execute(Frame frame) {
+        count();
+
+        while (body.exec(frame) == Statement.TAIL_CALL) {
+            count();
+        }
+    }
+
+    /**
+     * Executa o método, ou só copia o resultado para o frame quando ele é memo e os argumentos já estão no cache.
+     * A chave é montada como no bytecode gerado, antes da execução, que pode alterar os slots dos parâmetros.
+     */
+    void call(Frame frame) {
+        if (memo == null) {
+            execute(frame);
+            return;
+        }
+
+        long numbers = 0;
+        int numberCount = 0;
+        String[] strings = new String[2];
+        int stringCount = 0;
+
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            if (TYPE_STRING.equals(parameterTypes.get(i))) {
+                strings[stringCount++] = (String) frame.refs[i + 1];
+            } else {
+                // Com dois números, o primeiro fica nos 32 bits altos
+                numbers = numberCount++ == 0 ? frame.values[i + 1] : numbers << 32 | (frame.values[i + 1] & 0xFFFFFFFFL);
+            }
+        }
+
+        if (TYPE_STRING.equals(returnType)) {
+            String cached = memo.getString(numbers, strings[0], strings[1]);
+            if (cached != null) {
+                frame.refResult = cached;
+                return;
+            }
+
+            execute(frame);
+            memo.putString(numbers, strings[0], strings[1], (String) frame.refResult);
+            return;
+        }
+
+        long cached = memo.getNumber(numbers, strings[0], strings[1]);
+        boolean isInt = TYPE_INT.equals(returnType);
+
+        if (cached != MemoCache.MISS) {
+            if (isInt) {
+                frame.intResult = (int) cached;
+            } else {
+                frame.floatResult = Float.intBitsToFloat((int) cached);
+            }
+            return;
+        }
+
+        execute(frame);
+        memo.putNumber(numbers, strings[0], strings[1], isInt ? frame.intResult : Float.floatToRawIntBits(frame.floatResult));
+    }
+
+    /**
+     * Conta uma chamada ou uma volta de laço. Sem sincronização: perder algumas contagens entre threads só atrasa
+     * a compilação.
+     */
+    void count() {
+        if (hotThreshold > 0 && ++counter == hotThreshold) {
+            interpreter.hot(this);
+        }
+    }
+
+    /**
+     * Chamada com argumentos e retorno em objetos, usada pelos spawns.
+     */
+    Object invoke(Object[] arguments) {
+        MethodHandle target = compiled;
+
+        if (target != null) {
+            return invokeCompiled(target, arguments);
+        }
+
+        Frame frame = new Frame(frameSize);
+        for (int i = 0; i < arguments.length; i++) {
+            switch (parameterTypes.get(i)) {
+                case TYPE_INT -> frame.values[i + 1] = (Integer) arguments[i];
+                case TYPE_FLOAT -> frame.setFloat(i + 1, (Float) arguments[i]);
+                default -> frame.refs[i + 1] = arguments[i];
+            }
+        }
+
+        call(frame);
+
+        return switch (returnType) {
+            case TYPE_INT -> frame.intResult;
+            case TYPE_FLOAT -> frame.floatResult;
+            case TYPE_STRING -> frame.refResult;
+            case String map when TypeResolver.isMap(map) -> frame.refResult;
+            default -> null;
+        };
+    }
+
+    Object invokeCompiled(MethodHandle target, Object[] arguments) {
+        try {
+            return (Object) target.invokeExact(arguments);
+        } catch (Throwable e) {
+            throw SimpleLangInterpreter.rethrow(e);
+        }
+    }
+
+    /**
+     * Frame vazio com o retorno de uma chamada feita à versão compilada.
+     */
+    Frame resultFrame(Object result) {
+        Frame frame = new Frame(0);
+
+        switch (returnType) {
+            case TYPE_INT -> frame.intResult = (Integer) result;
+            case TYPE_FLOAT -> frame.floatResult = (Float) result;
+            case TYPE_STRING -> frame.refResult = result;
+            case String map when TypeResolver.isMap(map) -> frame.refResult = result;
+            default -> {
+            }
+        }
+
+        return frame;
+    }
+}
@@ -0,0 +1,40 @@
+package org.dimer.interpreter;
+
+import org.dimer.compiler.pass.Pass;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import static org.dimer.compiler.util.CompilerConstants.*;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Adiciona à classe compilada um construtor que não executa o init nem inicializa os campos, apenas guarda o
+ * IoContext do interpretador. O interpretador cria a instância com ele depois de o init já ter rodado interpretado,
+ * e copia os valores dos campos para ela.
+ */
+final class InterpreterConstructorPass implements Pass {
+
+    // O parâmetro Void só diferencia este construtor do gerado a partir do init
+    static final String DESCRIPTOR = "(" + IO_CONTEXT_DESCRIPTOR + "Ljava/lang/Void;)V";
+
+    @Override
+    public String name() {
+        return "interpreter-constructor";
+    }
+
+    @Override
+    public void run(ClassNode classNode) {
+        MethodNode constructor = new MethodNode(ACC_PUBLIC | ACC_SYNTHETIC, "<init>", DESCRIPTOR, null, null);
+        constructor.instructions.add(new VarInsnNode(ALOAD, 0));
+        constructor.instructions.add(new MethodInsnNode(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false));
+        constructor.instructions.add(new VarInsnNode(ALOAD, 0));
+        constructor.instructions.add(new VarInsnNode(ALOAD, 1));
+        constructor.instructions.add(new FieldInsnNode(PUTFIELD, classNode.name, IO_CONTEXT_FIELD, IO_CONTEXT_DESCRIPTOR));
+        constructor.instructions.add(new InsnNode(RETURN));
+        classNode.methods.add(constructor);
+    }
+}
@@ -0,0 +1,1301 @@
+package org.dimer.interpreter;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.dimer.SimpleLangParser;
+import org.dimer.compiler.TypeResolver;
+import org.dimer.compiler.analysis.ConcurrentBlockChecker;
+import org.dimer.compiler.analysis.ParallelBodyChecker;
+import org.dimer.compiler.data.Method;
+import org.dimer.compiler.data.Variable;
+import org.dimer.compiler.util.LocalVariableManager;
+import org.dimer.runtime.FileInput;
+import org.dimer.runtime.IntKeyMap;
+import org.dimer.runtime.IoContext;
+import org.dimer.runtime.ParallelRange;
+import org.dimer.runtime.RangeBody;
+import org.dimer.runtime.Reduction;
+import org.dimer.runtime.StringKeyMap;
+import org.dimer.runtime.TaskScope;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Stack;
+import java.util.concurrent.Callable;
+
+import static org.dimer.compiler.util.CompilerConstants.*;
+
+/**
+ * Transforma o corpo de um método (ou o init) em {@link Statement}s e {@link Node}s prontos para executar.
+ * <p>
+ * Percorre a árvore na mesma ordem que o {@link org.dimer.compiler.SimpleLangBytecodeVisitor}, com as mesmas
+ * verificações do {@link TypeResolver}: o interpretador recusa os mesmos programas, com as mesmas mensagens, e
+ * calcula em float as mesmas expressões. Também reproduz os detalhes do bytecode gerado que mudam o resultado,
+ * como os operandos invertidos das comparações em expressões com 'and'.
+ */
+final class Linker {
+
+    /**
+     * Grava um valor já convertido em objeto (resultado de spawn ou de redução) em uma variável.
+     */
+    @FunctionalInterface
+    private interface Writer {
+        void write(Frame frame, Object value);
+    }
+
+    /**
+     * Parte de uma concatenação de strings.
+     */
+    @FunctionalInterface
+    private interface Appender {
+        void append(StringBuilder builder, Frame frame);
+    }
+
+    // Mesmo nome das variáveis criadas pelo gerador para os arquivos abertos, para que os slots sejam os mesmos
+    private static final String FILE_VARIABLE = "SimpleLangReservedFile";
+    private static final String DEFAULT_FIELD_DELIMITER = ",";
+
+    private final SimpleLangInterpreter interpreter;
+    private final Stack<LocalVariableManager> localVariablesStack = new Stack<>();
+    private final TypeResolver types;
+    // Método cujo corpo está sendo ligado (null no init), que conta as voltas dos laços
+    private InterpretedMethod currentMethod;
+    private String currentMethodName;
+    private String currentReturnType;
+    // Parâmetros do método atual, usados pelas chamadas recursivas em cauda (null onde elas não são permitidas)
+    private List<Variable> currentParameters;
+    // Laços lines e fields e blocos write em volta do comando atual: com um arquivo aberto não há chamadas em cauda
+    private int openFiles = 0;
+
+    Linker(SimpleLangInterpreter interpreter) {
+        this.interpreter = interpreter;
+        this.types = new TypeResolver(interpreter.classVariables, interpreter.methods,
+                name -> localVariablesStack.isEmpty() ? null : localVariablesStack.peek().load(name));
+    }
+
+    void linkMethod(SimpleLangParser.MethodDeclarationContext ctx, InterpretedMethod method) {
+        String methodName = ctx.IDENTIFIER().getText();
+        types.method(ctx, methodName);
+
+        LocalVariableManager scope = new LocalVariableManager();
+        localVariablesStack.push(scope);
+
+        List<Variable> parameters = new ArrayList<>();
+        if (ctx.parameterList() != null) {
+            for (var paramContext : ctx.parameterList().parameter()) {
+                String paramName = paramContext.IDENTIFIER().getText();
+                scope.allocate(new Variable(paramName, paramContext.type().getText()));
+                parameters.add(scope.load(paramName));
+            }
+        }
+
+        currentMethod = method;
+        currentMethodName = methodName;
+        currentReturnType = method.returnType;
+        currentParameters = parameters;
+
+        method.body = block(ctx.block().statement());
+        method.frameSize = scope.size();
+
+        localVariablesStack.pop();
+    }
+
+    /**
+     * @return o corpo do init; o tamanho do frame dele fica em {@link #initFrameSize()}
+     */
+    Statement linkInit(SimpleLangParser.InitSectionContext ctx) {
+        currentMethod = null;
+        currentMethodName = "init";
+        currentReturnType = TYPE_VOID;
+        currentParameters = null;
+
+        return block(ctx.statement());
+    }
+
+    int initFrameSize() {
+        // As variáveis do init só ganham um escopo na primeira declaração
+        return localVariablesStack.isEmpty() ? 1 : localVariablesStack.peek().size();
+    }
+
+    private Statement block(List<SimpleLangParser.StatementContext> statements) {
+        Statement[] linked = new Statement[statements.size()];
+        for (int i = 0; i < linked.length; i++) {
+            linked[i] = statement(statements.get(i));
+        }
+
+        if (linked.length == 1) {
+            return linked[0];
+        }
+
+        return frame -> {
+            for (Statement statement : linked) {
+                int status = statement.exec(frame);
+                if (status != Statement.NORMAL) {
+                    return status;
+                }
+            }
+            return Statement.NORMAL;
+        };
+    }
+
+    private Statement statement(SimpleLangParser.StatementContext ctx) {
+        if (ctx.varDeclaration() != null) {
+            return varDeclaration(ctx.varDeclaration());
+        } else if (ctx.methodCall() != null) {
+            Call call = call(ctx.methodCall());
+            return frame -> {
+                call.invoke(frame);
+                return Statement.NORMAL;
+            };
+        } else if (ctx.mapCall() != null) {
+            Node call = mapCall(ctx.mapCall());
+            return frame -> {
+                call.eval(frame);
+                return Statement.NORMAL;
+            };
+        } else if (ctx.assignment() != null) {
+            return assignment(ctx.assignment());
+        } else if (ctx.ifStatement() != null) {
+            return ifStatement(ctx.ifStatement());
+        } else if (ctx.whileStatement() != null) {
+            return whileStatement(ctx.whileStatement());
+        } else if (ctx.switchStatement() != null) {
+            return switchStatement(ctx.switchStatement());
+        } else if (ctx.returnStatement() != null) {
+            return returnStatement(ctx.returnStatement());
+        } else if (ctx.printStatement() != null) {
+            return printStatement(ctx.printStatement());
+        } else if (ctx.readStatement() != null) {
+            return readStatement(ctx.readStatement());
+        } else if (ctx.concurrentStatement() != null) {
+            return concurrentStatement(ctx.concurrentStatement());
+        } else if (ctx.fileLoopStatement() != null) {
+            return fileLoopStatement(ctx.fileLoopStatement());
+        } else if (ctx.writeStatement() != null) {
+            return writeStatement(ctx.writeStatement());
+        } else {
+            return parallelStatement(ctx.parallelStatement());
+        }
+    }
+
+    private Statement varDeclaration(SimpleLangParser.VarDeclarationContext ctx) {
+        String varName = ctx.IDENTIFIER().getText();
+        String varType = ctx.type().getText();
+
+        if (localVariablesStack.isEmpty()) {
+            localVariablesStack.push(new LocalVariableManager());
+        }
+
+        localVariablesStack.peek().allocate(new Variable(varName, varType));
+
+        if (ctx.expression() == null) {
+            if (TypeResolver.isMap(varType)) {
+                TypeResolver.mapClass(varType); // Mesmo erro do compilador para chaves e valores não suportados
+                // Cada execução da declaração cria um map vazio
+                return store(ctx, varName, frame -> newMap(varType));
+            }
+            return frame -> Statement.NORMAL;
+        }
+
+        Node value = expression(ctx.expression());
+        types.checkInitializer(ctx);
+
+        return store(ctx, varName, value);
+    }
+
+    private Statement assignment(SimpleLangParser.AssignmentContext ctx) {
+        Variable variable = types.checkAssignment(ctx);
+        Node value = expression(ctx.expression());
+        return store(ctx, variable.name(), value);
+    }
+
+    private Statement printStatement(SimpleLangParser.PrintStatementContext ctx) {
+        Node value = expression(ctx.expression());
+        String type = types.expressionType(ctx.expression());
+        TypeResolver.typeToDescriptor(type); // Mesmo erro do gerador para expressões sem println (ex: comparações)
+        // A saída é buscada a cada print, como no código gerado: dentro de um bloco write ela é o arquivo do bloco
+        IoContext io = interpreter.io;
+
+        return switch (type) {
+            case TYPE_INT -> {
+                IntNode node = asInt(value);
+                yield frame -> {
+                    io.out().println(node.evalInt(frame));
+                    return Statement.NORMAL;
+                };
+            }
+            case TYPE_FLOAT -> {
+                FloatNode node = asFloat(value);
+                yield frame -> {
+                    io.out().println(node.evalFloat(frame));
+                    return Statement.NORMAL;
+                };
+            }
+            case TYPE_STRING -> frame -> {
+                io.out().println((String) value.eval(frame));
+                return Statement.NORMAL;
+            };
+            case String map when TypeResolver.isMap(map) -> frame -> {
+                io.out().println(value.eval(frame));
+                return Statement.NORMAL;
+            };
+            default -> frame -> {
+                value.eval(frame);
+                return Statement.NORMAL;
+            };
+        };
+    }
+
+    private Statement readStatement(SimpleLangParser.ReadStatementContext ctx) {
+        String varName = ctx.IDENTIFIER().getText();
+        Variable variable = types.variable(ctx, varName);
+
+        IoContext io = interpreter.io;
+
+        Node value = switch (variable.type()) {
+            case TYPE_STRING -> frame -> io.readLine();
+            case TYPE_INT -> (IntNode) frame -> Integer.parseInt(io.readLine());
+            case TYPE_FLOAT -> (FloatNode) frame -> Float.parseFloat(io.readLine());
+            case null, default ->
+                    throw new UnsupportedOperationException("Tipo de variável não suportado para leitura: " + variable.type());
+        };
+
+        return store(ctx, varName, value);
+    }
+
+    /**
+     * Laço sobre as linhas ou campos de um arquivo. O {@link FileInput} fica no mesmo slot usado pelo gerador, e
+     * assim como no código gerado o arquivo é fechado ao fim do laço, ao sair por um return e quando o corpo lança
+     * uma exceção.
+     */
+    private Statement fileLoopStatement(SimpleLangParser.FileLoopStatementContext ctx) {
+        boolean fields = ctx.FIELDS() != null;
+        Node path = expression(ctx.expression(0));
+        Node delimiter = !fields ? null
+                : ctx.expression().size() > 1 ? expression(ctx.expression(1)) : frame -> DEFAULT_FIELD_DELIMITER;
+        String varType = types.checkFileLoop(ctx);
+        String varName = ctx.IDENTIFIER().getText();
+
+        if (localVariablesStack.isEmpty()) {
+            localVariablesStack.push(new LocalVariableManager());
+        }
+
+        LocalVariableManager manager = localVariablesStack.peek();
+        int fileSlot = manager.allocate(new Variable(FILE_VARIABLE, null));
+        manager.allocate(new Variable(varName, varType));
+
+        // Antes da primeira linha a variável tem o valor padrão, como no código gerado
+        Statement reset = store(ctx, varName, switch (varType) {
+            case TYPE_INT -> (IntNode) frame -> 0;
+            case TYPE_FLOAT -> (FloatNode) frame -> 0f;
+            default -> frame -> null;
+        });
+        Statement next = store(ctx, varName, switch (varType) {
+            case TYPE_INT -> (IntNode) frame -> ((FileInput) frame.refs[fileSlot]).intValue();
+            case TYPE_FLOAT -> (FloatNode) frame -> ((FileInput) frame.refs[fileSlot]).floatValue();
+            default -> frame -> ((FileInput) frame.refs[fileSlot]).text();
+        });
+
+        openFiles++;
+        Statement body = block(ctx.block().statement());
+        openFiles--;
+        InterpretedMethod method = currentMethod;
+
+        return frame -> {
+            String pathValue = (String) path.eval(frame);
+            FileInput file = fields ? FileInput.fields(pathValue, (String) delimiter.eval(frame)) : FileInput.lines(pathValue);
+            frame.refs[fileSlot] = file;
+
+            try {
+                reset.exec(frame);
+
+                while (file.next()) {
+                    next.exec(frame);
+                    int status = body.exec(frame);
+                    if (status != Statement.NORMAL) {
+                        return status;
+                    }
+
+                    if (method != null) {
+                        method.count();
+                    }
+                }
+                return Statement.NORMAL;
+            } finally {
+                file.close();
+            }
+        };
+    }
+
+    /**
+     * Bloco write: a saída da instância é o arquivo enquanto o bloco executa, inclusive ao sair por um return ou
+     * por uma exceção.
+     */
+    private Statement writeStatement(SimpleLangParser.WriteStatementContext ctx) {
+        Node path = expression(ctx.expression());
+        types.checkWrite(ctx);
+
+        if (localVariablesStack.isEmpty()) {
+            localVariablesStack.push(new LocalVariableManager());
+        }
+        localVariablesStack.peek().allocate(new Variable(FILE_VARIABLE, null));
+
+        openFiles++;
+        Statement body = block(ctx.block().statement());
+        openFiles--;
+        IoContext io = interpreter.io;
+
+        return frame -> {
+            PrintStream previous = io.openOutput((String) path.eval(frame));
+            try {
+                return body.exec(frame);
+            } finally {
+                io.closeOutput(previous);
+            }
+        };
+    }
+
+    private Statement ifStatement(SimpleLangParser.IfStatementContext ctx) {
+        types.checkCondition(ctx);
+
+        Condition condition = condition(ctx.expression());
+        Statement thenBlock = block(ctx.block(0).statement());
+
+        if (ctx.ELSE() == null) {
+            return frame -> condition.test(frame) ? thenBlock.exec(frame) : Statement.NORMAL;
+        }
+
+        Statement elseBlock = block(ctx.block(1).statement());
+        return frame -> condition.test(frame) ? thenBlock.exec(frame) : elseBlock.exec(frame);
+    }
+
+    private Statement switchStatement(SimpleLangParser.SwitchStatementContext ctx) {
+        Node value = expression(ctx.expression());
+        String type = types.checkSwitch(ctx);
+
+        // Cada valor de caso leva direto ao bloco do seu caso, com uma única busca
+        Map<Object, Statement> cases = new HashMap<>();
+        for (var switchCase : ctx.switchCase()) {
+            Statement block = block(switchCase.block().statement());
+            for (var label : switchCase.caseLabel()) {
+                cases.put(TypeResolver.caseValue(label), block);
+            }
+        }
+
+        Statement defaultBlock = ctx.DEFAULT() != null ? block(ctx.block().statement()) : frame -> Statement.NORMAL;
+
+        if (TYPE_INT.equals(type)) {
+            IntNode node = asInt(value);
+            return frame -> cases.getOrDefault(node.evalInt(frame), defaultBlock).exec(frame);
+        }
+
+        // Assim como no código gerado, uma string null vai para o default
+        return frame -> cases.getOrDefault(value.eval(frame), defaultBlock).exec(frame);
+    }
+
+    private Statement whileStatement(SimpleLangParser.WhileStatementContext ctx) {
+        Condition condition = condition(ctx.expression());
+        Statement body = block(ctx.block().statement());
+        InterpretedMethod method = currentMethod;
+
+        if (method == null) {
+            return frame -> {
+                while (condition.test(frame)) {
+                    int status = body.exec(frame);
+                    if (status != Statement.NORMAL) {
+                        return status;
+                    }
+                }
+                return Statement.NORMAL;
+            };
+        }
+
+        return frame -> {
+            while (condition.test(frame)) {
+                int status = body.exec(frame);
+                if (status != Statement.NORMAL) {
+                    return status;
+                }
+                method.count();
+            }
+            return Statement.NORMAL;
+        };
+    }
+
+    private Statement returnStatement(SimpleLangParser.ReturnStatementContext ctx) {
+        SimpleLangParser.ExpressionContext expression = ctx.expression();
+
+        if (currentParameters != null && openFiles == 0 && interpreter.options().tailCalls() && expression.methodCall() != null
+                && expression.methodCall().IDENTIFIER().getText().equals(currentMethodName)) {
+            return tailCall(expression.methodCall());
+        }
+
+        Node value = expression(expression);
+        String type = types.expressionType(expression);
+
+        if (!List.of(TYPE_INT, TYPE_FLOAT, TYPE_STRING, TYPE_VOID).contains(type) && !TypeResolver.isMap(type)) {
+            throw new IllegalArgumentException("Tipo de retorno desconhecido: " + type + " para o método N/A");
+        }
+
+        return switch (currentReturnType) {
+            case TYPE_INT -> {
+                IntNode node = asInt(value);
+                yield frame -> {
+                    frame.intResult = node.evalInt(frame);
+                    return Statement.RETURN;
+                };
+            }
+            case TYPE_FLOAT -> {
+                FloatNode node = asFloat(value);
+                yield frame -> {
+                    frame.floatResult = node.evalFloat(frame);
+                    return Statement.RETURN;
+                };
+            }
+            case TYPE_STRING -> frame -> {
+                frame.refResult = value.eval(frame);
+                return Statement.RETURN;
+            };
+            case String map when TypeResolver.isMap(map) -> frame -> {
+                frame.refResult = value.eval(frame);
+                return Statement.RETURN;
+            };
+            default -> frame -> {
+                value.eval(frame);
+                return Statement.RETURN;
+            };
+        };
+    }
+
+    /**
+     * Chamada recursiva em cauda: todos os argumentos são avaliados antes de qualquer parâmetro ser sobrescrito,
+     * e o corpo do método é executado de novo no mesmo frame.
+     */
+    private Statement tailCall(SimpleLangParser.MethodCallContext ctx) {
+        List<SimpleLangParser.ExpressionContext> arguments = ctx.argumentList() != null ? ctx.argumentList().expression() : List.of();
+        List<Variable> parameters = currentParameters;
+
+        TypeResolver.checkArgumentCount(ctx, currentMethodName, parameters.size(), arguments.size());
+
+        Call.Argument[] linked = new Call.Argument[arguments.size()];
+        for (int i = 0; i < arguments.size(); i++) {
+            Node value = expression(arguments.get(i));
+            types.checkParameterArgument(ctx, arguments.get(i), parameters.get(i));
+            linked[i] = new Call.Argument(value, parameters.get(i).type());
+        }
+
+        int count = linked.length;
+
+        return frame -> {
+            Frame next = new Frame(count + 1);
+            for (int i = 0; i < count; i++) {
+                linked[i].write(frame, next, i + 1);
+            }
+
+            System.arraycopy(next.values, 1, frame.values, 1, count);
+            System.arraycopy(next.refs, 1, frame.refs, 1, count);
+            return Statement.TAIL_CALL;
+        };
+    }
+
+    /**
+     * Bloco concurrent: os argumentos de todos os spawns são avaliados na thread atual, e cada chamada roda em uma
+     * virtual thread pelo {@link TaskScope}, interpretada ou compilada.
+     */
+    private Statement concurrentStatement(SimpleLangParser.ConcurrentStatementContext ctx) {
+        List<SimpleLangParser.SpawnStatementContext> spawns = ctx.spawnStatement();
+        ConcurrentBlockChecker.check(ctx, interpreter.mapChangingMethods, interpreter.writeMethods);
+        InterpretedMethod[] targets = new InterpretedMethod[spawns.size()];
+        Call.Argument[][] arguments = new Call.Argument[spawns.size()][];
+
+        for (int i = 0; i < spawns.size(); i++) {
+            SimpleLangParser.SpawnStatementContext spawn = spawns.get(i);
+            SimpleLangParser.MethodCallContext call = spawn.methodCall();
+            types.method(call, call.IDENTIFIER().getText());
+            types.checkSpawn(spawn);
+
+            targets[i] = interpreter.targets.get(call.IDENTIFIER().getText());
+            List<SimpleLangParser.ExpressionContext> expressions = call.argumentList() != null ? call.argumentList().expression() : List.of();
+            arguments[i] = new Call.Argument[expressions.size()];
+
+            for (int j = 0; j < expressions.size(); j++) {
+                Node value = expression(expressions.get(j));
+                types.checkSpawnArgument(spawn, j);
+                arguments[i][j] = new Call.Argument(value, targets[i].parameterTypes.get(j));
+            }
+        }
+
+        Writer[] writers = new Writer[spawns.size()];
+        for (int i = 0; i < spawns.size(); i++) {
+            SimpleLangParser.SpawnStatementContext spawn = spawns.get(i);
+            if (spawn.IDENTIFIER() != null) {
+                types.method(spawn, spawn.methodCall().IDENTIFIER().getText());
+                writers[i] = writer(spawn, spawn.IDENTIFIER().getText());
+            }
+        }
+
+        SimpleLangInterpreter interpreter = this.interpreter;
+
+        return frame -> {
+            Object[] tasks = new Object[targets.length];
+
+            for (int i = 0; i < targets.length; i++) {
+                InterpretedMethod target = targets[i];
+                Object[] values = new Object[arguments[i].length];
+                for (int j = 0; j < values.length; j++) {
+                    values[j] = arguments[i][j].box(frame);
+                }
+
+                if (TYPE_VOID.equals(target.returnType)) {
+                    tasks[i] = (Runnable) () -> target.invoke(values);
+                } else {
+                    tasks[i] = (Callable<Object>) () -> target.invoke(values);
+                }
+            }
+
+            Object[] results = interpreter.inRegion(() -> TaskScope.runAll(tasks));
+
+            for (int i = 0; i < writers.length; i++) {
+                if (writers[i] != null) {
+                    writers[i].write(frame, results[i]);
+                }
+            }
+            return Statement.NORMAL;
+        };
+    }
+
+    /**
+     * Laço parallel: cada trecho [from, to) do intervalo roda em um frame próprio, com uma cópia das variáveis
+     * locais lidas pelo corpo e os acumuladores das reduções, como o método sintético do bytecode gerado.
+     */
+    private Statement parallelStatement(SimpleLangParser.ParallelStatementContext ctx) {
+        String loopVariable = ctx.IDENTIFIER().getText();
+        Map<Variable, Character> reductionOperations = types.reductions(ctx);
+        List<Variable> reductions = new ArrayList<>(reductionOperations.keySet());
+        int[] slots = new int[reductions.size()];
+        boolean[] floats = new boolean[reductions.size()];
+        StringBuilder intOperations = new StringBuilder();
+        StringBuilder floatOperations = new StringBuilder();
+
+        for (int i = 0; i < reductions.size(); i++) {
+            Variable variable = reductions.get(i);
+            floats[i] = TYPE_FLOAT.equals(variable.type());
+            StringBuilder operations = floats[i] ? floatOperations : intOperations;
+            slots[i] = operations.length();
+            operations.append(reductionOperations.get(variable));
+        }
+
+        Set<String> reductionNames = new HashSet<>();
+        reductions.forEach(variable -> reductionNames.add(variable.name()));
+
+        LocalVariableManager outerScope = localVariablesStack.isEmpty() ? null : localVariablesStack.peek();
+        ParallelBodyChecker.check(ctx, reductionNames, name -> outerScope != null && outerScope.load(name) != null, interpreter.fieldWritingMethods,
+                interpreter.writeMethods);
+
+        List<Variable> captured = new ArrayList<>();
+        if (outerScope != null) {
+            Set<String> identifiers = new LinkedHashSet<>();
+            collectIdentifiers(ctx.block(), identifiers);
+
+            for (String name : identifiers) {
+                Variable variable = outerScope.load(name);
+                if (variable != null && variable.type() != null && !name.equals(loopVariable) && !reductionNames.contains(name)) {
+                    captured.add(variable);
+                }
+            }
+        }
+
+        // Corpo, com o seu próprio escopo: variáveis capturadas, variável do laço e acumuladores das reduções
+        List<Variable> outerParameters = currentParameters;
+        currentParameters = null;
+
+        LocalVariableManager scope = new LocalVariableManager();
+        localVariablesStack.push(scope);
+
+        int[] capturedFrom = new int[captured.size()];
+        int[] capturedTo = new int[captured.size()];
+        for (int i = 0; i < captured.size(); i++) {
+            capturedFrom[i] = captured.get(i).index();
+            capturedTo[i] = scope.allocate(new Variable(captured.get(i).name(), captured.get(i).type()));
+        }
+
+        int loopSlot = scope.allocate(new Variable(loopVariable, TYPE_INT));
+        int[] reductionSlots = new int[reductions.size()];
+        for (int i = 0; i < reductions.size(); i++) {
+            reductionSlots[i] = scope.allocate(new Variable(reductions.get(i).name(), reductions.get(i).type()));
+        }
+
+        Statement body = block(ctx.block().statement());
+        int frameSize = scope.size();
+
+        localVariablesStack.pop();
+        currentParameters = outerParameters;
+
+        Node[] initialValues = new Node[reductions.size()];
+        for (int i = 0; i < reductions.size(); i++) {
+            initialValues[i] = load(ctx, reductions.get(i).name());
+        }
+
+        types.checkRangeLimit(ctx.operand(0));
+        IntNode from = asInt(operand(ctx.operand(0)));
+        types.checkRangeLimit(ctx.operand(1));
+        IntNode to = asInt(operand(ctx.operand(1)));
+
+        Writer[] writers = new Writer[reductions.size()];
+        for (int i = 0; i < reductions.size(); i++) {
+            writers[i] = writer(ctx, reductions.get(i).name());
+        }
+
+        String ints = intOperations.toString();
+        String floatsOperations = floatOperations.toString();
+        InterpretedMethod method = currentMethod;
+        SimpleLangInterpreter interpreter = this.interpreter;
+
+        return frame -> {
+            Reduction result = new Reduction(ints, floatsOperations);
+            for (int i = 0; i < slots.length; i++) {
+                if (floats[i]) {
+                    result.setFloat(slots[i], asFloat(initialValues[i]).evalFloat(frame));
+                } else {
+                    result.setInt(slots[i], asInt(initialValues[i]).evalInt(frame));
+                }
+            }
+
+            int start = from.evalInt(frame);
+            int end = to.evalInt(frame);
+
+            RangeBody rangeBody = (chunkStart, chunkEnd, accumulator) -> {
+                Frame chunk = new Frame(frameSize);
+                for (int i = 0; i < capturedFrom.length; i++) {
+                    chunk.values[capturedTo[i]] = frame.values[capturedFrom[i]];
+                    chunk.refs[capturedTo[i]] = frame.refs[capturedFrom[i]];
+                }
+                for (int i = 0; i < slots.length; i++) {
+                    chunk.values[reductionSlots[i]] = floats[i]
+                            ? Float.floatToRawIntBits(accumulator.getFloat(slots[i]))
+                            : accumulator.getInt(slots[i]);
+                }
+
+                for (chunk.values[loopSlot] = chunkStart; chunk.values[loopSlot] < chunkEnd; chunk.values[loopSlot]++) {
+                    body.exec(chunk);
+                    if (method != null) {
+                        method.count();
+                    }
+                }
+
+                for (int i = 0; i < slots.length; i++) {
+                    if (floats[i]) {
+                        accumulator.setFloat(slots[i], chunk.getFloat(reductionSlots[i]));
+                    } else {
+                        accumulator.setInt(slots[i], chunk.values[reductionSlots[i]]);
+                    }
+                }
+            };
+
+            // O corpo não escreve em campos (ParallelBodyChecker), então a classe compilada pode ser instalada durante o laço
+            ParallelRange.forRange(result, start, end, rangeBody);
+
+            for (int i = 0; i < slots.length; i++) {
+                writers[i].write(frame, floats[i] ? (Object) result.getFloat(slots[i]) : (Object) result.getInt(slots[i]));
+            }
+            return Statement.NORMAL;
+        };
+    }
+
+    private void collectIdentifiers(ParseTree tree, Set<String> identifiers) {
+        if (isAnIdentifier(tree)) {
+            identifiers.add(tree.getText());
+        }
+
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectIdentifiers(tree.getChild(i), identifiers);
+        }
+    }
+
+    private static boolean isAnIdentifier(ParseTree child) {
+        return child instanceof TerminalNode terminal && terminal.getSymbol().getType() == SimpleLangParser.IDENTIFIER;
+    }
+
+    private Node expression(SimpleLangParser.ExpressionContext ctx) {
+        if (ctx.literal() != null) {
+            return constant(TypeResolver.literalValue(ctx.literal()));
+        } else if (ctx.IDENTIFIER() != null) {
+            return load(ctx, ctx.IDENTIFIER().getText());
+        } else if (ctx.stringConcatenation() != null) {
+            return stringConcatenation(ctx.stringConcatenation());
+        } else if (ctx.numericExpression() != null) {
+            return numericExpression(ctx.numericExpression());
+        } else if (ctx.involvedExpression() != null) {
+            return expression(ctx.involvedExpression().expression());
+        } else if (ctx.methodCall() != null) {
+            return methodCall(ctx.methodCall());
+        } else if (ctx.mapCall() != null) {
+            return mapCall(ctx.mapCall());
+        }
+
+        // Comparações como valor: 1 ou 0, como o boolean da JVM
+        Condition condition = condition(ctx);
+        return (IntNode) frame -> condition.test(frame) ? 1 : 0;
+    }
+
+    private Node numericExpression(SimpleLangParser.NumericExpressionContext ctx) {
+        types.enterNumericExpression(ctx);
+
+        Node result = numericOperand(ctx.getChild(0));
+
+        for (int i = 1; i < ctx.getChildCount(); i += 2) {
+            Node right = numericOperand(ctx.getChild(i + 1));
+            // O tipo da operação é decidido no momento de cada operador, como no gerador
+            result = arithmetic(ctx.getChild(i).getText(), types.isFloatOperation(), result, right);
+        }
+
+        return result;
+    }
+
+    private Node numericOperand(ParseTree child) {
+        if (child instanceof SimpleLangParser.InvolvedNumericExpressionContext involved) {
+            return numericExpression(involved.numericExpression());
+        }
+
+        return operand((SimpleLangParser.OperandContext) child);
+    }
+
+    private static Node arithmetic(String operator, boolean isFloat, Node left, Node right) {
+        if (isFloat) {
+            FloatNode a = asFloat(left);
+            FloatNode b = asFloat(right);
+
+            return switch (operator) {
+                case "+" -> (FloatNode) frame -> a.evalFloat(frame) + b.evalFloat(frame);
+                case "-" -> (FloatNode) frame -> a.evalFloat(frame) - b.evalFloat(frame);
+                case "*" -> (FloatNode) frame -> a.evalFloat(frame) * b.evalFloat(frame);
+                case "/" -> (FloatNode) frame -> a.evalFloat(frame) / b.evalFloat(frame);
+                default -> throw new IllegalArgumentException("Operador não suportado: " + operator);
+            };
+        }
+
+        IntNode a = asInt(left);
+        IntNode b = asInt(right);
+
+        return switch (operator) {
+            case "+" -> (IntNode) frame -> a.evalInt(frame) + b.evalInt(frame);
+            case "-" -> (IntNode) frame -> a.evalInt(frame) - b.evalInt(frame);
+            case "*" -> (IntNode) frame -> a.evalInt(frame) * b.evalInt(frame);
+            case "/" -> (IntNode) frame -> a.evalInt(frame) / b.evalInt(frame);
+            default -> throw new IllegalArgumentException("Operador não suportado: " + operator);
+        };
+    }
+
+    private Node operand(SimpleLangParser.OperandContext ctx) {
+        Node value;
+        String type;
+
+        if (ctx.IDENTIFIER() != null) {
+            type = types.operandType(ctx);
+            value = load(ctx, ctx.IDENTIFIER().getText());
+        } else if (ctx.methodCall() != null || ctx.mapCall() != null) {
+            type = types.operandType(ctx);
+            boolean floatOperation = types.isFloatOperation();
+
+            value = ctx.methodCall() != null ? methodCall(ctx.methodCall()) : mapCall(ctx.mapCall());
+            types.restoreFloatOperation(floatOperation);
+        } else {
+            type = ctx.INT() != null ? TYPE_INT : TYPE_FLOAT;
+            value = constant(TypeResolver.literalValue(ctx));
+        }
+
+        // Caso a operação atual esteja lidando com floats, os inteiros são convertidos
+        return types.isFloatOperation() && TYPE_INT.equals(type) ? asFloat(value) : value;
+    }
+
+    private Node stringConcatenation(SimpleLangParser.StringConcatenationContext ctx) {
+        String first = TypeResolver.stringValue(ctx.STRING().getText());
+        List<Appender> parts = new ArrayList<>();
+
+        for (int i = 1; i < ctx.getChildCount(); i++) {
+            var child = ctx.getChild(i);
+
+            if (child.getText().equals("+")) {
+                continue;
+            }
+
+            Node value;
+            if (child instanceof SimpleLangParser.LiteralContext literalContext) {
+                value = constant(TypeResolver.literalValue(literalContext));
+            } else if (isAnIdentifier(child)) {
+                value = load(ctx, child.getText());
+            } else if (child instanceof SimpleLangParser.InvolvedNumericExpressionContext involved) {
+                value = numericExpression(involved.numericExpression());
+                value = types.isFloatOperation() ? asFloat(value) : asInt(value);
+            } else if (child instanceof SimpleLangParser.MapCallContext mapCallContext) {
+                value = mapCall(mapCallContext);
+            } else {
+                value = methodCall((SimpleLangParser.MethodCallContext) child);
+            }
+
+            parts.add(appender(value));
+        }
+
+        Appender[] appenders = parts.toArray(Appender[]::new);
+
+        return frame -> {
+            StringBuilder builder = new StringBuilder(first);
+            for (Appender appender : appenders) {
+                appender.append(builder, frame);
+            }
+            return builder.toString();
+        };
+    }
+
+    private static Appender appender(Node value) {
+        if (value instanceof IntNode node) {
+            return (builder, frame) -> builder.append(node.evalInt(frame));
+        }
+
+        if (value instanceof FloatNode node) {
+            return (builder, frame) -> builder.append(node.evalFloat(frame));
+        }
+
+        // Strings e maps (pelo toString, como o append(Object) do bytecode gerado)
+        return (builder, frame) -> builder.append(value.eval(frame));
+    }
+
+    /**
+     * Condição de if ou while. Fora das comparações, como o IFNE do bytecode gerado, qualquer valor diferente de
+     * zero é verdadeiro.
+     */
+    private Condition condition(SimpleLangParser.ExpressionContext ctx) {
+        if (ctx.booleanExpression() != null) {
+            return booleanExpression(ctx.booleanExpression());
+        } else if (ctx.comparisonExpression() != null) {
+            return comparison(ctx.comparisonExpression());
+        } else if (ctx.comparisonStringExpression() != null) {
+            return stringComparison(ctx.comparisonStringExpression());
+        } else if (ctx.involvedExpression() != null) {
+            return condition(ctx.involvedExpression().expression());
+        }
+
+        Node value = expression(ctx);
+
+        if (value instanceof IntNode node) {
+            return frame -> node.evalInt(frame) != 0;
+        }
+
+        if (value instanceof FloatNode node) {
+            return frame -> node.evalFloat(frame) != 0;
+        }
+
+        return frame -> value.eval(frame) != null;
+    }
+
+    private Condition comparison(SimpleLangParser.ComparisonExpressionContext ctx) {
+        types.enterComparison(ctx);
+        Node left = operand(ctx.operand(0));
+        Node right = operand(ctx.operand(1));
+        return compare(ctx, left, right);
+    }
+
+    private static Condition compare(SimpleLangParser.ComparisonExpressionContext ctx, Node left, Node right) {
+        String operator = ctx.getChild(1).getText();
+
+        if (!OPERATORS_INSTRUCTIONS.containsKey(operator)) {
+            throw new IllegalArgumentException(String.format("Linha %d: operador %s não compatível", ctx.start.getLine(), ctx.getText()));
+        }
+
+        if (left instanceof FloatNode || right instanceof FloatNode) {
+            FloatNode a = asFloat(left);
+            FloatNode b = asFloat(right);
+
+            return switch (operator) {
+                case OPERATOR_GT -> frame -> a.evalFloat(frame) > b.evalFloat(frame);
+                case OPERATOR_LT -> frame -> a.evalFloat(frame) < b.evalFloat(frame);
+                case OPERATOR_GTE -> frame -> a.evalFloat(frame) >= b.evalFloat(frame);
+                case OPERATOR_LTE -> frame -> a.evalFloat(frame) <= b.evalFloat(frame);
+                case OPERATOR_EQUAL -> frame -> a.evalFloat(frame) == b.evalFloat(frame);
+                default -> frame -> a.evalFloat(frame) != b.evalFloat(frame);
+            };
+        }
+
+        IntNode a = asInt(left);
+        IntNode b = asInt(right);
+
+        return switch (operator) {
+            case OPERATOR_GT -> frame -> a.evalInt(frame) > b.evalInt(frame);
+            case OPERATOR_LT -> frame -> a.evalInt(frame) < b.evalInt(frame);
+            case OPERATOR_GTE -> frame -> a.evalInt(frame) >= b.evalInt(frame);
+            case OPERATOR_LTE -> frame -> a.evalInt(frame) <= b.evalInt(frame);
+            case OPERATOR_EQUAL -> frame -> a.evalInt(frame) == b.evalInt(frame);
+            default -> frame -> a.evalInt(frame) != b.evalInt(frame);
+        };
+    }
+
+    private Condition stringComparison(SimpleLangParser.ComparisonStringExpressionContext ctx) {
+        Node left = stringOperand(ctx, ctx.getChild(0).getText());
+        Node right = stringOperand(ctx, ctx.getChild(2).getText());
+        return frame -> left.eval(frame).equals(right.eval(frame));
+    }
+
+    private Node stringOperand(SimpleLangParser.ComparisonStringExpressionContext ctx, String text) {
+        return text.startsWith("\"") ? constant(TypeResolver.stringValue(text)) : load(ctx, text);
+    }
+
+    /**
+     * Expressões com 'and' ou 'or'. Nas com 'and', cada comparação 'a OP b' é avaliada como 'b OP a' (b primeiro),
+     * que é o que o bytecode gerado faz ao carregar os operandos invertidos.
+     */
+    private Condition booleanExpression(SimpleLangParser.BooleanExpressionContext ctx) {
+        boolean isAnd = TypeResolver.isAnd(ctx);
+        int count = Math.max(ctx.AND().size(), ctx.OR().size()) * 2;
+        Condition[] conditions = new Condition[count];
+
+        for (int i = 0; i < count; i++) {
+            var child = ctx.getChild(i * 2);
+
+            if (child instanceof SimpleLangParser.ComparisonStringExpressionContext comparisonStringExpressionContext) {
+                conditions[i] = stringComparison(comparisonStringExpressionContext);
+            } else if (child instanceof SimpleLangParser.ComparisonExpressionContext comparisonExpressionContext) {
+                types.enterComparison(comparisonExpressionContext);
+                Node first = operand(comparisonExpressionContext.operand(isAnd ? 1 : 0));
+                Node second = operand(comparisonExpressionContext.operand(isAnd ? 0 : 1));
+                conditions[i] = compare(comparisonExpressionContext, first, second);
+            } else {
+                throw new IllegalArgumentException(String.format("Linha %d: operação não suportada: %s", ctx.start.getLine(), ctx.getText()));
+            }
+        }
+
+        if (isAnd) {
+            return frame -> {
+                for (Condition condition : conditions) {
+                    if (!condition.test(frame)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+
+        return frame -> {
+            for (Condition condition : conditions) {
+                if (condition.test(frame)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private Node methodCall(SimpleLangParser.MethodCallContext ctx) {
+        Call call = call(ctx);
+        Method method = interpreter.methods.get(ctx.IDENTIFIER().getText());
+
+        return switch (method.returnType()) {
+            case TYPE_INT -> (IntNode) frame -> call.invoke(frame).intResult;
+            case TYPE_FLOAT -> (FloatNode) frame -> call.invoke(frame).floatResult;
+            case TYPE_STRING -> frame -> call.invoke(frame).refResult;
+            case String map when TypeResolver.isMap(map) -> frame -> call.invoke(frame).refResult;
+            default -> frame -> {
+                call.invoke(frame);
+                return null;
+            };
+        };
+    }
+
+    /**
+     * Operação sobre map, chamando o {@link IntKeyMap} ou {@link StringKeyMap} com os valores primitivos, como o
+     * bytecode gerado. O contains vira 1 ou 0, como o boolean da JVM.
+     */
+    private Node mapCall(SimpleLangParser.MapCallContext ctx) {
+        String type = types.mapCallType(ctx);
+        Variable map = types.mapVariable(ctx);
+        Node target = load(ctx, map.name());
+
+        List<SimpleLangParser.ExpressionContext> expressions = ctx.argumentList() != null ? ctx.argumentList().expression() : List.of();
+        Node[] arguments = new Node[expressions.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = expression(expressions.get(i));
+            types.checkMapArgument(ctx, i);
+        }
+
+        String operation = ctx.IDENTIFIER(1).getText();
+        String valueType = TypeResolver.mapValueType(map.type());
+        Node value = arguments.length > 1 ? arguments[1] : null;
+
+        if (TYPE_INT.equals(TypeResolver.mapKeyType(map.type()))) {
+            IntNode key = arguments.length > 0 ? asInt(arguments[0]) : null;
+
+            return switch (operation) {
+                case "get" -> switch (valueType) {
+                    case TYPE_INT -> (IntNode) frame -> ((IntKeyMap) target.eval(frame)).getInt(key.evalInt(frame));
+                    case TYPE_FLOAT -> (FloatNode) frame -> ((IntKeyMap) target.eval(frame)).getFloat(key.evalInt(frame));
+                    default -> frame -> ((IntKeyMap) target.eval(frame)).getString(key.evalInt(frame));
+                };
+                case "put" -> switch (valueType) {
+                    case TYPE_INT -> {
+                        IntNode intValue = asInt(value);
+                        yield frame -> {
+                            ((IntKeyMap) target.eval(frame)).putInt(key.evalInt(frame), intValue.evalInt(frame));
+                            return null;
+                        };
+                    }
+                    case TYPE_FLOAT -> {
+                        FloatNode floatValue = asFloat(value);
+                        yield frame -> {
+                            ((IntKeyMap) target.eval(frame)).putFloat(key.evalInt(frame), floatValue.evalFloat(frame));
+                            return null;
+                        };
+                    }
+                    default -> frame -> {
+                        ((IntKeyMap) target.eval(frame)).putString(key.evalInt(frame), (String) value.eval(frame));
+                        return null;
+                    };
+                };
+                case "contains" -> (IntNode) frame -> ((IntKeyMap) target.eval(frame)).contains(key.evalInt(frame)) ? 1 : 0;
+                case "remove" -> frame -> {
+                    ((IntKeyMap) target.eval(frame)).remove(key.evalInt(frame));
+                    return null;
+                };
+                default -> (IntNode) frame -> ((IntKeyMap) target.eval(frame)).size();
+            };
+        }
+
+        Node key = arguments.length > 0 ? nonNullKey(ctx, expressions.get(0), arguments[0]) : null;
+
+        return switch (operation) {
+            case "get" -> switch (valueType) {
+                case TYPE_INT -> (IntNode) frame -> ((StringKeyMap) target.eval(frame)).getInt((String) key.eval(frame));
+                case TYPE_FLOAT -> (FloatNode) frame -> ((StringKeyMap) target.eval(frame)).getFloat((String) key.eval(frame));
+                default -> frame -> ((StringKeyMap) target.eval(frame)).getString((String) key.eval(frame));
+            };
+            case "put" -> switch (valueType) {
+                case TYPE_INT -> {
+                    IntNode intValue = asInt(value);
+                    yield frame -> {
+                        ((StringKeyMap) target.eval(frame)).putInt((String) key.eval(frame), intValue.evalInt(frame));
+                        return null;
+                    };
+                }
+                case TYPE_FLOAT -> {
+                    FloatNode floatValue = asFloat(value);
+                    yield frame -> {
+                        ((StringKeyMap) target.eval(frame)).putFloat((String) key.eval(frame), floatValue.evalFloat(frame));
+                        return null;
+                    };
+                }
+                default -> frame -> {
+                    ((StringKeyMap) target.eval(frame)).putString((String) key.eval(frame), (String) value.eval(frame));
+                    return null;
+                };
+            };
+            case "contains" -> (IntNode) frame -> ((StringKeyMap) target.eval(frame)).contains((String) key.eval(frame)) ? 1 : 0;
+            case "remove" -> frame -> {
+                ((StringKeyMap) target.eval(frame)).remove((String) key.eval(frame));
+                return null;
+            };
+            default -> (IntNode) frame -> ((StringKeyMap) target.eval(frame)).size();
+        };
+    }
+
+    /**
+     * Chave string de uma operação sobre map, com o mesmo erro do código compilado quando ela é nula.
+     */
+    private static Node nonNullKey(SimpleLangParser.MapCallContext ctx, SimpleLangParser.ExpressionContext expression, Node key) {
+        if (expression.literal() != null) {
+            return key;
+        }
+
+        String message = TypeResolver.nullKeyMessage(ctx);
+        return frame -> Objects.requireNonNull(key.eval(frame), message);
+    }
+
+    /**
+     * Map vazio do tipo, o mesmo objeto criado pelo bytecode gerado.
+     */
+    static Object newMap(String type) {
+        int valueKind = TypeResolver.mapValueKind(type);
+        return TYPE_INT.equals(TypeResolver.mapKeyType(type)) ? new IntKeyMap(valueKind) : new StringKeyMap(valueKind);
+    }
+
+    private Call call(SimpleLangParser.MethodCallContext ctx) {
+        String methodName = ctx.IDENTIFIER().getText();
+        types.method(ctx, methodName);
+        InterpretedMethod target = interpreter.targets.get(methodName);
+
+        List<SimpleLangParser.ExpressionContext> expressions = ctx.argumentList() != null ? ctx.argumentList().expression() : List.of();
+        List<Node> values = new ArrayList<>();
+        for (var expression : expressions) {
+            values.add(expression(expression));
+        }
+
+        // O gerador não verifica a quantidade de argumentos, mas a classe gerada nesse caso não passa na verificação da JVM
+        TypeResolver.checkArgumentCount(ctx, methodName, target.parameterTypes.size(), values.size());
+
+        Call.Argument[] arguments = new Call.Argument[values.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = new Call.Argument(values.get(i), target.parameterTypes.get(i));
+        }
+
+        return new Call(interpreter, target, arguments);
+    }
+
+    private Node load(ParserRuleContext ctx, String varName) {
+        Variable local = localVariablesStack.isEmpty() ? null : localVariablesStack.peek().load(varName);
+
+        if (local != null) {
+            int slot = local.index();
+
+            if (TYPE_INT.equals(local.type())) {
+                return (IntNode) frame -> frame.values[slot];
+            }
+            if (TYPE_FLOAT.equals(local.type())) {
+                return (FloatNode) frame -> frame.getFloat(slot);
+            }
+            return frame -> frame.refs[slot];
+        }
+
+        Variable field = types.variable(ctx, varName);
+
+        if (interpreter.constantFields.contains(varName)) {
+            return constant(field.value());
+        }
+
+        int index = interpreter.fieldIndexes.get(varName);
+        SimpleLangInterpreter interpreter = this.interpreter;
+
+        return switch (field.type()) {
+            case TYPE_INT -> (IntNode) frame -> interpreter.fieldStore.getInt(index);
+            case TYPE_FLOAT -> (FloatNode) frame -> interpreter.fieldStore.getFloat(index);
+            default -> frame -> interpreter.fieldStore.getRef(index);
+        };
+    }
+
+    private Statement store(ParserRuleContext ctx, String varName, Node value) {
+        Variable local = localVariablesStack.isEmpty() ? null : localVariablesStack.peek().load(varName);
+
+        if (local != null) {
+            int slot = local.index();
+
+            return switch (local.type()) {
+                case TYPE_INT -> {
+                    IntNode node = asInt(value);
+                    yield frame -> {
+                        frame.values[slot] = node.evalInt(frame);
+                        return Statement.NORMAL;
+                    };
+                }
+                case TYPE_FLOAT -> {
+                    FloatNode node = asFloat(value);
+                    yield frame -> {
+                        frame.setFloat(slot, node.evalFloat(frame));
+                        return Statement.NORMAL;
+                    };
+                }
+                default -> frame -> {
+                    frame.refs[slot] = value.eval(frame);
+                    return Statement.NORMAL;
+                };
+            };
+        }
+
+        Variable field = types.variable(ctx, varName);
+        int index = interpreter.fieldIndexes.get(varName);
+        SimpleLangInterpreter interpreter = this.interpreter;
+
+        return switch (field.type()) {
+            case TYPE_INT -> {
+                IntNode node = asInt(value);
+                yield frame -> {
+                    interpreter.fieldStore.setInt(index, node.evalInt(frame));
+                    return Statement.NORMAL;
+                };
+            }
+            case TYPE_FLOAT -> {
+                FloatNode node = asFloat(value);
+                yield frame -> {
+                    interpreter.fieldStore.setFloat(index, node.evalFloat(frame));
+                    return Statement.NORMAL;
+                };
+            }
+            default -> frame -> {
+                interpreter.fieldStore.setRef(index, value.eval(frame));
+                return Statement.NORMAL;
+            };
+        };
+    }
+
+    private Writer writer(ParserRuleContext ctx, String varName) {
+        Variable local = localVariablesStack.isEmpty() ? null : localVariablesStack.peek().load(varName);
+
+        if (local != null) {
+            int slot = local.index();
+
+            return switch (local.type()) {
+                case TYPE_INT -> (frame, value) -> frame.values[slot] = (Integer) value;
+                case TYPE_FLOAT -> (frame, value) -> frame.setFloat(slot, (Float) value);
+                default -> (frame, value) -> frame.refs[slot] = value;
+            };
+        }
+
+        Variable field = types.variable(ctx, varName);
+        int index = interpreter.fieldIndexes.get(varName);
+        SimpleLangInterpreter interpreter = this.interpreter;
+
+        return switch (field.type()) {
+            case TYPE_INT -> (frame, value) -> interpreter.fieldStore.setInt(index, (Integer) value);
+            case TYPE_FLOAT -> (frame, value) -> interpreter.fieldStore.setFloat(index, (Float) value);
+            default -> (frame, value) -> interpreter.fieldStore.setRef(index, value);
+        };
+    }
+
+    static Node constant(Object value) {
+        if (value instanceof Integer intValue) {
+            int constant = intValue;
+            return (IntNode) frame -> constant;
+        }
+
+        if (value instanceof Float floatValue) {
+            float constant = floatValue;
+            return (FloatNode) frame -> constant;
+        }
+
+        return frame -> value;
+    }
+
+    /**
+     * O valor como int. Só converte quando o gerador produziria uma classe que não passa na verificação da JVM
+     * (ex: soma int com o retorno float de um método), em que o interpretador é mais tolerante.
+     */
+    static IntNode asInt(Node value) {
+        if (value instanceof IntNode node) {
+            return node;
+        }
+
+        if (value instanceof FloatNode node) {
+            return frame -> (int) node.evalFloat(frame);
+        }
+
+        return frame -> ((Number) value.eval(frame)).intValue();
+    }
+
+    /**
+     * O valor como float, convertendo inteiros como o I2F do bytecode gerado.
+     */
+    static FloatNode asFloat(Node value) {
+        if (value instanceof FloatNode node) {
+            return node;
+        }
+
+        if (value instanceof IntNode node) {
+            return frame -> node.evalInt(frame);
+        }
+
+        return frame -> ((Number) value.eval(frame)).floatValue();
+    }
+}
@@ -0,0 +1,12 @@
+package org.dimer.interpreter;
+
+/**
+ * Expressão já ligada: variáveis resolvidas para slots ou campos, métodos para os seus alvos e tipos decididos,
+ * restando apenas calcular o valor. Expressões int e float implementam {@link IntNode} e {@link FloatNode}, que
+ * calculam sem converter o valor em objeto.
+ */
+@FunctionalInterface
+interface Node {
+
+    Object eval(Frame frame);
+}
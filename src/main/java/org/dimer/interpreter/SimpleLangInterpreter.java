@@ -0,0 +1,349 @@
+package org.dimer.interpreter;
+
+import org.dimer.SimpleLangParser;
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.TypeResolver;
+import org.dimer.compiler.analysis.AssignedNamesCollector;
+import org.dimer.compiler.analysis.FieldWritesAnalysis;
+import org.dimer.compiler.analysis.MemoAnalysis;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.compiler.data.Method;
+import org.dimer.compiler.data.Variable;
+import org.dimer.runtime.IoContext;
+import org.dimer.runtime.MemoCache;
+import org.dimer.runtime.Memoized;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.dimer.compiler.util.CompilerConstants.*;
+
+/**
+ * Executa um programa direto da árvore do parser, sem gerar bytecode antes, para que programas curtos comecem a
+ * rodar sem pagar o custo da geração, dos passes e do carregamento da classe.
+ * <p>
+ * Cada método conta as próprias chamadas e voltas de laços. Quando um deles passa do limite, a classe inteira é
+ * compilada pelo {@link SimpleLangCompiler} em uma thread de fundo, sem parar o programa, e a partir daí as chamadas
+ * aos métodos quentes vão para a versão compilada. A troca é feita na próxima chamada de método fora de blocos
+ * concurrent, quando os campos interpretados são copiados para a instância compilada e passam a ser
+ * lidos dela. Uma execução que já está dentro de um método interpretado continua interpretada até ele retornar
+ * (não há troca no meio de um laço), e o init nunca é trocado.
+ */
+public class SimpleLangInterpreter implements Memoized {
+
+    public static final int DEFAULT_HOT_THRESHOLD = 1000;
+
+    private final String internalClassName;
+    private final CompilerOptions options;
+    private final int hotThreshold;
+    final IoContext io;
+
+    final Map<String, Variable> classVariables = new LinkedHashMap<>();
+    final Set<String> constantFields = new HashSet<>();
+    // Índice de cada campo não constante no FieldStore
+    final Map<String, Integer> fieldIndexes = new HashMap<>();
+    private final List<Variable> fields = new ArrayList<>();
+    final Map<String, Method> methods = new HashMap<>();
+    final Map<String, InterpretedMethod> targets = new LinkedHashMap<>();
+    Set<String> fieldWritingMethods = Set.of();
+    Set<String> mapChangingMethods = Set.of();
+    Set<String> writeMethods = Set.of();
+    volatile FieldStore fieldStore;
+
+    // Blocos concurrent em execução: enquanto houver algum, outras threads podem estar escrevendo nos campos
+    // interpretados, e a classe compilada não é instalada
+    private final AtomicInteger activeRegions = new AtomicInteger();
+    private SimpleLangParser.ProgramContext tree;
+    private final List<InterpretedMethod> hotMethods = new ArrayList<>();
+    private final Set<String> compiledMethods = new LinkedHashSet<>();
+    private Thread compiler;
+    private volatile CompiledProgram ready;
+    private CompiledProgram installed;
+
+    /**
+     * Classe compilada em segundo plano, pronta para ser instalada.
+     */
+    private record CompiledProgram(FieldStore fieldStore, Map<String, MethodHandle> handles) {
+    }
+
+    /**
+     * @param internalClassName nome da classe no formato da JVM, usado se ela for compilada (ex: org/dimer/code/Hello)
+     */
+    public SimpleLangInterpreter(String internalClassName) {
+        this(internalClassName, CompilerOptions.defaults(), DEFAULT_HOT_THRESHOLD);
+    }
+
+    /**
+     * @param options      opções da compilação dos métodos quentes (o profile é ignorado)
+     * @param hotThreshold quantidade de chamadas mais voltas de laços para um método ser compilado (0 = nunca compilar)
+     */
+    public SimpleLangInterpreter(String internalClassName, CompilerOptions options, int hotThreshold) {
+        this(internalClassName, options, hotThreshold, IoContext.console());
+    }
+
+    /**
+     * @param io entrada e saída do programa, usadas também pelos métodos compilados
+     */
+    public SimpleLangInterpreter(String internalClassName, CompilerOptions options, int hotThreshold, IoContext io) {
+        this.internalClassName = internalClassName;
+        this.options = options;
+        this.hotThreshold = hotThreshold;
+        this.io = io;
+    }
+
+    public int hotThreshold() {
+        return hotThreshold;
+    }
+
+    CompilerOptions options() {
+        return options;
+    }
+
+    /**
+     * Executa o init do programa. Os erros de compilação (ex: variável não encontrada) são lançados antes de
+     * qualquer comando ser executado, com as mesmas mensagens do compilador.
+     */
+    public void run(SimpleLangParser.ProgramContext tree) {
+        this.tree = tree;
+        SimpleLangParser.ClassDeclarationContext classDeclaration = tree.classDeclaration().getFirst();
+
+        declare(classDeclaration);
+
+        // Todos os corpos são ligados antes da execução, assim como todo o bytecode é gerado antes de a classe rodar
+        for (var methodDeclaration : classDeclaration.methodsSection().methodDeclaration()) {
+            new Linker(this).linkMethod(methodDeclaration, targets.get(methodDeclaration.IDENTIFIER().getText()));
+        }
+
+        Linker initLinker = new Linker(this);
+        Statement init = initLinker.linkInit(classDeclaration.initSection());
+        Frame frame = new Frame(initLinker.initFrameSize());
+
+        fieldStore = initialFields();
+        init.exec(frame);
+    }
+
+    private void declare(SimpleLangParser.ClassDeclarationContext ctx) {
+        Set<String> assignedNames = AssignedNamesCollector.collect(ctx);
+        fieldWritingMethods = FieldWritesAnalysis.methodsWritingFields(ctx);
+        mapChangingMethods = FieldWritesAnalysis.methodsChangingMaps(ctx);
+        writeMethods = FieldWritesAnalysis.methodsUsingWrite(ctx);
+        Map<String, Integer> memoMethods = MemoAnalysis.memoMethods(ctx);
+
+        for (var varDeclaration : ctx.varSection().varDeclaration()) {
+            String varName = varDeclaration.IDENTIFIER().getText();
+            String varType = varDeclaration.type().getText();
+            TypeResolver.typeToDescriptor(varType);
+            TypeResolver.checkField(varDeclaration);
+
+            var literal = varDeclaration.expression() != null ? varDeclaration.expression().literal() : null;
+            var value = TypeResolver.literalValue(literal);
+
+            // Mesma regra do compilador para os campos que viram constantes
+            if (value != null && !assignedNames.contains(varName) && varType.equals(TypeResolver.literalType(literal))) {
+                constantFields.add(varName);
+            } else {
+                constantFields.remove(varName);
+            }
+
+            classVariables.put(varName, new Variable(varName, varType, value));
+        }
+
+        for (Variable variable : classVariables.values()) {
+            if (!constantFields.contains(variable.name())) {
+                fieldIndexes.put(variable.name(), fields.size());
+                fields.add(variable);
+            }
+        }
+
+        for (var methodDeclaration : ctx.methodsSection().methodDeclaration()) {
+            TypeResolver.declareMethod(methods, methodDeclaration);
+
+            Method method = methods.get(methodDeclaration.IDENTIFIER().getText());
+            List<String> parameterTypes = new ArrayList<>();
+            if (methodDeclaration.parameterList() != null) {
+                methodDeclaration.parameterList().parameter().forEach(parameter -> parameterTypes.add(parameter.type().getText()));
+            }
+
+            InterpretedMethod target = new InterpretedMethod(this, method.name(), method.returnType(), method.descriptor(), parameterTypes);
+            if (memoMethods.containsKey(method.name())) {
+                target.memo = new MemoCache(method.name(), memoMethods.get(method.name()));
+            }
+            targets.put(method.name(), target);
+        }
+    }
+
+    private FieldStore initialFields() {
+        ArrayFieldStore store = new ArrayFieldStore(fields.size());
+
+        for (int i = 0; i < fields.size(); i++) {
+            Variable field = fields.get(i);
+
+            if (TypeResolver.isMap(field.type())) {
+                store.setRef(i, Linker.newMap(field.type()));
+                continue;
+            }
+
+            if (field.value() == null) {
+                continue;
+            }
+
+            // Literais de outro tipo (ex: 1 em um campo float) são convertidos, em vez de falharem na verificação da JVM
+            switch (field.type()) {
+                case TYPE_INT -> store.setInt(i, ((Number) field.value()).intValue());
+                case TYPE_FLOAT -> store.setFloat(i, ((Number) field.value()).floatValue());
+                default -> store.setRef(i, field.value());
+            }
+        }
+
+        return store;
+    }
+
+    /**
+     * Caches dos métodos memo, compartilhados com a versão compilada depois da troca.
+     */
+    @Override
+    public List<MemoCache> memoCaches() {
+        List<MemoCache> caches = new ArrayList<>();
+        targets.values().forEach(method -> {
+            if (method.memo != null) {
+                caches.add(method.memo);
+            }
+        });
+        return caches;
+    }
+
+    /**
+     * Nomes dos métodos que já passaram a executar a versão compilada.
+     */
+    public synchronized Set<String> compiledMethods() {
+        return Set.copyOf(compiledMethods);
+    }
+
+    /**
+     * Chamado quando um método passa do limite de execuções.
+     */
+    synchronized void hot(InterpretedMethod method) {
+        if (method.hot) {
+            return;
+        }
+        method.hot = true;
+
+        if (installed != null) {
+            install(method, installed);
+            return;
+        }
+
+        hotMethods.add(method);
+
+        if (compiler == null) {
+            compiler = Thread.ofPlatform().daemon().name("simplelang-jit").start(this::compile);
+        }
+    }
+
+    private void compile() {
+        try {
+            CompiledClass compiledClass = new SimpleLangCompiler(options.withParallelism(1).withProfile(false))
+                    .addPass(new InterpreterConstructorPass())
+                    .generate(tree, internalClassName);
+
+            Class<?> type = new SimpleLangClassLoader().define(compiledClass);
+            Object instance = type.getConstructor(IoContext.class, Void.class).newInstance(io, null);
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+
+            // Os métodos memo compilados continuam usando os caches já preenchidos pela execução interpretada
+            for (InterpretedMethod method : targets.values()) {
+                if (method.memo != null) {
+                    lookup.findSetter(type, MEMO_CACHE_FIELD_PREFIX + method.name, MemoCache.class).invoke(instance, method.memo);
+                }
+            }
+
+            Map<String, MethodHandle> handles = new HashMap<>();
+            for (InterpretedMethod method : targets.values()) {
+                MethodType methodType = MethodType.fromMethodDescriptorString(method.descriptor, type.getClassLoader());
+                MethodHandle handle = lookup.findVirtual(type, method.name, methodType)
+                        .bindTo(instance)
+                        .asSpreader(Object[].class, method.parameterTypes.size())
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+                handles.put(method.name, handle);
+            }
+
+            ready = new CompiledProgram(new InstanceFieldStore(lookup, instance, fields), handles);
+        } catch (Throwable e) {
+            // O programa segue interpretado, com o mesmo resultado
+            System.err.println("Aviso: não foi possível compilar " + internalClassName + ", a execução continua interpretada: " + e);
+        }
+    }
+
+    /**
+     * Ponto seguro, chamado antes de cada chamada de método: instala a classe compilada se ela estiver pronta e
+     * nenhum bloco concurrent estiver rodando. Nos laços parallel a instalação pode ser feita por qualquer uma das
+     * threads, já que o corpo deles só lê os campos.
+     */
+    void poll() {
+        if (ready != null && activeRegions.get() == 0) {
+            installReady();
+        }
+    }
+
+    private synchronized void installReady() {
+        CompiledProgram program = ready;
+        if (program == null || installed != null) {
+            return;
+        }
+
+        for (int i = 0; i < fields.size(); i++) {
+            switch (fields.get(i).type()) {
+                case TYPE_INT -> program.fieldStore().setInt(i, fieldStore.getInt(i));
+                case TYPE_FLOAT -> program.fieldStore().setFloat(i, fieldStore.getFloat(i));
+                default -> program.fieldStore().setRef(i, fieldStore.getRef(i));
+            }
+        }
+
+        fieldStore = program.fieldStore();
+        installed = program;
+        ready = null;
+
+        hotMethods.forEach(method -> install(method, program));
+        hotMethods.clear();
+    }
+
+    private void install(InterpretedMethod method, CompiledProgram program) {
+        method.compiled = program.handles().get(method.name);
+        compiledMethods.add(method.name);
+    }
+
+    /**
+     * Executa um bloco concurrent, durante o qual a classe compilada não é instalada.
+     */
+    <T> T inRegion(Supplier<T> region) {
+        activeRegions.incrementAndGet();
+        try {
+            return region.get();
+        } finally {
+            activeRegions.decrementAndGet();
+        }
+    }
+
+    static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
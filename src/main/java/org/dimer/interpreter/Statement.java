@@ -0,0 +1,16 @@
+package org.dimer.interpreter;
+
+/**
+ * Comando já ligado. O resultado indica se a execução continua no próximo comando ou se sai do método.
+ */
+@FunctionalInterface
+interface Statement {
+
+    int NORMAL = 0;
+    // O valor de retorno já está no frame
+    int RETURN = 1;
+    // Chamada recursiva em cauda: os parâmetros já têm os novos valores e o corpo deve ser executado de novo
+    int TAIL_CALL = 2;
+
+    int exec(Frame frame);
+}
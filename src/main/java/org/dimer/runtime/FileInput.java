@@ -0,0 +1,321 @@
+package org.dimer.runtime;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Leitura de um arquivo linha a linha ou campo a campo, usada pelos comandos lines e fields. O arquivo nunca é
+ * carregado inteiro: apenas um trecho dele (a janela) fica acessível de cada vez, então arquivos de vários
+ * gigabytes são lidos com memória constante.
+ * <p>
+ * Arquivos a partir de {@link #MAPPED_THRESHOLD} são mapeados na memória em janelas de {@link #MAPPED_WINDOW}
+ * bytes, sem cópia para o heap: os bytes são lidos direto do cache de páginas do sistema operacional. Um único
+ * MappedByteBuffer não passa de 2GB, por isso a janela anda pelo arquivo. Arquivos menores são lidos com
+ * {@link FileChannel#read} em um array, já que o custo de mapear não compensa.
+ * <p>
+ * Os separadores são procurados 8 bytes de cada vez, e {@link #intValue()} converte os dígitos direto dos bytes,
+ * sem criar uma String para cada valor. O texto é decodificado como UTF-8. Um '\r' antes do fim de linha é
+ * ignorado, assim como no read.
+ */
+public final class FileInput implements AutoCloseable {
+
+    public static final long MAPPED_THRESHOLD = 1 << 20;
+    public static final int MAPPED_WINDOW = 64 << 20;
+    private static final int READ_BUFFER = 64 << 10;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final FileChannel channel;
+    private final long size;
+    private final boolean mapped;
+    // Delimitador dos campos em UTF-8, ou null para ler linhas
+    private final byte[] delimiter;
+
+    private ByteBuffer window;
+    // Array da janela quando o arquivo é lido com read (null quando mapeado)
+    private byte[] array;
+    // Posição do início da janela no arquivo
+    private long windowStart;
+    private int position;
+    // Valor atual: bytes [start, end) da janela
+    private int start;
+    private int end;
+    private boolean lineStart = true;
+    private byte[] scratch = new byte[128];
+
+    private FileInput(String path, byte[] delimiter) {
+        try {
+            this.channel = FileChannel.open(Path.of(path), StandardOpenOption.READ);
+            this.size = channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o arquivo " + path, e);
+        }
+
+        this.mapped = size >= MAPPED_THRESHOLD;
+        this.delimiter = delimiter;
+        load(0, mapped ? MAPPED_WINDOW : READ_BUFFER);
+    }
+
+    /**
+     * Leitura das linhas do arquivo.
+     */
+    public static FileInput lines(String path) {
+        return new FileInput(path, null);
+    }
+
+    /**
+     * Leitura dos campos do arquivo, separados pelo delimitador ou pelo fim de linha. Linhas vazias não têm campos.
+     */
+    public static FileInput fields(String path, String delimiter) {
+        if (delimiter == null || delimiter.isEmpty()) {
+            throw new IllegalArgumentException("Delimitador dos campos não pode ser vazio");
+        }
+        if (delimiter.indexOf('\n') >= 0 || delimiter.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Delimitador dos campos não pode conter fim de linha");
+        }
+        return new FileInput(path, delimiter.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Avança para a próxima linha ou campo.
+     *
+     * @return false quando o arquivo termina
+     */
+    public boolean next() {
+        while (true) {
+            int limit = window.limit();
+            int found = delimiter == null ? findNewLine(position, limit) : findSeparator(position, limit);
+
+            if (found >= 0) {
+                boolean newLine = window.get(found) == NEW_LINE;
+                start = position;
+                end = found;
+                position = found + (newLine ? 1 : delimiter.length);
+
+                // Uma linha vazia não tem campos
+                boolean emptyLine = delimiter != null && newLine && lineStart && trimmedEnd() == start;
+                lineStart = newLine;
+                if (emptyLine) {
+                    continue;
+                }
+
+                if (newLine) {
+                    end = trimmedEnd();
+                }
+                return true;
+            }
+
+            if (windowStart + limit >= size) {
+                // Último valor, sem separador depois dele (vazio se o arquivo termina com o delimitador)
+                if (position >= limit && lineStart) {
+                    return false;
+                }
+
+                start = position;
+                end = limit;
+                position = limit;
+                end = trimmedEnd();
+
+                boolean emptyLine = delimiter != null && lineStart && end == start;
+                lineStart = true;
+                return !emptyLine;
+            }
+
+            // O valor atual continua depois da janela: ela passa a começar nele, e cresce se ele não couber
+            int pending = limit - position;
+            int capacity = mapped ? MAPPED_WINDOW : array.length;
+            load(windowStart + position, pending * 2L > capacity ? pending * 2L : capacity);
+        }
+    }
+
+    /**
+     * Valor atual como texto.
+     */
+    public String text() {
+        int length = end - start;
+
+        if (array != null) {
+            return new String(array, start, length, StandardCharsets.UTF_8);
+        }
+
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        window.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Valor atual como int. Números ASCII de até 9 dígitos são convertidos direto dos bytes; os demais (e os
+     * inválidos) passam pelo Integer.parseInt, com o mesmo resultado e os mesmos erros do read.
+     */
+    public int intValue() {
+        int index = start;
+        boolean negative = false;
+
+        if (index < end) {
+            byte sign = window.get(index);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                index++;
+            }
+        }
+
+        int digits = end - index;
+        if (digits < 1 || digits > 9) {
+            return Integer.parseInt(text());
+        }
+
+        int value = 0;
+        for (; index < end; index++) {
+            int digit = window.get(index) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(text());
+            }
+            value = value * 10 + digit;
+        }
+
+        return negative ? -value : value;
+    }
+
+    public float floatValue() {
+        return Float.parseFloat(text());
+    }
+
+    @Override
+    public void close() {
+        window = null;
+        array = null;
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fim do valor atual sem o '\r' de um fim de linha Windows.
+     */
+    private int trimmedEnd() {
+        return end > start && window.get(end - 1) == CARRIAGE_RETURN ? end - 1 : end;
+    }
+
+    private int findNewLine(int from, int limit) {
+        int index = from;
+
+        // 8 bytes de cada vez: a máscara só tem bits ligados se algum dos bytes pode ser o fim de linha
+        for (; index + Long.BYTES <= limit; index += Long.BYTES) {
+            if (matches(window.getLong(index), NEW_LINE) != 0) {
+                break;
+            }
+        }
+
+        for (; index < limit; index++) {
+            if (window.get(index) == NEW_LINE) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    private int findSeparator(int from, int limit) {
+        byte first = delimiter[0];
+        int index = from;
+
+        while (index < limit) {
+            for (; index + Long.BYTES <= limit; index += Long.BYTES) {
+                long word = window.getLong(index);
+                if ((matches(word, NEW_LINE) | matches(word, first)) != 0) {
+                    break;
+                }
+            }
+
+            int wordEnd = Math.min(index + Long.BYTES, limit);
+            for (; index < wordEnd; index++) {
+                byte current = window.get(index);
+                if (current == NEW_LINE) {
+                    return index;
+                }
+                if (current == first) {
+                    if (index + delimiter.length > limit) {
+                        // O delimitador pode continuar na próxima janela, a não ser que o arquivo termine aqui
+                        if (windowStart + limit < size) {
+                            return -1;
+                        }
+                    } else if (delimiterAt(index)) {
+                        return index;
+                    }
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private boolean delimiterAt(int index) {
+        for (int i = 1; i < delimiter.length; i++) {
+            if (window.get(index + i) != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bits altos ligados nos bytes da palavra iguais ao valor (e possivelmente em bytes logo acima de um igual).
+     */
+    private static long matches(long word, byte value) {
+        long bytes = word ^ (ONES * (value & 0xFF));
+        return (bytes - ONES) & ~bytes & HIGH_BITS;
+    }
+
+    /**
+     * Faz a janela começar na posição do arquivo, com pelo menos o tamanho pedido (ou até o fim do arquivo).
+     */
+    private void load(long fileStart, long capacity) {
+        long length = Math.min(capacity, size - fileStart);
+        if (length > Integer.MAX_VALUE - Long.BYTES) {
+            throw new IllegalStateException("Linha ou campo maior que 2GB no arquivo");
+        }
+
+        try {
+            if (mapped) {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, fileStart, length);
+            } else {
+                byte[] buffer = array != null && array.length >= capacity ? array : new byte[(int) capacity];
+                int pending = 0;
+
+                // Os bytes ainda não lidos da janela anterior vão para o início do array
+                if (array != null) {
+                    pending = (int) (windowStart + window.limit() - fileStart);
+                    System.arraycopy(array, (int) (fileStart - windowStart), buffer, 0, pending);
+                }
+
+                ByteBuffer target = ByteBuffer.wrap(buffer, pending, (int) length - pending);
+                while (target.hasRemaining() && channel.read(target, fileStart + target.position()) >= 0) {
+                    // Lê até encher a janela ou o arquivo terminar
+                }
+
+                array = buffer;
+                window = ByteBuffer.wrap(buffer, 0, target.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = fileStart;
+        position = 0;
+    }
+}
@@ -0,0 +1,160 @@
+package org.dimer.runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saída de um bloco write: um PrintStream que escreve em um FileChannel através de um buffer de
+ * {@link #BUFFER_SIZE} bytes, então cada print não chega a ser uma chamada ao sistema operacional.
+ * <p>
+ * O código gerado só usa os println. No PrintStream, cada println passa por um encoder de caracteres e esvazia os
+ * buffers internos dele a cada chamada; aqui o texto é copiado direto para o buffer (strings ASCII sem nenhuma
+ * conversão). Os demais métodos do PrintStream continuam funcionando e escrevem no mesmo buffer, na ordem das
+ * chamadas. Assim como no PrintStream, os erros de escrita não lançam exceções, e aparecem no {@link #checkError()}.
+ */
+public final class FileOutput extends PrintStream {
+
+    public static final int BUFFER_SIZE = 64 << 10;
+
+    private final ChannelOutputStream channel;
+
+    private FileOutput(ChannelOutputStream channel) {
+        super(channel, false, StandardCharsets.UTF_8);
+        this.channel = channel;
+    }
+
+    /**
+     * Abre o arquivo para escrita, criado ou truncado.
+     */
+    public static FileOutput open(String path) {
+        try {
+            return new FileOutput(new ChannelOutputStream(FileChannel.open(Path.of(path), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o arquivo " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized void println(String x) {
+        writeLine(x == null ? "null" : x);
+    }
+
+    @Override
+    public synchronized void println(int x) {
+        writeLine(String.valueOf(x));
+    }
+
+    @Override
+    public synchronized void println(float x) {
+        writeLine(String.valueOf(x));
+    }
+
+    @Override
+    public synchronized void println(Object x) {
+        writeLine(String.valueOf(x));
+    }
+
+    private void writeLine(String text) {
+        try {
+            channel.writeText(text);
+            channel.write('\n');
+        } catch (IOException e) {
+            setError();
+        }
+    }
+
+    private static final class ChannelOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int count;
+
+        private ChannelOutputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Strings só com caracteres ASCII (o caso comum) são copiadas byte a byte; as demais são convertidas para
+         * UTF-8.
+         */
+        void writeText(String text) throws IOException {
+            int length = text.length();
+
+            if (length > buffer.length - count) {
+                flushBuffer();
+                if (length > buffer.length) {
+                    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                    write(bytes, 0, bytes.length);
+                    return;
+                }
+            }
+
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80) {
+                    byte[] bytes = text.substring(i).getBytes(StandardCharsets.UTF_8);
+                    write(bytes, 0, bytes.length);
+                    return;
+                }
+                buffer[count++] = (byte) c;
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length > buffer.length - count) {
+                flushBuffer();
+                if (length > buffer.length) {
+                    writeFully(ByteBuffer.wrap(bytes, offset, length));
+                    return;
+                }
+            }
+
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushBuffer();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushBuffer();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            if (count > 0) {
+                writeFully(ByteBuffer.wrap(buffer, 0, count));
+                count = 0;
+            }
+        }
+
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+}
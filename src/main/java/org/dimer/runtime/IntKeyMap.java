@@ -0,0 +1,261 @@
+package org.dimer.runtime;
+
+/**
+ * Map com chaves int usado pelas variáveis 'map&lt;int,...&gt;' dos programas. É uma tabela de endereçamento aberto
+ * com sondagem linear: as chaves ficam em um int[] e os valores em um int[] (int, ou os bits de um float) ou em um
+ * String[], na mesma posição da chave. Não há Integer nem um objeto por entrada como no {@link java.util.HashMap}.
+ * <p>
+ * A posição livre é marcada pela chave 0, então a chave 0 de verdade fica em uma posição extra no fim dos arrays.
+ * As remoções movem para trás as chaves seguintes da sequência, em vez de deixar marcadores de removido.
+ * Buscar uma chave que não existe devolve o valor padrão do tipo (0, 0.0 ou null), o mesmo de uma variável não
+ * inicializada. Não é thread-safe.
+ */
+public final class IntKeyMap {
+
+    public static final int INT_VALUES = 0;
+    public static final int FLOAT_VALUES = 1;
+    public static final int STRING_VALUES = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int valueKind;
+    private int[] keys;
+    private int[] values;
+    private String[] strings;
+    private boolean containsZero;
+    private int size;
+    private int mask;
+    private int threshold;
+
+    /**
+     * @param valueKind {@link #INT_VALUES}, {@link #FLOAT_VALUES} ou {@link #STRING_VALUES}
+     */
+    public IntKeyMap(int valueKind) {
+        this.valueKind = valueKind;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int key) {
+        return find(key) >= 0;
+    }
+
+    public int getInt(int key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    public float getFloat(int key) {
+        int slot = find(key);
+        return slot >= 0 ? Float.intBitsToFloat(values[slot]) : 0f;
+    }
+
+    public String getString(int key) {
+        int slot = find(key);
+        return slot >= 0 ? strings[slot] : null;
+    }
+
+    public void putInt(int key, int value) {
+        int slot = insert(key);
+        values[slot] = value;
+    }
+
+    public void putFloat(int key, float value) {
+        int slot = insert(key);
+        values[slot] = Float.floatToRawIntBits(value);
+    }
+
+    public void putString(int key, String value) {
+        int slot = insert(key);
+        strings[slot] = value;
+    }
+
+    public void remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+
+        size--;
+
+        if (key == 0) {
+            containsZero = false;
+            clearValue(slot);
+            return;
+        }
+
+        shiftKeys(slot);
+    }
+
+    /**
+     * @return a posição da chave, ou -(posição onde ela seria inserida) - 1
+     */
+    private int find(int key) {
+        if (key == 0) {
+            return containsZero ? mask + 1 : -(mask + 1) - 1;
+        }
+
+        int slot = hash(key) & mask;
+        int current;
+
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -slot - 1;
+    }
+
+    /**
+     * @return a posição da chave, inserida com o valor padrão caso ainda não exista
+     */
+    private int insert(int key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return slot;
+        }
+
+        slot = -slot - 1;
+
+        if (key == 0) {
+            containsZero = true;
+        } else {
+            keys[slot] = key;
+        }
+
+        if (++size > threshold) {
+            rehash(keys.length * 2 - 2);
+            return find(key);
+        }
+
+        return slot;
+    }
+
+    /**
+     * Depois de liberar uma posição, move para ela a próxima chave da sequência que não seria mais encontrada
+     * (a posição ideal dela fica antes da posição livre, considerando a volta no fim da tabela), e repete com a
+     * posição que essa chave deixou livre até chegar em uma posição vazia.
+     */
+    private void shiftKeys(int free) {
+        int slot = free;
+
+        while (true) {
+            slot = (slot + 1) & mask;
+            int current = keys[slot];
+
+            if (current == 0) {
+                keys[free] = 0;
+                clearValue(free);
+                return;
+            }
+
+            int ideal = hash(current) & mask;
+            boolean reachable = free <= slot ? free < ideal && ideal <= slot : free < ideal || ideal <= slot;
+
+            if (!reachable) {
+                keys[free] = current;
+                moveValue(slot, free);
+                free = slot;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        String[] oldStrings = strings;
+        int oldCapacity = oldKeys.length - 1;
+
+        allocate(capacity);
+
+        for (int i = 0; i < oldCapacity; i++) {
+            int key = oldKeys[i];
+            if (key == 0) {
+                continue;
+            }
+
+            int slot = hash(key) & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = key;
+            copyValue(oldValues, oldStrings, i, slot);
+        }
+
+        copyValue(oldValues, oldStrings, oldCapacity, capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity + 1];
+        if (valueKind == STRING_VALUES) {
+            strings = new String[capacity + 1];
+        } else {
+            values = new int[capacity + 1];
+        }
+        mask = capacity - 1;
+        threshold = capacity * 3 / 4;
+    }
+
+    private void copyValue(int[] fromValues, String[] fromStrings, int from, int to) {
+        if (valueKind == STRING_VALUES) {
+            strings[to] = fromStrings[from];
+        } else {
+            values[to] = fromValues[from];
+        }
+    }
+
+    private void moveValue(int from, int to) {
+        copyValue(values, strings, from, to);
+    }
+
+    private void clearValue(int slot) {
+        if (valueKind == STRING_VALUES) {
+            strings[slot] = null;
+        } else {
+            values[slot] = 0;
+        }
+    }
+
+    /**
+     * Espalha os bits da chave (multiplicação de Fibonacci), para que chaves sequenciais não ocupem posições
+     * vizinhas e formem sequências longas.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Entradas na ordem das posições da tabela, ex: {1=10, 2=20}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+
+        for (int slot = 0; slot < keys.length; slot++) {
+            boolean used = slot < keys.length - 1 ? keys[slot] != 0 : containsZero;
+            if (!used) {
+                continue;
+            }
+
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+
+            builder.append(keys[slot]).append('=');
+            switch (valueKind) {
+                case INT_VALUES -> builder.append(values[slot]);
+                case FLOAT_VALUES -> builder.append(Float.intBitsToFloat(values[slot]));
+                default -> builder.append(strings[slot]);
+            }
+        }
+
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,126 @@
+package org.dimer.runtime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Entrada e saída de uma instância de programa compilado, recebidas pelo construtor da classe gerada. Os comandos
+ * print e read usam o contexto da própria instância em vez de System.out e System.in, então várias instâncias podem
+ * rodar ao mesmo tempo na mesma JVM, cada uma com a sua entrada e saída (ver {@link ProgramRunner}).
+ * <p>
+ * Todas as leituras da instância usam o mesmo reader, inclusive as feitas em métodos diferentes. As leituras e
+ * escritas podem ser feitas por várias threads (blocos concurrent e laços parallel).
+ * <p>
+ * Dentro de um bloco write, a saída da instância passa a ser o arquivo do bloco ({@link #openOutput(String)}), e
+ * volta a ser a anterior quando o bloco termina ({@link #closeOutput(PrintStream)}). A troca vale para todas as
+ * threads da instância, então o compilador não deixa um write ser executado enquanto outra thread do programa roda
+ * (ver {@link org.dimer.compiler.analysis.ParallelBodyChecker} e
+ * {@link org.dimer.compiler.analysis.ConcurrentBlockChecker}): os blocos write sempre terminam na ordem inversa
+ * em que começaram.
+ */
+public final class IoContext {
+
+    // Entrada recebida no construtor (apenas um dos dois): o reader com buffer só é criado na primeira leitura, já
+    // que muitos programas nunca leem e os buffers do InputStreamReader e do BufferedReader passam de 20KB
+    private final InputStream inputStream;
+    private final Reader inputReader;
+    private volatile BufferedReader in;
+    private volatile PrintStream out;
+
+    public IoContext(InputStream in, PrintStream out) {
+        this.inputStream = in;
+        this.inputReader = null;
+        this.out = out;
+    }
+
+    public IoContext(Reader in, PrintStream out) {
+        this.inputStream = null;
+        this.inputReader = in;
+        this.in = in instanceof BufferedReader bufferedReader ? bufferedReader : null;
+        this.out = out;
+    }
+
+    /**
+     * Contexto que escreve a saída em um Writer, como o do ScriptContext do javax.script. O texto impresso passa
+     * pelo PrintStream usado pelo código gerado e é convertido de volta em caracteres.
+     */
+    public IoContext(Reader in, Writer out) {
+        this(in, new PrintStream(new WriterOutputStream(out), false, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Contexto com o System.in e o System.out do momento da chamada, usado pelo construtor sem argumentos e pelo main.
+     */
+    public static IoContext console() {
+        return new IoContext(System.in, System.out);
+    }
+
+    public PrintStream out() {
+        return out;
+    }
+
+    /**
+     * Passa a escrever a saída no arquivo, criado ou truncado, através de um {@link FileOutput}.
+     *
+     * @return a saída anterior, que deve ser devolvida ao {@link #closeOutput(PrintStream)}
+     */
+    public PrintStream openOutput(String path) {
+        PrintStream previous = out;
+        out = FileOutput.open(path);
+        return previous;
+    }
+
+    /**
+     * Fecha o arquivo aberto pelo {@link #openOutput(String)} e volta para a saída anterior.
+     */
+    public void closeOutput(PrintStream previous) {
+        // Nunca fecha a saída recebida no construtor (ex: o System.out), mesmo se os blocos saírem de ordem
+        if (!(out instanceof FileOutput file)) {
+            throw new IllegalStateException("Nenhum arquivo aberto por um bloco write");
+        }
+
+        out = previous;
+        file.close();
+
+        // O PrintStream não lança exceções: um erro de escrita (ex: disco cheio) só aparece aqui
+        if (file.checkError()) {
+            throw new UncheckedIOException(new IOException("Erro ao escrever o arquivo"));
+        }
+    }
+
+    /**
+     * Próxima linha da entrada, sem o fim de linha. Assim como o Scanner usado antes, lança
+     * NoSuchElementException quando a entrada termina.
+     */
+    public String readLine() {
+        BufferedReader reader = in;
+        if (reader == null) {
+            reader = openInput();
+        }
+
+        try {
+            String line = reader.readLine();
+            if (line == null) {
+                throw new NoSuchElementException("No line found");
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized BufferedReader openInput() {
+        if (in == null) {
+            in = new BufferedReader(inputReader != null ? inputReader : new InputStreamReader(inputStream));
+        }
+        return in;
+    }
+}
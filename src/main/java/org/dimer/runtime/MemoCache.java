@@ -0,0 +1,335 @@
+package org.dimer.runtime;
+
+import java.util.Objects;
+
+/**
+ * Cache de resultados de um método marcado como 'memo', criado para cada instância da classe gerada. A chave são
+ * os argumentos da chamada: até dois int ou float guardados juntos em um long (float pelos bits) e até duas
+ * strings. O resultado fica em um long (int, ou os bits de um float) ou em uma String.
+ * <p>
+ * Assim como no {@link IntKeyMap}, as entradas ficam em arrays, sem boxing nem um objeto por entrada: cada entrada
+ * tem um número fixo, e a tabela de endereçamento aberto guarda o número da entrada de cada posição. A ordem de uso
+ * é uma lista duplamente ligada também feita com arrays (o número da entrada usada antes e depois de cada uma).
+ * Ao chegar no tamanho máximo, a entrada usada há mais tempo é descartada e o seu número reaproveitado.
+ * <p>
+ * Thread-safe: o método pode ser chamado de laços parallel e de tarefas concurrent. O lock é mantido só durante a
+ * busca e a gravação, nunca durante a execução do método. Duas threads que calculam a mesma chave ao mesmo tempo
+ * gravam o mesmo valor duas vezes, o que não muda o resultado de um método puro.
+ */
+public final class MemoCache {
+
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+    // Resultado de getNumber quando a chave não está no cache: nenhum int ou bits de float, estendidos para long, é igual
+    public static final long MISS = Long.MIN_VALUE;
+
+    private static final int INITIAL_ENTRIES = 16;
+    private static final int NONE = -1;
+
+    private final String name;
+    private final int maxSize;
+
+    // Posições da tabela: número da entrada + 1, ou 0 na posição livre
+    private int[] table;
+    private int mask;
+
+    private long[] numberKeys;
+    private String[] firstKeys;
+    private String[] secondKeys;
+    private int[] hashes;
+    private long[] numberValues;
+    private String[] stringValues;
+    // Ordem de uso: 'newer' aponta para a entrada usada logo depois, 'older' para a usada logo antes
+    private int[] newer;
+    private int[] older;
+    private int newest = NONE;
+    private int oldest = NONE;
+    private int size;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param name    nome do método, usado nas estatísticas
+     * @param maxSize quantidade máxima de resultados guardados
+     */
+    public MemoCache(String name, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Tamanho máximo do cache deve ser maior que zero: " + maxSize);
+        }
+
+        this.name = name;
+        this.maxSize = maxSize;
+        allocate(Math.min(INITIAL_ENTRIES, maxSize));
+    }
+
+    /**
+     * Resultado int ou float (em bits) guardado para os argumentos, ou {@link #MISS}.
+     */
+    public synchronized long getNumber(long numbers, String first, String second) {
+        int entry = find(numbers, first, second, hash(numbers, first, second));
+
+        if (entry == NONE) {
+            misses++;
+            return MISS;
+        }
+
+        hits++;
+        touch(entry);
+        return numberValues[entry];
+    }
+
+    /**
+     * Resultado string guardado para os argumentos, ou null. Resultados null não são guardados.
+     */
+    public synchronized String getString(long numbers, String first, String second) {
+        int entry = find(numbers, first, second, hash(numbers, first, second));
+
+        if (entry == NONE) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        touch(entry);
+        return stringValues[entry];
+    }
+
+    public synchronized void putNumber(long numbers, String first, String second, long value) {
+        // A entrada é obtida antes de acessar o array, que pode ser trocado por um maior dentro do put
+        int entry = put(numbers, first, second);
+        numberValues[entry] = value;
+    }
+
+    public synchronized void putString(long numbers, String first, String second, String value) {
+        if (value != null) {
+            int entry = put(numbers, first, second);
+            stringValues[entry] = value;
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Quantidade de resultados descartados por o cache estar cheio.
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Fração das buscas que encontraram o resultado (0 se nenhuma busca foi feita).
+     */
+    public synchronized double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Ex: fib: 89 acertos, 91 faltas (49,4% de acertos), 0 descartes, 91/10000 entradas
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d acertos, %d faltas (%.1f%% de acertos), %d descartes, %d/%d entradas",
+                name, hits, misses, hitRate() * 100, evictions, size, maxSize);
+    }
+
+    /**
+     * @return o número da entrada com os argumentos, que passa a ser a usada mais recentemente
+     */
+    private int put(long numbers, String first, String second) {
+        int hash = hash(numbers, first, second);
+        int entry = find(numbers, first, second, hash);
+
+        if (entry != NONE) {
+            touch(entry);
+            return entry;
+        }
+
+        if (size < maxSize) {
+            if (size == hashes.length) {
+                grow();
+            }
+            entry = size++;
+        } else {
+            entry = oldest;
+            unlink(entry);
+            removeFromTable(entry);
+            evictions++;
+        }
+
+        numberKeys[entry] = numbers;
+        firstKeys[entry] = first;
+        secondKeys[entry] = second;
+        hashes[entry] = hash;
+        stringValues[entry] = null;
+        linkNewest(entry);
+
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+
+        return entry;
+    }
+
+    private int find(long numbers, String first, String second, int hash) {
+        int slot = hash & mask;
+        int current;
+
+        while ((current = table[slot]) != 0) {
+            int entry = current - 1;
+            if (hashes[entry] == hash && numberKeys[entry] == numbers
+                    && Objects.equals(firstKeys[entry], first) && Objects.equals(secondKeys[entry], second)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return NONE;
+    }
+
+    private void touch(int entry) {
+        if (entry != newest) {
+            unlink(entry);
+            linkNewest(entry);
+        }
+    }
+
+    private void linkNewest(int entry) {
+        older[entry] = newest;
+        newer[entry] = NONE;
+
+        if (newest != NONE) {
+            newer[newest] = entry;
+        } else {
+            oldest = entry;
+        }
+        newest = entry;
+    }
+
+    private void unlink(int entry) {
+        if (older[entry] != NONE) {
+            newer[older[entry]] = newer[entry];
+        } else {
+            oldest = newer[entry];
+        }
+
+        if (newer[entry] != NONE) {
+            older[newer[entry]] = older[entry];
+        } else {
+            newest = older[entry];
+        }
+    }
+
+    /**
+     * Mesma remoção do {@link IntKeyMap}: move para a posição livre as entradas seguintes que não seriam mais
+     * encontradas, até chegar em uma posição vazia.
+     */
+    private void removeFromTable(int entry) {
+        int free = hashes[entry] & mask;
+        while (table[free] != entry + 1) {
+            free = (free + 1) & mask;
+        }
+
+        int slot = free;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int current = table[slot];
+
+            if (current == 0) {
+                table[free] = 0;
+                return;
+            }
+
+            int ideal = hashes[current - 1] & mask;
+            boolean reachable = free <= slot ? free < ideal && ideal <= slot : free < ideal || ideal <= slot;
+
+            if (!reachable) {
+                table[free] = current;
+                free = slot;
+            }
+        }
+    }
+
+    /**
+     * Dobra a quantidade de entradas (até o tamanho máximo) e refaz a tabela. Os números das entradas não mudam.
+     */
+    private void grow() {
+        long[] oldNumberKeys = numberKeys;
+        String[] oldFirstKeys = firstKeys;
+        String[] oldSecondKeys = secondKeys;
+        int[] oldHashes = hashes;
+        long[] oldNumberValues = numberValues;
+        String[] oldStringValues = stringValues;
+        int[] oldNewer = newer;
+        int[] oldOlder = older;
+
+        allocate((int) Math.min((long) hashes.length * 2, maxSize));
+
+        System.arraycopy(oldNumberKeys, 0, numberKeys, 0, size);
+        System.arraycopy(oldFirstKeys, 0, firstKeys, 0, size);
+        System.arraycopy(oldSecondKeys, 0, secondKeys, 0, size);
+        System.arraycopy(oldHashes, 0, hashes, 0, size);
+        System.arraycopy(oldNumberValues, 0, numberValues, 0, size);
+        System.arraycopy(oldStringValues, 0, stringValues, 0, size);
+        System.arraycopy(oldNewer, 0, newer, 0, size);
+        System.arraycopy(oldOlder, 0, older, 0, size);
+
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hashes[entry] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry + 1;
+        }
+    }
+
+    /**
+     * Arrays para a quantidade de entradas, com a tabela de pelo menos o dobro de posições (ocupação máxima de 50%).
+     */
+    private void allocate(int entries) {
+        numberKeys = new long[entries];
+        firstKeys = new String[entries];
+        secondKeys = new String[entries];
+        hashes = new int[entries];
+        numberValues = new long[entries];
+        stringValues = new String[entries];
+        newer = new int[entries];
+        older = new int[entries];
+
+        int capacity = Integer.highestOneBit(entries * 4 - 1);
+        table = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Argumentos próximos (ex: fib(30), fib(31)) diferem só nos bits baixos; os bits altos são misturados para
+     * espalhar as chaves pela tabela.
+     */
+    private static int hash(long numbers, String first, String second) {
+        long h = numbers * 0x9E3779B97F4A7C15L;
+        h = (h ^ Objects.hashCode(first)) * 0x9E3779B97F4A7C15L;
+        h = (h ^ Objects.hashCode(second)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
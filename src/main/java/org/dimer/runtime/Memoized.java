@@ -0,0 +1,21 @@
+package org.dimer.runtime;
+
+import java.util.List;
+
+/**
+ * Implementada pelas classes geradas que têm métodos 'memo', para consultar as estatísticas dos caches de uma
+ * instância durante ou depois da execução:
+ * <pre>
+ *     Object programa = classe.getConstructor().newInstance();
+ *     if (programa instanceof Memoized memoized) {
+ *         memoized.memoCaches().forEach(System.out::println);
+ *     }
+ * </pre>
+ */
+public interface Memoized {
+
+    /**
+     * Cache de cada método 'memo' da instância, na ordem de declaração dos métodos.
+     */
+    List<MemoCache> memoCaches();
+}
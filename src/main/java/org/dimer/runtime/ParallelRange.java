@@ -0,0 +1,72 @@
+package org.dimer.runtime;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runtime do laço 'parallel' da linguagem. O intervalo é dividido recursivamente ao meio no ForkJoinPool comum
+ * até trechos de tamanho proporcional à quantidade de threads. Cada trecho roda com seu próprio acumulador, e os acumuladores são
+ * combinados dois a dois no join. Só o código que chamou o laço escreve o resultado final.
+ */
+public final class ParallelRange {
+
+    // Trechos por thread: mais de um por thread deixa o work-stealing equilibrar iterações de custo desigual
+    private static final int CHUNKS_PER_THREAD = 8;
+
+    private ParallelRange() {
+    }
+
+    /**
+     * Chamado pelo bytecode gerado para o laço 'parallel'.
+     *
+     * @param result reduções já com o valor das variáveis antes do laço, combinado com o resultado das iterações
+     * @return o próprio result, para que o bytecode gerado possa ler as reduções sem usar uma variável local
+     */
+    public static Reduction forRange(Reduction result, int from, int to, RangeBody body) {
+        if (from >= to) {
+            return result;
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        long size = (long) to - from;
+        int grain = (int) Math.max(1, size / ((long) pool.getParallelism() * CHUNKS_PER_THREAD));
+
+        result.merge(pool.invoke(new RangeTask(result, from, to, grain, body)));
+        return result;
+    }
+
+    private static final class RangeTask extends RecursiveTask<Reduction> {
+
+        private final Reduction prototype;
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeBody body;
+
+        RangeTask(Reduction prototype, int from, int to, int grain, RangeBody body) {
+            this.prototype = prototype;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected Reduction compute() {
+            if (to - from <= grain) {
+                Reduction accumulator = prototype.newAccumulator();
+                body.run(from, to, accumulator);
+                return accumulator;
+            }
+
+            int middle = (int) (((long) from + to) >>> 1);
+            RangeTask left = new RangeTask(prototype, from, middle, grain, body);
+            RangeTask right = new RangeTask(prototype, middle, to, grain, body);
+
+            left.fork();
+            Reduction accumulator = right.compute();
+            accumulator.merge(left.join());
+            return accumulator;
+        }
+    }
+}
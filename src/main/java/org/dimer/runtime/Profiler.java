@@ -0,0 +1,154 @@
+package org.dimer.runtime;
+
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runtime dos contadores injetados pelo compilador com a opção --profile.
+ * <p>
+ * Cada classe compilada registra seus pontos de medição no inicializador estático e recebe um array de longs
+ * dividido em {@link #STRIPES} faixas, guardado em um campo estático da própria classe. Cada thread incrementa
+ * apenas a faixa escolhida pelo seu id, sem CAS nem lock: o custo de um ponto de medição fica em poucos
+ * nanossegundos e threads diferentes não disputam a mesma linha de cache. Em troca, duas threads que caírem na
+ * mesma faixa ao mesmo tempo podem perder incrementos, o que é aceitável para um relatório de pontos quentes.
+ * <p>
+ * O registro guarda a classe por uma {@link WeakReference}: quando a classe é descarregada (ex: uma geração antiga do
+ * modo watch), as contagens dela são somadas às dos pontos de mesmo nome e o registro é descartado, então recarregar
+ * a mesma classe muitas vezes não acumula registros. O relatório soma os pontos de mesmo nome de todas as gerações.
+ * <p>
+ * Ao final da execução (shutdown hook), é impresso em System.err um relatório ordenado pelos pontos mais executados.
+ */
+public final class Profiler {
+
+    private static final int STRIPES = 8;
+    private static final int STRIPE_MASK = STRIPES - 1;
+    // Espaço extra entre as faixas para que faixas vizinhas não compartilhem linha de cache (64 bytes = 8 longs)
+    private static final int STRIPE_PADDING = 8;
+
+    private static final List<Registration> REGISTRATIONS = new ArrayList<>();
+    // Contagens das classes já descarregadas, por nome do ponto de medição
+    private static final Map<String, Long> UNLOADED_COUNTS = new LinkedHashMap<>();
+    private static boolean hookInstalled = false;
+
+    private record Registration(WeakReference<Class<?>> owner, String[] names, long[] counters) {
+
+        long count(int index) {
+            int stride = counters.length / STRIPES;
+            long sum = 0;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                sum += counters[stripe * stride + index];
+            }
+            return sum;
+        }
+
+        void addCounts(Map<String, Long> counts) {
+            for (int i = 0; i < names.length; i++) {
+                counts.merge(names[i], count(i), Long::sum);
+            }
+        }
+    }
+
+    private Profiler() {
+    }
+
+    /**
+     * Chamado pelo inicializador estático das classes compiladas com --profile.
+     *
+     * @param owner  classe que contém os pontos de medição
+     * @param probes nomes dos pontos de medição, na ordem dos índices usados no bytecode
+     */
+    public static synchronized long[] register(Class<?> owner, String[] probes) {
+        removeUnloaded();
+
+        int stride = probes.length + STRIPE_PADDING;
+        long[] counters = new long[stride * STRIPES];
+
+        String[] names = new String[probes.length];
+        for (int i = 0; i < probes.length; i++) {
+            names[i] = owner.getName() + "." + probes[i];
+        }
+        REGISTRATIONS.add(new Registration(new WeakReference<>(owner), names, counters));
+
+        if (!hookInstalled) {
+            Runtime.getRuntime().addShutdownHook(newReportThread());
+            hookInstalled = true;
+        }
+
+        return counters;
+    }
+
+    /**
+     * Thread do relatório final. É criada em um bloco privilegiado porque uma thread guarda o contexto de acesso de
+     * quem a criou, e register é chamado pelo inicializador estático da classe gerada: sem isso, a thread do shutdown
+     * hook manteria o ClassLoader da primeira classe registrada vivo até o fim da JVM.
+     */
+    @SuppressWarnings("removal")
+    private static Thread newReportThread() {
+        return AccessController.doPrivileged((PrivilegedAction<Thread>) () ->
+                new Thread(() -> report(System.err), "simplelang-profiler"));
+    }
+
+    /**
+     * Chamado em cada ponto de medição do bytecode gerado.
+     */
+    public static void increment(long[] counters, int probe) {
+        int stripe = (int) Thread.currentThread().threadId() & STRIPE_MASK;
+        counters[stripe * (counters.length / STRIPES) + probe]++;
+    }
+
+    public static synchronized void report(PrintStream out) {
+        removeUnloaded();
+
+        Map<String, Long> counts = new LinkedHashMap<>(UNLOADED_COUNTS);
+        for (Registration registration : REGISTRATIONS) {
+            registration.addCounts(counts);
+        }
+
+        List<Map.Entry<String, Long>> probes = new ArrayList<>(counts.entrySet());
+        probes.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        long total = probes.stream().mapToLong(Map.Entry::getValue).sum();
+
+        out.println("------------------ SimpleLang profile ------------------");
+        out.printf("%14s %7s  %s%n", "execuções", "%", "ponto");
+
+        for (Map.Entry<String, Long> probe : probes) {
+            long count = probe.getValue();
+            if (count == 0) {
+                continue;
+            }
+            out.printf("%14d %6.2f%%  %s%n", count, total == 0 ? 0.0 : count * 100.0 / total, probe.getKey());
+        }
+
+        out.println("--------------------------------------------------------");
+    }
+
+    /**
+     * Quantidade de classes registradas que ainda não foram descarregadas.
+     */
+    static synchronized int registeredClasses() {
+        removeUnloaded();
+        return REGISTRATIONS.size();
+    }
+
+    // Guarda as contagens das classes descarregadas e descarta os registros delas
+    private static void removeUnloaded() {
+        Iterator<Registration> registrations = REGISTRATIONS.iterator();
+
+        while (registrations.hasNext()) {
+            Registration registration = registrations.next();
+
+            if (registration.owner().get() == null) {
+                registration.addCounts(UNLOADED_COUNTS);
+                registrations.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.dimer.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Executa várias instâncias de um programa compilado ao mesmo tempo na mesma JVM, cada uma em sua própria virtual
+ * thread e com seu próprio {@link IoContext} em memória: a entrada vem de uma string e a saída é devolvida em outra.
+ * Como o código gerado não usa System.in nem System.out, as instâncias não interferem umas nas outras.
+ * <p>
+ * A falha de uma instância não interrompe as demais, e fica registrada apenas no {@link Result} dela.
+ */
+public final class ProgramRunner {
+
+    private final Constructor<?> constructor;
+
+    /**
+     * Saída impressa pela instância e a exceção que a interrompeu (null se terminou normalmente).
+     */
+    public record Result(String output, Throwable error) {
+    }
+
+    /**
+     * @param programClass classe gerada pelo compilador, com o construtor que recebe o {@link IoContext}
+     */
+    public ProgramRunner(Class<?> programClass) {
+        try {
+            this.constructor = programClass.getConstructor(IoContext.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(programClass.getName() + " não é uma classe gerada pelo compilador SimpleLang", e);
+        }
+    }
+
+    /**
+     * Executa uma instância na thread atual.
+     */
+    public Result run(String input) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(output, false, StandardCharsets.UTF_8);
+        Throwable error = null;
+
+        try {
+            constructor.newInstance(new IoContext(new StringReader(input), out));
+        } catch (InvocationTargetException e) {
+            error = e.getCause();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+
+        out.flush();
+        return new Result(output.toString(StandardCharsets.UTF_8), error);
+    }
+
+    /**
+     * Executa uma instância para cada entrada, todas ao mesmo tempo, e espera todas terminarem.
+     *
+     * @return o resultado de cada instância, na ordem das entradas
+     */
+    public List<Result> runAll(List<String> inputs) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result>> futures = new ArrayList<>(inputs.size());
+            for (String input : inputs) {
+                futures.add(executor.submit(() -> run(input)));
+            }
+
+            List<Result> results = new ArrayList<>(inputs.size());
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Execução das instâncias interrompida", e);
+        } catch (ExecutionException e) {
+            // run só lança exceções se a classe não puder ser instanciada
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.dimer.runtime;
+
+/**
+ * Corpo de um laço 'parallel' compilado: executa as iterações do intervalo [from, to) acumulando as reduções
+ * no acumulador recebido, que pertence apenas a esse trecho do intervalo.
+ */
+@FunctionalInterface
+public interface RangeBody {
+
+    void run(int from, int to, Reduction accumulator);
+}
@@ -0,0 +1,81 @@
+package org.dimer.runtime;
+
+/**
+ * Valores das variáveis de redução de um laço 'parallel'. Os slots inteiros e float são indexados separadamente
+ * e cada slot tem sua operação, representada por um caractere: '+' (sum), '<' (min) ou '>' (max).
+ * <p>
+ * Cada trecho do intervalo recebe um acumulador próprio iniciado com o elemento neutro das operações, então as
+ * threads nunca escrevem no mesmo objeto. Os acumuladores são combinados com {@link #merge} ao final.
+ */
+public final class Reduction {
+
+    public static final char SUM = '+';
+    public static final char MIN = '<';
+    public static final char MAX = '>';
+
+    private final String intOperations;
+    private final String floatOperations;
+    private final int[] ints;
+    private final float[] floats;
+
+    public Reduction(String intOperations, String floatOperations) {
+        this.intOperations = intOperations;
+        this.floatOperations = floatOperations;
+        this.ints = new int[intOperations.length()];
+        this.floats = new float[floatOperations.length()];
+
+        for (int slot = 0; slot < ints.length; slot++) {
+            ints[slot] = switch (intOperations.charAt(slot)) {
+                case MIN -> Integer.MAX_VALUE;
+                case MAX -> Integer.MIN_VALUE;
+                default -> 0;
+            };
+        }
+
+        for (int slot = 0; slot < floats.length; slot++) {
+            floats[slot] = switch (floatOperations.charAt(slot)) {
+                case MIN -> Float.POSITIVE_INFINITY;
+                case MAX -> Float.NEGATIVE_INFINITY;
+                default -> 0f;
+            };
+        }
+    }
+
+    public int getInt(int slot) {
+        return ints[slot];
+    }
+
+    public void setInt(int slot, int value) {
+        ints[slot] = value;
+    }
+
+    public float getFloat(int slot) {
+        return floats[slot];
+    }
+
+    public void setFloat(int slot, float value) {
+        floats[slot] = value;
+    }
+
+    Reduction newAccumulator() {
+        return new Reduction(intOperations, floatOperations);
+    }
+
+    void merge(Reduction other) {
+        for (int slot = 0; slot < ints.length; slot++) {
+            ints[slot] = switch (intOperations.charAt(slot)) {
+                case MIN -> Math.min(ints[slot], other.ints[slot]);
+                case MAX -> Math.max(ints[slot], other.ints[slot]);
+                default -> ints[slot] + other.ints[slot];
+            };
+        }
+
+        for (int slot = 0; slot < floats.length; slot++) {
+            floats[slot] = switch (floatOperations.charAt(slot)) {
+                case MIN -> Math.min(floats[slot], other.floats[slot]);
+                case MAX -> Math.max(floats[slot], other.floats[slot]);
+                default -> floats[slot] + other.floats[slot];
+            };
+        }
+    }
+}
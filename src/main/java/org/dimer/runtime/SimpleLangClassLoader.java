@@ -0,0 +1,19 @@
+package org.dimer.runtime;
+
+import org.dimer.compiler.data.CompiledClass;
+
+/**
+ * ClassLoader para carregar classes compiladas em memória, sem passar pelo disco.
+ * Cada instância define suas próprias classes, então descartar o loader permite que a classe seja descarregada.
+ */
+public class SimpleLangClassLoader extends ClassLoader {
+
+    public SimpleLangClassLoader() {
+        super(SimpleLangClassLoader.class.getClassLoader());
+    }
+
+    public Class<?> define(CompiledClass compiledClass) {
+        byte[] bytecode = compiledClass.bytecode();
+        return defineClass(compiledClass.binaryName(), bytecode, 0, bytecode.length);
+    }
+}
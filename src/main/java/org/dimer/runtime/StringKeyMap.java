@@ -0,0 +1,239 @@
+package org.dimer.runtime;
+
+/**
+ * Map com chaves string usado pelas variáveis 'map&lt;string,...&gt;' dos programas. Mesma tabela do
+ * {@link IntKeyMap}, com as chaves em um String[] e os valores em um int[] (int, ou os bits de um float) ou em um
+ * String[]. O hash de cada chave também fica guardado em um int[], onde 0 marca a posição livre: as buscas percorrem
+ * só esse array e leem a String apenas quando os hashes são iguais, e o rehash não precisa ler as Strings.
+ * <p>
+ * Buscar uma chave que não existe devolve o valor padrão do tipo (0, 0.0 ou null). A chave não pode ser null: o
+ * código gerado verifica as chaves antes da chamada, com um erro que indica a linha do programa. Não é thread-safe.
+ */
+public final class StringKeyMap {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int valueKind;
+    private String[] keys;
+    private int[] hashes;
+    private int[] values;
+    private String[] strings;
+    private int size;
+    private int mask;
+    private int threshold;
+
+    /**
+     * @param valueKind {@link IntKeyMap#INT_VALUES}, {@link IntKeyMap#FLOAT_VALUES} ou {@link IntKeyMap#STRING_VALUES}
+     */
+    public StringKeyMap(int valueKind) {
+        this.valueKind = valueKind;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String key) {
+        return find(key) >= 0;
+    }
+
+    public int getInt(String key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    public float getFloat(String key) {
+        int slot = find(key);
+        return slot >= 0 ? Float.intBitsToFloat(values[slot]) : 0f;
+    }
+
+    public String getString(String key) {
+        int slot = find(key);
+        return slot >= 0 ? strings[slot] : null;
+    }
+
+    public void putInt(String key, int value) {
+        int slot = insert(key);
+        values[slot] = value;
+    }
+
+    public void putFloat(String key, float value) {
+        int slot = insert(key);
+        values[slot] = Float.floatToRawIntBits(value);
+    }
+
+    public void putString(String key, String value) {
+        int slot = insert(key);
+        strings[slot] = value;
+    }
+
+    public void remove(String key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+
+        size--;
+        shiftKeys(slot);
+    }
+
+    /**
+     * @return a posição da chave, ou -(posição onde ela seria inserida) - 1
+     */
+    private int find(String key) {
+        int hash = hash(key);
+        int slot = hash & mask;
+        int current;
+
+        while ((current = hashes[slot]) != 0) {
+            if (current == hash && key.equals(keys[slot])) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -slot - 1;
+    }
+
+    /**
+     * @return a posição da chave, inserida com o valor padrão caso ainda não exista
+     */
+    private int insert(String key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return slot;
+        }
+
+        slot = -slot - 1;
+        keys[slot] = key;
+        hashes[slot] = hash(key);
+
+        if (++size > threshold) {
+            rehash(keys.length * 2);
+            return find(key);
+        }
+
+        return slot;
+    }
+
+    /**
+     * Mesma remoção do {@link IntKeyMap}: move para a posição livre as chaves seguintes que não seriam mais
+     * encontradas, até chegar em uma posição vazia.
+     */
+    private void shiftKeys(int free) {
+        int slot = free;
+
+        while (true) {
+            slot = (slot + 1) & mask;
+            int current = hashes[slot];
+
+            if (current == 0) {
+                keys[free] = null;
+                hashes[free] = 0;
+                clearValue(free);
+                return;
+            }
+
+            int ideal = current & mask;
+            boolean reachable = free <= slot ? free < ideal && ideal <= slot : free < ideal || ideal <= slot;
+
+            if (!reachable) {
+                keys[free] = keys[slot];
+                hashes[free] = current;
+                copyValue(values, strings, slot, free);
+                free = slot;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldValues = values;
+        String[] oldStrings = strings;
+
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            String key = oldKeys[i];
+            if (key == null) {
+                continue;
+            }
+
+            int slot = oldHashes[i] & mask;
+            while (hashes[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = key;
+            hashes[slot] = oldHashes[i];
+            copyValue(oldValues, oldStrings, i, slot);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        if (valueKind == IntKeyMap.STRING_VALUES) {
+            strings = new String[capacity];
+        } else {
+            values = new int[capacity];
+        }
+        mask = capacity - 1;
+        threshold = capacity * 3 / 4;
+    }
+
+    private void copyValue(int[] fromValues, String[] fromStrings, int from, int to) {
+        if (valueKind == IntKeyMap.STRING_VALUES) {
+            strings[to] = fromStrings[from];
+        } else {
+            values[to] = fromValues[from];
+        }
+    }
+
+    private void clearValue(int slot) {
+        if (valueKind == IntKeyMap.STRING_VALUES) {
+            strings[slot] = null;
+        } else {
+            values[slot] = 0;
+        }
+    }
+
+    /**
+     * O hashCode de strings parecidas (ex: "chave1", "chave2") difere só nos bits baixos; os bits altos são
+     * misturados para espalhar as chaves pela tabela. Nunca devolve 0, que marca a posição livre.
+     */
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h != 0 ? h : 1;
+    }
+
+    /**
+     * Entradas na ordem das posições da tabela, ex: {a=1, b=2}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == null) {
+                continue;
+            }
+
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+
+            builder.append(keys[slot]).append('=');
+            switch (valueKind) {
+                case IntKeyMap.INT_VALUES -> builder.append(values[slot]);
+                case IntKeyMap.FLOAT_VALUES -> builder.append(Float.intBitsToFloat(values[slot]));
+                default -> builder.append(strings[slot]);
+            }
+        }
+
+        return builder.append('}').toString();
+    }
+}
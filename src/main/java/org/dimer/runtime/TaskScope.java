@@ -0,0 +1,87 @@
+package org.dimer.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runtime do bloco 'concurrent' da linguagem. Cada tarefa roda em sua própria virtual thread, então tarefas
+ * bloqueadas em I/O não ocupam threads de plataforma e podem se sobrepor.
+ * <p>
+ * A execução é estruturada: {@link #runAll} só retorna depois que todas as tarefas terminaram, e a primeira
+ * tarefa que falhar cancela (interrompe) as demais e tem sua exceção relançada para o código que abriu o bloco.
+ * É o mesmo comportamento do StructuredTaskScope.ShutdownOnFailure, que no Java 21 ainda é preview.
+ */
+public final class TaskScope {
+
+    private TaskScope() {
+    }
+
+    /**
+     * Chamado pelo bytecode gerado para o bloco 'concurrent'.
+     *
+     * @param tasks {@link Callable} para métodos com retorno e {@link Runnable} para métodos void,
+     *              na ordem dos spawns do bloco
+     * @return o resultado de cada tarefa, na mesma ordem (null para as tarefas void)
+     */
+    public static Object[] runAll(Object[] tasks) {
+        Object[] results = new Object[tasks.length];
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+            List<Future<Object>> futures = new ArrayList<>(tasks.length);
+
+            for (Object task : tasks) {
+                futures.add(completion.submit(toCallable(task)));
+            }
+
+            try {
+                // Aguarda na ordem de término, para que uma falha seja percebida assim que acontecer
+                for (int i = 0; i < tasks.length; i++) {
+                    completion.take().get();
+                }
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw rethrow(e.getCause());
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Bloco concurrent interrompido", e);
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                results[i] = futures.get(i).resultNow();
+            }
+        }
+
+        return results;
+    }
+
+    private static Callable<Object> toCallable(Object task) {
+        if (task instanceof Callable<?> callable) {
+            return callable::call;
+        }
+
+        Runnable runnable = (Runnable) task;
+        return () -> {
+            runnable.run();
+            return null;
+        };
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
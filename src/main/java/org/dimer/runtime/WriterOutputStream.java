@@ -0,0 +1,76 @@
+package org.dimer.runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * OutputStream que decodifica os bytes UTF-8 recebidos e escreve os caracteres em um Writer, usado quando a saída
+ * de uma instância é um Writer ({@link IoContext#IoContext(java.io.Reader, Writer)}). Um caractere dividido entre
+ * duas escritas fica guardado até a escrita seguinte. O Writer não é fechado: ele pertence a quem criou o contexto.
+ */
+final class WriterOutputStream extends OutputStream {
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private final Writer writer;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+    WriterOutputStream(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int offset, int length) throws IOException {
+        while (length > 0) {
+            int count = Math.min(length, bytes.remaining());
+            bytes.put(b, offset, count);
+            offset += count;
+            length -= count;
+            decode();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * Escreve os caracteres completos do buffer e mantém no início dele os bytes de um caractere incompleto.
+     */
+    private void decode() throws IOException {
+        bytes.flip();
+
+        while (true) {
+            boolean full = decoder.decode(bytes, chars, false).isOverflow();
+            writer.write(chars.array(), 0, chars.position());
+            chars.clear();
+
+            if (!full) {
+                break;
+            }
+        }
+
+        bytes.compact();
+    }
+}
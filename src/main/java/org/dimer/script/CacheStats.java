@@ -0,0 +1,15 @@
+package org.dimer.script;
+
+/**
+ * Métricas do cache de scripts compilados.
+ *
+ * @param entries quantidade de classes atualmente no cache
+ * @param bytes   soma do tamanho do bytecode das classes no cache
+ */
+public record CacheStats(long hits, long misses, long evictions, int entries, long bytes) {
+
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,112 @@
+package org.dimer.script;
+
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache LRU das classes compiladas pelo {@link SimpleLangScriptEngine}, indexado pelo hash SHA-256 do código-fonte
+ * e limitado tanto em quantidade de classes quanto no total de bytes de bytecode.
+ * <p>
+ * Cada classe é carregada em seu próprio {@link SimpleLangClassLoader} e o cache é o único dono da referência:
+ * ao ser removida do cache, a classe pode ser descarregada assim que nenhum {@link javax.script.CompiledScript}
+ * ainda em uso apontar para ela, então o cache não acumula classes no Metaspace.
+ */
+public class CompiledScriptCache {
+
+    private static final String SCRIPT_PACKAGE = "org/dimer/script/generated";
+
+    private final SimpleLangCompiler compiler;
+    private final int maxEntries;
+    private final long maxBytes;
+    // LinkedHashMap em ordem de acesso: o primeiro elemento é sempre o menos usado recentemente
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry(Class<?> programClass, int size) {
+    }
+
+    public CompiledScriptCache(SimpleLangCompiler compiler, int maxEntries, long maxBytes) {
+        this.compiler = compiler;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Retorna a classe compilada para o código-fonte, compilando e carregando caso ainda não esteja no cache.
+     * A compilação é feita fora do lock; se duas threads compilarem o mesmo código ao mesmo tempo,
+     * a primeira a terminar é mantida.
+     */
+    public Class<?> get(String source) {
+        String key = hash(source);
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits.increment();
+                return entry.programClass();
+            }
+        }
+
+        misses.increment();
+
+        CompiledClass compiledClass = compiler.compile(source, SCRIPT_PACKAGE);
+        Class<?> programClass = new SimpleLangClassLoader().define(compiledClass);
+
+        synchronized (this) {
+            Entry existing = entries.putIfAbsent(key, new Entry(programClass, compiledClass.bytecode().length));
+            if (existing != null) {
+                return existing.programClass();
+            }
+
+            bytes += compiledClass.bytecode().length;
+            evict();
+        }
+
+        return programClass;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), bytes);
+    }
+
+    public synchronized void clear() {
+        evictions.add(entries.size());
+        entries.clear();
+        bytes = 0;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+
+        // Sempre mantém ao menos a classe recém inserida, mesmo que sozinha ela passe do limite de bytes
+        while ((entries.size() > maxEntries || bytes > maxBytes) && entries.size() > 1) {
+            Entry evicted = iterator.next().getValue();
+            iterator.remove();
+            bytes -= evicted.size();
+            evictions.increment();
+        }
+    }
+
+    private static String hash(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+}
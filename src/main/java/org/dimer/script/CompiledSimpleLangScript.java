@@ -0,0 +1,57 @@
+package org.dimer.script;
+
+import org.dimer.runtime.IoContext;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Script SimpleLang já compilado. Cada eval cria uma nova instância da classe, executando o bloco init,
+ * e retorna essa instância. Os comandos read e print da instância usam o reader e o writer do contexto.
+ */
+public class CompiledSimpleLangScript extends CompiledScript {
+
+    private final SimpleLangScriptEngine engine;
+    private final Constructor<?> constructor;
+
+    CompiledSimpleLangScript(SimpleLangScriptEngine engine, Class<?> programClass) throws ScriptException {
+        this.engine = engine;
+
+        try {
+            this.constructor = programClass.getConstructor(IoContext.class);
+        } catch (NoSuchMethodException e) {
+            ScriptException scriptException = new ScriptException(e.getMessage());
+            scriptException.initCause(e);
+            throw scriptException;
+        }
+    }
+
+    @Override
+    public Object eval(ScriptContext context) throws ScriptException {
+        IoContext io = new IoContext(context.getReader(), context.getWriter());
+
+        try {
+            return constructor.newInstance(io);
+        } catch (InvocationTargetException e) {
+            ScriptException scriptException = new ScriptException("Erro ao executar " + constructor.getDeclaringClass().getSimpleName() + ": " + e.getCause());
+            scriptException.initCause(e.getCause());
+            throw scriptException;
+        } catch (ReflectiveOperationException e) {
+            ScriptException scriptException = new ScriptException(e.getMessage());
+            scriptException.initCause(e);
+            throw scriptException;
+        } finally {
+            // A saída pode ter sido trocada por um bloco write, mas ele sempre volta para a do contexto ao terminar
+            io.out().flush();
+        }
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+        return engine;
+    }
+}
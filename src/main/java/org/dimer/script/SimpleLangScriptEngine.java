@@ -0,0 +1,78 @@
+package org.dimer.script;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+
+/**
+ * ScriptEngine (JSR-223) da SimpleLang. Os scripts são programas completos (com 'class', 'var', 'methods' e 'init'),
+ * compilados para bytecode em memória e guardados no {@link CompiledScriptCache} da factory: avaliar o mesmo
+ * código várias vezes compila apenas na primeira.
+ * <p>
+ * A linguagem não tem variáveis globais, então os bindings do contexto não são visíveis para o script. Cada eval
+ * lê e escreve pelo reader e pelo writer do contexto, então a saída de cada script pode ser capturada separadamente.
+ */
+public class SimpleLangScriptEngine extends AbstractScriptEngine implements Compilable {
+
+    private final SimpleLangScriptEngineFactory factory;
+
+    SimpleLangScriptEngine(SimpleLangScriptEngineFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        return compile(script).eval(context);
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        return eval(readAll(reader), context);
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+        try {
+            return new CompiledSimpleLangScript(this, factory.cache().get(script));
+        } catch (RuntimeException e) {
+            ScriptException scriptException = new ScriptException(e.getMessage());
+            scriptException.initCause(e);
+            throw scriptException;
+        }
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+        return compile(readAll(script));
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+
+    private static String readAll(Reader reader) throws ScriptException {
+        try {
+            StringWriter writer = new StringWriter();
+            reader.transferTo(writer);
+            return writer.toString();
+        } catch (IOException e) {
+            ScriptException scriptException = new ScriptException(e.getMessage());
+            scriptException.initCause(e);
+            throw scriptException;
+        }
+    }
+}
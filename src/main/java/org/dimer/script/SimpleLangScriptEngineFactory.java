@@ -0,0 +1,107 @@
+package org.dimer.script;
+
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.List;
+
+/**
+ * Factory registrada em META-INF/services, permitindo obter o engine com
+ * {@code new ScriptEngineManager().getEngineByName("simplelang")}.
+ * <p>
+ * Todos os engines criados pela mesma factory compartilham o cache de scripts compilados. Os limites do cache
+ * podem ser configurados pelas propriedades de sistema {@code simplelang.script.cache.entries} (padrão 256) e
+ * {@code simplelang.script.cache.bytes} (padrão 16MB).
+ */
+public class SimpleLangScriptEngineFactory implements ScriptEngineFactory {
+
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+    private static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private final CompiledScriptCache cache;
+
+    public SimpleLangScriptEngineFactory() {
+        this(Integer.getInteger("simplelang.script.cache.entries", DEFAULT_MAX_ENTRIES),
+                Long.getLong("simplelang.script.cache.bytes", DEFAULT_MAX_BYTES));
+    }
+
+    public SimpleLangScriptEngineFactory(int maxEntries, long maxBytes) {
+        // Scripts costumam ser pequenos: gerar os métodos em paralelo só adicionaria custo
+        SimpleLangCompiler compiler = new SimpleLangCompiler(CompilerOptions.defaults().withParallelism(1));
+        this.cache = new CompiledScriptCache(compiler, maxEntries, maxBytes);
+    }
+
+    public CompiledScriptCache cache() {
+        return cache;
+    }
+
+    @Override
+    public String getEngineName() {
+        return "SimpleLang";
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return "1.0";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of("sl");
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return List.of("text/x-simplelang");
+    }
+
+    @Override
+    public List<String> getNames() {
+        return List.of("simplelang", "SimpleLang");
+    }
+
+    @Override
+    public String getLanguageName() {
+        return "SimpleLang";
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return "1.0";
+    }
+
+    @Override
+    public Object getParameter(String key) {
+        return switch (key) {
+            case ScriptEngine.ENGINE -> getEngineName();
+            case ScriptEngine.ENGINE_VERSION -> getEngineVersion();
+            case ScriptEngine.LANGUAGE -> getLanguageName();
+            case ScriptEngine.LANGUAGE_VERSION -> getLanguageVersion();
+            case ScriptEngine.NAME -> getNames().getFirst();
+            default -> null;
+        };
+    }
+
+    @Override
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        return m + "(" + String.join(", ", args) + ")";
+    }
+
+    @Override
+    public String getOutputStatement(String toDisplay) {
+        return "print(\"" + toDisplay.replace("\"", "'") + "\");";
+    }
+
+    @Override
+    public String getProgram(String... statements) {
+        return "class Script {\n    var {\n    }\n\n    methods {\n    }\n\n    init {\n        "
+                + String.join("\n        ", statements) + "\n    }\n}\n";
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        return new SimpleLangScriptEngine(this);
+    }
+}
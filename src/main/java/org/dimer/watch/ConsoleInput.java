@@ -0,0 +1,110 @@
+package org.dimer.watch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Entrada do console compartilhada pelas gerações do modo watch. Uma única thread lê o console e entrega cada
+ * linha para a geração mais recente; cada geração lê por um {@link Reader} próprio. Ao fechar o reader de uma
+ * geração, uma leitura bloqueada nele termina com fim de entrada, então a geração antiga não fica presa esperando
+ * o console (nem compete com a nova pelas linhas digitadas).
+ */
+final class ConsoleInput {
+
+    // Marcador de fim da entrada, comparado pela referência
+    private static final String END = new String("fim");
+
+    private final InputStream console;
+    private volatile GenerationReader current;
+    private Thread pump;
+    private boolean consoleEnded;
+
+    ConsoleInput(InputStream console) {
+        this.console = console;
+    }
+
+    /**
+     * Reader da nova geração, que passa a receber as próximas linhas do console. O reader da geração anterior não
+     * é fechado aqui: isso é feito por quem a encerra.
+     */
+    synchronized Reader open() {
+        current = new GenerationReader();
+
+        if (consoleEnded) {
+            current.close();
+        } else if (pump == null) {
+            pump = Thread.ofPlatform().daemon().name("simplelang-watch-console").start(this::pump);
+        }
+
+        return current;
+    }
+
+    private void pump() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(console))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                current.lines.add(line + "\n");
+            }
+        } catch (IOException e) {
+            // O console foi fechado: as gerações recebem o fim da entrada abaixo
+        }
+
+        synchronized (this) {
+            consoleEnded = true;
+            current.close();
+        }
+    }
+
+    private static final class GenerationReader extends Reader {
+
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        private String line = "";
+        private int position;
+        private boolean ended;
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+
+            if (position == line.length()) {
+                if (ended) {
+                    return -1;
+                }
+
+                String next;
+                try {
+                    next = lines.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Leitura do console interrompida");
+                }
+
+                if (next == END) {
+                    ended = true;
+                    return -1;
+                }
+
+                line = next;
+                position = 0;
+            }
+
+            int count = Math.min(length, line.length() - position);
+            line.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            lines.add(END);
+        }
+    }
+}
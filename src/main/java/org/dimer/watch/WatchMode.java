@@ -0,0 +1,264 @@
+package org.dimer.watch;
+
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.runtime.IoContext;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Modo watch: observa um diretório e, a cada arquivo .sl alterado, recompila apenas esse arquivo em memória
+ * e executa a nova versão dentro da própria JVM, sem gerar .class e sem iniciar outra JVM.
+ * <p>
+ * Cada recompilação (geração) é carregada em um {@link SimpleLangClassLoader} novo. Nenhuma referência é mantida
+ * para gerações anteriores além de uma {@link WeakReference} usada apenas para informar quando o ClassLoader
+ * antigo foi coletado (e com ele a classe descarregada), de forma que editar o mesmo arquivo muitas vezes
+ * não acumula classes no Metaspace.
+ * <p>
+ * Antes de uma nova geração começar, a anterior do mesmo arquivo é encerrada: a thread dela é interrompida e a
+ * entrada dela é fechada ({@link ConsoleInput}), então uma geração parada em um read termina em vez de manter o
+ * ClassLoader carregado. Uma geração presa em um laço sem leitura continua até terminar o laço.
+ */
+public class WatchMode {
+
+    // Editores costumam gerar vários eventos seguidos para um único salvamento; eles são agrupados nessa janela
+    private static final long DEBOUNCE_MS = 30;
+
+    private final Path root;
+    private final SimpleLangCompiler compiler;
+    private final ReferenceQueue<ClassLoader> collectedGenerations = new ReferenceQueue<>();
+    // Mantém as WeakReferences vivas até que sejam enfileiradas
+    private final Set<Reference<ClassLoader>> pendingGenerations = new HashSet<>();
+    // Geração em execução de cada arquivo
+    private final Map<Path, Generation> running = new HashMap<>();
+    private final ConsoleInput console;
+    private int generation = 0;
+
+    public WatchMode(Path root, CompilerOptions options) {
+        this(root, options, System.in);
+    }
+
+    WatchMode(Path root, CompilerOptions options, InputStream console) {
+        this.root = root.toAbsolutePath().normalize();
+        this.compiler = new SimpleLangCompiler(options);
+        this.console = new ConsoleInput(console);
+    }
+
+    public void run() throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService();
+             Stream<Path> files = Files.walk(root)) {
+
+            for (Path path : files.toList()) {
+                if (Files.isDirectory(path)) {
+                    register(watchService, path);
+                } else if (isSource(path)) {
+                    reload(path, System.nanoTime());
+                }
+            }
+
+            System.out.println("Observando " + root + " (Ctrl+C para sair)");
+
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<Path> changed = new HashSet<>();
+                long detectedAt = System.nanoTime();
+
+                // Junta os eventos que chegarem logo em seguida, para compilar cada arquivo uma única vez
+                do {
+                    collectChanges(watchService, key, changed);
+                    key = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                for (Path path : changed) {
+                    reload(path, detectedAt);
+                }
+
+                reportCollectedGenerations();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Encerrado durante o shutdown da JVM
+        }
+    }
+
+    private void collectChanges(WatchService watchService, WatchKey key, Set<Path> changed) throws IOException {
+        Path directory = (Path) key.watchable();
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                register(watchService, path);
+            } else if (event.kind() != StandardWatchEventKinds.ENTRY_DELETE && isSource(path)) {
+                changed.add(path);
+            }
+        }
+
+        key.reset();
+    }
+
+    /**
+     * Recompila o arquivo e executa a nova geração em uma thread própria, já que o programa pode ficar
+     * bloqueado esperando entrada do console.
+     *
+     * @param detectedAt instante em que a alteração foi detectada, para medir a latência até a execução
+     */
+    void reload(Path path, long detectedAt) {
+        long start = System.nanoTime();
+        CompiledClass compiledClass;
+
+        try {
+            compiledClass = compiler.compile(Files.readString(path), packageOf(path));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[watch] Erro ao compilar " + root.relativize(path) + ": " + e.getMessage());
+            return;
+        }
+
+        long compiled = System.nanoTime();
+
+        SimpleLangClassLoader classLoader = new SimpleLangClassLoader();
+        Class<?> programClass;
+
+        try {
+            programClass = classLoader.define(compiledClass);
+        } catch (LinkageError e) {
+            System.err.println("[watch] Erro ao carregar " + compiledClass.binaryName() + ": " + e);
+            return;
+        }
+
+        int currentGeneration = ++generation;
+        pendingGenerations.add(new WeakReference<>(classLoader, collectedGenerations));
+
+        long loaded = System.nanoTime();
+
+        System.out.printf("[watch] %s geração %d: compilação %.1f ms, carga %.1f ms, alteração até execução %.1f ms%n",
+                compiledClass.binaryName(), currentGeneration, (compiled - start) / 1e6, (loaded - compiled) / 1e6,
+                (loaded - detectedAt) / 1e6);
+
+        Generation previous = running.remove(path);
+        if (previous != null) {
+            previous.stop();
+        }
+
+        Generation next = new Generation(currentGeneration, programClass, console.open());
+        next.thread = Thread.ofVirtual().name("simplelang-" + currentGeneration).unstarted(next);
+        running.put(path, next);
+        next.thread.start();
+    }
+
+    /**
+     * Quantidade de gerações cujo ClassLoader ainda não foi coletado.
+     */
+    int loadedGenerations() {
+        pollCollectedGenerations();
+        return pendingGenerations.size();
+    }
+
+    private void reportCollectedGenerations() {
+        int collected = pollCollectedGenerations();
+
+        if (collected > 0) {
+            System.out.printf("[watch] %d geração(ões) anterior(es) descarregada(s), %d ainda carregada(s)%n",
+                    collected, pendingGenerations.size());
+        }
+    }
+
+    private int pollCollectedGenerations() {
+        int collected = 0;
+        Reference<? extends ClassLoader> reference;
+
+        while ((reference = collectedGenerations.poll()) != null) {
+            pendingGenerations.remove(reference);
+            collected++;
+        }
+
+        return collected;
+    }
+
+    /**
+     * O pacote da classe é o caminho do arquivo relativo ao diretório observado (ex: code/Hello.sl -> code).
+     */
+    private String packageOf(Path path) {
+        Path parent = root.relativize(path).getParent();
+        return parent == null ? "" : parent.toString().replace('\\', '/');
+    }
+
+    private static void register(WatchService watchService, Path directory) throws IOException {
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    private static boolean isSource(Path path) {
+        return path.getFileName().toString().endsWith(".sl") && Files.isRegularFile(path);
+    }
+
+    /**
+     * Execução de uma geração. A referência para a classe do programa é descartada ao fim da execução: uma
+     * thread carrier do pool de virtual threads pode continuar referenciando a última tarefa executada, e com ela
+     * o ClassLoader.
+     */
+    private static final class Generation implements Runnable {
+
+        private final int number;
+        private final Reader input;
+        private Class<?> programClass;
+        private Thread thread;
+        private volatile boolean stopped;
+
+        private Generation(int number, Class<?> programClass, Reader input) {
+            this.number = number;
+            this.programClass = programClass;
+            this.input = input;
+        }
+
+        @Override
+        public void run() {
+            try {
+                programClass.getConstructor(IoContext.class).newInstance(new IoContext(input, System.out));
+            } catch (ReflectiveOperationException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                // Uma geração encerrada costuma terminar com erro na leitura da entrada fechada
+                if (!stopped) {
+                    System.err.println("[watch] Erro na execução da geração " + number + ": " + cause);
+                }
+            } finally {
+                programClass = null;
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+            thread.interrupt();
+
+            try {
+                input.close();
+            } catch (IOException e) {
+                // O reader da geração não lança exceções ao ser fechado
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.dimer;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.compiler.data.CompiledClass;
+import org.dimer.interpreter.SimpleLangInterpreter;
+import org.dimer.runtime.IoContext;
+import org.dimer.runtime.ProgramRunner;
+import org.dimer.runtime.SimpleLangClassLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compila e executa programas SimpleLang nos testes.
+ */
+public final class Programs {
+
+    private Programs() {
+    }
+
+    public static CompiledClass compile(String source, CompilerOptions options) {
+        return new SimpleLangCompiler(options).compile(source, "");
+    }
+
+    /**
+     * Compila o programa, executa uma instância com a entrada e devolve a saída. Erros de compilação, de verificação
+     * da classe e de execução são lançados.
+     */
+    public static String run(String source, CompilerOptions options, String input) throws Throwable {
+        Class<?> programClass = new SimpleLangClassLoader().define(compile(source, options));
+        ProgramRunner.Result result = new ProgramRunner(programClass).run(input);
+
+        if (result.error() != null) {
+            throw result.error();
+        }
+
+        return result.output();
+    }
+
+    public static String run(String source, CompilerOptions options) throws Throwable {
+        return run(source, options, "");
+    }
+
+    /**
+     * Executa o programa no interpretador e devolve a saída.
+     *
+     * @param hotThreshold limite para os métodos serem compilados (0 = nunca compilar)
+     */
+    public static String interpret(String source, int hotThreshold) {
+        SimpleLangCompiler compiler = new SimpleLangCompiler();
+        SimpleLangParser.ProgramContext tree = compiler.parse(CharStreams.fromString(source));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(output, false, StandardCharsets.UTF_8);
+        SimpleLangInterpreter interpreter = new SimpleLangInterpreter(SimpleLangCompiler.qualifiedClassName(tree, ""),
+                CompilerOptions.defaults(), hotThreshold, new IoContext(new StringReader(""), out));
+        interpreter.run(tree);
+
+        out.flush();
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
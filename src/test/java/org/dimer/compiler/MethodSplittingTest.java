@@ -0,0 +1,86 @@
+package org.dimer.compiler;
+
+import org.dimer.Programs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Programas executados com e sem a divisão de métodos grandes ({@link CompilerOptions#maxMethodSize()}): a saída
+ * deve ser a mesma para qualquer limite.
+ */
+class MethodSplittingTest {
+
+    private static final int[] LIMITS = {30, 60, 100, 200};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void variablesDeclaredBeforeTheSplitPoint() throws Throwable {
+        assertSameOutput("""
+                class Divisao {
+                    var {
+                    }
+
+                    methods {
+                    }
+
+                    init {
+                        int a = 1;
+                        int b = a + 2;
+                        print("a");
+                        int c = b * 3;
+                        print("b");
+                        print("" + a + " " + b + " " + c);
+                    }
+                }
+                """);
+    }
+
+    @Test
+    void fileLoopVariableReadAfterTheLoop() throws Throwable {
+        Path file = Files.writeString(dir.resolve("linhas.txt"), "um\ndois\n");
+        Path numbers = Files.writeString(dir.resolve("numeros.txt"), "1,2\n3\n");
+        Path output = dir.resolve("saida.txt");
+
+        assertSameOutput("""
+                class Arquivos {
+                    var {
+                    }
+
+                    methods {
+                    }
+
+                    init {
+                        string f = "%s";
+                        int n = 0;
+                        lines (string l : f) {
+                            n = n + 1;
+                        }
+                        print("b");
+                        print("" + l + " " + n);
+                        write ("%s") {
+                            fields (int v : "%s") {
+                                print(v);
+                            }
+                        }
+                        print("c");
+                        print("" + v);
+                    }
+                }
+                """.formatted(file, output, numbers));
+    }
+
+    private static void assertSameOutput(String source) throws Throwable {
+        String expected = Programs.run(source, CompilerOptions.defaults().withMaxMethodSize(0));
+
+        for (int limit : LIMITS) {
+            assertEquals(expected, Programs.run(source, CompilerOptions.defaults().withMaxMethodSize(limit)), "limite " + limit);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.dimer.compiler;
+
+import org.dimer.Programs;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tipo (int ou float) das expressões numéricas: cada expressão é calculada pelo tipo dos seus próprios operandos,
+ * sem depender das expressões anteriores do mesmo corpo. O compilador, em todos os níveis, e o interpretador
+ * devem aceitar os mesmos programas e imprimir o mesmo resultado.
+ */
+class NumericTypesTest {
+
+    @Test
+    void floatExpressionDoesNotChangeTheFollowingStatements() throws Throwable {
+        assertOutput("1.5 3 2.5 6.0 4.0\n", """
+                class Tipos {
+                    var {
+                    }
+
+                    methods {
+                    }
+
+                    init {
+                        int i = 1;
+                        float z = 0.5 + i;
+                        i = i + 1;
+                        map<int,float> f;
+                        int k = 3;
+                        f.put(k, 0.5 + i);
+                        i = i + 1;
+                        float w = 2 * (z + 1.5);
+                        float fs = 0.0;
+                        parallel (j = 0 .. 4) reduce (sum fs) {
+                            int d = j * 2;
+                            fs = fs + 1.0;
+                        }
+                        print("" + z + " " + i + " " + f.get(k) + " " + w + " " + fs);
+                    }
+                }
+                """);
+    }
+
+    @Test
+    void callArgumentsAreTypedOnTheirOwn() throws Throwable {
+        assertOutput("3.375\n", """
+                class Potencia {
+                    var {
+                    }
+
+                    methods {
+                        potencia(float base, int expoente): float {
+                            if (expoente == 0) {
+                                return 1.0;
+                            }
+                            return base * potencia(base, expoente - 1);
+                        }
+                    }
+
+                    init {
+                        print(potencia(1.5, 3));
+                    }
+                }
+                """);
+    }
+
+    static void assertOutput(String expected, String source) throws Throwable {
+        for (int level = 0; level <= 2; level++) {
+            assertEquals(expected, Programs.run(source, CompilerOptions.defaults().withOptimizationLevel(level)), "-O" + level);
+        }
+        assertEquals(expected, Programs.interpret(source, 0), "interpretador");
+    }
+}
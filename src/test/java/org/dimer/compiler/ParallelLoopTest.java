@@ -0,0 +1,37 @@
+package org.dimer.compiler;
+
+import org.dimer.Programs;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Programas do corpus com laços parallel, compilados em todos os níveis e executados no interpretador.
+ */
+class ParallelLoopTest {
+
+    private static final Path CORPUS = Path.of("src/main/java/org/dimer/benchmark/corpus");
+
+    @Test
+    void intReductions() throws Throwable {
+        assertOutput("PrimosParalelo.sl", "Primos encontrados: 2262\nMaior primo: 19997\n");
+    }
+
+    @Test
+    void floatMinAndMaxReductions() throws Throwable {
+        assertOutput("ExtremosParalelo.sl", "Menor medida: 0.0\nMaior medida: 48.0\nAcima da média: 9888\n");
+    }
+
+    private static void assertOutput(String program, String expected) throws Throwable {
+        String source = Files.readString(CORPUS.resolve(program));
+
+        for (int level = 0; level <= 2; level++) {
+            assertEquals(expected, Programs.run(source, CompilerOptions.defaults().withOptimizationLevel(level)), "-O" + level);
+        }
+        assertEquals(expected, Programs.interpret(source, 0), "interpretador");
+        assertEquals(expected, Programs.interpret(source, 1), "interpretador com compilação dos métodos quentes");
+    }
+}
@@ -0,0 +1,152 @@
+package org.dimer.compiler.lexer;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.dimer.SimpleLangLexer;
+import org.dimer.benchmark.ProgramGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Equivalência entre o {@link SimpleLangTokenSource} e o lexer gerado pelo ANTLR: tipo, posições e texto de cada
+ * token e os erros reportados devem ser os mesmos.
+ */
+class SimpleLangTokenSourceTest {
+
+    private static final String[] FRAGMENTS = {
+            "class", "var", "methods", "init", "return", "print", "read", "if", "else", "while", "int", "float",
+            "string", "void", "map", "and", "or", "concurrent", "spawn", "parallel", "reduce", "switch", "case", "default",
+            "memo", "lines", "fields", "write",
+            "classe", "x", "_a1", "Nome", "{", "}", "(", ")", ":", ";", ",", "=", "==", "!=", "!", ">", ">=", "<", "<=",
+            "+", "-", "*", "/", ".", "..", "...", "0", "42", "3.14", "1.", "1..5", "\"", "\"texto\"", "\"multi\nlinha\"",
+            "#", "##", "###", "# comentário", "## bloco ##", " ", "  ", "\t", "\n", "\r\n", "@", "$", "é", "😀"
+    };
+
+    @Test
+    void projectPrograms() throws IOException {
+        List<String> sources = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(Path.of("src/main"))) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".sl")).toList()) {
+                sources.add(Files.readString(file));
+            }
+        }
+
+        assertFalse(sources.isEmpty());
+        assertEquivalent(sources);
+    }
+
+    @Test
+    void generatedPrograms() {
+        List<String> sources = new ArrayList<>();
+        for (int seed = 0; seed < 20; seed++) {
+            sources.add(ProgramGenerator.generate("Gerado", ProgramGenerator.Config.defaults().withFields(5 + seed)));
+        }
+
+        assertEquivalent(sources);
+    }
+
+    /**
+     * Entradas aleatórias montadas a partir de fragmentos da gramática, incluindo casos inválidos como strings e
+     * comentários sem fechamento.
+     */
+    @Test
+    void randomInputs() {
+        Random random = new Random(7);
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            sources.add(fuzz(random));
+        }
+
+        assertEquivalent(sources);
+    }
+
+    private static void assertEquivalent(List<String> sources) {
+        List<String> differences = new ArrayList<>();
+
+        for (String source : sources) {
+            String difference = compare(source);
+            if (difference != null && differences.size() < 10) {
+                differences.add("entrada " + quote(source) + ": " + difference);
+            }
+        }
+
+        assertEquals(List.of(), differences);
+    }
+
+    private static String compare(String source) {
+        List<String> antlrErrors = new ArrayList<>();
+        List<String> manualErrors = new ArrayList<>();
+
+        SimpleLangLexer antlr = new SimpleLangLexer(CharStreams.fromString(source));
+        antlr.removeErrorListeners();
+        antlr.addErrorListener(collector(antlrErrors));
+
+        SimpleLangTokenSource manual = new SimpleLangTokenSource(CharStreams.fromString(source));
+        manual.setErrorListener(collector(manualErrors));
+
+        while (true) {
+            String expected = describe(antlr.nextToken());
+            String actual = describe(manual.nextToken());
+
+            if (!expected.equals(actual)) {
+                return "esperado " + expected + ", obtido " + actual;
+            }
+            if (expected.startsWith(Token.EOF + ":")) {
+                break;
+            }
+        }
+
+        if (!antlrErrors.equals(manualErrors)) {
+            return "erros esperados " + antlrErrors + ", obtidos " + manualErrors;
+        }
+        return null;
+    }
+
+    private static String describe(Token token) {
+        return token.getType() + ":" + token.getStartIndex() + "-" + token.getStopIndex() + "@" + token.getLine()
+                + ":" + token.getCharPositionInLine() + " " + quote(token.getText());
+    }
+
+    private static BaseErrorListener collector(List<String> errors) {
+        return new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                                    String msg, RecognitionException e) {
+                errors.add(line + ":" + charPositionInLine + " " + msg);
+            }
+        };
+    }
+
+    private static String fuzz(Random random) {
+        StringBuilder source = new StringBuilder();
+        int fragments = random.nextInt(30);
+
+        for (int i = 0; i < fragments; i++) {
+            if (random.nextInt(10) == 0) {
+                // Caractere ASCII qualquer, para cobrir combinações que os fragmentos não formam
+                source.append((char) (32 + random.nextInt(95)));
+            } else {
+                source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+        }
+
+        return source.toString();
+    }
+
+    private static String quote(String text) {
+        return text == null ? "null" : "'" + text.replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t") + "'";
+    }
+}
@@ -0,0 +1,72 @@
+package org.dimer.interpreter;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.dimer.Programs;
+import org.dimer.SimpleLangParser;
+import org.dimer.compiler.CompilerOptions;
+import org.dimer.compiler.SimpleLangCompiler;
+import org.dimer.runtime.IoContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O interpretador aceita os mesmos programas que o compilador: um método quente precisa passar a executar a versão
+ * compilada, com o mesmo resultado da execução interpretada e do programa compilado inteiro.
+ */
+class CompiledParityTest {
+
+    @Test
+    void hotMethodWithFloatComparison() throws Throwable {
+        String source = """
+                class Comparacoes {
+                    var {
+                        float limite = 50.0;
+                    }
+
+                    methods {
+                        abaixo(float v, int minimo): int {
+                            if (v < limite and minimo <= v) {
+                                return 1;
+                            }
+                            if (v >= 1000 or v == 49.5) {
+                                return 2;
+                            }
+                            return 0;
+                        }
+                    }
+
+                    init {
+                        int i = 0;
+                        int total = 0;
+                        float v = 0.0;
+                        while (i < 2000000) {
+                            total = total + abaixo(v, 10);
+                            v = v + 0.001;
+                            i = i + 1;
+                        }
+                        print(total);
+                    }
+                }
+                """;
+
+        SimpleLangParser.ProgramContext tree = new SimpleLangCompiler().parse(CharStreams.fromString(source));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(output, false, StandardCharsets.UTF_8);
+        SimpleLangInterpreter interpreter = new SimpleLangInterpreter("Comparacoes", CompilerOptions.defaults(), 1,
+                new IoContext(new StringReader(""), out));
+
+        interpreter.run(tree);
+        out.flush();
+
+        assertTrue(interpreter.compiledMethods().contains("abaixo"), "abaixo deveria ter sido compilado");
+        assertEquals(Programs.interpret(source, 0), output.toString(StandardCharsets.UTF_8));
+        assertEquals(Programs.run(source, CompilerOptions.defaults()), output.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,63 @@
+package org.dimer.runtime;
+
+import org.dimer.Programs;
+import org.dimer.compiler.CompilerOptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Registros do profiler de classes descarregadas: o registro é descartado, mas as contagens continuam no relatório.
+ */
+class ProfilerTest {
+
+    private static final String PROGRAM = """
+            class GeracoesProfile {
+                var {
+                }
+
+                methods {
+                }
+
+                init {
+                    int i = 0;
+                    while (i < 10) {
+                        i = i + 1;
+                    }
+                    print("" + i);
+                }
+            }
+            """;
+
+    @Test
+    void unloadedClassesKeepTheirCounts() throws Throwable {
+        CompilerOptions options = CompilerOptions.defaults().withProfile(true);
+        int registered = Profiler.registeredClasses();
+
+        // Cada execução carrega a classe em um ClassLoader novo, como as gerações do modo watch
+        for (int generation = 0; generation < 3; generation++) {
+            assertEquals("10\n", Programs.run(PROGRAM, options));
+        }
+
+        for (int i = 0; i < 100 && Profiler.registeredClasses() > registered; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        assertTrue(Profiler.registeredClasses() <= registered);
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        Profiler.report(new PrintStream(report, true, StandardCharsets.UTF_8));
+
+        // As três gerações aparecem somadas, em uma linha por ponto de medição
+        List<String> lines = report.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, lines.stream().filter(line -> line.matches(" *30 .* GeracoesProfile\\.init:while@10")).count());
+        assertEquals(1, lines.stream().filter(line -> line.matches(" *3 .* GeracoesProfile\\.init")).count());
+    }
+}
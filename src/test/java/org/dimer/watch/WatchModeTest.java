@@ -0,0 +1,57 @@
+package org.dimer.watch;
+
+import org.dimer.compiler.CompilerOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WatchModeTest {
+
+    private static final String PROGRAM = """
+            class Espera {
+                var {
+                }
+
+                methods {
+                }
+
+                init {
+                    string nome;
+                    read(nome);
+                    print("Olá " + nome);
+                }
+            }
+            """;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Uma geração parada esperando o console é encerrada pela seguinte, e o ClassLoader dela é coletado.
+     */
+    @Test
+    void generationWaitingForInputIsUnloaded() throws Exception {
+        Path source = Files.writeString(dir.resolve("Espera.sl"), PROGRAM);
+
+        try (PipedOutputStream keyboard = new PipedOutputStream();
+             PipedInputStream console = new PipedInputStream(keyboard)) {
+            WatchMode watch = new WatchMode(dir, CompilerOptions.defaults(), console);
+
+            watch.reload(source, System.nanoTime());
+            watch.reload(source, System.nanoTime());
+
+            for (int i = 0; i < 100 && watch.loadedGenerations() > 1; i++) {
+                System.gc();
+                Thread.sleep(50);
+            }
+
+            assertEquals(1, watch.loadedGenerations());
+        }
+    }
+}